@@ -0,0 +1,14 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para los distintos algoritmos disponibles para árboles
+ * generadores de peso mínimo.
+ */
+public enum AlgoritmoArbolGenerador {
+    /** Algoritmo de Prim, con un montículo mínimo. */
+    PRIM,
+    /** Algoritmo de Kruskal, con conjuntos disjuntos. */
+    KRUSKAL,
+    /** Algoritmo de Borůvka, que busca en paralelo las aristas mínimas. */
+    BORUVKA;
+}
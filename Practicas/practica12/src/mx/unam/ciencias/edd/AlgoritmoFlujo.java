@@ -0,0 +1,12 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para los distintos algoritmos disponibles para flujos
+ * máximos.
+ */
+public enum AlgoritmoFlujo {
+    /** Algoritmo de Dinic, con gráficas de niveles y flujos bloqueantes. */
+    DINIC,
+    /** Empuje y reetiquetado por la etiqueta más alta, con huecos. */
+    EMPUJE_REETIQUETADO;
+}
@@ -0,0 +1,273 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para apareamientos máximos en gráficas bipartitas. Los vértices
+ * se dividen en un lado izquierdo y uno derecho, y toda arista va de un
+ * lado al otro; el apareamiento es un conjunto de aristas sin extremos en
+ * común, y es máximo si ningún otro tiene más aristas. Los lados pueden
+ * darse explícitamente, o se obtienen coloreando la gráfica con BFS.</p>
+ *
+ * <p>El apareamiento se calcula con el algoritmo de Hopcroft y Karp sobre
+ * la {@link GraficaCompacta} de la gráfica, después de un apareamiento
+ * voraz inicial. En cada fase una BFS desde los vértices izquierdos libres
+ * calcula niveles, y una DFS iterativa (con una pila en un arreglo, así que
+ * las trayectorias largas no desbordan la pila de llamadas) encuentra un
+ * conjunto maximal de trayectorias aumentantes disjuntas de longitud
+ * mínima. Hacen falta O(√<i>n</i>) fases.</p>
+ *
+ * <p>Los apareamientos no cambian una vez calculados; describen a la
+ * gráfica como era al calcularlos.</p>
+ */
+public class Apareamiento<T> {
+
+    /* Nivel de los vértices que no se alcanzan. */
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* Si cada vértice está del lado izquierdo. */
+    private boolean[] izquierda;
+    /* La pareja de cada vértice, o -1 si está libre. */
+    private int[] parejas;
+    /* El número de aristas en el apareamiento. */
+    private int cardinalidad;
+    /* El número de fases del algoritmo. */
+    private int fases;
+
+    /* Calcula un apareamiento máximo, obteniendo los lados con un
+     * 2-coloreo de la gráfica. */
+    Apareamiento(GraficaCompacta<T> grafica) {
+	this(grafica, colorea(grafica));
+    }
+
+    /* Calcula un apareamiento máximo con los lados recibidos. */
+    Apareamiento(GraficaCompacta<T> grafica, boolean[] izquierda) {
+	this.grafica = grafica;
+	this.izquierda = izquierda;
+	int n = grafica.getElementos();
+	for(int v = 0; v < n; v++)
+	    for(int e = grafica.inicios[v]; e < grafica.inicios[v+1]; e++)
+		if(izquierda[v] == izquierda[grafica.destinos[e]])
+		    throw new IllegalArgumentException("La partición no es " +
+						       "bipartita");
+	parejas = new int[n];
+	for(int v = 0; v < n; v++)
+	    parejas[v] = -1;
+	voraz();
+	hopcroftKarp();
+    }
+
+    /* Colorea la gráfica con BFS desde cada vértice sin color; el primer
+     * vértice de cada componente queda del lado izquierdo. */
+    private static boolean[] colorea(GraficaCompacta<?> grafica) {
+	int n = grafica.getElementos();
+	int[] colores = new int[n];
+	int[] cola = new int[n];
+	for(int s = 0; s < n; s++) {
+	    if(colores[s] != 0)
+		continue;
+	    colores[s] = 1;
+	    cola[0] = s;
+	    int fin = 1;
+	    for(int i = 0; i < fin; i++) {
+		int v = cola[i];
+		for(int e = grafica.inicios[v]; e < grafica.inicios[v+1]; e++) {
+		    int u = grafica.destinos[e];
+		    if(colores[u] == 0) {
+			colores[u] = -colores[v];
+			cola[fin++] = u;
+		    } else if(colores[u] == colores[v]) {
+			throw new IllegalArgumentException("La gráfica no es " +
+							   "bipartita");
+		    }
+		}
+	    }
+	}
+	boolean[] izquierda = new boolean[n];
+	for(int v = 0; v < n; v++)
+	    izquierda[v] = colores[v] == 1;
+	return izquierda;
+    }
+
+    /* Aparea a cada vértice izquierdo con su primer vecino libre. */
+    private void voraz() {
+	int n = parejas.length;
+	for(int v = 0; v < n; v++) {
+	    if(!izquierda[v])
+		continue;
+	    for(int e = grafica.inicios[v]; e < grafica.inicios[v+1]; e++) {
+		int u = grafica.destinos[e];
+		if(parejas[u] == -1) {
+		    parejas[v] = u;
+		    parejas[u] = v;
+		    cardinalidad++;
+		    break;
+		}
+	    }
+	}
+    }
+
+    /* Algoritmo de Hopcroft y Karp: mientras haya trayectorias aumentantes,
+     * calcula niveles con BFS y aumenta con DFS desde cada vértice
+     * izquierdo libre. */
+    private void hopcroftKarp() {
+	int n = parejas.length;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	int[] niveles = new int[n];
+	int[] cola = new int[n];
+	int[] actuales = new int[n];
+	/* La trayectoria de la DFS, como pila de vértices izquierdos. */
+	int[] pila = new int[n];
+	int limite;
+	while((limite = niveles(niveles, cola)) != INFINITO) {
+	    fases++;
+	    for(int v = 0; v < n; v++)
+		actuales[v] = inicios[v];
+	    for(int s = 0; s < n; s++) {
+		if(!izquierda[s] || parejas[s] != -1)
+		    continue;
+		int profundidad = 0;
+		pila[profundidad++] = s;
+		while(profundidad > 0) {
+		    int v = pila[profundidad-1];
+		    int e = actuales[v];
+		    int libre = -1;
+		    int siguiente = -1;
+		    for(; e < inicios[v+1]; e++) {
+			int u = destinos[e];
+			int w = parejas[u];
+			if(w == -1) {
+			    if(niveles[v] + 1 == limite) {
+				libre = u;
+				break;
+			    }
+			} else if(niveles[w] == niveles[v] + 1) {
+			    siguiente = w;
+			    break;
+			}
+		    }
+		    actuales[v] = e;
+		    if(libre != -1) {
+			/* Cada vértice de la pila se aparea con el destino de
+			 * su arco actual. */
+			for(int i = 0; i < profundidad; i++) {
+			    int x = pila[i];
+			    int y = destinos[actuales[x]];
+			    parejas[x] = y;
+			    parejas[y] = x;
+			}
+			cardinalidad++;
+			break;
+		    }
+		    if(siguiente != -1) {
+			pila[profundidad++] = siguiente;
+			continue;
+		    }
+		    /* No hay salida: el vértice muere para esta fase. */
+		    niveles[v] = INFINITO;
+		    profundidad--;
+		    if(profundidad > 0)
+			actuales[pila[profundidad-1]]++;
+		}
+	    }
+	}
+    }
+
+    /* Calcula el nivel de cada vértice izquierdo con una BFS desde los
+     * vértices izquierdos libres, alternando aristas libres y apareadas, y
+     * regresa la longitud (en vértices izquierdos) de las trayectorias
+     * aumentantes más cortas, o INFINITO si no hay. */
+    private int niveles(int[] niveles, int[] cola) {
+	int n = parejas.length;
+	int fin = 0;
+	for(int v = 0; v < n; v++) {
+	    niveles[v] = INFINITO;
+	    if(izquierda[v] && parejas[v] == -1) {
+		niveles[v] = 0;
+		cola[fin++] = v;
+	    }
+	}
+	int limite = INFINITO;
+	for(int i = 0; i < fin; i++) {
+	    int v = cola[i];
+	    if(niveles[v] + 1 >= limite)
+		continue;
+	    for(int e = grafica.inicios[v]; e < grafica.inicios[v+1]; e++) {
+		int w = parejas[grafica.destinos[e]];
+		if(w == -1) {
+		    limite = niveles[v] + 1;
+		} else if(niveles[w] == INFINITO) {
+		    niveles[w] = niveles[v] + 1;
+		    cola[fin++] = w;
+		}
+	    }
+	}
+	return limite;
+    }
+
+    /**
+     * Regresa el número de aristas en el apareamiento.
+     * @return el número de aristas en el apareamiento.
+     */
+    public int getCardinalidad() {
+	return cardinalidad;
+    }
+
+    /**
+     * Regresa el número de fases que usó el algoritmo de Hopcroft y Karp
+     * después del apareamiento voraz.
+     * @return el número de fases.
+     */
+    public int getFases() {
+	return fases;
+    }
+
+    /**
+     * Nos dice si un elemento está del lado izquierdo.
+     * @param elemento el elemento.
+     * @return <code>true</code> si el elemento está del lado izquierdo,
+     *         <code>false</code> si está del lado derecho.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public boolean estaALaIzquierda(T elemento) {
+	return izquierda[grafica.indice(elemento)];
+    }
+
+    /**
+     * Nos dice si un elemento está apareado.
+     * @param elemento el elemento.
+     * @return <code>true</code> si el elemento está apareado,
+     *         <code>false</code> en otro caso.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public boolean estaApareado(T elemento) {
+	return parejas[grafica.indice(elemento)] != -1;
+    }
+
+    /**
+     * Regresa la pareja de un elemento.
+     * @param elemento el elemento.
+     * @return la pareja del elemento, o <code>null</code> si está libre.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public T getPareja(T elemento) {
+	int p = parejas[grafica.indice(elemento)];
+	return p == -1 ? null : grafica.get(p);
+    }
+
+    /**
+     * Regresa las parejas del apareamiento.
+     * @return un diccionario con la pareja de cada elemento izquierdo
+     *         apareado.
+     */
+    public Diccionario<T, T> getParejas() {
+	Diccionario<T, T> d = new Diccionario<T, T>(cardinalidad * 2 + 1);
+	for(int v = 0; v < parejas.length; v++)
+	    if(izquierda[v] && parejas[v] != -1)
+		d.agrega(grafica.get(v), grafica.get(parejas[v]));
+	return d;
+    }
+}
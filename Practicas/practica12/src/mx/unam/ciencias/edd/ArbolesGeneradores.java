@@ -0,0 +1,220 @@
+package mx.unam.ciencias.edd;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Clase para calcular árboles generadores de peso mínimo sobre una {@link
+ * GraficaCompacta}. Si la gráfica no es conexa, los algoritmos calculan un
+ * bosque generador de peso mínimo: un árbol por componente conexa. Los
+ * algoritmos regresan las aristas del bosque como posiciones en el arreglo
+ * de destinos de la gráfica compacta.
+ */
+class ArbolesGeneradores {
+
+    /* Clase privada para buscar en paralelo la arista mínima de cada
+     * vértice de un rango hacia otra componente. */
+    private static class Escaneo extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La gráfica. */
+	private GraficaCompacta<?> grafica;
+	/* La componente de cada vértice. */
+	private int[] componentes;
+	/* La arista mínima de cada vértice; -1 si no tiene. */
+	private int[] minimas;
+	/* El primer vértice del rango. */
+	private int a;
+	/* El vértice después del último del rango. */
+	private int b;
+
+	/* Construye un escaneo para los vértices en [a, b). */
+	public Escaneo(GraficaCompacta<?> grafica, int[] componentes,
+		       int[] minimas, int a, int b) {
+	    this.grafica = grafica;
+	    this.componentes = componentes;
+	    this.minimas = minimas;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Escanea los vértices, partiendo el rango si es muy grande. */
+	@Override protected void compute() {
+	    if(b - a > BLOQUE) {
+		int m = (a + b) >>> 1;
+		invokeAll(new Escaneo(grafica, componentes, minimas, a, m),
+			  new Escaneo(grafica, componentes, minimas, m, b));
+		return;
+	    }
+	    int[] inicios = grafica.inicios;
+	    int[] destinos = grafica.destinos;
+	    for(int v = a; v < b; v++) {
+		int minima = -1;
+		for(int e = inicios[v]; e < inicios[v+1]; e++)
+		    if(componentes[destinos[e]] != componentes[v] &&
+			(minima == -1 || precede(grafica, v, e, v, minima)))
+			minima = e;
+		minimas[v] = minima;
+	    }
+	}
+    }
+
+    /* Vértices que escanea cada tarea de Borůvka. */
+    private static final int BLOQUE = 2048;
+
+    /* No se instancia. */
+    private ArbolesGeneradores() {}
+
+    /* Calcula el bosque con el algoritmo de Prim: el árbol crece desde un
+     * vértice, agregando cada vez la arista mínima que sale de él. */
+    public static int[] prim(GraficaCompacta<?> grafica) {
+	int n = grafica.getElementos();
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	boolean[] enArbol = new boolean[n];
+	int[] llegadas = new int[n];
+	@SuppressWarnings("unchecked") Indexable<Integer>[] nodos =
+	    (Indexable<Integer>[])new Indexable[n];
+	MonticuloMinimo<Indexable<Integer>> monticulo =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	int[] arbol = new int[Math.max(n - 1, 0)];
+	int k = 0;
+	for(int s = 0; s < n; s++) {
+	    if(nodos[s] != null)
+		continue;
+	    llegadas[s] = -1;
+	    nodos[s] = new Indexable<Integer>(s, 0);
+	    monticulo.agrega(nodos[s]);
+	    while(!monticulo.esVacia()) {
+		int v = monticulo.elimina().getElemento();
+		enArbol[v] = true;
+		if(llegadas[v] != -1)
+		    arbol[k++] = llegadas[v];
+		for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		    int u = destinos[e];
+		    if(enArbol[u])
+			continue;
+		    if(nodos[u] == null) {
+			llegadas[u] = e;
+			nodos[u] = new Indexable<Integer>(u, pesos[e]);
+			monticulo.agrega(nodos[u]);
+		    } else if(pesos[e] < nodos[u].getValor()) {
+			llegadas[u] = e;
+			nodos[u].setValor(pesos[e]);
+			monticulo.reordena(nodos[u]);
+		    }
+		}
+	    }
+	}
+	return recorta(arbol, k);
+    }
+
+    /* Calcula el bosque con el algoritmo de Kruskal: recorre las aristas de
+     * menor a mayor peso y agrega las que unen dos árboles distintos. */
+    public static int[] kruskal(GraficaCompacta<?> grafica) {
+	int n = grafica.getElementos();
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	/* Cada arista aparece dos veces; nos quedamos con la que va del
+	 * vértice menor al mayor. */
+	Integer[] aristas = new Integer[grafica.getAristas()];
+	int m = 0;
+	for(int v = 0; v < n; v++)
+	    for(int e = inicios[v]; e < inicios[v+1]; e++)
+		if(v < destinos[e])
+		    aristas[m++] = e;
+	Arreglos.quickSort(aristas, (a, b) -> Double.compare(pesos[a],
+							      pesos[b]));
+	ConjuntosDisjuntos conjuntos = new ConjuntosDisjuntos(n);
+	int[] arbol = new int[Math.max(n - 1, 0)];
+	int k = 0;
+	for(int i = 0; i < m && k < n - 1; i++) {
+	    int e = aristas[i];
+	    if(conjuntos.une(grafica.origen(e), destinos[e]))
+		arbol[k++] = e;
+	}
+	return recorta(arbol, k);
+    }
+
+    /* Calcula el bosque con el algoritmo de Borůvka: en cada ronda todas las
+     * componentes escogen al mismo tiempo su arista mínima hacia otra
+     * componente, y se unen con ella; el número de componentes al menos se
+     * reduce a la mitad en cada ronda. La búsqueda de aristas mínimas, que
+     * recorre todas las aristas, se reparte entre los hilos. */
+    public static int[] boruvka(GraficaCompacta<?> grafica, int hilos) {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	int n = grafica.getElementos();
+	int[] destinos = grafica.destinos;
+	ConjuntosDisjuntos conjuntos = new ConjuntosDisjuntos(n);
+	int[] componentes = new int[n];
+	int[] minimas = new int[n];
+	int[] minimaComponente = new int[n];
+	int[] fuentes = new int[n];
+	int[] arbol = new int[Math.max(n - 1, 0)];
+	int k = 0;
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    boolean une = n > 0;
+	    while(une) {
+		for(int v = 0; v < n; v++) {
+		    componentes[v] = conjuntos.encuentra(v);
+		    minimaComponente[v] = -1;
+		}
+		pool.invoke(new Escaneo(grafica, componentes, minimas, 0, n));
+		for(int v = 0; v < n; v++) {
+		    int e = minimas[v];
+		    int c = componentes[v];
+		    if(e == -1)
+			continue;
+		    if(minimaComponente[c] == -1 ||
+			precede(grafica, v, e, fuentes[c], minimaComponente[c])) {
+			minimaComponente[c] = e;
+			fuentes[c] = v;
+		    }
+		}
+		une = false;
+		for(int c = 0; c < n; c++) {
+		    int e = minimaComponente[c];
+		    if(e != -1 && conjuntos.une(fuentes[c], destinos[e])) {
+			arbol[k++] = e;
+			une = true;
+		    }
+		}
+	    }
+	} finally {
+	    pool.shutdown();
+	}
+	return recorta(arbol, k);
+    }
+
+    /* Nos dice si la arista e que sale de u precede a la arista f que sale de
+     * v. Los empates de peso se rompen con los extremos de las aristas, para
+     * que el orden sea total y Borůvka no forme ciclos. */
+    private static boolean precede(GraficaCompacta<?> grafica,
+				   int u, int e, int v, int f) {
+	double pe = grafica.pesos[e];
+	double pf = grafica.pesos[f];
+	if(pe != pf)
+	    return pe < pf;
+	int ue = Math.min(u, grafica.destinos[e]);
+	int uf = Math.min(v, grafica.destinos[f]);
+	if(ue != uf)
+	    return ue < uf;
+	return Math.max(u, grafica.destinos[e]) <
+	    Math.max(v, grafica.destinos[f]);
+    }
+
+    /* Regresa los primeros k elementos del arreglo. */
+    private static int[] recorta(int[] arreglo, int k) {
+	if(k == arreglo.length)
+	    return arreglo;
+	int[] r = new int[k];
+	System.arraycopy(arreglo, 0, r, 0, k);
+	return r;
+    }
+}
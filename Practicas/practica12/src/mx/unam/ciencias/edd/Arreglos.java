@@ -18,26 +18,50 @@ public class Arreglos {
 	quickSort(arreglo, 0, arreglo.length-1, comparador);
     }
 
+    /* Ordena el subarreglo [i, j]. Partimos en tres (menores, iguales y
+     * mayores que el pivote) para que los elementos repetidos no degraden el
+     * algoritmo, escogemos el pivote como la mediana de tres para los
+     * arreglos casi ordenados, e iteramos sobre la parte más grande para que
+     * la pila no pase de O(log n). */
     private static <T> void
     quickSort(T[] arreglo, int i, int j, Comparator<T> comparador){
-	if(i >= j)
-	    return;
-	int k = i+1;
-	int l = j;
-	while(k < l){
-	    if(comparador.compare(arreglo[k], arreglo[i]) > 0 &&
-	       comparador.compare(arreglo[l], arreglo[i]) <= 0)
-		intercambia(arreglo, k++, l--);
-	    else if(comparador.compare(arreglo[k], arreglo[i]) <= 0)
-		k++;
-	    else
-		l--;
+	while(i < j){
+	    intercambia(arreglo, i,
+			mediana(arreglo, i, (i+j) >>> 1, j, comparador));
+	    T pivote = arreglo[i];
+	    int menores = i;
+	    int k = i+1;
+	    int mayores = j;
+	    while(k <= mayores){
+		int c = comparador.compare(arreglo[k], pivote);
+		if(c < 0)
+		    intercambia(arreglo, menores++, k++);
+		else if(c > 0)
+		    intercambia(arreglo, k, mayores--);
+		else
+		    k++;
+	    }
+	    if(menores - i < j - mayores){
+		quickSort(arreglo, i, menores-1, comparador);
+		i = mayores+1;
+	    } else {
+		quickSort(arreglo, mayores+1, j, comparador);
+		j = menores-1;
+	    }
+	}
+    }
+
+    /* Regresa el índice de la mediana de los elementos en a, b y c. */
+    private static <T> int
+    mediana(T[] arreglo, int a, int b, int c, Comparator<T> comparador){
+	if(comparador.compare(arreglo[a], arreglo[b]) > 0){
+	    int t = a;
+	    a = b;
+	    b = t;
 	}
-	if(comparador.compare(arreglo[k], arreglo[i]) > 0)
-	    k--;
-	intercambia(arreglo, k, i);
-	quickSort(arreglo, i, k-1, comparador);
-	quickSort(arreglo, k+1, j, comparador);
+	if(comparador.compare(arreglo[b], arreglo[c]) <= 0)
+	    return b;
+	return comparador.compare(arreglo[a], arreglo[c]) > 0 ? a : c;
     }
 
     /**
@@ -0,0 +1,188 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Clase para búsquedas de Dijkstra sobre una {@link GraficaCompacta}. Todo
+ * el estado de la búsqueda (distancias, vértices anteriores y el montículo)
+ * es propio de la búsqueda, por lo que varias búsquedas pueden correr al
+ * mismo tiempo sobre la misma gráfica. Con una heurística la búsqueda es A*:
+ * el montículo se ordena por la distancia más la estimación de lo que falta.
+ * Con una máscara la búsqueda ignora algunos arcos, sin modificar la
+ * gráfica. Una búsqueda puede reiniciarse desde otro origen limpiando sólo
+ * los vértices que alcanzó, para hacer muchas búsquedas cortas sin volver a
+ * crear ni llenar los arreglos.
+ */
+class BusquedaDijkstra {
+
+    /* Interfaz para heurísticas de A*. */
+    @FunctionalInterface
+    interface Heuristica {
+	/* Regresa una cota inferior de la distancia del vértice al
+	 * destino. */
+	public double estima(int v);
+    }
+
+    /* Interfaz para máscaras de arcos. */
+    @FunctionalInterface
+    interface Mascara {
+	/* Nos dice si la búsqueda debe ignorar el arco a, que sale del
+	 * vértice v. */
+	public boolean bloqueado(int v, int a);
+    }
+
+    /* La gráfica. */
+    private GraficaCompacta<?> grafica;
+    /* La distancia a cada vértice; infinita si no se ha alcanzado. */
+    double[] distancias;
+    /* El vértice anterior a cada vértice en la trayectoria; -1 si no
+     * tiene. */
+    int[] anteriores;
+    /* Si cada vértice ya salió del montículo. */
+    boolean[] asentado;
+    /* El número de vértices que han salido del montículo. */
+    int asentados;
+    /* Los vértices que han entrado al montículo. */
+    private int[] tocados;
+    /* El número de vértices que han entrado al montículo. */
+    private int alcanzados;
+    /* Los indexables de los vértices que han entrado al montículo. */
+    private Indexable<Integer>[] nodos;
+    /* El montículo de vértices alcanzados pero no asentados. */
+    private MonticuloMinimo<Indexable<Integer>> monticulo;
+    /* La heurística; null para Dijkstra. */
+    private Heuristica heuristica;
+    /* La máscara; null si la búsqueda usa todos los arcos. */
+    private Mascara mascara;
+
+    /* Truco para crear arreglos genéricos. */
+    @SuppressWarnings("unchecked") private Indexable<Integer>[]
+    nuevoArreglo(int n) {
+	return (Indexable<Integer>[])new Indexable[n];
+    }
+
+    /* Construye una búsqueda de Dijkstra que comienza en el origen. */
+    public BusquedaDijkstra(GraficaCompacta<?> grafica, int origen) {
+	this(grafica, origen, null);
+    }
+
+    /* Construye una búsqueda A* que comienza en el origen; si la heurística
+     * es null, la búsqueda es de Dijkstra. */
+    public BusquedaDijkstra(GraficaCompacta<?> grafica, int origen,
+			    Heuristica heuristica) {
+	this(grafica, origen, heuristica, null);
+    }
+
+    /* Construye una búsqueda A* que comienza en el origen e ignora los arcos
+     * que bloquea la máscara; si la heurística es null, la búsqueda es de
+     * Dijkstra, y si la máscara es null usa todos los arcos. */
+    public BusquedaDijkstra(GraficaCompacta<?> grafica, int origen,
+			    Heuristica heuristica, Mascara mascara) {
+	this.grafica = grafica;
+	this.heuristica = heuristica;
+	this.mascara = mascara;
+	int n = grafica.getElementos();
+	distancias = new double[n];
+	anteriores = new int[n];
+	asentado = new boolean[n];
+	for(int i = 0; i < n; i++) {
+	    distancias[i] = Double.POSITIVE_INFINITY;
+	    anteriores[i] = -1;
+	}
+	nodos = nuevoArreglo(n);
+	tocados = new int[n];
+	monticulo = new MonticuloMinimo<Indexable<Integer>>();
+	siembra(origen);
+    }
+
+    /* Reinicia la búsqueda desde otro origen y con otra máscara, limpiando
+     * sólo los vértices que alcanzó la búsqueda anterior. */
+    public void reinicia(int origen, Mascara mascara) {
+	for(int i = 0; i < alcanzados; i++) {
+	    int v = tocados[i];
+	    distancias[v] = Double.POSITIVE_INFINITY;
+	    anteriores[v] = -1;
+	    asentado[v] = false;
+	    nodos[v] = null;
+	}
+	alcanzados = 0;
+	asentados = 0;
+	monticulo.limpia();
+	this.mascara = mascara;
+	siembra(origen);
+    }
+
+    /* Mete el origen al montículo. */
+    private void siembra(int origen) {
+	distancias[origen] = 0;
+	nodos[origen] = new Indexable<Integer>(origen, llave(origen));
+	monticulo.agrega(nodos[origen]);
+	tocados[alcanzados++] = origen;
+    }
+
+    /* Nos dice si ya no hay vértices por asentar. */
+    public boolean esVacia() {
+	return monticulo.esVacia();
+    }
+
+    /* Regresa la llave mínima del montículo; el montículo no debe ser
+     * vacío. */
+    public double minimo() {
+	return monticulo.get(0).getValor();
+    }
+
+    /* Saca el vértice mínimo del montículo, relaja sus aristas y lo
+     * regresa. Si la heurística no es consistente un vértice asentado puede
+     * mejorar su distancia; en ese caso regresa al montículo. */
+    public int asienta() {
+	int v = monticulo.elimina().getElemento();
+	asentado[v] = true;
+	asentados++;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	for(int a = inicios[v]; a < inicios[v+1]; a++) {
+	    if(mascara != null && mascara.bloqueado(v, a))
+		continue;
+	    int u = destinos[a];
+	    double d = distancias[v] + pesos[a];
+	    if(d >= distancias[u])
+		continue;
+	    distancias[u] = d;
+	    anteriores[u] = v;
+	    if(nodos[u] == null) {
+		nodos[u] = new Indexable<Integer>(u, llave(u));
+		monticulo.agrega(nodos[u]);
+		tocados[alcanzados++] = u;
+	    } else if(nodos[u].getIndice() == -1) {
+		asentado[u] = false;
+		nodos[u].setValor(llave(u));
+		monticulo.agrega(nodos[u]);
+	    } else {
+		nodos[u].setValor(llave(u));
+		monticulo.reordena(nodos[u]);
+	    }
+	}
+	return v;
+    }
+
+    /* Asienta todos los vértices alcanzables. */
+    public void completa() {
+	while(!monticulo.esVacia())
+	    asienta();
+    }
+
+    /* Asienta vértices hasta asentar el destino o vaciar el montículo, y
+     * regresa si se asentó el destino. */
+    public boolean buscaHasta(int destino) {
+	while(!monticulo.esVacia())
+	    if(asienta() == destino)
+		return true;
+	return false;
+    }
+
+    /* Regresa la llave del vértice en el montículo. */
+    private double llave(int v) {
+	if(heuristica == null)
+	    return distancias[v];
+	return distancias[v] + heuristica.estima(v);
+    }
+}
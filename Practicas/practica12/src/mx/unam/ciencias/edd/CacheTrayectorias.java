@@ -0,0 +1,258 @@
+package mx.unam.ciencias.edd;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>Clase para el caché de trayectorias de una {@link Grafica}: guarda los
+ * resultados de {@link Grafica#dijkstra} y {@link
+ * Grafica#trayectoriaMinima}, y cuando se repite una consulta regresa una
+ * copia del resultado guardado en lugar de volver a buscar. El caché tiene
+ * una capacidad fija y, cuando se llena, descarta la consulta usada hace
+ * más tiempo.</p>
+ *
+ * <p>La gráfica tiene un número de versión que crece con cada cambio
+ * (agregar o eliminar elementos, conectar, desconectar o cambiar pesos). El
+ * caché recuerda la versión de sus resultados, y en la primera consulta
+ * después de un cambio los descarta todos.</p>
+ *
+ * <p>El caché lleva estadísticas de aciertos y fallos, y del tiempo que
+ * tardan las consultas de cada tipo; se obtiene con {@link
+ * Grafica#getCache} después de activarlo con {@link
+ * Grafica#activaCache}.</p>
+ */
+public class CacheTrayectorias<T> {
+
+    /* Enumeración para las consultas que se guardan. */
+    enum Consulta {
+	/* Grafica.dijkstra. */
+	DIJKSTRA,
+	/* Grafica.trayectoriaMinima. */
+	TRAYECTORIA_MINIMA;
+    }
+
+    /* Clase privada para las llaves del caché. */
+    private class Llave {
+
+	/* El elemento de origen. */
+	public T origen;
+	/* El elemento de destino. */
+	public T destino;
+	/* La consulta. */
+	public Consulta consulta;
+
+	/* Construye una llave. */
+	public Llave(T origen, T destino, Consulta consulta) {
+	    this.origen = origen;
+	    this.destino = destino;
+	    this.consulta = consulta;
+	}
+
+	/* Dos llaves son iguales si tienen los mismos elementos y la misma
+	 * consulta. */
+	@Override public boolean equals(Object o) {
+	    if(o == null || getClass() != o.getClass())
+		return false;
+	    @SuppressWarnings("unchecked") Llave l = (Llave)o;
+	    return consulta == l.consulta && origen.equals(l.origen) &&
+		destino.equals(l.destino);
+	}
+
+	/* Regresa una dispersión de la llave. */
+	@Override public int hashCode() {
+	    return (origen.hashCode() * 31 + destino.hashCode()) * 31 +
+		consulta.ordinal();
+	}
+    }
+
+    /* Clase privada para las entradas del caché, en una lista doblemente
+     * ligada de la más reciente a la más antigua. */
+    private class Entrada {
+
+	/* La llave. */
+	public Llave llave;
+	/* El resultado guardado. */
+	public Lista<VerticeGrafica<T>> resultado;
+	/* La entrada usada antes que ésta. */
+	public Entrada anterior;
+	/* La entrada usada después que ésta. */
+	public Entrada siguiente;
+
+	/* Construye una entrada. */
+	public Entrada(Llave llave, Lista<VerticeGrafica<T>> resultado) {
+	    this.llave = llave;
+	    this.resultado = resultado;
+	}
+    }
+
+    /* La capacidad del caché. */
+    private int capacidad;
+    /* Las entradas por llave. */
+    private Diccionario<Llave, Entrada> entradas;
+    /* La entrada usada más recientemente. */
+    private Entrada cabeza;
+    /* La entrada usada hace más tiempo. */
+    private Entrada rabo;
+    /* La versión de la gráfica de los resultados guardados. */
+    private long version;
+    /* El número de aciertos. */
+    private long aciertos;
+    /* El número de fallos. */
+    private long fallos;
+    /* El número de veces que un cambio a la gráfica vació el caché. */
+    private long invalidaciones;
+    /* Los nanosegundos que han tardado los aciertos. */
+    private long tiempoAciertos;
+    /* Los nanosegundos que han tardado los fallos. */
+    private long tiempoFallos;
+
+    /* Construye un caché vacío con la capacidad recibida. */
+    CacheTrayectorias(int capacidad, long version) {
+	this.capacidad = capacidad;
+	this.version = version;
+	entradas = new Diccionario<Llave, Entrada>(capacidad * 2);
+    }
+
+    /* Regresa una copia del resultado de la consulta; si no está guardado
+     * (o la gráfica cambió desde que se guardó) lo calcula y lo guarda. */
+    Lista<VerticeGrafica<T>> consulta(T origen, T destino, Consulta consulta,
+				      long version,
+				      Supplier<Lista<VerticeGrafica<T>>>
+				      calculo) {
+	long inicio = System.nanoTime();
+	if(version != this.version) {
+	    if(!entradas.esVacia())
+		invalidaciones++;
+	    vacia();
+	    this.version = version;
+	}
+	Llave llave = new Llave(origen, destino, consulta);
+	if(entradas.contiene(llave)) {
+	    Entrada e = entradas.get(llave);
+	    desliga(e);
+	    ligaAlFrente(e);
+	    Lista<VerticeGrafica<T>> copia = e.resultado.copia();
+	    aciertos++;
+	    tiempoAciertos += System.nanoTime() - inicio;
+	    return copia;
+	}
+	Lista<VerticeGrafica<T>> resultado = calculo.get();
+	if(entradas.getElementos() == capacidad) {
+	    entradas.elimina(rabo.llave);
+	    desliga(rabo);
+	}
+	Entrada e = new Entrada(llave, resultado.copia());
+	entradas.agrega(llave, e);
+	ligaAlFrente(e);
+	fallos++;
+	tiempoFallos += System.nanoTime() - inicio;
+	return resultado;
+    }
+
+    /**
+     * Regresa la capacidad del caché.
+     * @return la capacidad del caché.
+     */
+    public int getCapacidad() {
+	return capacidad;
+    }
+
+    /**
+     * Regresa el número de resultados guardados.
+     * @return el número de resultados guardados.
+     */
+    public int getElementos() {
+	return entradas.getElementos();
+    }
+
+    /**
+     * Regresa el número de consultas que encontraron su resultado guardado.
+     * @return el número de aciertos.
+     */
+    public long getAciertos() {
+	return aciertos;
+    }
+
+    /**
+     * Regresa el número de consultas que tuvieron que calcular su
+     * resultado.
+     * @return el número de fallos.
+     */
+    public long getFallos() {
+	return fallos;
+    }
+
+    /**
+     * Regresa la fracción de las consultas que encontraron su resultado
+     * guardado.
+     * @return la tasa de aciertos, o cero si no ha habido consultas.
+     */
+    public double getTasaAciertos() {
+	long total = aciertos + fallos;
+	return total == 0 ? 0 : (double)aciertos / total;
+    }
+
+    /**
+     * Regresa el número de veces que un cambio a la gráfica vació el caché.
+     * @return el número de invalidaciones.
+     */
+    public long getInvalidaciones() {
+	return invalidaciones;
+    }
+
+    /**
+     * Regresa el tiempo promedio de las consultas que encontraron su
+     * resultado guardado.
+     * @return el tiempo promedio de los aciertos en nanosegundos, o cero si
+     *         no ha habido aciertos.
+     */
+    public double getLatenciaAciertos() {
+	return aciertos == 0 ? 0 : (double)tiempoAciertos / aciertos;
+    }
+
+    /**
+     * Regresa el tiempo promedio de las consultas que tuvieron que calcular
+     * su resultado, incluyendo el cálculo.
+     * @return el tiempo promedio de los fallos en nanosegundos, o cero si no
+     *         ha habido fallos.
+     */
+    public double getLatenciaFallos() {
+	return fallos == 0 ? 0 : (double)tiempoFallos / fallos;
+    }
+
+    /**
+     * Reinicia las estadísticas, sin descartar los resultados guardados.
+     */
+    public void limpiaEstadisticas() {
+	aciertos = fallos = invalidaciones = 0;
+	tiempoAciertos = tiempoFallos = 0;
+    }
+
+    /* Descarta todos los resultados guardados. */
+    private void vacia() {
+	entradas.limpia();
+	cabeza = rabo = null;
+    }
+
+    /* Quita la entrada de la lista. */
+    private void desliga(Entrada e) {
+	if(e.anterior != null)
+	    e.anterior.siguiente = e.siguiente;
+	else
+	    cabeza = e.siguiente;
+	if(e.siguiente != null)
+	    e.siguiente.anterior = e.anterior;
+	else
+	    rabo = e.anterior;
+	e.anterior = e.siguiente = null;
+    }
+
+    /* Pone la entrada al frente de la lista. */
+    private void ligaAlFrente(Entrada e) {
+	e.siguiente = cabeza;
+	if(cabeza != null)
+	    cabeza.anterior = e;
+	cabeza = e;
+	if(rabo == null)
+	    rabo = e;
+    }
+}
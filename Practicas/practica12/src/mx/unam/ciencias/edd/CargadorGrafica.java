@@ -0,0 +1,331 @@
+package mx.unam.ciencias.edd;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * <p>Clase para cargar gráficas de archivos con listas de aristas. Cada línea
+ * del archivo describe una arista con dos elementos y, opcionalmente, su
+ * peso, separados por espacios o tabuladores:</p>
+ *
+ * <pre>a b 2.5
+ * b c</pre>
+ *
+ * <p>Las aristas sin peso pesan 1. Las líneas vacías y las que comienzan con
+ * <code>#</code> se ignoran, al igual que las aristas repetidas (en
+ * cualquier sentido); de una arista repetida se conserva el primer peso.</p>
+ *
+ * <p>El archivo se mapea a memoria y se parte en pedazos que se leen en
+ * paralelo; después las aristas se insertan en la gráfica una tras otra, sin
+ * las validaciones de {@link Grafica#conecta(Object,Object,double)}. Los
+ * elementos se obtienen de las cadenas del archivo con un convertidor, que
+ * se llama desde varios hilos al mismo tiempo.</p>
+ */
+public class CargadorGrafica<T> {
+
+    /* Clase privada para las aristas leídas de un pedazo del archivo. */
+    private class Pedazo {
+
+	/* El primer byte del pedazo. */
+	public long inicio;
+	/* El byte después del último del pedazo. */
+	public long fin;
+	/* Los primeros elementos de las aristas. */
+	public Object[] as;
+	/* Los segundos elementos de las aristas. */
+	public Object[] bs;
+	/* Los pesos de las aristas. */
+	public double[] pesos;
+	/* El número de aristas. */
+	public int aristas;
+
+	/* Construye un pedazo para los bytes en [inicio, fin). */
+	public Pedazo(long inicio, long fin) {
+	    this.inicio = inicio;
+	    this.fin = fin;
+	    as = new Object[16];
+	    bs = new Object[16];
+	    pesos = new double[16];
+	}
+
+	/* Agrega una arista al pedazo. */
+	public void agrega(T a, T b, double peso) {
+	    if(aristas == as.length) {
+		as = crece(as);
+		bs = crece(bs);
+		double[] p = new double[pesos.length * 2];
+		System.arraycopy(pesos, 0, p, 0, aristas);
+		pesos = p;
+	    }
+	    as[aristas] = a;
+	    bs[aristas] = b;
+	    pesos[aristas++] = peso;
+	}
+    }
+
+    /* Clase privada para leer en paralelo un rango de pedazos. */
+    private class Lectura extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* El canal del archivo. */
+	private FileChannel canal;
+	/* Los pedazos. */
+	private Pedazo[] pedazos;
+	/* El primer pedazo del rango. */
+	private int a;
+	/* El pedazo después del último del rango. */
+	private int b;
+
+	/* Construye una lectura para los pedazos en [a, b). */
+	public Lectura(FileChannel canal, Pedazo[] pedazos, int a, int b) {
+	    this.canal = canal;
+	    this.pedazos = pedazos;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Lee los pedazos, partiendo el rango si tiene más de uno. */
+	@Override protected void compute() {
+	    if(b - a > 1) {
+		int m = (a + b) / 2;
+		invokeAll(new Lectura(canal, pedazos, a, m),
+			  new Lectura(canal, pedazos, m, b));
+		return;
+	    }
+	    try {
+		lee(canal, pedazos[a]);
+	    } catch(IOException ioe) {
+		throw new ExcepcionLectura(ioe);
+	    }
+	}
+    }
+
+    /* Clase privada para pasar excepciones de entrada/salida a través del
+     * pool de hilos. */
+    private static class ExcepcionLectura extends RuntimeException {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* Construye una excepción con la causa recibida. */
+	public ExcepcionLectura(IOException causa) {
+	    super(causa);
+	}
+    }
+
+    /* Tamaño nominal de cada pedazo del archivo. */
+    private static final long PEDAZO = 16L << 20;
+    /* Lo más que puede medir una línea. */
+    private static final int LINEA_MAXIMA = 1 << 20;
+
+    /* El convertidor de cadenas a elementos. */
+    private Function<String, T> convertidor;
+    /* Las aristas insertadas en la última carga. */
+    private int aristas;
+    /* Los nanosegundos que tomó la última carga. */
+    private long nanosegundos;
+
+    /**
+     * Construye un cargador que convierte las cadenas del archivo en
+     * elementos con el convertidor recibido.
+     * @param convertidor el convertidor de cadenas a elementos; debe poder
+     *        llamarse desde varios hilos al mismo tiempo.
+     */
+    public CargadorGrafica(Function<String, T> convertidor) {
+	this.convertidor = convertidor;
+    }
+
+    /**
+     * Carga una gráfica del archivo recibido, usando tantos hilos como el
+     * <i>pool</i> común.
+     * @param archivo la ruta del archivo.
+     * @return la gráfica descrita por el archivo.
+     * @throws IOException si no se puede leer el archivo, o si tiene una
+     *         línea inválida.
+     * @see #carga(String,int)
+     */
+    public Grafica<T> carga(String archivo) throws IOException {
+	return carga(archivo, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Carga una gráfica del archivo recibido. El archivo se parte en
+     * pedazos que se leen en paralelo con el número de hilos recibido.
+     * @param archivo la ruta del archivo.
+     * @param hilos el número de hilos a utilizar.
+     * @return la gráfica descrita por el archivo.
+     * @throws IOException si no se puede leer el archivo, o si tiene una
+     *         línea inválida: sin dos elementos, con un peso no positivo o
+     *         que no es número, o que conecta un elemento consigo mismo.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public Grafica<T> carga(String archivo, int hilos) throws IOException {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	long inicio = System.nanoTime();
+	Pedazo[] pedazos;
+	try(RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+	     FileChannel canal = raf.getChannel()) {
+	    long tam = canal.size();
+	    int n = (int)Math.max(1, (tam + PEDAZO - 1) / PEDAZO);
+	    n = Math.max(n, Math.min(hilos * 4, (int)(tam / 4096) + 1));
+	    @SuppressWarnings("unchecked") Pedazo[] nuevos =
+		(Pedazo[])new CargadorGrafica.Pedazo[n];
+	    pedazos = nuevos;
+	    for(int i = 0; i < n; i++)
+		pedazos[i] = new Pedazo(tam * i / n, tam * (i+1) / n);
+	    ForkJoinPool pool = new ForkJoinPool(hilos);
+	    try {
+		pool.invoke(new Lectura(canal, pedazos, 0, n));
+	    } catch(ExcepcionLectura el) {
+		/* El pool puede envolver la excepción otra vez. */
+		Throwable t = el;
+		while(!(t instanceof IOException))
+		    t = t.getCause();
+		throw (IOException)t;
+	    } finally {
+		pool.shutdown();
+	    }
+	}
+	int total = 0;
+	for(Pedazo p : pedazos)
+	    total += p.aristas;
+	/* Suponemos un grado promedio de al menos 4; si hay más elementos el
+	 * diccionario simplemente crece. */
+	Grafica<T> grafica = new Grafica<T>(total / 2);
+	aristas = 0;
+	for(Pedazo p : pedazos) {
+	    for(int i = 0; i < p.aristas; i++) {
+		@SuppressWarnings("unchecked") T a = (T)p.as[i];
+		@SuppressWarnings("unchecked") T b = (T)p.bs[i];
+		if(grafica.agregaArista(a, b, p.pesos[i]))
+		    aristas++;
+	    }
+	    p.as = p.bs = null;
+	    p.pesos = null;
+	}
+	nanosegundos = System.nanoTime() - inicio;
+	return grafica;
+    }
+
+    /**
+     * Regresa el número de aristas insertadas en la última carga, sin
+     * contar las repetidas.
+     * @return el número de aristas insertadas en la última carga.
+     */
+    public int getAristas() {
+	return aristas;
+    }
+
+    /**
+     * Regresa cuántas aristas por segundo se cargaron en la última carga,
+     * incluyendo la lectura del archivo y la construcción de la gráfica.
+     * @return las aristas por segundo de la última carga.
+     */
+    public double getAristasPorSegundo() {
+	return nanosegundos == 0 ? 0 : aristas * 1e9 / nanosegundos;
+    }
+
+    /* Lee las líneas que comienzan dentro del pedazo; la última puede
+     * terminar después del fin del pedazo. */
+    private void lee(FileChannel canal, Pedazo pedazo) throws IOException {
+	/* Mapeamos desde un byte antes para saber si el pedazo comienza al
+	 * inicio de una línea. */
+	long desde = Math.max(0, pedazo.inicio - 1);
+	long tam = Math.min(canal.size() - desde,
+			    pedazo.fin - desde + LINEA_MAXIMA);
+	MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY,
+					    desde, tam);
+	int limite = (int)(pedazo.fin - desde);
+	int i = 0;
+	if(pedazo.inicio > 0) {
+	    while(i < tam && buffer.get(i) != '\n')
+		i++;
+	    i++;
+	}
+	byte[] token = new byte[64];
+	String[] campos = new String[3];
+	while(i < limite) {
+	    int c = 0;
+	    boolean comentario = false;
+	    while(i < tam && buffer.get(i) != '\n') {
+		byte x = buffer.get(i);
+		if(x == ' ' || x == '\t' || x == '\r') {
+		    i++;
+		    continue;
+		}
+		if(c == 0 && x == '#')
+		    comentario = true;
+		int t = 0;
+		while(i < tam) {
+		    x = buffer.get(i);
+		    if(x == ' ' || x == '\t' || x == '\r' || x == '\n')
+			break;
+		    if(t == token.length) {
+			byte[] nuevo = new byte[token.length * 2];
+			System.arraycopy(token, 0, nuevo, 0, t);
+			token = nuevo;
+		    }
+		    token[t++] = x;
+		    i++;
+		}
+		if(c < 3)
+		    campos[c] = new String(token, 0, t, StandardCharsets.UTF_8);
+		c++;
+	    }
+	    if(i == tam && tam < canal.size() - desde)
+		throw new IOException("Línea demasiado larga");
+	    i++;
+	    if(comentario || c == 0)
+		continue;
+	    double peso = peso(campos, c);
+	    T a = convertidor.apply(campos[0]);
+	    T b = convertidor.apply(campos[1]);
+	    /* Cadenas distintas pueden convertirse en el mismo elemento. */
+	    if(a.equals(b))
+		throw new IOException("Arista inválida: " + linea(campos, c));
+	    pedazo.agrega(a, b, peso);
+	}
+    }
+
+    /* Valida los campos de una línea y regresa el peso de la arista. */
+    private static double peso(String[] campos, int c) throws IOException {
+	if(c < 2 || c > 3)
+	    throw new IOException("Arista inválida: " + linea(campos, c));
+	if(c == 2)
+	    return 1.0;
+	double peso;
+	try {
+	    peso = Double.parseDouble(campos[2]);
+	} catch(NumberFormatException nfe) {
+	    throw new IOException("Peso inválido: " + linea(campos, c));
+	}
+	if(!(peso > 0) || Double.isInfinite(peso))
+	    throw new IOException("Peso inválido: " + linea(campos, c));
+	return peso;
+    }
+
+    /* Regresa los campos de una línea como cadena. */
+    private static String linea(String[] campos, int c) {
+	String s = "";
+	for(int i = 0; i < c && i < campos.length; i++)
+	    s += (i == 0 ? "" : " ") + campos[i];
+	return s;
+    }
+
+    /* Regresa un arreglo con el doble de espacio y los mismos elementos. */
+    private static Object[] crece(Object[] arreglo) {
+	Object[] nuevo = new Object[arreglo.length * 2];
+	System.arraycopy(arreglo, 0, nuevo, 0, arreglo.length);
+	return nuevo;
+    }
+}
@@ -0,0 +1,434 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Clase para las comunidades de una gráfica, encontradas con el método de
+ * Louvain: una partición de los vértices que busca maximizar la
+ * modularidad, que compara el peso de las aristas dentro de cada comunidad
+ * con el que se esperaría si las aristas se repartieran al azar
+ * conservando los grados. La resolución multiplica el término esperado; con
+ * resoluciones mayores las comunidades son más pequeñas.</p>
+ *
+ * <p>El método trabaja por niveles sobre la {@link GraficaCompacta} de la
+ * gráfica. En cada nivel, cada vértice empieza en su propia comunidad y se
+ * mueve a la comunidad vecina que más aumenta la modularidad, en pasadas,
+ * hasta que casi ningún vértice se mueve; luego cada comunidad se junta en
+ * un solo vértice (con la suma de los pesos entre comunidades como aristas,
+ * y el peso interno como lazo) y se repite con la gráfica agregada, hasta
+ * que un nivel ya no junta vértices.</p>
+ *
+ * <p>Los movimientos se deciden en paralelo: los vértices se colorean de
+ * forma que dos vecinos nunca tienen el mismo color, y los vértices de un
+ * mismo color deciden a la vez a dónde moverse, con las comunidades como
+ * estaban al empezar el color; después se aplican todos los movimientos.
+ * Así ningún vértice decide con información a medio escribir, y el
+ * resultado no depende del número de hilos.</p>
+ *
+ * <p>Las comunidades no cambian una vez calculadas; describen a la gráfica
+ * como era al calcularlas.</p>
+ */
+public class Comunidades<T> {
+
+    /* Clase privada para el espacio de trabajo de un hilo. */
+    private static class Espacio {
+
+	/* El peso hacia cada comunidad; -1 si no es vecina. */
+	public double[] pesos;
+	/* Las comunidades vecinas. */
+	public int[] vecinas;
+
+	/* Construye un espacio para n comunidades. */
+	public Espacio(int n) {
+	    pesos = new double[n];
+	    Arrays.fill(pesos, -1);
+	    vecinas = new int[n];
+	}
+    }
+
+    /* Clase privada para decidir en paralelo los movimientos de los vértices
+     * de un color. */
+    private class Decision extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* El primer índice del rango en el orden por colores. */
+	private int a;
+	/* El índice después del último del rango. */
+	private int b;
+
+	/* Construye una decisión para los vértices en [a, b) del orden por
+	 * colores. */
+	public Decision(int a, int b) {
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Decide los movimientos, partiendo el rango si es muy grande. */
+	@Override protected void compute() {
+	    if(b - a > BLOQUE) {
+		int m = (a + b) >>> 1;
+		invokeAll(new Decision(a, m), new Decision(m, b));
+		return;
+	    }
+	    Espacio espacio = espacios.get();
+	    for(int i = a; i < b; i++)
+		decide(orden[i], espacio);
+	}
+    }
+
+    /* Vértices que decide cada tarea. */
+    private static final int BLOQUE = 2048;
+    /* Máximo de pasadas de movimientos por nivel. */
+    private static final int MAXIMO_PASADAS = 32;
+    /* Aumento mínimo de la modularidad en una pasada para hacer otra. */
+    private static final double TOLERANCIA = 1e-6;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* La resolución. */
+    private double resolucion;
+    /* La comunidad de cada vértice de la gráfica. */
+    private int[] comunidades;
+    /* El número de comunidades. */
+    private int total;
+    /* El número de niveles que juntaron vértices. */
+    private int niveles;
+    /* La modularidad de la partición. */
+    private double modularidad;
+
+    /* Los espacios de trabajo de los hilos. */
+    private ThreadLocal<Espacio> espacios;
+    /* El doble del peso total de las aristas. */
+    private double m2;
+    /* Dónde comienzan los arcos de cada vértice del nivel actual. */
+    private int[] inicios;
+    /* Los destinos de los arcos del nivel. */
+    private int[] destinos;
+    /* Los pesos de los arcos del nivel. */
+    private double[] pesos;
+    /* El grado con peso de cada vértice del nivel, con los lazos contados
+     * dos veces. */
+    private double[] grados;
+    /* El peso de los lazos de cada vértice del nivel. */
+    private double[] lazos;
+    /* La comunidad de cada vértice del nivel. */
+    private int[] comunidad;
+    /* La suma de los grados de cada comunidad del nivel. */
+    private double[] totales;
+    /* Los vértices del nivel ordenados por color. */
+    private int[] orden;
+    /* La comunidad a la que decidió moverse cada vértice. */
+    private int[] decisiones;
+    /* Lo que gana cada vértice al moverse. */
+    private double[] ganancias;
+
+    /* Calcula las comunidades de la gráfica con la resolución y el número
+     * de hilos recibidos. */
+    Comunidades(GraficaCompacta<T> grafica, double resolucion, int hilos) {
+	this.grafica = grafica;
+	this.resolucion = resolucion;
+	int n = grafica.getElementos();
+	inicios = grafica.inicios;
+	destinos = grafica.destinos;
+	pesos = grafica.pesos;
+	lazos = new double[n];
+	grados = new double[n];
+	for(int v = 0; v < n; v++)
+	    for(int e = inicios[v]; e < inicios[v+1]; e++)
+		grados[v] += pesos[e];
+	for(int v = 0; v < n; v++)
+	    m2 += grados[v];
+	comunidades = new int[n];
+	for(int v = 0; v < n; v++)
+	    comunidades[v] = v;
+	total = n;
+	espacios = ThreadLocal.withInitial(() -> new Espacio(n));
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    while(m2 > 0 && total > 1) {
+		int k = nivel(pool);
+		if(k == total)
+		    break;
+		for(int v = 0; v < n; v++)
+		    comunidades[v] = comunidad[comunidades[v]];
+		agrega(k);
+		total = k;
+		niveles++;
+	    }
+	} finally {
+	    pool.shutdown();
+	    espacios.remove();
+	}
+	espacios = null;
+	inicios = destinos = comunidad = orden = decisiones = null;
+	pesos = grados = lazos = totales = ganancias = null;
+	modularidad = calculaModularidad();
+    }
+
+    /* Mueve los vértices del nivel actual entre comunidades hasta que casi
+     * ninguno se mueve, y regresa el número de comunidades; las deja en
+     * comunidad numeradas desde cero. */
+    private int nivel(ForkJoinPool pool) {
+	int n = grados.length;
+	comunidad = new int[n];
+	totales = new double[n];
+	for(int v = 0; v < n; v++) {
+	    comunidad[v] = v;
+	    totales[v] = grados[v];
+	}
+	decisiones = new int[n];
+	ganancias = new double[n];
+	int[] colores = colorea();
+	for(int p = 0; p < MAXIMO_PASADAS; p++) {
+	    int movidos = 0;
+	    double ganancia = 0;
+	    for(int c = 0; c + 1 < colores.length; c++) {
+		int a = colores[c];
+		int b = colores[c+1];
+		if(b - a > BLOQUE)
+		    pool.invoke(new Decision(a, b));
+		else
+		    new Decision(a, b).compute();
+		for(int i = a; i < b; i++) {
+		    int v = orden[i];
+		    int d = decisiones[v];
+		    if(d == comunidad[v])
+			continue;
+		    totales[comunidad[v]] -= grados[v];
+		    totales[d] += grados[v];
+		    comunidad[v] = d;
+		    ganancia += ganancias[v];
+		    movidos++;
+		}
+	    }
+	    if(movidos == 0 || 2 * ganancia / m2 < TOLERANCIA)
+		break;
+	}
+	int[] numeros = new int[n];
+	Arrays.fill(numeros, -1);
+	int k = 0;
+	for(int v = 0; v < n; v++) {
+	    int c = comunidad[v];
+	    if(numeros[c] == -1)
+		numeros[c] = k++;
+	    comunidad[v] = numeros[c];
+	}
+	return k;
+    }
+
+    /* Colorea con avidez los vértices del nivel, de forma que dos vecinos
+     * nunca tengan el mismo color, y los deja en orden ordenados por color;
+     * regresa dónde comienza cada color en orden. */
+    private int[] colorea() {
+	int n = grados.length;
+	int[] color = new int[n];
+	Arrays.fill(color, -1);
+	int[] marcas = new int[n + 1];
+	Arrays.fill(marcas, -1);
+	int colores = 0;
+	for(int v = 0; v < n; v++) {
+	    for(int e = inicios[v]; e < inicios[v+1]; e++)
+		if(color[destinos[e]] != -1)
+		    marcas[color[destinos[e]]] = v;
+	    int c = 0;
+	    while(marcas[c] == v)
+		c++;
+	    color[v] = c;
+	    colores = Math.max(colores, c + 1);
+	}
+	int[] inicioColores = new int[colores + 1];
+	for(int v = 0; v < n; v++)
+	    inicioColores[color[v] + 1]++;
+	for(int c = 0; c < colores; c++)
+	    inicioColores[c+1] += inicioColores[c];
+	int[] cursores = Arrays.copyOf(inicioColores, colores);
+	orden = new int[n];
+	for(int v = 0; v < n; v++)
+	    orden[cursores[color[v]]++] = v;
+	return inicioColores;
+    }
+
+    /* Decide a qué comunidad vecina se mueve el vértice; se queda en la
+     * suya si ninguna es estrictamente mejor. */
+    private void decide(int v, Espacio espacio) {
+	double[] hacia = espacio.pesos;
+	int[] vecinas = espacio.vecinas;
+	int propia = comunidad[v];
+	hacia[propia] = 0;
+	vecinas[0] = propia;
+	int t = 1;
+	for(int e = inicios[v]; e < inicios[v+1]; e++) {
+	    int c = comunidad[destinos[e]];
+	    if(hacia[c] < 0) {
+		hacia[c] = 0;
+		vecinas[t++] = c;
+	    }
+	    hacia[c] += pesos[e];
+	}
+	double factor = resolucion * grados[v] / m2;
+	double quedarse = hacia[propia] - factor * (totales[propia] - grados[v]);
+	int mejor = propia;
+	double maxima = quedarse;
+	for(int i = 1; i < t; i++) {
+	    int c = vecinas[i];
+	    double g = hacia[c] - factor * totales[c];
+	    if(g > maxima) {
+		maxima = g;
+		mejor = c;
+	    }
+	}
+	for(int i = 0; i < t; i++)
+	    hacia[vecinas[i]] = -1;
+	decisiones[v] = mejor;
+	ganancias[v] = maxima - quedarse;
+    }
+
+    /* Junta cada una de las k comunidades del nivel en un vértice, y deja
+     * la gráfica agregada como el nivel actual. */
+    private void agrega(int k) {
+	int n = grados.length;
+	int[] inicioMiembros = new int[k + 1];
+	for(int v = 0; v < n; v++)
+	    inicioMiembros[comunidad[v] + 1]++;
+	for(int c = 0; c < k; c++)
+	    inicioMiembros[c+1] += inicioMiembros[c];
+	int[] cursores = Arrays.copyOf(inicioMiembros, k);
+	int[] miembros = new int[n];
+	for(int v = 0; v < n; v++)
+	    miembros[cursores[comunidad[v]]++] = v;
+	Espacio espacio = espacios.get();
+	double[] hacia = espacio.pesos;
+	int[] vecinas = espacio.vecinas;
+	int[] nuevosInicios = new int[k + 1];
+	int[] nuevosDestinos = new int[destinos.length];
+	double[] nuevosPesos = new double[destinos.length];
+	double[] nuevosLazos = new double[k];
+	double[] nuevosGrados = new double[k];
+	int arcos = 0;
+	for(int c = 0; c < k; c++) {
+	    int t = 0;
+	    for(int i = inicioMiembros[c]; i < inicioMiembros[c+1]; i++) {
+		int v = miembros[i];
+		nuevosLazos[c] += lazos[v];
+		nuevosGrados[c] += grados[v];
+		for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		    int d = comunidad[destinos[e]];
+		    /* Las aristas internas se ven desde sus dos
+		     * extremos. */
+		    if(d == c) {
+			nuevosLazos[c] += pesos[e] / 2;
+			continue;
+		    }
+		    if(hacia[d] < 0) {
+			hacia[d] = 0;
+			vecinas[t++] = d;
+		    }
+		    hacia[d] += pesos[e];
+		}
+	    }
+	    for(int i = 0; i < t; i++) {
+		nuevosDestinos[arcos] = vecinas[i];
+		nuevosPesos[arcos++] = hacia[vecinas[i]];
+		hacia[vecinas[i]] = -1;
+	    }
+	    nuevosInicios[c+1] = arcos;
+	}
+	inicios = nuevosInicios;
+	destinos = Arrays.copyOf(nuevosDestinos, arcos);
+	pesos = Arrays.copyOf(nuevosPesos, arcos);
+	lazos = nuevosLazos;
+	grados = nuevosGrados;
+    }
+
+    /* Calcula la modularidad de la partición sobre la gráfica original. */
+    private double calculaModularidad() {
+	if(m2 == 0)
+	    return 0;
+	int n = comunidades.length;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	double[] totales = new double[total];
+	double interno = 0;
+	for(int v = 0; v < n; v++)
+	    for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		totales[comunidades[v]] += pesos[e];
+		if(comunidades[destinos[e]] == comunidades[v])
+		    interno += pesos[e];
+	    }
+	double esperado = 0;
+	for(int c = 0; c < total; c++)
+	    esperado += (totales[c] / m2) * (totales[c] / m2);
+	return interno / m2 - resolucion * esperado;
+    }
+
+    /**
+     * Regresa el número de comunidades.
+     * @return el número de comunidades.
+     */
+    public int getNumeroComunidades() {
+	return total;
+    }
+
+    /**
+     * Regresa la comunidad de un elemento, un entero entre cero y el número
+     * de comunidades menos uno.
+     * @param elemento el elemento.
+     * @return la comunidad del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int getComunidad(T elemento) {
+	return comunidades[grafica.indice(elemento)];
+    }
+
+    /**
+     * Regresa las comunidades de todos los elementos.
+     * @return un diccionario con la comunidad de cada elemento.
+     */
+    public Diccionario<T, Integer> getComunidades() {
+	int n = comunidades.length;
+	Diccionario<T, Integer> d = new Diccionario<T, Integer>(n * 2);
+	for(int v = 0; v < n; v++)
+	    d.agrega(grafica.get(v), comunidades[v]);
+	return d;
+    }
+
+    /**
+     * Regresa los elementos de una comunidad.
+     * @param comunidad la comunidad.
+     * @return una lista con los elementos de la comunidad.
+     * @throws NoSuchElementException si la comunidad no es un entero entre
+     *         cero y el número de comunidades menos uno.
+     */
+    public Lista<T> getMiembros(int comunidad) {
+	if(comunidad < 0 || comunidad >= total)
+	    throw new NoSuchElementException("Comunidad inválida");
+	Lista<T> l = new Lista<T>();
+	for(int v = 0; v < comunidades.length; v++)
+	    if(comunidades[v] == comunidad)
+		l.agrega(grafica.get(v));
+	return l;
+    }
+
+    /**
+     * Regresa la modularidad de la partición en comunidades, con la
+     * resolución con la que se calcularon.
+     * @return la modularidad, o cero si la gráfica no tiene aristas.
+     */
+    public double getModularidad() {
+	return modularidad;
+    }
+
+    /**
+     * Regresa el número de niveles que juntaron vértices en comunidades.
+     * @return el número de niveles.
+     */
+    public int getNiveles() {
+	return niveles;
+    }
+}
@@ -0,0 +1,146 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para conjuntos disjuntos (<i>union-find</i>). Los elementos son los
+ * enteros de 0 a <i>n</i>-1, y al inicio cada uno está en su propio conjunto;
+ * la estructura permite unir dos conjuntos y encontrar el representante del
+ * conjunto de un elemento.</p>
+ *
+ * <p>Los conjuntos se guardan como árboles en un arreglo de padres. Unimos
+ * por rango (el árbol más bajo cuelga del más alto) y comprimimos las
+ * trayectorias al buscar, por lo que una sucesión de <i>m</i> operaciones
+ * toma tiempo O(<i>m</i> α(<i>n</i>)), prácticamente lineal.</p>
+ */
+public class ConjuntosDisjuntos {
+
+    /* El padre de cada elemento; los representantes son su propio padre. */
+    private int[] padres;
+    /* Una cota superior de la altura del árbol de cada representante. */
+    private byte[] rangos;
+    /* El número de elementos. */
+    private int elementos;
+    /* El número de conjuntos. */
+    private int conjuntos;
+
+    /**
+     * Construye una estructura vacía.
+     */
+    public ConjuntosDisjuntos() {
+	this(0);
+    }
+
+    /**
+     * Construye una estructura con los elementos de 0 a <i>n</i>-1, cada uno
+     * en su propio conjunto.
+     * @param n el número de elementos.
+     * @throws IllegalArgumentException si n es negativo.
+     */
+    public ConjuntosDisjuntos(int n) {
+	if(n < 0)
+	    throw new IllegalArgumentException("Número de elementos inválido");
+	padres = new int[Math.max(n, 16)];
+	rangos = new byte[padres.length];
+	for(int i = 0; i < n; i++)
+	    padres[i] = i;
+	elementos = conjuntos = n;
+    }
+
+    /**
+     * Agrega un nuevo elemento, en su propio conjunto, y lo regresa.
+     * @return el nuevo elemento.
+     */
+    public int agrega() {
+	if(elementos == padres.length) {
+	    int[] p = new int[padres.length * 2];
+	    byte[] r = new byte[p.length];
+	    System.arraycopy(padres, 0, p, 0, elementos);
+	    System.arraycopy(rangos, 0, r, 0, elementos);
+	    padres = p;
+	    rangos = r;
+	}
+	padres[elementos] = elementos;
+	conjuntos++;
+	return elementos++;
+    }
+
+    /**
+     * Regresa el representante del conjunto del elemento. Dos elementos están
+     * en el mismo conjunto si y sólo si tienen el mismo representante.
+     * @param elemento el elemento.
+     * @return el representante del conjunto del elemento.
+     * @throws NoSuchElementException si el elemento es inválido.
+     */
+    public int encuentra(int elemento) {
+	valida(elemento);
+	int r = elemento;
+	while(padres[r] != r)
+	    r = padres[r];
+	while(padres[elemento] != r) {
+	    int p = padres[elemento];
+	    padres[elemento] = r;
+	    elemento = p;
+	}
+	return r;
+    }
+
+    /**
+     * Une los conjuntos de dos elementos.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return <code>true</code> si los elementos estaban en conjuntos
+     *         distintos, <code>false</code> en otro caso.
+     * @throws NoSuchElementException si algún elemento es inválido.
+     */
+    public boolean une(int a, int b) {
+	a = encuentra(a);
+	b = encuentra(b);
+	if(a == b)
+	    return false;
+	if(rangos[a] < rangos[b]) {
+	    int t = a;
+	    a = b;
+	    b = t;
+	}
+	padres[b] = a;
+	if(rangos[a] == rangos[b])
+	    rangos[a]++;
+	conjuntos--;
+	return true;
+    }
+
+    /**
+     * Nos dice si dos elementos están en el mismo conjunto.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return <code>true</code> si los elementos están en el mismo conjunto,
+     *         <code>false</code> en otro caso.
+     * @throws NoSuchElementException si algún elemento es inválido.
+     */
+    public boolean mismoConjunto(int a, int b) {
+	return encuentra(a) == encuentra(b);
+    }
+
+    /**
+     * Regresa el número de elementos.
+     * @return el número de elementos.
+     */
+    public int getElementos() {
+	return elementos;
+    }
+
+    /**
+     * Regresa el número de conjuntos.
+     * @return el número de conjuntos.
+     */
+    public int getConjuntos() {
+	return conjuntos;
+    }
+
+    /* Verifica que el elemento sea válido. */
+    private void valida(int elemento) {
+	if(elemento < 0 || elemento >= elementos)
+	    throw new NoSuchElementException("Elemento inválido");
+    }
+}
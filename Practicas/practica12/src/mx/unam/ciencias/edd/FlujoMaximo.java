@@ -0,0 +1,461 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para flujos máximos entre dos vértices de una gráfica. Los pesos
+ * de las aristas son sus capacidades, y como la gráfica no es dirigida el
+ * flujo puede cruzar cada arista en cualquier sentido (pero no en los dos a
+ * la vez).</p>
+ *
+ * <p>El flujo se calcula sobre una red residual en formato CSR, con las
+ * vecindades ordenadas por destino; cada arista son dos arcos, uno en cada
+ * sentido, y cada arco sabe dónde está su gemelo. Además del valor del
+ * flujo, el resultado tiene un corte mínimo: una partición de los vértices
+ * en los del lado de la fuente y los del lado del sumidero, tal que la
+ * suma de las capacidades de las aristas que cruzan es igual al valor del
+ * flujo.</p>
+ *
+ * <p>Los flujos no cambian una vez calculados; describen a la gráfica como
+ * era al calcularlos.</p>
+ */
+public class FlujoMaximo<T> {
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* El índice de la fuente. */
+    private int fuente;
+    /* El índice del sumidero. */
+    private int sumidero;
+    /* Dónde comienza la vecindad de cada vértice en la red residual. */
+    private int[] inicios;
+    /* Los destinos de los arcos, ordenados en cada vecindad. */
+    private int[] destinos;
+    /* La posición del arco gemelo de cada arco. */
+    private int[] gemelos;
+    /* La capacidad original de cada arco. */
+    private double[] capacidades;
+    /* La capacidad residual de cada arco. */
+    private double[] residuales;
+    /* Si cada vértice está del lado de la fuente en el corte mínimo. */
+    private boolean[] ladoFuente;
+    /* El valor del flujo. */
+    private double valor;
+
+    /* Calcula el flujo máximo de la fuente al sumidero con el algoritmo
+     * recibido. */
+    FlujoMaximo(GraficaCompacta<T> grafica, int fuente, int sumidero,
+		AlgoritmoFlujo algoritmo) {
+	this.grafica = grafica;
+	this.fuente = fuente;
+	this.sumidero = sumidero;
+	construyeRed();
+	if(algoritmo == AlgoritmoFlujo.DINIC)
+	    dinic();
+	else
+	    empujeReetiqueta();
+    }
+
+    /**
+     * Regresa el elemento fuente.
+     * @return el elemento fuente.
+     */
+    public T getFuente() {
+	return grafica.get(fuente);
+    }
+
+    /**
+     * Regresa el elemento sumidero.
+     * @return el elemento sumidero.
+     */
+    public T getSumidero() {
+	return grafica.get(sumidero);
+    }
+
+    /**
+     * Regresa el valor del flujo máximo, que es también la capacidad del
+     * corte mínimo.
+     * @return el valor del flujo máximo.
+     */
+    public double getValor() {
+	return valor;
+    }
+
+    /**
+     * Regresa el flujo que pasa por la arista entre dos elementos, en el
+     * sentido de <code>a</code> a <code>b</code>; es negativo si el flujo va
+     * de <code>b</code> a <code>a</code>.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return el flujo de <code>a</code> a <code>b</code>.
+     * @throws NoSuchElementException si a o b no están en la gráfica.
+     * @throws IllegalArgumentException si a y b no son vecinos.
+     */
+    public double getFlujo(T a, T b) {
+	int e = arco(grafica.indice(a), grafica.indice(b));
+	if(e == -1)
+	    throw new IllegalArgumentException("No son vecinos");
+	return capacidades[e] - residuales[e];
+    }
+
+    /**
+     * Nos dice si un elemento está del lado de la fuente en el corte mínimo.
+     * @param elemento el elemento.
+     * @return <code>true</code> si el elemento está del lado de la fuente,
+     *         <code>false</code> si está del lado del sumidero.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public boolean estaDelLadoFuente(T elemento) {
+	return ladoFuente[grafica.indice(elemento)];
+    }
+
+    /**
+     * Regresa los elementos del lado de la fuente en el corte mínimo.
+     * @return una lista con los elementos del lado de la fuente.
+     */
+    public Lista<T> getLadoFuente() {
+	return lado(true);
+    }
+
+    /**
+     * Regresa los elementos del lado del sumidero en el corte mínimo.
+     * @return una lista con los elementos del lado del sumidero.
+     */
+    public Lista<T> getLadoSumidero() {
+	return lado(false);
+    }
+
+    /* Regresa los elementos de un lado del corte. */
+    private Lista<T> lado(boolean fuente) {
+	Lista<T> lista = new Lista<T>();
+	for(int v = 0; v < ladoFuente.length; v++)
+	    if(ladoFuente[v] == fuente)
+		lista.agregaFinal(grafica.get(v));
+	return lista;
+    }
+
+    /* Regresa la posición del arco de v a u, o -1 si no existe. */
+    private int arco(int v, int u) {
+	int a = inicios[v];
+	int b = inicios[v+1] - 1;
+	while(a <= b) {
+	    int m = (a + b) >>> 1;
+	    if(destinos[m] == u)
+		return m;
+	    if(destinos[m] < u)
+		a = m + 1;
+	    else
+		b = m - 1;
+	}
+	return -1;
+    }
+
+    /* Construye la red residual. Transponer la gráfica recorriendo los
+     * orígenes en orden deja cada vecindad ordenada por destino; como la
+     * gráfica es simétrica, la transpuesta es la misma gráfica. En una
+     * segunda pasada el arco de u a v es el siguiente de los arcos que
+     * llegan a v, así que encontramos a los gemelos. */
+    private void construyeRed() {
+	int n = grafica.getElementos();
+	int m = grafica.destinos.length;
+	inicios = grafica.inicios;
+	destinos = new int[m];
+	capacidades = new double[m];
+	gemelos = new int[m];
+	int[] cursores = new int[n];
+	System.arraycopy(inicios, 0, cursores, 0, n);
+	for(int u = 0; u < n; u++) {
+	    for(int a = inicios[u]; a < inicios[u+1]; a++) {
+		int p = cursores[grafica.destinos[a]]++;
+		destinos[p] = u;
+		capacidades[p] = grafica.pesos[a];
+	    }
+	}
+	System.arraycopy(inicios, 0, cursores, 0, n);
+	for(int u = 0; u < n; u++)
+	    for(int a = inicios[u]; a < inicios[u+1]; a++)
+		gemelos[a] = cursores[destinos[a]]++;
+	residuales = capacidades.clone();
+    }
+
+    /* Manda flujo por un arco y actualiza a su gemelo. */
+    private void empuja(int a, double flujo) {
+	residuales[a] -= flujo;
+	residuales[gemelos[a]] += flujo;
+    }
+
+    /* Algoritmo de Dinic: mientras el sumidero sea alcanzable, construye la
+     * gráfica de niveles con BFS y la satura con un flujo bloqueante. */
+    private void dinic() {
+	int n = grafica.getElementos();
+	int[] niveles = new int[n];
+	int[] actuales = new int[n];
+	int[] cola = new int[n];
+	/* La trayectoria del flujo bloqueante, como pila de arcos. */
+	int[] arcos = new int[n];
+	while(niveles(niveles, cola)) {
+	    for(int v = 0; v < n; v++)
+		actuales[v] = inicios[v];
+	    int profundidad = 0;
+	    int v = fuente;
+	    while(true) {
+		if(v == sumidero) {
+		    double flujo = Double.POSITIVE_INFINITY;
+		    for(int i = 0; i < profundidad; i++)
+			flujo = Math.min(flujo, residuales[arcos[i]]);
+		    int saturado = -1;
+		    for(int i = 0; i < profundidad; i++) {
+			empuja(arcos[i], flujo);
+			if(saturado == -1 && residuales[arcos[i]] == 0)
+			    saturado = i;
+		    }
+		    valor += flujo;
+		    /* Regresamos al origen del primer arco saturado. */
+		    profundidad = saturado;
+		    v = profundidad == 0 ? fuente :
+			destinos[arcos[profundidad-1]];
+		    continue;
+		}
+		int a = actuales[v];
+		while(a < inicios[v+1] &&
+		       (residuales[a] <= 0 ||
+			niveles[destinos[a]] != niveles[v] + 1))
+		    a++;
+		actuales[v] = a;
+		if(a < inicios[v+1]) {
+		    arcos[profundidad++] = a;
+		    v = destinos[a];
+		    continue;
+		}
+		/* No hay salida: el vértice muere para esta fase. */
+		if(v == fuente)
+		    break;
+		niveles[v] = -1;
+		profundidad--;
+		v = profundidad == 0 ? fuente : destinos[arcos[profundidad-1]];
+		actuales[v]++;
+	    }
+	}
+	/* Los vértices que alcanza la fuente en la red residual. */
+	ladoFuente = new boolean[n];
+	for(int v = 0; v < n; v++)
+	    ladoFuente[v] = niveles[v] >= 0;
+    }
+
+    /* Calcula el nivel de cada vértice con una BFS desde la fuente en la
+     * red residual, y regresa si se alcanzó el sumidero. */
+    private boolean niveles(int[] niveles, int[] cola) {
+	for(int v = 0; v < niveles.length; v++)
+	    niveles[v] = -1;
+	niveles[fuente] = 0;
+	cola[0] = fuente;
+	int cabeza = 0;
+	int fin = 1;
+	while(cabeza < fin) {
+	    int v = cola[cabeza++];
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int u = destinos[a];
+		if(residuales[a] > 0 && niveles[u] == -1) {
+		    niveles[u] = niveles[v] + 1;
+		    cola[fin++] = u;
+		}
+	    }
+	}
+	return niveles[sumidero] != -1;
+    }
+
+    /* Empuje y reetiquetado por la etiqueta más alta, con la heurística de
+     * huecos y reetiquetados globales periódicos. La primera fase calcula
+     * un preflujo máximo: los vértices de altura n ya no llegan al
+     * sumidero, así que se dejan con su exceso. La segunda fase regresa
+     * esos excesos a la fuente para que el resultado sea un flujo. */
+    private void empujeReetiqueta() {
+	int n = grafica.getElementos();
+	int[] alturas = new int[n];
+	double[] excesos = new double[n];
+	int[] actuales = new int[n];
+	/* Los vértices activos de cada altura, en listas ligadas. */
+	int[] activos = new int[n];
+	int[] siguientes = new int[n];
+	/* Cuántos vértices hay de cada altura menor que n. */
+	int[] cuenta = new int[n];
+	int[] cola = new int[n];
+	for(int a = inicios[fuente]; a < inicios[fuente+1]; a++) {
+	    double c = residuales[a];
+	    excesos[destinos[a]] += c;
+	    excesos[fuente] -= c;
+	    empuja(a, c);
+	}
+	int maxima = reetiquetaGlobal(alturas, excesos, actuales, activos,
+				      siguientes, cuenta, cola);
+	int reetiquetados = 0;
+	while(maxima >= 0) {
+	    if(reetiquetados >= n) {
+		reetiquetados = 0;
+		maxima = reetiquetaGlobal(alturas, excesos, actuales, activos,
+					  siguientes, cuenta, cola);
+		continue;
+	    }
+	    int v = activos[maxima];
+	    if(v == -1) {
+		maxima--;
+		continue;
+	    }
+	    activos[maxima] = siguientes[v];
+	    /* Si un hueco lo subió, el vértice ya no está activo. */
+	    if(alturas[v] != maxima)
+		continue;
+	    while(excesos[v] > 0 && alturas[v] < n) {
+		int a = actuales[v];
+		if(a < inicios[v+1]) {
+		    int u = destinos[a];
+		    if(residuales[a] > 0 && alturas[v] == alturas[u] + 1) {
+			if(excesos[u] == 0 && u != sumidero) {
+			    siguientes[u] = activos[alturas[u]];
+			    activos[alturas[u]] = u;
+			}
+			double flujo = Math.min(excesos[v], residuales[a]);
+			empuja(a, flujo);
+			excesos[v] -= flujo;
+			excesos[u] += flujo;
+		    } else {
+			actuales[v]++;
+		    }
+		    continue;
+		}
+		reetiquetados++;
+		int vieja = alturas[v];
+		cuenta[vieja]--;
+		if(cuenta[vieja] == 0) {
+		    /* Hueco: nadie arriba de él llega al sumidero. */
+		    for(int u = 0; u < n; u++) {
+			if(alturas[u] > vieja && alturas[u] < n) {
+			    cuenta[alturas[u]]--;
+			    alturas[u] = n;
+			}
+		    }
+		    alturas[v] = n;
+		    break;
+		}
+		alturas[v] = alturaMinima(v, alturas, n);
+		actuales[v] = inicios[v];
+		if(alturas[v] < n) {
+		    cuenta[alturas[v]]++;
+		    maxima = Math.max(maxima, alturas[v]);
+		}
+	    }
+	}
+	valor = excesos[sumidero];
+	devuelveExcesos(alturas, excesos, actuales, cola);
+	/* Los vértices que no llegan al sumidero en la red residual. */
+	boolean[] llegan = new boolean[n];
+	llegan[sumidero] = true;
+	cola[0] = sumidero;
+	int cabeza = 0;
+	int fin = 1;
+	while(cabeza < fin) {
+	    int v = cola[cabeza++];
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int u = destinos[a];
+		if(!llegan[u] && residuales[gemelos[a]] > 0) {
+		    llegan[u] = true;
+		    cola[fin++] = u;
+		}
+	    }
+	}
+	ladoFuente = new boolean[n];
+	for(int v = 0; v < n; v++)
+	    ladoFuente[v] = !llegan[v];
+    }
+
+    /* Regresa uno más que la altura mínima de los vecinos a los que v
+     * todavía puede mandar flujo, sin pasar del tope. */
+    private int alturaMinima(int v, int[] alturas, int tope) {
+	int minima = tope;
+	for(int a = inicios[v]; a < inicios[v+1]; a++)
+	    if(residuales[a] > 0)
+		minima = Math.min(minima, alturas[destinos[a]] + 1);
+	return minima;
+    }
+
+    /* Segunda fase del empuje y reetiquetado: descarga en orden FIFO los
+     * vértices que se quedaron con exceso. Ninguno de ellos llega al
+     * sumidero, así que el exceso regresa a la fuente. */
+    private void devuelveExcesos(int[] alturas, double[] excesos,
+				 int[] actuales, int[] cola) {
+	int n = alturas.length;
+	int cabeza = 0;
+	int elementos = 0;
+	for(int v = 0; v < n; v++)
+	    if(v != fuente && v != sumidero && excesos[v] > 0)
+		cola[elementos++] = v;
+	while(elementos > 0) {
+	    int v = cola[cabeza];
+	    cabeza = (cabeza + 1) % n;
+	    elementos--;
+	    while(excesos[v] > 0) {
+		int a = actuales[v];
+		if(a == inicios[v+1]) {
+		    alturas[v] = alturaMinima(v, alturas, 2 * n);
+		    actuales[v] = inicios[v];
+		    continue;
+		}
+		int u = destinos[a];
+		if(residuales[a] > 0 && alturas[v] == alturas[u] + 1) {
+		    if(excesos[u] == 0 && u != fuente) {
+			cola[(cabeza + elementos) % n] = u;
+			elementos++;
+		    }
+		    double flujo = Math.min(excesos[v], residuales[a]);
+		    empuja(a, flujo);
+		    excesos[v] -= flujo;
+		    excesos[u] += flujo;
+		} else {
+		    actuales[v]++;
+		}
+	    }
+	}
+    }
+
+    /* Define la altura de cada vértice como su distancia al sumidero en la
+     * red residual (n si no llega), y reconstruye los arcos actuales, las
+     * listas de activos y las cuentas. Regresa la altura activa más alta,
+     * o -1 si no hay activos. */
+    private int reetiquetaGlobal(int[] alturas, double[] excesos,
+				 int[] actuales, int[] activos,
+				 int[] siguientes, int[] cuenta, int[] cola) {
+	int n = alturas.length;
+	for(int v = 0; v < n; v++) {
+	    alturas[v] = n;
+	    actuales[v] = inicios[v];
+	    activos[v] = -1;
+	    cuenta[v] = 0;
+	}
+	alturas[sumidero] = 0;
+	cola[0] = sumidero;
+	int cabeza = 0;
+	int fin = 1;
+	while(cabeza < fin) {
+	    int v = cola[cabeza++];
+	    cuenta[alturas[v]]++;
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int u = destinos[a];
+		if(alturas[u] == n && u != fuente &&
+		    residuales[gemelos[a]] > 0) {
+		    alturas[u] = alturas[v] + 1;
+		    cola[fin++] = u;
+		}
+	    }
+	}
+	int maxima = -1;
+	for(int v = 0; v < n; v++) {
+	    if(v != fuente && v != sumidero && excesos[v] > 0 &&
+		alturas[v] < n) {
+		siguientes[v] = activos[alturas[v]];
+		activos[alturas[v]] = v;
+		maxima = Math.max(maxima, alturas[v]);
+	    }
+	}
+	return maxima;
+    }
+}
@@ -2,6 +2,9 @@ package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
 
 /**
  * Clase para gráficas. Una gráfica es un conjunto de vértices y aristas, tales
@@ -28,6 +31,124 @@ public class Grafica<T> implements Coleccion<T> {
         /* Regresa el siguiente elemento. */
         @Override public T next() {
 	    return iterador.next().elemento;
+	}
+    }
+
+    /* Clase privada para recorrer la gráfica por BFS conforme se piden los
+     * vértices. */
+    private class RecorridoAnchura implements Iterator<VerticeGrafica<T>> {
+
+	/* Los vértices descubiertos que faltan por regresar. */
+	private Cola<Vertice> cola;
+	/* La profundidad de cada vértice descubierto. */
+	private Diccionario<T, Integer> profundidades;
+	/* La profundidad máxima. */
+	private int limite;
+	/* El último vértice regresado; sus vecinos no se descubren hasta que
+	 * se pida el siguiente. */
+	private Vertice anterior;
+
+	/* Construye un recorrido desde el origen hasta la profundidad
+	 * recibida. */
+	public RecorridoAnchura(Vertice origen, int limite) {
+	    this.limite = limite;
+	    cola = new Cola<Vertice>();
+	    profundidades = new Diccionario<T, Integer>();
+	    cola.mete(origen);
+	    profundidades.agrega(origen.elemento, 0);
+	}
+
+	/* Nos dice si hay un siguiente vértice. */
+	@Override public boolean hasNext() {
+	    if(anterior != null) {
+		descubre(anterior);
+		anterior = null;
+	    }
+	    return !cola.esVacia();
+	}
+
+	/* Regresa el siguiente vértice. */
+	@Override public VerticeGrafica<T> next() {
+	    if(!hasNext())
+		throw new NoSuchElementException("No hay más vértices");
+	    anterior = cola.saca();
+	    return anterior;
+	}
+
+	/* Descubre a los vecinos de un vértice, si no está en la profundidad
+	 * máxima. */
+	private void descubre(Vertice v) {
+	    int profundidad = profundidades.get(v.elemento);
+	    if(profundidad == limite)
+		return;
+	    for(Vecino ve : v.vecinos) {
+		if(profundidades.contiene(ve.vecino.elemento))
+		    continue;
+		profundidades.agrega(ve.vecino.elemento, profundidad + 1);
+		cola.mete(ve.vecino);
+	    }
+	}
+    }
+
+    /* Clase privada para recorrer la gráfica por DFS conforme se piden los
+     * vértices. */
+    private class RecorridoProfundidad
+	implements Iterator<VerticeGrafica<T>> {
+
+	/* Los iteradores de los vecinos de los vértices en la rama actual. */
+	private Pila<Iterator<Vecino>> pila;
+	/* Los vértices descubiertos. */
+	private Conjunto<T> visitados;
+	/* El último vértice regresado; sus vecinos no se revisan hasta que se
+	 * pida el siguiente. */
+	private Vertice anterior;
+	/* El siguiente vértice, si ya se encontró. */
+	private Vertice siguiente;
+
+	/* Construye un recorrido desde el origen. */
+	public RecorridoProfundidad(Vertice origen) {
+	    pila = new Pila<Iterator<Vecino>>();
+	    visitados = new Conjunto<T>();
+	    visitados.agrega(origen.elemento);
+	    siguiente = origen;
+	}
+
+	/* Nos dice si hay un siguiente vértice. */
+	@Override public boolean hasNext() {
+	    if(siguiente == null)
+		busca();
+	    return siguiente != null;
+	}
+
+	/* Regresa el siguiente vértice. */
+	@Override public VerticeGrafica<T> next() {
+	    if(!hasNext())
+		throw new NoSuchElementException("No hay más vértices");
+	    anterior = siguiente;
+	    siguiente = null;
+	    return anterior;
+	}
+
+	/* Baja por el primer vecino no descubierto del vértice más profundo
+	 * de la rama que todavía tenga alguno, regresando por la rama cuando
+	 * un vértice ya no tiene. */
+	private void busca() {
+	    if(anterior != null) {
+		pila.mete(anterior.vecinos.iterator());
+		anterior = null;
+	    }
+	    while(!pila.esVacia()) {
+		Iterator<Vecino> iterador = pila.mira();
+		while(iterador.hasNext()) {
+		    Vertice v = iterador.next().vecino;
+		    if(visitados.contiene(v.elemento))
+			continue;
+		    visitados.agrega(v.elemento);
+		    siguiente = v;
+		    return;
+		}
+		pila.saca();
+	    }
         }
     }
 
@@ -44,15 +165,26 @@ public class Grafica<T> implements Coleccion<T> {
         public double distancia;
         /* El índice del vértice. */
         public int indice;
+        /* El vértice anterior en la trayectoria calculada por Dijkstra. */
+        public Vertice anterior;
+        /* El elemento del vértice en los conjuntos disjuntos de las
+         * componentes conexas. */
+        public int conjunto;
         /* El diccionario de vecinos del vértice. */
         public Diccionario<T, Vecino> vecinos;
 
         /* Crea un nuevo vértice a partir de un elemento. */
         public Vertice(T elemento) {
+	    this(elemento, new Diccionario<T, Vecino>());
+        }
+
+        /* Crea un nuevo vértice a partir de un elemento y su diccionario de
+         * vecinos. */
+        public Vertice(T elemento, Diccionario<T, Vecino> vecinos) {
 	    this.elemento = elemento;
 	    color = Color.NINGUNO;
 	    indice = -1;
-	    vecinos = new Diccionario<T, Vecino>();
+	    this.vecinos = vecinos;
         }
 
         /* Regresa el elemento del vértice. */
@@ -126,7 +258,9 @@ public class Grafica<T> implements Coleccion<T> {
         /* Construye un nuevo vecino con el vértice recibido como vecino y el
          * peso especificado. */
         public Vecino(Vertice vecino, double peso) {
-	    super(vecino.get());
+	    /* Los vecinos usan los vecinos de su vértice; no necesitan un
+	     * diccionario propio. */
+	    super(vecino.get(), null);
 	    this.vecino = vecino;
 	    this.peso = peso;
         }
@@ -157,6 +291,50 @@ public class Grafica<T> implements Coleccion<T> {
         }
     }
 
+    /* Vecindades de la gráfica con los vértices numerados en el orden en que
+     * se iteran, leídas directamente de los diccionarios de vecinos. */
+    private class VecindadesGrafica implements Vecindades<T> {
+
+        /* Los vértices, por índice. */
+        public Vertice[] arreglo;
+        /* El índice de cada elemento. */
+        public Diccionario<T, Integer> indices;
+
+        /* Numera los vértices en el orden en que se iteran. */
+        @SuppressWarnings("unchecked") public VecindadesGrafica() {
+	    int n = vertices.getElementos();
+	    arreglo = (Vertice[])new Grafica.Vertice[n];
+	    indices = new Diccionario<T, Integer>(n);
+	    int i = 0;
+	    for(Vertice v : vertices){
+		indices.agrega(v.elemento, i);
+		arreglo[i++] = v;
+	    }
+        }
+
+        /* Regresa el número de vértices. */
+        @Override public int getElementos() {
+	    return arreglo.length;
+        }
+
+        /* Regresa el elemento del vértice. */
+        @Override public T get(int v) {
+	    return arreglo[v].elemento;
+        }
+
+        /* Regresa el grado del vértice. */
+        @Override public int getGrado(int v) {
+	    return arreglo[v].vecinos.getElementos();
+        }
+
+        /* Copia los índices de los vecinos del vértice. */
+        @Override public void vecinos(int v, int[] vecinos) {
+	    int k = 0;
+	    for(Vecino ve : arreglo[v].vecinos)
+		vecinos[k++] = indices.get(ve.vecino.elemento);
+        }
+    }
+
     /* Interface para poder usar lambdas al buscar el elemento que sigue al
      * reconstruir un camino. */
     @FunctionalInterface
@@ -169,6 +347,18 @@ public class Grafica<T> implements Coleccion<T> {
     private Diccionario<T, Vertice> vertices;
     /* Número de aristas. */
     private int aristas;
+    /* La representación compacta; null si la gráfica cambió desde que se
+     * construyó. */
+    private GraficaCompacta<T> compacta;
+    /* Las componentes conexas; null si se desconectaron vértices desde que
+     * se construyeron. */
+    private ConjuntosDisjuntos componentes;
+    /* Las trayectorias dinámicas que se actualizan con cada cambio. */
+    private Lista<TrayectoriasDinamicas<T>> dinamicas;
+    /* La versión de la gráfica; crece con cada cambio. */
+    private long version;
+    /* El caché de trayectorias; null si no está activado. */
+    private CacheTrayectorias<T> cache;
 
     /**
      * Constructor único.
@@ -176,6 +366,14 @@ public class Grafica<T> implements Coleccion<T> {
     public Grafica() {
 	vertices = new Diccionario<T, Vertice>();
 	this.aristas = 0;
+	componentes = new ConjuntosDisjuntos();
+    }
+
+    /* Construye una gráfica con espacio para el número de elementos
+     * recibido. */
+    Grafica(int capacidad) {
+	vertices = new Diccionario<T, Vertice>(capacidad);
+	componentes = new ConjuntosDisjuntos();
     }
 
     /**
@@ -204,7 +402,14 @@ public class Grafica<T> implements Coleccion<T> {
     @Override public void agrega(T elemento) {
 	if(elemento == null || contiene(elemento))
 	    throw new IllegalArgumentException("El elemento es null");
-	vertices.agrega(elemento, new Vertice(elemento));
+	Vertice v = new Vertice(elemento);
+	vertices.agrega(elemento, v);
+	if(componentes != null)
+	    v.conjunto = componentes.agrega();
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.agregado(elemento);
     }
 
     /**
@@ -238,7 +443,50 @@ public class Grafica<T> implements Coleccion<T> {
 	va.vecinos.agrega(vb.elemento, new Vecino(vb, peso));
 	vb.vecinos.agrega(va.elemento, new Vecino(va, peso));
 	aristas++;
-    } 
+	if(componentes != null)
+	    componentes.une(va.conjunto, vb.conjunto);
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.conectados(a, b, peso);
+    }
+
+    /* Conecta dos elementos, agregándolos si no están en la gráfica, y
+     * regresa true; si ya estaban conectados no hace nada y regresa false.
+     * Es para cargar gráficas en bloque: no valida el peso, pero sí que los
+     * elementos sean distintos. */
+    boolean agregaArista(T a, T b, double peso) {
+	if(a.equals(b))
+	    throw new IllegalArgumentException("No se puede conectar");
+	Vertice va = verticeOAgrega(a);
+	Vertice vb = verticeOAgrega(b);
+	if(va.vecinos.contiene(b))
+	    return false;
+	va.vecinos.agrega(b, new Vecino(vb, peso));
+	vb.vecinos.agrega(a, new Vecino(va, peso));
+	aristas++;
+	if(componentes != null)
+	    componentes.une(va.conjunto, vb.conjunto);
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.conectados(a, b, peso);
+	return true;
+    }
+
+    /* Regresa el vértice del elemento, agregándolo si no está. */
+    private Vertice verticeOAgrega(T elemento){
+	if(vertices.contiene(elemento))
+	    return vertices.get(elemento);
+	Vertice v = new Vertice(elemento);
+	vertices.agrega(elemento, v);
+	if(componentes != null)
+	    v.conjunto = componentes.agrega();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.agregado(elemento);
+	return v;
+    }
 
     /**
      * Desconecta dos elementos de la gráfica. Los elementos deben estar en la
@@ -259,6 +507,11 @@ public class Grafica<T> implements Coleccion<T> {
 	va.vecinos.elimina(vb.elemento);
 	vb.vecinos.elimina(va.elemento);
 	aristas--;
+	componentes = null;
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.desconectados(a, b);
     }
 
     private Vertice getVertice(T elemento){
@@ -273,10 +526,7 @@ public class Grafica<T> implements Coleccion<T> {
      *         <tt>false</tt> en otro caso.
      */
     @Override public boolean contiene(T elemento) {
-	for(Vertice v : vertices)
-	    if(v.elemento.equals(elemento))
-		return true;
-	return false;
+	return vertices.contiene(elemento);
     }
 
     /**
@@ -293,6 +543,13 @@ public class Grafica<T> implements Coleccion<T> {
 	    aristas--;
 	}
 	vertices.elimina(elemento);
+	componentes = null;
+	invalida();
+	/* Una copia, porque las trayectorias cuyo origen se elimina se
+	 * desregistran. */
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas.copia())
+		d.eliminado(elemento);
     }
 
     /**
@@ -308,12 +565,7 @@ public class Grafica<T> implements Coleccion<T> {
 	    throw new NoSuchElementException("No son elementos de la grafica");
 	if(a.equals(b))
 	    return false;
-	Vertice va = (Vertice)vertice(a);
-	Vertice vb = (Vertice)vertice(b);
-	for(Vecino v : va.vecinos)
-	    if(v.vecino == vb)
-		return true;
-	return false;
+	return getVertice(a).vecinos.contiene(b);
     }
 
     /**
@@ -360,6 +612,10 @@ public class Grafica<T> implements Coleccion<T> {
 	Vecino vvb = rVecino(va, vb);
 	vva.peso = peso;
 	vvb.peso = peso;
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.pesoCambiado(a, b, peso);
     }
 
     private Vecino rVecino(Vertice va, Vertice vb){
@@ -383,12 +639,7 @@ public class Grafica<T> implements Coleccion<T> {
      * @return el vértice correspondiente el elemento recibido.
      */
     public VerticeGrafica<T> vertice(T elemento) {
-	if(!this.contiene(elemento))
-	    throw new NoSuchElementException("No esta el elemento");
-	for(Vertice v : this.vertices)
-	    if(v.elemento.equals(elemento))
-		return v;
-	return null;
+	return getVertice(elemento);
     }
 
     /**
@@ -411,36 +662,56 @@ public class Grafica<T> implements Coleccion<T> {
     }
     
     /**
-     * Nos dice si la gráfica es conexa.
+     * Nos dice si la gráfica es conexa. Mientras a la gráfica sólo se le
+     * agreguen elementos y aristas, toma tiempo prácticamente constante.
      * @return <code>true</code> si la gráfica es conexa, <code>false</code> en
      *         otro caso.
      */
     public boolean esConexa() {
-	if(vertices.getElementos() <= 1)
-	    return true;
-	if(aristas < vertices.getElementos()-1)
-	    return false;
-	int[] rec = new int[1];
-	Cola<Vertice> c = new Cola<Vertice>();
-	Vertice v = vertices.iterator().next();
-	v.color = Color.ROJO;
-	c.mete(v);
-	recorrido((vertice) -> rec[0]++, c);
-	return rec[0] == vertices.getElementos();
+	return numeroComponentes() <= 1;
     }
 
-    private void recorrido(AccionVerticeGrafica<T> accion, MeteSaca<Vertice> m){
-	while(!m.esVacia()){
-	    Vertice v = m.saca();
-	    accion.actua(v);
-	    for(Vecino ve : v.vecinos)
-		if(ve.vecino.color == Color.NINGUNO){
-		    ve.vecino.color = Color.ROJO;
-		    m.mete(ve.vecino);
-		}
-	}
+    /**
+     * Regresa el número de componentes conexas de la gráfica. Mientras a la
+     * gráfica sólo se le agreguen elementos y aristas, toma tiempo
+     * prácticamente constante; después de desconectar o eliminar elementos,
+     * la siguiente consulta toma tiempo lineal.
+     * @return el número de componentes conexas de la gráfica.
+     */
+    public int numeroComponentes() {
+	return componentes().getConjuntos();
+    }
+
+    /**
+     * Nos dice si dos elementos están en la misma componente conexa. Mientras
+     * a la gráfica sólo se le agreguen elementos y aristas, toma tiempo
+     * prácticamente constante.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return <code>true</code> si hay una trayectoria entre a y b,
+     *         <code>false</code> en otro caso.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     */
+    public boolean mismaComponente(T a, T b) {
+	Vertice va = getVertice(a);
+	Vertice vb = getVertice(b);
+	return componentes().mismoConjunto(va.conjunto, vb.conjunto);
+    }
+
+    /* Regresa las componentes conexas. Agregar elementos y aristas las
+     * actualiza; desconectar o eliminar elementos no se puede deshacer en
+     * unos conjuntos disjuntos, así que en ese caso las reconstruimos. */
+    private ConjuntosDisjuntos componentes(){
+	if(componentes != null)
+	    return componentes;
+	componentes = new ConjuntosDisjuntos(vertices.getElementos());
+	int i = 0;
 	for(Vertice v : vertices)
-	    v.color = Color.NINGUNO;
+	    v.conjunto = i++;
+	for(Vertice v : vertices)
+	    for(Vecino ve : v.vecinos)
+		componentes.une(v.conjunto, ve.vecino.conjunto);
+	return componentes;
     }
 
     /**
@@ -523,6 +794,59 @@ public class Grafica<T> implements Coleccion<T> {
 	    rve.color = Color.NINGUNO;	
     }
 
+    /**
+     * Regresa un iterador que recorre los vértices de la gráfica en el
+     * orden determinado por BFS, comenzando por el vértice correspondiente
+     * al elemento recibido. A diferencia de {@link #bfs}, el recorrido
+     * avanza conforme se piden los vértices: los vecinos de un vértice se
+     * descubren hasta que se pide el siguiente, así que detener el recorrido
+     * después de <i>k</i> vértices sólo cuesta los vértices y aristas que se
+     * revisaron. El recorrido no usa los colores de los vértices, y puede
+     * haber varios a la vez; si la gráfica cambia durante un recorrido, su
+     * comportamiento no está definido.
+     * @param origen el elemento donde comienza el recorrido.
+     * @return un iterador para el recorrido BFS desde el origen.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public Iterator<VerticeGrafica<T>> recorridoAnchura(T origen) {
+	return recorridoAnchura(origen, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Regresa un iterador que recorre por BFS los vértices a distancia (en
+     * número de aristas) a lo más <code>profundidad</code> del vértice
+     * correspondiente al elemento recibido: su vecindad de
+     * <code>profundidad</code> saltos. Los vértices en la profundidad
+     * máxima no revisan a sus vecinos.
+     * @param origen el elemento donde comienza el recorrido.
+     * @param profundidad la distancia máxima de los vértices recorridos.
+     * @return un iterador para el recorrido BFS acotado desde el origen.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     * @throws IllegalArgumentException si la profundidad es negativa.
+     * @see #recorridoAnchura(Object)
+     */
+    public Iterator<VerticeGrafica<T>> recorridoAnchura(T origen,
+							int profundidad) {
+	if(profundidad < 0)
+	    throw new IllegalArgumentException("Profundidad inválida");
+	return new RecorridoAnchura(getVertice(origen), profundidad);
+    }
+
+    /**
+     * Regresa un iterador que recorre los vértices de la gráfica en el
+     * orden determinado por DFS, comenzando por el vértice correspondiente
+     * al elemento recibido. El recorrido baja por el primer vecino no
+     * descubierto de cada vértice, y avanza conforme se piden los vértices;
+     * como el de {@link #recorridoAnchura(Object)}, no usa los colores de
+     * los vértices.
+     * @param origen el elemento donde comienza el recorrido.
+     * @return un iterador para el recorrido DFS desde el origen.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public Iterator<VerticeGrafica<T>> recorridoProfundidad(T origen) {
+	return new RecorridoProfundidad(getVertice(origen));
+    }
+
     /**
      * Nos dice si la gráfica es vacía.
      * @return <code>true</code> si la gráfica es vacía, <code>false</code> en
@@ -538,6 +862,134 @@ public class Grafica<T> implements Coleccion<T> {
     @Override public void limpia() {
 	vertices.limpia();
 	aristas = 0;
+	componentes = new ConjuntosDisjuntos();
+	invalida();
+	if(dinamicas != null)
+	    for(TrayectoriasDinamicas<T> d : dinamicas)
+		d.limpiada();
+	dinamicas = null;
+    }
+
+    /**
+     * Regresa una representación compacta de la gráfica, con los vértices
+     * numerados en el orden en que se iteran. La representación se construye
+     * la primera vez que se pide y se reutiliza mientras la gráfica no
+     * cambie.
+     * @return una representación compacta de la gráfica.
+     */
+    public synchronized GraficaCompacta<T> compacta() {
+	if(compacta != null)
+	    return compacta;
+	int n = vertices.getElementos();
+	@SuppressWarnings("unchecked") T[] elementos = (T[])new Object[n];
+	Diccionario<T, Integer> indices = new Diccionario<T, Integer>(n);
+	int i = 0;
+	for(Vertice v : vertices){
+	    elementos[i] = v.elemento;
+	    indices.agrega(v.elemento, i++);
+	}
+	int[] inicios = new int[n+1];
+	int[] destinos = new int[2 * aristas];
+	double[] pesos = new double[2 * aristas];
+	int k = 0;
+	i = 0;
+	for(Vertice v : vertices){
+	    inicios[i++] = k;
+	    for(Vecino ve : v.vecinos){
+		destinos[k] = indices.get(ve.vecino.elemento);
+		pesos[k++] = ve.peso;
+	    }
+	}
+	inicios[n] = k;
+	compacta = new GraficaCompacta<T>(elementos, indices, inicios, destinos, pesos);
+	return compacta;
+    }
+
+    /**
+     * Regresa una representación compacta de la gráfica con los vértices
+     * numerados en el orden recibido. Con {@link OrdenVertices#ITERACION}
+     * regresa la misma representación que {@link #compacta()}; con cualquier
+     * otro orden construye una nueva cada vez que se llama.
+     * @param orden el orden de los vértices.
+     * @return una representación compacta de la gráfica.
+     * @see GraficaCompacta#reordena
+     */
+    public GraficaCompacta<T> compacta(OrdenVertices orden) {
+	if(orden == OrdenVertices.ITERACION)
+	    return compacta();
+	return compacta().reordena(orden);
+    }
+
+    /**
+     * Regresa una representación comprimida de la estructura de la gráfica,
+     * con los vértices numerados en el orden de una BFS y buscando
+     * referencias entre los siete vértices anteriores.
+     * @return una representación comprimida de la gráfica.
+     * @see #comprimida(OrdenVertices,int)
+     */
+    public GraficaComprimida<T> comprimida() {
+	return comprimida(OrdenVertices.BFS, 7);
+    }
+
+    /**
+     * Regresa una representación comprimida de la estructura de la gráfica
+     * (sin los pesos). Se construye cada vez que se llama, leyendo las
+     * vecindades una por una de la representación compacta si ya existe, o
+     * directamente de los vértices si no; en ningún caso se construye una
+     * representación compacta para comprimirla.
+     * @param orden el orden de los vértices; los órdenes que numeran juntos
+     *        a los vértices vecinos comprimen mejor.
+     * @param ventana cuántos vértices anteriores se consideran como
+     *        referencia para cada vecindad; con cero no se usan referencias.
+     * @return una representación comprimida de la gráfica.
+     * @throws IllegalArgumentException si la ventana es negativa.
+     * @see GraficaComprimida
+     */
+    public GraficaComprimida<T> comprimida(OrdenVertices orden, int ventana) {
+	if(ventana < 0)
+	    throw new IllegalArgumentException("Ventana inválida");
+	GraficaCompacta<T> c = compacta;
+	Vecindades<T> vecindades = c != null ? c.vecindades() :
+	    new VecindadesGrafica();
+	return new GraficaComprimida<T>(vecindades, orden, ventana);
+    }
+
+    /* Descarta la representación compacta porque la gráfica cambió, y
+     * cambia la versión para que el caché descarte sus trayectorias. */
+    private void invalida(){
+	compacta = null;
+	version++;
+    }
+
+    /**
+     * Activa el caché de trayectorias para {@link #dijkstra} y {@link
+     * #trayectoriaMinima}, con la capacidad recibida. Las consultas repetidas
+     * entre dos cambios a la gráfica regresan una copia del resultado
+     * guardado; cualquier cambio a la gráfica descarta todo el caché. Si el
+     * caché ya estaba activado, se reemplaza por uno vacío.
+     * @param capacidad el número máximo de trayectorias guardadas.
+     * @throws IllegalArgumentException si la capacidad es menor que uno.
+     */
+    public void activaCache(int capacidad) {
+	if(capacidad < 1)
+	    throw new IllegalArgumentException("Capacidad inválida");
+	cache = new CacheTrayectorias<T>(capacidad, version);
+    }
+
+    /**
+     * Desactiva el caché de trayectorias y descarta sus resultados.
+     */
+    public void desactivaCache() {
+	cache = null;
+    }
+
+    /**
+     * Regresa el caché de trayectorias, para consultar sus estadísticas.
+     * @return el caché de trayectorias, o <code>null</code> si no está
+     *         activado.
+     */
+    public CacheTrayectorias<T> getCache() {
+	return cache;
     }
 
     /**
@@ -602,6 +1054,17 @@ public class Grafica<T> implements Coleccion<T> {
     public Lista<VerticeGrafica<T>> trayectoriaMinima(T origen, T destino) {
 	if(!contiene(origen) || !contiene(destino))
 	    throw new NoSuchElementException("No estan en la grafica");
+	if(cache != null)
+	    return cache.consulta(origen, destino,
+				  CacheTrayectorias.Consulta.TRAYECTORIA_MINIMA,
+				  version,
+				  () -> buscaTrayectoriaMinima(origen, destino));
+	return buscaTrayectoriaMinima(origen, destino);
+    }
+
+    /* Calcula una trayectoria de distancia mínima con BFS, sin usar el
+     * caché. */
+    private Lista<VerticeGrafica<T>> buscaTrayectoriaMinima(T origen, T destino) {
 	Lista<VerticeGrafica<T>> l = new Lista<VerticeGrafica<T>>();
 	Vertice o = (Vertice)vertice(origen);
 	Vertice d = (Vertice)vertice(destino);
@@ -638,7 +1101,12 @@ public class Grafica<T> implements Coleccion<T> {
 
     /**
      * Calcula la ruta de peso mínimo entre el elemento de origen y el elemento
-     * de destino.
+     * de destino. Cada vértice recuerda de qué vértice se le actualizó la
+     * distancia por última vez, y la búsqueda termina en cuanto el destino
+     * sale del montículo; la trayectoria se reconstruye siguiendo esos
+     * vértices anteriores desde el destino. Si el caché está activado (ver
+     * {@link #activaCache}), una consulta repetida sin cambios a la gráfica
+     * regresa una copia del resultado guardado.
      * @param origen el vértice origen.
      * @param destino el vértice destino.
      * @return una trayectoria de peso mínimo entre el vértice <tt>origen</tt> y
@@ -648,35 +1116,522 @@ public class Grafica<T> implements Coleccion<T> {
      *         la gráfica.
      */
     public Lista<VerticeGrafica<T>> dijkstra(T origen, T destino) {
-	Vertice o = (Vertice)vertice(origen);
-	Vertice d = (Vertice)vertice(destino);
+	getVertice(origen);
+	getVertice(destino);
+	if(cache != null)
+	    return cache.consulta(origen, destino,
+				  CacheTrayectorias.Consulta.DIJKSTRA, version,
+				  () -> buscaDijkstra(origen, destino));
+	return buscaDijkstra(origen, destino);
+    }
+
+    /* Calcula la ruta de peso mínimo con Dijkstra, sin usar el caché. */
+    private Lista<VerticeGrafica<T>> buscaDijkstra(T origen, T destino) {
+	Vertice o = getVertice(origen);
+	Vertice d = getVertice(destino);
 	Lista<VerticeGrafica<T>> l = new Lista<>();
-	l.agrega(d);
-	if(origen.equals(destino))
+	if(origen.equals(destino)){
+	    l.agrega(d);
 	    return l;
-	for(Vertice v : vertices)
+	}
+	for(Vertice v : vertices){
 	    v.distancia = -1;
+	    v.anterior = null;
+	}
 	o.distancia = 0;
 	MonticuloMinimo<Vertice> mm = new MonticuloMinimo<Vertice>(vertices,vertices.getElementos());
 	while(!mm.esVacia()){
 	    Vertice ve = mm.elimina();
+	    if(ve == d || ve.distancia == -1)
+		break;
 	    for(Vecino v : ve.vecinos)
 		if(v.vecino.distancia == -1 || v.vecino.distancia > ve.distancia + v.peso){
 		    v.vecino.distancia = ve.distancia + v.peso;
+		    v.vecino.anterior = ve;
 		    mm.reordena(v.vecino);
 		}
 	}
 	if(d.distancia == -1)
-	    return new Lista<VerticeGrafica<T>>();
-	while(!d.elemento.equals(origen)){
-	    for(Vecino v : d.vecinos){
-		if(v.vecino.distancia == d.distancia - v.peso){
-		    l.agregaInicio(v.vecino);
-		    d = v.vecino;
-		    break;
-		}
-	    }
-	}
+	    return l;
+	for(Vertice v = d; v != null; v = v.anterior)
+	    l.agregaInicio(v);
 	return l;
     }
+
+    /**
+     * Calcula las trayectorias de peso mínimo del elemento de origen a todos
+     * los elementos de la gráfica. A diferencia de {@link #dijkstra}, el
+     * resultado no usa el estado de los vértices, así que puede guardarse y
+     * consultarse para cualquier destino sin repetir la búsqueda, también
+     * desde varios hilos.
+     * @param origen el elemento de origen.
+     * @return el árbol de trayectorias de peso mínimo desde el origen.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public TrayectoriasMinimas<T> dijkstraDesde(T origen) {
+	GraficaCompacta<T> c = compacta();
+	return c.dijkstraDesde(c.indice(origen));
+    }
+
+    /**
+     * Calcula las trayectorias de peso mínimo del elemento de origen a todos
+     * los elementos, y las mantiene al día mientras la gráfica cambia: cada
+     * cambio a la gráfica repara sólo la parte del árbol de trayectorias que
+     * afecta, en lugar de repetir Dijkstra. Cada estructura registrada hace
+     * más caros los cambios a la gráfica; {@link
+     * TrayectoriasDinamicas#libera} la desregistra.
+     * @param origen el elemento de origen.
+     * @return las trayectorias mínimas dinámicas desde el origen.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public TrayectoriasDinamicas<T> trayectoriasDinamicas(T origen) {
+	GraficaCompacta<T> c = compacta();
+	TrayectoriasDinamicas<T> d =
+	    new TrayectoriasDinamicas<T>(this, c, c.indice(origen));
+	if(dinamicas == null)
+	    dinamicas = new Lista<TrayectoriasDinamicas<T>>();
+	dinamicas.agregaFinal(d);
+	return d;
+    }
+
+    /* Deja de avisar los cambios a las trayectorias dinámicas. */
+    void desregistra(TrayectoriasDinamicas<T> d) {
+	if(dinamicas != null)
+	    dinamicas.elimina(d);
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos elementos con el
+     * algoritmo de Dijkstra bidireccional, que suele asentar muchos menos
+     * vértices que {@link #dijkstra}.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si están
+     *         en componentes conexas distintas la trayectoria es vacía.
+     * @throws NoSuchElementException si alguno de los dos elementos no está en
+     *         la gráfica.
+     * @see GraficaCompacta#dijkstraBidireccional
+     */
+    public Trayectoria<T> dijkstraBidireccional(T origen, T destino) {
+	GraficaCompacta<T> c = compacta();
+	return c.dijkstraBidireccional(c.indice(origen), c.indice(destino));
+    }
+
+    /**
+     * Calcula las <i>k</i> trayectorias sin ciclos de menor peso entre dos
+     * elementos, con el algoritmo de Yen. A diferencia de {@link #dijkstra},
+     * las búsquedas no modifican la gráfica: los vértices y aristas que se
+     * excluyen en cada búsqueda se ignoran con una máscara.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @param k el número de trayectorias.
+     * @return una lista con a lo más <i>k</i> trayectorias, en orden de
+     *         peso; es vacía si están en componentes conexas distintas.
+     * @throws NoSuchElementException si alguno de los dos elementos no está en
+     *         la gráfica.
+     * @throws IllegalArgumentException si k es menor que uno.
+     * @see GraficaCompacta#kTrayectoriasMinimas(int,int,int,int)
+     */
+    public Lista<Trayectoria<T>> kTrayectoriasMinimas(T origen, T destino,
+						      int k) {
+	GraficaCompacta<T> c = compacta();
+	return c.kTrayectoriasMinimas(c.indice(origen), c.indice(destino), k);
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos elementos con el
+     * algoritmo A*, guiado por una heurística admisible.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @param heuristica una función que recibe un elemento y el destino, y
+     *        regresa una cota inferior del peso de la trayectoria mínima
+     *        entre ellos.
+     * @return una trayectoria de peso mínimo del origen al destino; si están
+     *         en componentes conexas distintas la trayectoria es vacía.
+     * @throws NoSuchElementException si alguno de los dos elementos no está en
+     *         la gráfica.
+     * @see GraficaCompacta#aEstrella
+     */
+    public Trayectoria<T> aEstrella(T origen, T destino,
+				    BiFunction<T, T, Double> heuristica) {
+	GraficaCompacta<T> c = compacta();
+	return c.aEstrella(c.indice(origen), c.indice(destino), heuristica);
+    }
+
+    /**
+     * Calcula la matriz de distancias entre una colección de orígenes y una
+     * de destinos, usando tantos hilos como el <i>pool</i> común.
+     * @param origenes los elementos de origen.
+     * @param destinos los elementos de destino.
+     * @return la matriz de distancias.
+     * @throws NoSuchElementException si algún elemento no está en la
+     *         gráfica.
+     * @see #matrizDistancias(Coleccion,Coleccion,int)
+     */
+    public double[][] matrizDistancias(Coleccion<T> origenes,
+				       Coleccion<T> destinos) {
+	return matrizDistancias(origenes, destinos,
+				ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula la matriz de distancias entre una colección de orígenes y una
+     * de destinos. La entrada [<i>i</i>][<i>j</i>] es el peso de una
+     * trayectoria mínima del <i>i</i>-ésimo origen al <i>j</i>-ésimo destino
+     * (en el orden en que los recorren sus iteradores), o {@link
+     * Double#POSITIVE_INFINITY} si están en componentes conexas distintas. A
+     * diferencia de {@link #dijkstra}, las búsquedas no modifican los
+     * vértices, así que corren en paralelo.
+     * @param origenes los elementos de origen.
+     * @param destinos los elementos de destino.
+     * @param hilos el número de hilos a utilizar.
+     * @return la matriz de distancias.
+     * @throws NoSuchElementException si algún elemento no está en la
+     *         gráfica.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     * @see GraficaCompacta#matrizDistancias(int[],int[],int)
+     */
+    public double[][] matrizDistancias(Coleccion<T> origenes,
+				       Coleccion<T> destinos, int hilos) {
+	GraficaCompacta<T> c = compacta();
+	return c.matrizDistancias(indices(c, origenes), indices(c, destinos),
+				  hilos);
+    }
+
+    /**
+     * Calcula un árbol generador de peso mínimo de la gráfica, con el
+     * algoritmo de Prim.
+     * @return un árbol generador de peso mínimo.
+     * @see #arbolGeneradorMinimo(AlgoritmoArbolGenerador)
+     */
+    public Grafica<T> arbolGeneradorMinimo() {
+	return arbolGeneradorMinimo(AlgoritmoArbolGenerador.PRIM);
+    }
+
+    /**
+     * Calcula un árbol generador de peso mínimo de la gráfica: una nueva
+     * gráfica con todos los elementos, y un subconjunto de las aristas (con
+     * sus pesos) que los conecta con peso total mínimo. Si la gráfica no es
+     * conexa el resultado es un bosque, con un árbol por componente conexa.
+     * La gráfica original no se modifica.
+     * @param algoritmo el algoritmo a utilizar.
+     * @return un árbol generador de peso mínimo.
+     */
+    public Grafica<T> arbolGeneradorMinimo(AlgoritmoArbolGenerador algoritmo) {
+	GraficaCompacta<T> c = compacta();
+	int[] arbol;
+	switch(algoritmo) {
+	case PRIM:
+	    arbol = ArbolesGeneradores.prim(c);
+	    break;
+	case KRUSKAL:
+	    arbol = ArbolesGeneradores.kruskal(c);
+	    break;
+	default:
+	    arbol = ArbolesGeneradores.boruvka(c,
+		ForkJoinPool.getCommonPoolParallelism());
+	}
+	Grafica<T> grafica = new Grafica<T>();
+	for(int i = 0; i < c.getElementos(); i++)
+	    grafica.agrega(c.get(i));
+	for(int e : arbol)
+	    grafica.conecta(c.get(c.origen(e)), c.get(c.destinos[e]),
+			    c.pesos[e]);
+	return grafica;
+    }
+
+    /**
+     * Calcula el PageRank de los vértices de la gráfica, con los parámetros
+     * por omisión de {@link PageRank}.
+     * @return un diccionario con el PageRank de cada elemento.
+     * @see PageRank
+     */
+    public Diccionario<T, Double> pageRank() {
+	return new PageRank<T>(this).calcula();
+    }
+
+    /**
+     * Calcula un flujo máximo de la fuente al sumidero con el algoritmo de
+     * Dinic.
+     * @param fuente el elemento fuente.
+     * @param sumidero el elemento sumidero.
+     * @return un flujo máximo y un corte mínimo.
+     * @see #flujoMaximo(Object,Object,AlgoritmoFlujo)
+     */
+    public FlujoMaximo<T> flujoMaximo(T fuente, T sumidero) {
+	return flujoMaximo(fuente, sumidero, AlgoritmoFlujo.DINIC);
+    }
+
+    /**
+     * Calcula un flujo máximo de la fuente al sumidero, usando los pesos de
+     * las aristas como capacidades. La gráfica original no se modifica.
+     * @param fuente el elemento fuente.
+     * @param sumidero el elemento sumidero.
+     * @param algoritmo el algoritmo a utilizar.
+     * @return un flujo máximo y un corte mínimo.
+     * @throws NoSuchElementException si la fuente o el sumidero no están en
+     *         la gráfica.
+     * @throws IllegalArgumentException si la fuente y el sumidero son el
+     *         mismo elemento.
+     */
+    public FlujoMaximo<T> flujoMaximo(T fuente, T sumidero,
+				      AlgoritmoFlujo algoritmo) {
+	GraficaCompacta<T> c = compacta();
+	int s = c.indice(fuente);
+	int t = c.indice(sumidero);
+	if(s == t)
+	    throw new IllegalArgumentException("Fuente y sumidero iguales");
+	return new FlujoMaximo<T>(c, s, t, algoritmo);
+    }
+
+    /**
+     * Calcula un apareamiento máximo de la gráfica, que debe ser bipartita;
+     * los lados se obtienen coloreando la gráfica con BFS, y el primer
+     * elemento de cada componente queda del lado izquierdo.
+     * @return un apareamiento máximo.
+     * @throws IllegalArgumentException si la gráfica no es bipartita.
+     * @see Apareamiento
+     */
+    public Apareamiento<T> apareamiento() {
+	return new Apareamiento<T>(compacta());
+    }
+
+    /**
+     * Calcula un apareamiento máximo de la gráfica con el algoritmo de
+     * Hopcroft y Karp, con los lados recibidos: los elementos de la
+     * colección están del lado izquierdo y todos los demás del derecho.
+     * @param izquierda los elementos del lado izquierdo.
+     * @return un apareamiento máximo.
+     * @throws NoSuchElementException si algún elemento de la colección no
+     *         está en la gráfica.
+     * @throws IllegalArgumentException si alguna arista tiene sus dos
+     *         extremos del mismo lado.
+     */
+    public Apareamiento<T> apareamiento(Coleccion<T> izquierda) {
+	GraficaCompacta<T> c = compacta();
+	boolean[] lados = new boolean[c.getElementos()];
+	for(T elemento : izquierda)
+	    lados[c.indice(elemento)] = true;
+	return new Apareamiento<T>(c, lados);
+    }
+
+    /**
+     * Cuenta los triángulos de la gráfica, usando tantos hilos como el
+     * <i>pool</i> común.
+     * @return los triángulos y coeficientes de agrupamiento de la gráfica.
+     * @see #triangulos(int)
+     */
+    public Triangulos<T> triangulos() {
+	return triangulos(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Cuenta los triángulos de la gráfica, de los que se obtienen los
+     * coeficientes de agrupamiento y la transitividad.
+     * @param hilos el número de hilos a utilizar.
+     * @return los triángulos y coeficientes de agrupamiento de la gráfica.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public Triangulos<T> triangulos(int hilos) {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	return new Triangulos<T>(compacta(), hilos);
+    }
+
+    /**
+     * Calcula la descomposición en núcleos de la gráfica, usando tantos
+     * hilos como el <i>pool</i> común.
+     * @return los núcleos de la gráfica.
+     * @see #nucleos(int)
+     */
+    public Nucleos<T> nucleos() {
+	return nucleos(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula la descomposición en núcleos de la gráfica: el número de
+     * núcleo de cada elemento, la degeneración y un orden de degeneración.
+     * Con un hilo usa el algoritmo lineal de Batagelj y Zaversnik; con más,
+     * pela en paralelo.
+     * @param hilos el número de hilos a utilizar.
+     * @return los núcleos de la gráfica.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     * @see Nucleos
+     */
+    public Nucleos<T> nucleos(int hilos) {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	return new Nucleos<T>(compacta(), hilos);
+    }
+
+    /**
+     * Encuentra las comunidades de la gráfica con el método de Louvain, con
+     * resolución uno y usando tantos hilos como el <i>pool</i> común.
+     * @return las comunidades de la gráfica.
+     * @see #comunidades(double,int)
+     */
+    public Comunidades<T> comunidades() {
+	return comunidades(1, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Encuentra las comunidades de la gráfica con el método de Louvain,
+     * usando los pesos de las aristas.
+     * @param resolucion la resolución de la modularidad; con resoluciones
+     *        mayores las comunidades son más pequeñas.
+     * @param hilos el número de hilos a utilizar.
+     * @return las comunidades de la gráfica.
+     * @throws IllegalArgumentException si la resolución no es positiva o si
+     *         el número de hilos es menor que uno.
+     * @see Comunidades
+     */
+    public Comunidades<T> comunidades(double resolucion, int hilos) {
+	if(!(resolucion > 0))
+	    throw new IllegalArgumentException("Resolución inválida");
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	return new Comunidades<T>(compacta(), resolucion, hilos);
+    }
+
+    /**
+     * Construye una jerarquía de contracción de la gráfica, para responder
+     * muchas consultas de trayectorias mínimas más rápido que con {@link
+     * #dijkstra}. El índice describe a la gráfica como es ahora; si la
+     * gráfica cambia hay que construir otro.
+     * @return la jerarquía de contracción de la gráfica.
+     * @see JerarquiaContraccion
+     */
+    public JerarquiaContraccion<T> jerarquiaContraccion() {
+	return new JerarquiaContraccion<T>(compacta());
+    }
+
+    /**
+     * Escoge puntos de referencia para búsquedas ALT con la selección de
+     * los más lejanos, usando tantos hilos como el <i>pool</i> común.
+     * @param puntos el número de puntos de referencia.
+     * @return los puntos de referencia y sus tablas de distancias.
+     * @throws IllegalArgumentException si el número de puntos es menor que
+     *         uno.
+     * @see #puntosReferencia(int,SeleccionPuntosReferencia,Random,int)
+     */
+    public PuntosReferencia<T> puntosReferencia(int puntos) {
+	return puntosReferencia(puntos, SeleccionPuntosReferencia.LEJANOS,
+				new Random(),
+				ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Escoge puntos de referencia para búsquedas ALT (A* con cotas de la
+     * desigualdad del triángulo) y calcula en paralelo sus distancias a
+     * todos los elementos, un Dijkstra por punto. Si la gráfica tiene menos
+     * elementos que los puntos pedidos, todos son puntos de referencia.
+     * @param puntos el número de puntos de referencia.
+     * @param seleccion cómo escoger los puntos.
+     * @param random el generador de números aleatorios para la selección.
+     * @param hilos el número de hilos a utilizar.
+     * @return los puntos de referencia y sus tablas de distancias.
+     * @throws IllegalArgumentException si el número de puntos o el número
+     *         de hilos son menores que uno.
+     */
+    public PuntosReferencia<T>
+    puntosReferencia(int puntos, SeleccionPuntosReferencia seleccion,
+		     Random random, int hilos) {
+	if(puntos < 1)
+	    throw new IllegalArgumentException("Número de puntos inválido");
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	return new PuntosReferencia<T>(compacta(), puntos, seleccion, random,
+				       hilos);
+    }
+
+    /**
+     * Calcula la centralidad de intermediación de los vértices de la
+     * gráfica, usando tantos hilos como el <i>pool</i> común.
+     * @return un diccionario con la intermediación de cada elemento.
+     * @see #intermediacion(int)
+     */
+    public Diccionario<T, Double> intermediacion() {
+	return intermediacion(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula la centralidad de intermediación de los vértices de la
+     * gráfica: para cada vértice, la suma sobre todos los pares de otros
+     * vértices de la fracción de sus trayectorias mínimas que pasan por él.
+     * Si todas las aristas pesan lo mismo las trayectorias se buscan con
+     * BFS; si no, con Dijkstra. Las fuentes de las búsquedas se reparten
+     * entre el número de hilos recibido.
+     * @param hilos el número de hilos a utilizar.
+     * @return un diccionario con la intermediación de cada elemento.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public Diccionario<T, Double> intermediacion(int hilos) {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	GraficaCompacta<T> c = compacta();
+	return diccionario(c, Intermediacion.calcula(c, hilos));
+    }
+
+    /**
+     * Aproxima la centralidad de intermediación de los vértices de la
+     * gráfica, haciendo búsquedas sólo desde algunas fuentes escogidas al
+     * azar y escalando el resultado. El valor esperado de la aproximación
+     * es la intermediación exacta; si el número de muestras es al menos el
+     * número de elementos, el resultado es exacto.
+     * @param muestras el número de fuentes.
+     * @param random el generador para escoger las fuentes.
+     * @return un diccionario con la intermediación aproximada de cada
+     *         elemento.
+     * @throws IllegalArgumentException si el número de muestras es menor
+     *         que uno.
+     */
+    public Diccionario<T, Double> intermediacionAproximada(int muestras,
+							   Random random) {
+	if(muestras < 1)
+	    throw new IllegalArgumentException("Número de muestras inválido");
+	GraficaCompacta<T> c = compacta();
+	int n = c.getElementos();
+	int hilos = ForkJoinPool.getCommonPoolParallelism();
+	if(muestras >= n)
+	    return diccionario(c, Intermediacion.calcula(c, hilos));
+	/* Fisher-Yates parcial: las primeras muestras de la permutación. */
+	int[] fuentes = new int[n];
+	for(int i = 0; i < n; i++)
+	    fuentes[i] = i;
+	for(int i = 0; i < muestras; i++) {
+	    int j = i + random.nextInt(n - i);
+	    int t = fuentes[i];
+	    fuentes[i] = fuentes[j];
+	    fuentes[j] = t;
+	}
+	int[] muestra = new int[muestras];
+	System.arraycopy(fuentes, 0, muestra, 0, muestras);
+	return diccionario(c, Intermediacion.calcula(c, muestra, hilos));
+    }
+
+    /* Regresa un diccionario con los valores por índice de la gráfica
+     * compacta. */
+    private static <T> Diccionario<T, Double>
+    diccionario(GraficaCompacta<T> c, double[] valores) {
+	Diccionario<T, Double> d =
+	    new Diccionario<T, Double>(valores.length * 2);
+	for(int i = 0; i < valores.length; i++)
+	    d.agrega(c.get(i), valores[i]);
+	return d;
+    }
+
+    /* Regresa los índices en la gráfica compacta de los elementos de la
+     * colección. */
+    private static <T> int[] indices(GraficaCompacta<T> c,
+				     Coleccion<T> coleccion) {
+	int[] indices = new int[coleccion.getElementos()];
+	int i = 0;
+	for(T e : coleccion)
+	    indices[i++] = c.indice(e);
+	return indices;
+    }
 }
@@ -0,0 +1,694 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiFunction;
+
+/**
+ * Clase para representaciones compactas de gráficas. Una gráfica compacta es
+ * una fotografía inmutable de una {@link Grafica}: sus vértices se numeran de
+ * 0 a <i>n</i>-1, y las vecindades se guardan una tras otra en arreglos
+ * primitivos (el formato CSR). Como nunca se modifica, una gráfica compacta
+ * puede recorrerse desde varios hilos al mismo tiempo.
+ */
+public class GraficaCompacta<T> {
+
+    /* Clase privada para el estado de una BFS paralela. */
+    private class BusquedaParalela {
+
+	/* Los niveles de los vértices; -1 si no han sido descubiertos. */
+	private AtomicIntegerArray niveles;
+	/* La frontera actual. */
+	private int[] frontera;
+	/* El número de vértices en la frontera. */
+	private int tamFrontera;
+	/* El nivel de la frontera actual. */
+	private int nivel;
+	/* Si la frontera se expande de abajo hacia arriba. */
+	private boolean abajoArriba;
+	/* Los vértices descubiertos por cada bloque. */
+	private int[][] descubiertos;
+	/* Cuántos vértices descubrió cada bloque. */
+	private int[] tamDescubiertos;
+
+	/* Construye el estado de una BFS que comienza en el origen. */
+	public BusquedaParalela(int origen) {
+	    int n = elementos.length;
+	    niveles = new AtomicIntegerArray(n);
+	    for(int i = 0; i < n; i++)
+		niveles.set(i, -1);
+	    niveles.set(origen, 0);
+	    frontera = new int[] { origen };
+	    tamFrontera = 1;
+	}
+
+	/* Expande el bloque k de la frontera (o de los vértices, si la
+	 * búsqueda va de abajo hacia arriba). */
+	public void expande(int k) {
+	    int[] nuevos = new int[16];
+	    int c = 0;
+	    int i = k * BLOQUE;
+	    int f = Math.min(i + BLOQUE,
+			     abajoArriba ? elementos.length : tamFrontera);
+	    for(; i < f; i++) {
+		if(abajoArriba) {
+		    if(niveles.get(i) != -1)
+			continue;
+		    for(int a = inicios[i]; a < inicios[i+1]; a++)
+			if(niveles.get(destinos[a]) == nivel) {
+			    niveles.set(i, nivel + 1);
+			    if(c == nuevos.length)
+				nuevos = crece(nuevos);
+			    nuevos[c++] = i;
+			    break;
+			}
+		} else {
+		    int v = frontera[i];
+		    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+			int u = destinos[a];
+			if(niveles.get(u) != -1 ||
+			    !niveles.compareAndSet(u, -1, nivel + 1))
+			    continue;
+			if(c == nuevos.length)
+			    nuevos = crece(nuevos);
+			nuevos[c++] = u;
+		    }
+		}
+	    }
+	    descubiertos[k] = nuevos;
+	    tamDescubiertos[k] = c;
+	}
+
+	/* Junta lo descubierto por los bloques en la nueva frontera, y
+	 * regresa la suma de los grados de la misma. */
+	public long avanza() {
+	    int t = 0;
+	    for(int c : tamDescubiertos)
+		t += c;
+	    frontera = new int[t];
+	    t = 0;
+	    long grados = 0;
+	    for(int k = 0; k < descubiertos.length; k++) {
+		for(int i = 0; i < tamDescubiertos[k]; i++) {
+		    int v = descubiertos[k][i];
+		    grados += inicios[v+1] - inicios[v];
+		    frontera[t++] = v;
+		}
+	    }
+	    tamFrontera = t;
+	    nivel++;
+	    return grados;
+	}
+
+	/* Regresa los niveles como un arreglo. */
+	public int[] getNiveles() {
+	    int[] r = new int[elementos.length];
+	    for(int i = 0; i < r.length; i++)
+		r[i] = niveles.get(i);
+	    return r;
+	}
+    }
+
+    /* Clase privada para expandir un rango de bloques en paralelo. */
+    private class Expansion extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La búsqueda. */
+	private BusquedaParalela busqueda;
+	/* El primer bloque del rango. */
+	private int a;
+	/* El bloque después del último del rango. */
+	private int b;
+
+	/* Construye una expansión para los bloques en [a, b). */
+	public Expansion(BusquedaParalela busqueda, int a, int b) {
+	    this.busqueda = busqueda;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Expande los bloques, partiendo el rango si tiene más de uno. */
+	@Override protected void compute() {
+	    if(b - a == 1) {
+		busqueda.expande(a);
+		return;
+	    }
+	    int m = (a + b) / 2;
+	    invokeAll(new Expansion(busqueda, a, m),
+		      new Expansion(busqueda, m, b));
+	}
+    }
+
+    /* Clase privada para calcular en paralelo los renglones de una matriz
+     * de distancias. */
+    private class Renglones extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La matriz de distancias. */
+	private double[][] matriz;
+	/* Los índices de los orígenes. */
+	private int[] origenes;
+	/* Los índices de los destinos. */
+	private int[] destinos;
+	/* Si cada vértice es destino. */
+	private boolean[] esDestino;
+	/* El número de destinos distintos. */
+	private int distintos;
+	/* El primer renglón del rango. */
+	private int a;
+	/* El renglón después del último del rango. */
+	private int b;
+
+	/* Construye una tarea para los renglones en [a, b). */
+	public Renglones(double[][] matriz, int[] origenes, int[] destinos,
+			 boolean[] esDestino, int distintos, int a, int b) {
+	    this.matriz = matriz;
+	    this.origenes = origenes;
+	    this.destinos = destinos;
+	    this.esDestino = esDestino;
+	    this.distintos = distintos;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Calcula los renglones, partiendo el rango si tiene más de uno. */
+	@Override protected void compute() {
+	    if(b - a > 1) {
+		int m = (a + b) / 2;
+		invokeAll(new Renglones(matriz, origenes, destinos, esDestino,
+					distintos, a, m),
+			  new Renglones(matriz, origenes, destinos, esDestino,
+					distintos, m, b));
+		return;
+	    }
+	    /* Cada búsqueda tiene su propio estado; la gráfica sólo se lee. */
+	    BusquedaDijkstra busqueda =
+		new BusquedaDijkstra(GraficaCompacta.this, origenes[a]);
+	    int faltan = distintos;
+	    while(faltan > 0 && !busqueda.esVacia())
+		if(esDestino[busqueda.asienta()])
+		    faltan--;
+	    double[] renglon = matriz[a];
+	    for(int j = 0; j < destinos.length; j++)
+		renglon[j] = busqueda.distancias[destinos[j]];
+	}
+    }
+
+    /* Vértices de la frontera (o del total) que procesa cada tarea. */
+    private static final int BLOQUE = 2048;
+    /* Cambiamos de arriba-abajo a abajo-arriba cuando las aristas de la
+     * frontera exceden 1/ALFA de las aristas sin explorar (Beamer). */
+    private static final int ALFA = 14;
+    /* Regresamos a arriba-abajo cuando la frontera tiene menos de 1/BETA de
+     * los vértices (Beamer). */
+    private static final int BETA = 24;
+
+    /* Los elementos de los vértices. */
+    private T[] elementos;
+    /* El índice de cada elemento. */
+    private Diccionario<T, Integer> indices;
+    /* Dónde comienza en destinos la vecindad de cada vértice; tiene n+1
+     * entradas. */
+    int[] inicios;
+    /* Los vecinos de todos los vértices, uno tras otro. */
+    int[] destinos;
+    /* El peso de la arista hacia cada vecino en destinos. */
+    double[] pesos;
+
+    /* Construye una gráfica compacta con los arreglos recibidos; los arreglos
+     * no se copian. */
+    GraficaCompacta(T[] elementos, Diccionario<T, Integer> indices,
+		    int[] inicios, int[] destinos, double[] pesos) {
+	this.elementos = elementos;
+	this.indices = indices;
+	this.inicios = inicios;
+	this.destinos = destinos;
+	this.pesos = pesos;
+    }
+
+    /**
+     * Regresa el número de vértices de la gráfica.
+     * @return el número de vértices de la gráfica.
+     */
+    public int getElementos() {
+	return elementos.length;
+    }
+
+    /**
+     * Regresa el número de aristas de la gráfica.
+     * @return el número de aristas de la gráfica.
+     */
+    public int getAristas() {
+	return destinos.length / 2;
+    }
+
+    /**
+     * Regresa el índice del vértice que contiene al elemento recibido.
+     * @param elemento el elemento.
+     * @return el índice del vértice que contiene al elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int indice(T elemento) {
+	if(elemento == null || !indices.contiene(elemento))
+	    throw new NoSuchElementException("El elemento no está");
+	return indices.get(elemento);
+    }
+
+    /**
+     * Regresa el elemento del vértice con el índice recibido.
+     * @param i el índice del vértice.
+     * @return el elemento del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public T get(int i) {
+	valida(i);
+	return elementos[i];
+    }
+
+    /**
+     * Regresa el grado del vértice con el índice recibido.
+     * @param i el índice del vértice.
+     * @return el grado del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public int getGrado(int i) {
+	valida(i);
+	return inicios[i+1] - inicios[i];
+    }
+
+    /**
+     * Regresa el índice del <i>k</i>-ésimo vecino de un vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado del vértice.
+     * @return el índice del <i>k</i>-ésimo vecino del vértice.
+     * @throws NoSuchElementException si alguno de los índices es inválido.
+     */
+    public int getVecino(int i, int k) {
+	return destinos[arista(i, k)];
+    }
+
+    /**
+     * Regresa el peso de la arista hacia el <i>k</i>-ésimo vecino de un
+     * vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado del vértice.
+     * @return el peso de la arista hacia el <i>k</i>-ésimo vecino.
+     * @throws NoSuchElementException si alguno de los índices es inválido.
+     */
+    public double getPeso(int i, int k) {
+	return pesos[arista(i, k)];
+    }
+
+    /* Regresa la posición en destinos del k-ésimo vecino de i. */
+    private int arista(int i, int k) {
+	valida(i);
+	if(k < 0 || k >= inicios[i+1] - inicios[i])
+	    throw new NoSuchElementException("Vecino inválido");
+	return inicios[i] + k;
+    }
+
+    /* Regresa el vértice del que sale la arista en la posición e de
+     * destinos. */
+    int origen(int e) {
+	int a = 0;
+	int b = elementos.length - 1;
+	while(a < b) {
+	    int m = (a + b + 1) >>> 1;
+	    if(inicios[m] <= e)
+		a = m;
+	    else
+		b = m - 1;
+	}
+	return a;
+    }
+
+    /* Verifica que el índice de vértice sea válido. */
+    private void valida(int i) {
+	if(i < 0 || i >= elementos.length)
+	    throw new NoSuchElementException("Índice inválido");
+    }
+
+    /**
+     * Calcula en paralelo el número de aristas entre el vértice de origen y
+     * todos los demás vértices, usando tantos hilos como el <i>pool</i> común.
+     * @param origen el índice del vértice de origen.
+     * @return un arreglo con la distancia (en aristas) del origen a cada
+     *         vértice, o -1 para los vértices inalcanzables.
+     * @throws NoSuchElementException si el índice es inválido.
+     * @see #bfsParalelo(int,int)
+     */
+    public int[] bfsParalelo(int origen) {
+	return bfsParalelo(origen, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula en paralelo el número de aristas entre el vértice de origen y
+     * todos los demás vértices. La búsqueda avanza nivel por nivel; cada
+     * frontera se reparte en bloques entre los hilos, que reclaman los
+     * vértices con operaciones atómicas. Cuando la frontera crece lo
+     * suficiente la búsqueda cambia de dirección y son los vértices no
+     * descubiertos los que buscan un vecino en la frontera (la BFS de
+     * dirección optimizada de Beamer).
+     * @param origen el índice del vértice de origen.
+     * @param hilos el número de hilos a utilizar.
+     * @return un arreglo con la distancia (en aristas) del origen a cada
+     *         vértice, o -1 para los vértices inalcanzables.
+     * @throws NoSuchElementException si el índice es inválido.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public int[] bfsParalelo(int origen, int hilos) {
+	valida(origen);
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    return bfsParalelo(origen, pool);
+	} finally {
+	    pool.shutdown();
+	}
+    }
+
+    /**
+     * Calcula las trayectorias de peso mínimo del vértice de origen a todos
+     * los demás vértices, con el algoritmo de Dijkstra.
+     * @param origen el índice del vértice de origen.
+     * @return el árbol de trayectorias de peso mínimo desde el origen.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public TrayectoriasMinimas<T> dijkstraDesde(int origen) {
+	valida(origen);
+	BusquedaDijkstra busqueda = new BusquedaDijkstra(this, origen);
+	busqueda.completa();
+	return new TrayectoriasMinimas<T>(this, origen, busqueda.distancias,
+					  busqueda.anteriores);
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos vértices con el
+     * algoritmo de Dijkstra; la búsqueda termina al asentar el destino.
+     * @param origen el índice del vértice de origen.
+     * @param destino el índice del vértice de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si el
+     *         destino no es alcanzable la trayectoria es vacía.
+     * @throws NoSuchElementException si algún índice es inválido.
+     */
+    public Trayectoria<T> dijkstra(int origen, int destino) {
+	valida(origen);
+	valida(destino);
+	return busca(new BusquedaDijkstra(this, origen), destino);
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos vértices con el
+     * algoritmo A*: la búsqueda avanza primero por los vértices cuya
+     * distancia desde el origen, más la estimación de la heurística hasta el
+     * destino, es menor. La heurística recibe un elemento y el elemento de
+     * destino, y debe ser admisible: nunca puede estimar más que el peso de
+     * la trayectoria mínima entre ellos.
+     * @param origen el índice del vértice de origen.
+     * @param destino el índice del vértice de destino.
+     * @param heuristica la heurística admisible.
+     * @return una trayectoria de peso mínimo del origen al destino; si el
+     *         destino no es alcanzable la trayectoria es vacía.
+     * @throws NoSuchElementException si algún índice es inválido.
+     */
+    public Trayectoria<T> aEstrella(int origen, int destino,
+				    BiFunction<T, T, Double> heuristica) {
+	valida(origen);
+	valida(destino);
+	T d = elementos[destino];
+	BusquedaDijkstra.Heuristica h =
+	    (v) -> heuristica.apply(elementos[v], d);
+	return busca(new BusquedaDijkstra(this, origen, h), destino);
+    }
+
+    /**
+     * Calcula las <i>k</i> trayectorias sin ciclos de menor peso entre dos
+     * vértices, usando tantos hilos como el <i>pool</i> común.
+     * @param origen el índice del vértice de origen.
+     * @param destino el índice del vértice de destino.
+     * @param k el número de trayectorias.
+     * @return una lista con a lo más <i>k</i> trayectorias.
+     * @throws NoSuchElementException si algún índice es inválido.
+     * @throws IllegalArgumentException si k es menor que uno.
+     * @see #kTrayectoriasMinimas(int,int,int,int)
+     */
+    public Lista<Trayectoria<T>> kTrayectoriasMinimas(int origen, int destino,
+						      int k) {
+	return kTrayectoriasMinimas(origen, destino, k,
+				    ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula las <i>k</i> trayectorias sin ciclos de menor peso entre dos
+     * vértices con el algoritmo de Yen. Cada trayectoria se obtiene
+     * desviándose de la anterior en alguno de sus vértices; las búsquedas
+     * de las desviaciones bloquean vértices y arcos con una máscara propia,
+     * sin modificar la gráfica, y se reparten entre el número de hilos
+     * recibido.
+     * @param origen el índice del vértice de origen.
+     * @param destino el índice del vértice de destino.
+     * @param k el número de trayectorias.
+     * @param hilos el número de hilos a utilizar.
+     * @return una lista con a lo más <i>k</i> trayectorias, en orden de
+     *         peso; tiene menos si no hay tantas trayectorias sin ciclos, y
+     *         es vacía si el destino no es alcanzable.
+     * @throws NoSuchElementException si algún índice es inválido.
+     * @throws IllegalArgumentException si k o el número de hilos son
+     *         menores que uno.
+     */
+    public Lista<Trayectoria<T>> kTrayectoriasMinimas(int origen, int destino,
+						      int k, int hilos) {
+	valida(origen);
+	valida(destino);
+	if(k < 1)
+	    throw new IllegalArgumentException("Número de trayectorias inválido");
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	return KTrayectorias.calcula(this, origen, destino, k, hilos);
+    }
+
+    /* Busca hasta asentar el destino, y regresa la trayectoria. */
+    private Trayectoria<T> busca(BusquedaDijkstra busqueda, int destino) {
+	if(!busqueda.buscaHasta(destino))
+	    return Trayectoria.vacia(busqueda.asentados);
+	return Trayectoria.reconstruye(this, busqueda.anteriores, destino,
+				       busqueda.distancias[destino],
+				       busqueda.asentados);
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos vértices con el
+     * algoritmo de Dijkstra bidireccional: una búsqueda avanza desde el
+     * origen y otra desde el destino, alternándose según cuál tiene el
+     * vértice más cercano por asentar, y se detienen cuando la suma de sus
+     * mínimos alcanza el peso de la mejor trayectoria encontrada entre
+     * ellas.
+     * @param origen el índice del vértice de origen.
+     * @param destino el índice del vértice de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si el
+     *         destino no es alcanzable la trayectoria es vacía.
+     * @throws NoSuchElementException si algún índice es inválido.
+     */
+    public Trayectoria<T> dijkstraBidireccional(int origen, int destino) {
+	valida(origen);
+	valida(destino);
+	if(origen == destino)
+	    return dijkstra(origen, destino);
+	BusquedaDijkstra ida = new BusquedaDijkstra(this, origen);
+	BusquedaDijkstra vuelta = new BusquedaDijkstra(this, destino);
+	double mejor = Double.POSITIVE_INFINITY;
+	int x = -1, y = -1;
+	while(!ida.esVacia() && !vuelta.esVacia() &&
+	       ida.minimo() + vuelta.minimo() < mejor) {
+	    boolean adelante = ida.minimo() <= vuelta.minimo();
+	    BusquedaDijkstra b = adelante ? ida : vuelta;
+	    BusquedaDijkstra otra = adelante ? vuelta : ida;
+	    int v = b.asienta();
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int u = destinos[a];
+		double d = b.distancias[v] + pesos[a] + otra.distancias[u];
+		if(d < mejor) {
+		    mejor = d;
+		    x = adelante ? v : u;
+		    y = adelante ? u : v;
+		}
+	    }
+	}
+	int asentados = ida.asentados + vuelta.asentados;
+	if(x == -1)
+	    return Trayectoria.vacia(asentados);
+	int f = 0, n = 0;
+	for(int v = x; v != -1; v = ida.anteriores[v])
+	    f++;
+	for(int v = y; v != -1; v = vuelta.anteriores[v])
+	    n++;
+	@SuppressWarnings("unchecked") T[] t = (T[])new Object[f + n];
+	int k = f;
+	for(int v = x; v != -1; v = ida.anteriores[v])
+	    t[--k] = elementos[v];
+	k = f;
+	for(int v = y; v != -1; v = vuelta.anteriores[v])
+	    t[k++] = elementos[v];
+	return new Trayectoria<T>(t, mejor, asentados);
+    }
+
+    /**
+     * Calcula la matriz de distancias entre los orígenes y los destinos,
+     * usando tantos hilos como el <i>pool</i> común.
+     * @param origenes los índices de los vértices de origen.
+     * @param destinos los índices de los vértices de destino.
+     * @return la matriz de distancias.
+     * @throws NoSuchElementException si algún índice es inválido.
+     * @see #matrizDistancias(int[],int[],int)
+     */
+    public double[][] matrizDistancias(int[] origenes, int[] destinos) {
+	return matrizDistancias(origenes, destinos,
+				ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula la matriz de distancias entre los orígenes y los destinos: la
+     * entrada [<i>i</i>][<i>j</i>] es el peso de una trayectoria mínima del
+     * <i>i</i>-ésimo origen al <i>j</i>-ésimo destino, o {@link
+     * Double#POSITIVE_INFINITY} si no hay trayectoria. Cada origen hace su
+     * propia búsqueda de Dijkstra, que termina al asentar todos los destinos,
+     * y las búsquedas se reparten entre los hilos.
+     * @param origenes los índices de los vértices de origen.
+     * @param destinos los índices de los vértices de destino.
+     * @param hilos el número de hilos a utilizar.
+     * @return la matriz de distancias.
+     * @throws NoSuchElementException si algún índice es inválido.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public double[][] matrizDistancias(int[] origenes, int[] destinos,
+				       int hilos) {
+	for(int v : origenes)
+	    valida(v);
+	boolean[] esDestino = new boolean[elementos.length];
+	int distintos = 0;
+	for(int v : destinos) {
+	    valida(v);
+	    if(!esDestino[v])
+		distintos++;
+	    esDestino[v] = true;
+	}
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	double[][] matriz = new double[origenes.length][destinos.length];
+	if(origenes.length == 0)
+	    return matriz;
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    pool.invoke(new Renglones(matriz, origenes, destinos, esDestino,
+				      distintos, 0, origenes.length));
+	} finally {
+	    pool.shutdown();
+	}
+	return matriz;
+    }
+
+    /* Hace la BFS paralela en el pool recibido. */
+    int[] bfsParalelo(int origen, ForkJoinPool pool) {
+	int n = elementos.length;
+	BusquedaParalela busqueda = new BusquedaParalela(origen);
+	long aristasFrontera = inicios[origen+1] - inicios[origen];
+	long aristasSinExplorar = destinos.length - aristasFrontera;
+	while(busqueda.tamFrontera > 0) {
+	    if(!busqueda.abajoArriba &&
+		aristasFrontera > aristasSinExplorar / ALFA)
+		busqueda.abajoArriba = true;
+	    else if(busqueda.abajoArriba &&
+		     busqueda.tamFrontera < n / BETA)
+		busqueda.abajoArriba = false;
+	    int t = busqueda.abajoArriba ? n : busqueda.tamFrontera;
+	    int bloques = (t + BLOQUE - 1) / BLOQUE;
+	    busqueda.descubiertos = new int[bloques][];
+	    busqueda.tamDescubiertos = new int[bloques];
+	    pool.invoke(new Expansion(busqueda, 0, bloques));
+	    aristasFrontera = busqueda.avanza();
+	    aristasSinExplorar -= aristasFrontera;
+	}
+	return busqueda.getNiveles();
+    }
+
+    /**
+     * Regresa una copia de la gráfica compacta con los vértices numerados en
+     * el orden recibido, y con cada vecindad ordenada por índice. Los
+     * elementos, las aristas y sus pesos son los mismos; sólo cambian los
+     * índices.
+     * @param orden el orden de los vértices.
+     * @return una copia de la gráfica compacta con los vértices reordenados.
+     */
+    public GraficaCompacta<T> reordena(OrdenVertices orden) {
+	int n = elementos.length;
+	int[] permutacion = OrdenesVertices.permutacion(vecindades(), orden);
+	int[] nuevos = new int[n];
+	for(int i = 0; i < n; i++)
+	    nuevos[permutacion[i]] = i;
+	@SuppressWarnings("unchecked") T[] e = (T[])new Object[n];
+	Diccionario<T, Integer> d = new Diccionario<T, Integer>(n);
+	int[] ni = new int[n + 1];
+	int[] nd = new int[destinos.length];
+	double[] np = new double[destinos.length];
+	int maximo = 0;
+	for(int i = 0; i < n; i++)
+	    maximo = Math.max(maximo, inicios[i+1] - inicios[i]);
+	long[] vecindad = new long[maximo];
+	int k = 0;
+	for(int i = 0; i < n; i++) {
+	    int v = permutacion[i];
+	    e[i] = elementos[v];
+	    d.agrega(e[i], i);
+	    ni[i] = k;
+	    /* Cada vecino junto con la posición de su arista, para ordenar
+	     * la vecindad sin perder los pesos. */
+	    int g = inicios[v+1] - inicios[v];
+	    for(int j = 0; j < g; j++)
+		vecindad[j] = ((long)nuevos[destinos[inicios[v] + j]] << 32) |
+		    (inicios[v] + j);
+	    Arrays.sort(vecindad, 0, g);
+	    for(int j = 0; j < g; j++) {
+		nd[k] = (int)(vecindad[j] >>> 32);
+		np[k++] = pesos[(int)vecindad[j]];
+	    }
+	}
+	ni[n] = k;
+	return new GraficaCompacta<T>(e, d, ni, nd, np);
+    }
+
+    /* Regresa las vecindades de la gráfica, leídas de los arreglos. */
+    Vecindades<T> vecindades() {
+	return new Vecindades<T>() {
+	    @Override public int getElementos() {
+		return elementos.length;
+	    }
+	    @Override public T get(int v) {
+		return elementos[v];
+	    }
+	    @Override public int getGrado(int v) {
+		return inicios[v+1] - inicios[v];
+	    }
+	    @Override public void vecinos(int v, int[] vecinos) {
+		System.arraycopy(destinos, inicios[v], vecinos, 0,
+				 inicios[v+1] - inicios[v]);
+	    }
+	};
+    }
+
+    /* Duplica el tamaño de un arreglo de enteros. */
+    private static int[] crece(int[] arreglo) {
+	int[] nuevo = new int[arreglo.length * 2];
+	System.arraycopy(arreglo, 0, nuevo, 0, arreglo.length);
+	return nuevo;
+    }
+}
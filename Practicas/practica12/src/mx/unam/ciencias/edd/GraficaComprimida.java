@@ -0,0 +1,515 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * <p>Clase para representaciones comprimidas de gráficas, al estilo de
+ * WebGraph. Como una {@link GraficaCompacta}, una gráfica comprimida es una
+ * fotografía inmutable de una {@link Grafica} con los vértices numerados de
+ * 0 a <i>n</i>-1, pero guarda sólo la estructura (no los pesos), y cada
+ * vecindad ocupa unos cuantos bytes en lugar de cuatro por vecino.</p>
+ *
+ * <p>Cada vecindad se guarda ordenada, con enteros de longitud variable (7
+ * bits por byte): el grado; la distancia a una vecindad de referencia entre
+ * los vértices anteriores, o cero si no se usa ninguna; si hay referencia,
+ * los bloques alternados de vecinos de la referencia que se copian y que se
+ * saltan; y al final los vecinos restantes (los residuos) como brechas, el
+ * primero relativo al vértice mismo. Numerar juntos a los vértices vecinos
+ * (por ejemplo con {@link OrdenVertices#BFS}) hace las brechas pequeñas,
+ * y las referencias aprovechan que vértices cercanos suelen tener vecinos
+ * parecidos. Para cada vértice se escoge, entre los anteriores dentro de la
+ * ventana, la referencia que produce la codificación más corta; las cadenas
+ * de referencias se limitan para que leer una vecindad no tenga que leer
+ * demasiadas otras.</p>
+ *
+ * <p>Los vecinos se leen con un iterador de enteros que decodifica conforme
+ * avanza, sin crear objetos por vecino. Los bytes se guardan en segmentos
+ * de a lo más 2<sup>30</sup> bytes, así que el tamaño total no está limitado
+ * por el de un arreglo; ninguna vecindad cruza de un segmento a otro, así
+ * que basta un entero por vértice para saber dónde comienza la suya.</p>
+ *
+ * <p>La gráfica se comprime leyendo una vecindad a la vez, de una {@link
+ * Grafica} o de una {@link GraficaMapeada}, sin construir antes su
+ * representación compacta: además de los bytes comprimidos sólo hacen falta
+ * arreglos de tamaño <i>n</i> (el orden de los vértices y las cadenas de
+ * referencias) y las vecindades de la ventana. El número de aristas y el de
+ * bytes se cuentan con enteros largos; el número de vértices sí está
+ * limitado por el tamaño de un arreglo.</p>
+ */
+public class GraficaComprimida<T> {
+
+    /* Clase privada para escribir enteros de longitud variable. */
+    private static class Escritor {
+
+	/* Los bytes escritos. */
+	public byte[] datos;
+	/* El número de bytes escritos. */
+	public int tamano;
+
+	/* Construye un escritor vacío. */
+	public Escritor() {
+	    datos = new byte[64];
+	}
+
+	/* Escribe un entero no negativo con 7 bits por byte; el bit alto
+	 * indica que siguen más bytes. */
+	public void escribe(int x) {
+	    if(tamano + 5 > datos.length)
+		datos = Arrays.copyOf(datos, datos.length * 2);
+	    while((x & ~0x7f) != 0) {
+		datos[tamano++] = (byte)((x & 0x7f) | 0x80);
+		x >>>= 7;
+	    }
+	    datos[tamano++] = (byte)x;
+	}
+    }
+
+    /* Clase privada para iterar los vecinos de un vértice. */
+    private class Sucesores implements PrimitiveIterator.OfInt {
+
+	/* El segmento de la vecindad. */
+	private byte[] segmento;
+	/* La posición de los residuos en el segmento. */
+	private int posicion;
+	/* La posición de los bloques en el segmento. */
+	private int posicionBloques;
+	/* Los residuos que faltan por leer. */
+	private int residuos;
+	/* El último residuo leído; el vértice antes del primero. */
+	private int ultimo;
+	/* El siguiente residuo, o -1 si ya no hay. */
+	private int siguienteResiduo;
+	/* Los vecinos de la referencia; null si no hay referencia. */
+	private Sucesores referencia;
+	/* Los bloques que faltan por leer. */
+	private int bloques;
+	/* Los vecinos de la referencia que faltan en el bloque actual. */
+	private int enBloque;
+	/* Si el bloque actual se copia. */
+	private boolean copiando;
+	/* El siguiente vecino copiado, o -1 si ya no hay. */
+	private int siguienteCopia;
+
+	/* Construye un iterador para los vecinos del vértice. */
+	public Sucesores(int v) {
+	    segmento = segmentos[segmento(v)];
+	    posicion = desplazamientos[v];
+	    siguienteCopia = siguienteResiduo = -1;
+	    int grado = lee();
+	    if(grado == 0)
+		return;
+	    int r = lee();
+	    residuos = grado;
+	    if(r > 0) {
+		bloques = lee();
+		posicionBloques = posicion;
+		/* Salta los bloques, sumando los que se copian. */
+		for(int i = 0; i < bloques; i++) {
+		    int b = lee();
+		    if(i % 2 == 0)
+			residuos -= b;
+		}
+		referencia = new Sucesores(v - r);
+		avanzaCopia();
+	    }
+	    ultimo = v;
+	    avanzaResiduo(true);
+	}
+
+	/* Nos dice si quedan vecinos. */
+	@Override public boolean hasNext() {
+	    return siguienteCopia != -1 || siguienteResiduo != -1;
+	}
+
+	/* Regresa el siguiente vecino. */
+	@Override public int nextInt() {
+	    int x;
+	    if(siguienteResiduo == -1 ||
+		(siguienteCopia != -1 && siguienteCopia < siguienteResiduo)) {
+		if(siguienteCopia == -1)
+		    throw new NoSuchElementException("No hay más vecinos");
+		x = siguienteCopia;
+		avanzaCopia();
+	    } else {
+		x = siguienteResiduo;
+		avanzaResiduo(false);
+	    }
+	    return x;
+	}
+
+	/* Lee el siguiente vecino copiado de la referencia. */
+	private void avanzaCopia() {
+	    while(true) {
+		if(enBloque > 0) {
+		    int x = referencia.nextInt();
+		    enBloque--;
+		    if(copiando) {
+			siguienteCopia = x;
+			return;
+		    }
+		    continue;
+		}
+		if(bloques == 0) {
+		    siguienteCopia = -1;
+		    return;
+		}
+		enBloque = leeBloque();
+		bloques--;
+		copiando = !copiando;
+	    }
+	}
+
+	/* Lee el siguiente residuo. */
+	private void avanzaResiduo(boolean primero) {
+	    if(residuos == 0) {
+		siguienteResiduo = -1;
+		return;
+	    }
+	    residuos--;
+	    int g = lee();
+	    if(primero)
+		ultimo += (g >>> 1) ^ -(g & 1);
+	    else
+		ultimo += g + 1;
+	    siguienteResiduo = ultimo;
+	}
+
+	/* Lee un entero de longitud variable de los residuos. */
+	private int lee() {
+	    int x = 0;
+	    int corrimiento = 0;
+	    byte b;
+	    do {
+		b = segmento[posicion++];
+		x |= (b & 0x7f) << corrimiento;
+		corrimiento += 7;
+	    } while(b < 0);
+	    return x;
+	}
+
+	/* Lee un entero de longitud variable de los bloques. */
+	private int leeBloque() {
+	    int x = 0;
+	    int corrimiento = 0;
+	    byte b;
+	    do {
+		b = segmento[posicionBloques++];
+		x |= (b & 0x7f) << corrimiento;
+		corrimiento += 7;
+	    } while(b < 0);
+	    return x;
+	}
+    }
+
+    /* El tamaño máximo de un segmento. */
+    private static final int TAMANO_SEGMENTO = 1 << 30;
+    /* La longitud máxima de una cadena de referencias. */
+    private static final int MAXIMA_CADENA = 3;
+
+    /* Los elementos de los vértices. */
+    private T[] elementos;
+    /* El índice de cada elemento. */
+    private Diccionario<T, Integer> indices;
+    /* Los segmentos de bytes. */
+    private byte[][] segmentos;
+    /* El primer vértice de cada segmento. */
+    private int[] primeros;
+    /* Dónde comienza la vecindad de cada vértice en su segmento. */
+    private int[] desplazamientos;
+    /* El número de aristas. */
+    private long aristas;
+    /* El número total de bytes de las vecindades. */
+    private long bytes;
+
+    /* Comprime las vecindades con los vértices numerados en el orden
+     * recibido, leyendo una vecindad a la vez y buscando referencias entre
+     * los vértices anteriores dentro de la ventana. */
+    GraficaComprimida(Vecindades<T> grafica, OrdenVertices orden,
+		      int ventana) {
+	int n = grafica.getElementos();
+	int[] permutacion = OrdenesVertices.permutacion(grafica, orden);
+	int[] nuevos = new int[n];
+	for(int i = 0; i < n; i++)
+	    nuevos[permutacion[i]] = i;
+	@SuppressWarnings("unchecked") T[] e = (T[])new Object[n];
+	elementos = e;
+	indices = new Diccionario<T, Integer>(n);
+	long arcos = 0;
+	for(int v = 0; v < n; v++) {
+	    elementos[v] = grafica.get(permutacion[v]);
+	    indices.agrega(elementos[v], v);
+	    arcos += grafica.getGrado(v);
+	}
+	aristas = arcos / 2;
+	desplazamientos = new int[n];
+	byte[] cadenas = new byte[n];
+	/* Las vecindades ordenadas de los últimos vértices, para usarlas
+	 * como referencias. */
+	int[][] recientes = new int[ventana + 1][];
+	Lista<byte[]> listos = new Lista<byte[]>();
+	Lista<Integer> inicios = new Lista<Integer>();
+	inicios.agrega(0);
+	/* Se empieza suponiendo unos dos bits por arco; el segmento crece si
+	 * hace falta. */
+	byte[] actual = new byte[(int)Math.min(TAMANO_SEGMENTO,
+					       Math.max(64, (arcos + n) / 4))];
+	int ocupados = 0;
+	Escritor mejor = new Escritor();
+	Escritor prueba = new Escritor();
+	int[] bloques = new int[1];
+	int[] residuos = new int[1];
+	for(int v = 0; v < n; v++) {
+	    int u = permutacion[v];
+	    int[] lista = new int[grafica.getGrado(u)];
+	    grafica.vecinos(u, lista);
+	    for(int j = 0; j < lista.length; j++)
+		lista[j] = nuevos[lista[j]];
+	    Arrays.sort(lista);
+	    recientes[v % recientes.length] = lista;
+	    if(residuos.length < lista.length)
+		residuos = new int[lista.length];
+	    mejor.tamano = 0;
+	    codifica(v, lista, null, 0, mejor, bloques, residuos);
+	    int referencia = 0;
+	    for(int r = 1; r <= ventana && r <= v && lista.length > 0; r++) {
+		if(cadenas[v - r] >= MAXIMA_CADENA)
+		    continue;
+		int[] otra = recientes[(v - r) % recientes.length];
+		if(bloques.length < otra.length + 1)
+		    bloques = new int[otra.length + 1];
+		prueba.tamano = 0;
+		codifica(v, lista, otra, r, prueba, bloques, residuos);
+		if(prueba.tamano < mejor.tamano) {
+		    Escritor t = mejor;
+		    mejor = prueba;
+		    prueba = t;
+		    referencia = r;
+		}
+	    }
+	    if(referencia > 0)
+		cadenas[v] = (byte)(cadenas[v - referencia] + 1);
+	    if(ocupados + mejor.tamano > actual.length) {
+		if(ocupados + mejor.tamano <= TAMANO_SEGMENTO) {
+		    int tamano = (int)Math.min(TAMANO_SEGMENTO,
+					       Math.max(2L * actual.length,
+							ocupados + mejor.tamano));
+		    actual = Arrays.copyOf(actual, tamano);
+		} else {
+		    listos.agrega(Arrays.copyOf(actual, ocupados));
+		    inicios.agrega(v);
+		    actual = new byte[actual.length];
+		    ocupados = 0;
+		}
+	    }
+	    desplazamientos[v] = ocupados;
+	    System.arraycopy(mejor.datos, 0, actual, ocupados, mejor.tamano);
+	    ocupados += mejor.tamano;
+	    bytes += mejor.tamano;
+	}
+	listos.agrega(Arrays.copyOf(actual, ocupados));
+	segmentos = new byte[listos.getLongitud()][];
+	primeros = new int[segmentos.length];
+	int i = 0;
+	for(byte[] segmento : listos)
+	    segmentos[i++] = segmento;
+	i = 0;
+	for(int primero : inicios)
+	    primeros[i++] = primero;
+    }
+
+    /* Codifica la vecindad ordenada del vértice con la referencia recibida
+     * (o sin referencia si es null). */
+    private static void codifica(int v, int[] lista, int[] referencia, int r,
+				 Escritor escritor, int[] bloques,
+				 int[] residuos) {
+	escritor.escribe(lista.length);
+	if(lista.length == 0)
+	    return;
+	escritor.escribe(referencia == null ? 0 : r);
+	int tamResiduos = lista.length;
+	if(referencia == null) {
+	    System.arraycopy(lista, 0, residuos, 0, lista.length);
+	} else {
+	    /* Bloques alternados de copiados y saltados, empezando por
+	     * copiados; los saltados del final no se escriben. */
+	    tamResiduos = 0;
+	    int k = 0;
+	    int largo = 0;
+	    boolean copiando = true;
+	    int i = 0;
+	    for(int x : referencia) {
+		while(i < lista.length && lista[i] < x)
+		    residuos[tamResiduos++] = lista[i++];
+		boolean copia = i < lista.length && lista[i] == x;
+		if(copia)
+		    i++;
+		if(copia != copiando) {
+		    bloques[k++] = largo;
+		    largo = 0;
+		    copiando = copia;
+		}
+		largo++;
+	    }
+	    while(i < lista.length)
+		residuos[tamResiduos++] = lista[i++];
+	    if(copiando)
+		bloques[k++] = largo;
+	    escritor.escribe(k);
+	    for(int j = 0; j < k; j++)
+		escritor.escribe(bloques[j]);
+	}
+	int ultimo = v;
+	for(int j = 0; j < tamResiduos; j++) {
+	    int x = residuos[j];
+	    if(j == 0) {
+		int d = x - v;
+		escritor.escribe((d << 1) ^ (d >> 31));
+	    } else {
+		escritor.escribe(x - ultimo - 1);
+	    }
+	    ultimo = x;
+	}
+    }
+
+    /**
+     * Regresa el número de vértices de la gráfica.
+     * @return el número de vértices de la gráfica.
+     */
+    public int getElementos() {
+	return elementos.length;
+    }
+
+    /**
+     * Regresa el número de aristas de la gráfica.
+     * @return el número de aristas de la gráfica.
+     */
+    public long getAristas() {
+	return aristas;
+    }
+
+    /**
+     * Regresa el índice del vértice que contiene al elemento recibido.
+     * @param elemento el elemento.
+     * @return el índice del vértice que contiene al elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int indice(T elemento) {
+	if(elemento == null || !indices.contiene(elemento))
+	    throw new NoSuchElementException("El elemento no está");
+	return indices.get(elemento);
+    }
+
+    /**
+     * Regresa el elemento del vértice con el índice recibido.
+     * @param i el índice del vértice.
+     * @return el elemento del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public T get(int i) {
+	valida(i);
+	return elementos[i];
+    }
+
+    /**
+     * Regresa el grado del vértice con el índice recibido.
+     * @param i el índice del vértice.
+     * @return el grado del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public int getGrado(int i) {
+	valida(i);
+	byte[] segmento = segmentos[segmento(i)];
+	int posicion = desplazamientos[i];
+	int x = 0;
+	int corrimiento = 0;
+	byte b;
+	do {
+	    b = segmento[posicion++];
+	    x |= (b & 0x7f) << corrimiento;
+	    corrimiento += 7;
+	} while(b < 0);
+	return x;
+    }
+
+    /**
+     * Regresa un iterador para los índices de los vecinos de un vértice, en
+     * orden creciente. Los vecinos se decodifican conforme se piden.
+     * @param i el índice del vértice.
+     * @return un iterador para los vecinos del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public PrimitiveIterator.OfInt sucesores(int i) {
+	valida(i);
+	return new Sucesores(i);
+    }
+
+    /**
+     * Calcula el número de aristas entre el vértice de origen y todos los
+     * demás vértices, leyendo las vecindades comprimidas.
+     * @param origen el índice del vértice de origen.
+     * @return un arreglo con la distancia (en aristas) del origen a cada
+     *         vértice, o -1 para los vértices inalcanzables.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public int[] bfs(int origen) {
+	valida(origen);
+	int n = elementos.length;
+	int[] niveles = new int[n];
+	Arrays.fill(niveles, -1);
+	int[] cola = new int[n];
+	niveles[origen] = 0;
+	cola[0] = origen;
+	int fin = 1;
+	for(int i = 0; i < fin; i++) {
+	    int v = cola[i];
+	    Sucesores s = new Sucesores(v);
+	    while(s.hasNext()) {
+		int u = s.nextInt();
+		if(niveles[u] == -1) {
+		    niveles[u] = niveles[v] + 1;
+		    cola[fin++] = u;
+		}
+	    }
+	}
+	return niveles;
+    }
+
+    /**
+     * Regresa el número de bytes que ocupan las vecindades comprimidas.
+     * @return el número de bytes de las vecindades.
+     */
+    public long getBytes() {
+	return bytes;
+    }
+
+    /**
+     * Regresa el número promedio de bits por arco de las vecindades
+     * comprimidas; cada arista son dos arcos.
+     * @return los bits por arco, o cero si la gráfica no tiene aristas.
+     */
+    public double getBitsPorArco() {
+	return aristas == 0 ? 0 : bytes * 8.0 / (2.0 * aristas);
+    }
+
+    /* Regresa el segmento donde está la vecindad del vértice. */
+    private int segmento(int v) {
+	int a = 0;
+	int b = primeros.length - 1;
+	while(a < b) {
+	    int m = (a + b + 1) >>> 1;
+	    if(primeros[m] <= v)
+		a = m;
+	    else
+		b = m - 1;
+	}
+	return a;
+    }
+
+    /* Verifica que el índice de vértice sea válido. */
+    private void valida(int i) {
+	if(i < 0 || i >= elementos.length)
+	    throw new NoSuchElementException("Índice inválido");
+    }
+}
@@ -0,0 +1,690 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para gráficas dirigidas. A diferencia de {@link Grafica}, cada
+ * arco va de un elemento a otro: conectar a con b no conecta b con a. Cada
+ * vértice guarda sus arcos salientes y sus arcos entrantes, por lo que
+ * recorrer la gráfica en cualquiera de los dos sentidos cuesta lo mismo.</p>
+ *
+ * <p>Los vértices implementan {@link VerticeGrafica}; sus vecinos son los
+ * destinos de sus arcos salientes, y su grado es el número de arcos
+ * salientes.</p>
+ */
+public class GraficaDirigida<T> implements Coleccion<T> {
+
+    /* Clase privada para iteradores de gráficas dirigidas. */
+    private class Iterador implements Iterator<T> {
+
+	/* Iterador auxiliar. */
+	private Iterator<Vertice> iterador;
+
+	/* Construye un nuevo iterador, auxiliándose de los vértices. */
+	public Iterador() {
+	    iterador = vertices.iterator();
+	}
+
+	/* Nos dice si hay un siguiente elemento. */
+	@Override public boolean hasNext() {
+	    return iterador.hasNext();
+	}
+
+	/* Regresa el siguiente elemento. */
+	@Override public T next() {
+	    return iterador.next().elemento;
+	}
+    }
+
+    /* Vértices para gráficas dirigidas. */
+    private class Vertice implements VerticeGrafica<T> {
+
+	/* El elemento del vértice. */
+	public T elemento;
+	/* El color del vértice. */
+	public Color color;
+	/* El índice del vértice en la última numeración. */
+	public int indice;
+	/* Los arcos que salen del vértice, por elemento de destino. */
+	public Diccionario<T, Arco> salientes;
+	/* Los arcos que entran al vértice, por elemento de origen. */
+	public Diccionario<T, Arco> entrantes;
+
+	/* Crea un nuevo vértice a partir de un elemento. */
+	public Vertice(T elemento) {
+	    this.elemento = elemento;
+	    color = Color.NINGUNO;
+	    salientes = new Diccionario<T, Arco>();
+	    entrantes = new Diccionario<T, Arco>();
+	}
+
+	/* Regresa el elemento del vértice. */
+	@Override public T get() {
+	    return elemento;
+	}
+
+	/* Regresa el número de arcos salientes. */
+	@Override public int getGrado() {
+	    return salientes.getElementos();
+	}
+
+	/* Regresa el color del vértice. */
+	@Override public Color getColor() {
+	    return color;
+	}
+
+	/* Regresa un iterable para los destinos de los arcos salientes. */
+	@Override public Iterable<? extends VerticeGrafica<T>> vecinos() {
+	    return salientes;
+	}
+    }
+
+    /* Arcos para gráficas dirigidas; un arco es el vértice del otro extremo
+     * y el peso. */
+    private class Arco implements VerticeGrafica<T> {
+
+	/* El vértice del otro extremo. */
+	public Vertice vecino;
+	/* El peso del arco. */
+	public double peso;
+
+	/* Construye un arco hacia el vértice con el peso recibido. */
+	public Arco(Vertice vecino, double peso) {
+	    this.vecino = vecino;
+	    this.peso = peso;
+	}
+
+	/* Regresa el elemento del vecino. */
+	@Override public T get() {
+	    return vecino.elemento;
+	}
+
+	/* Regresa el grado del vecino. */
+	@Override public int getGrado() {
+	    return vecino.getGrado();
+	}
+
+	/* Regresa el color del vecino. */
+	@Override public Color getColor() {
+	    return vecino.color;
+	}
+
+	/* Regresa un iterable para los vecinos del vecino. */
+	@Override public Iterable<? extends VerticeGrafica<T>> vecinos() {
+	    return vecino.vecinos();
+	}
+    }
+
+    /* Vértices vistos desde la gráfica invertida: sus vecinos son los
+     * orígenes de sus arcos entrantes. */
+    private class Reflejo implements VerticeGrafica<T> {
+
+	/* El vértice reflejado. */
+	public Vertice vertice;
+
+	/* Construye el reflejo de un vértice. */
+	public Reflejo(Vertice vertice) {
+	    this.vertice = vertice;
+	}
+
+	/* Regresa el elemento del vértice. */
+	@Override public T get() {
+	    return vertice.elemento;
+	}
+
+	/* Regresa el número de arcos entrantes. */
+	@Override public int getGrado() {
+	    return vertice.entrantes.getElementos();
+	}
+
+	/* Regresa el color del vértice. */
+	@Override public Color getColor() {
+	    return vertice.color;
+	}
+
+	/* Regresa un iterable para los reflejos de los orígenes de los arcos
+	 * entrantes. */
+	@Override public Iterable<? extends VerticeGrafica<T>> vecinos() {
+	    return () -> new Iterator<VerticeGrafica<T>>() {
+		private Iterator<Arco> iterador = vertice.entrantes.iterator();
+		@Override public boolean hasNext() {
+		    return iterador.hasNext();
+		}
+		@Override public VerticeGrafica<T> next() {
+		    return new Reflejo(iterador.next().vecino);
+		}
+	    };
+	}
+    }
+
+    /* Numeración de los vértices, con los arcos en el sentido de la gráfica
+     * en arreglos primitivos. */
+    private class Numeracion {
+
+	/* Los vértices, por índice. */
+	public Vertice[] vertices;
+	/* Dónde comienzan en destinos los arcos de cada vértice. */
+	public int[] inicios;
+	/* Los destinos de los arcos, uno tras otro. */
+	public int[] destinos;
+
+	/* Numera los vértices en el orden en que se iteran. */
+	@SuppressWarnings("unchecked") public Numeracion() {
+	    int n = GraficaDirigida.this.vertices.getElementos();
+	    vertices = (Vertice[])new GraficaDirigida.Vertice[n];
+	    inicios = new int[n+1];
+	    destinos = new int[getArcos()];
+	    int i = 0;
+	    for(Vertice v : GraficaDirigida.this.vertices) {
+		v.indice = i;
+		vertices[i++] = v;
+	    }
+	    int a = 0;
+	    for(i = 0; i < n; i++) {
+		inicios[i] = a;
+		for(Arco arco : salientes(vertices[i]))
+		    destinos[a++] = arco.vecino.indice;
+	    }
+	    inicios[n] = a;
+	}
+    }
+
+    /* Vértices; la gráfica invertida comparte el diccionario. */
+    private Diccionario<T, Vertice> vertices;
+    /* Número de arcos. */
+    private int arcos;
+    /* Si la gráfica es la vista invertida de otra. */
+    private boolean invertida;
+    /* La gráfica invertida; para una vista invertida, la original. */
+    private GraficaDirigida<T> reflejo;
+
+    /**
+     * Constructor único.
+     */
+    public GraficaDirigida() {
+	vertices = new Diccionario<T, Vertice>();
+    }
+
+    /* Construye la vista invertida de la gráfica recibida. */
+    private GraficaDirigida(GraficaDirigida<T> original) {
+	vertices = original.vertices;
+	invertida = true;
+	reflejo = original;
+    }
+
+    /**
+     * Regresa el número de elementos en la gráfica. El número de elementos es
+     * igual al número de vértices.
+     * @return el número de elementos en la gráfica.
+     */
+    @Override public int getElementos() {
+	return vertices.getElementos();
+    }
+
+    /**
+     * Regresa el número de arcos.
+     * @return el número de arcos.
+     */
+    public int getArcos() {
+	return invertida ? reflejo.arcos : arcos;
+    }
+
+    /**
+     * Agrega un nuevo elemento a la gráfica.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code> o
+     *         ya había sido agregado a la gráfica.
+     */
+    @Override public void agrega(T elemento) {
+	if(elemento == null || contiene(elemento))
+	    throw new IllegalArgumentException("Elemento inválido");
+	vertices.agrega(elemento, new Vertice(elemento));
+    }
+
+    /**
+     * Agrega un arco de peso 1 del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     * @throws IllegalArgumentException si ya hay un arco de a a b, o si a es
+     *         igual a b.
+     */
+    public void conecta(T a, T b) {
+	conecta(a, b, 1.0);
+    }
+
+    /**
+     * Agrega un arco del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @param peso el peso del arco.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     * @throws IllegalArgumentException si ya hay un arco de a a b, si a es
+     *         igual a b, o si el peso es no positivo.
+     */
+    public void conecta(T a, T b, double peso) {
+	if(invertida) {
+	    reflejo.conecta(b, a, peso);
+	    return;
+	}
+	Vertice va = getVertice(a);
+	Vertice vb = getVertice(b);
+	if(peso <= 0 || va == vb || va.salientes.contiene(b))
+	    throw new IllegalArgumentException("No se puede conectar");
+	va.salientes.agrega(b, new Arco(vb, peso));
+	vb.entrantes.agrega(a, new Arco(va, peso));
+	arcos++;
+    }
+
+    /**
+     * Elimina el arco del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     * @throws IllegalArgumentException si no hay un arco de a a b.
+     */
+    public void desconecta(T a, T b) {
+	if(invertida) {
+	    reflejo.desconecta(b, a);
+	    return;
+	}
+	Vertice va = getVertice(a);
+	Vertice vb = getVertice(b);
+	if(!va.salientes.contiene(b))
+	    throw new IllegalArgumentException("No hay un arco de a a b");
+	va.salientes.elimina(b);
+	vb.entrantes.elimina(a);
+	arcos--;
+    }
+
+    /**
+     * Nos dice si el elemento está contenido en la gráfica.
+     * @param elemento el elemento que queremos verificar si está contenido en
+     *        la gráfica.
+     * @return <code>true</code> si el elemento está contenido en la gráfica,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(T elemento) {
+	return elemento != null && vertices.contiene(elemento);
+    }
+
+    /**
+     * Elimina un elemento de la gráfica, junto con todos sus arcos.
+     * @param elemento el elemento a eliminar.
+     * @throws NoSuchElementException si el elemento no está contenido en la
+     *         gráfica.
+     */
+    @Override public void elimina(T elemento) {
+	if(invertida) {
+	    reflejo.elimina(elemento);
+	    return;
+	}
+	Vertice v = getVertice(elemento);
+	for(Arco arco : v.salientes)
+	    arco.vecino.entrantes.elimina(elemento);
+	for(Arco arco : v.entrantes)
+	    arco.vecino.salientes.elimina(elemento);
+	arcos -= v.salientes.getElementos() + v.entrantes.getElementos();
+	vertices.elimina(elemento);
+    }
+
+    /**
+     * Nos dice si hay un arco del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @return <code>true</code> si hay un arco de a a b, <code>false</code>
+     *         en otro caso.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     */
+    public boolean sonVecinos(T a, T b) {
+	Vertice va = getVertice(a);
+	getVertice(b);
+	return salientes(va).contiene(b);
+    }
+
+    /**
+     * Regresa el peso del arco del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @return el peso del arco de a a b.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     * @throws IllegalArgumentException si no hay un arco de a a b.
+     */
+    public double getPeso(T a, T b) {
+	if(!sonVecinos(a, b))
+	    throw new IllegalArgumentException("No hay un arco de a a b");
+	return salientes(getVertice(a)).get(b).peso;
+    }
+
+    /**
+     * Define el peso del arco del primer elemento al segundo.
+     * @param a el elemento de origen.
+     * @param b el elemento de destino.
+     * @param peso el nuevo peso del arco.
+     * @throws NoSuchElementException si a o b no son elementos de la gráfica.
+     * @throws IllegalArgumentException si no hay un arco de a a b, o si el
+     *         peso es no positivo.
+     */
+    public void setPeso(T a, T b, double peso) {
+	if(!sonVecinos(a, b))
+	    throw new IllegalArgumentException("No hay un arco de a a b");
+	if(peso <= 0)
+	    throw new IllegalArgumentException("Peso inválido");
+	salientes(getVertice(a)).get(b).peso = peso;
+	entrantes(getVertice(b)).get(a).peso = peso;
+    }
+
+    /**
+     * Regresa el número de arcos que entran al elemento.
+     * @param elemento el elemento.
+     * @return el número de arcos que entran al elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int getGradoEntrada(T elemento) {
+	return entrantes(getVertice(elemento)).getElementos();
+    }
+
+    /**
+     * Regresa el número de arcos que salen del elemento.
+     * @param elemento el elemento.
+     * @return el número de arcos que salen del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int getGradoSalida(T elemento) {
+	return salientes(getVertice(elemento)).getElementos();
+    }
+
+    /**
+     * Regresa el vértice correspondiente el elemento recibido.
+     * @param elemento el elemento del que queremos el vértice.
+     * @return el vértice correspondiente el elemento recibido.
+     * @throws NoSuchElementException si elemento no es elemento de la gráfica.
+     */
+    public VerticeGrafica<T> vertice(T elemento) {
+	return vista(getVertice(elemento));
+    }
+
+    /**
+     * Realiza la acción recibida en cada uno de los vértices de la gráfica, en
+     * el orden en que fueron agregados.
+     * @param accion la acción a realizar.
+     */
+    public void paraCadaVertice(AccionVerticeGrafica<T> accion) {
+	for(Vertice v : vertices)
+	    accion.actua(vista(v));
+    }
+
+    /**
+     * Realiza la acción recibida en todos los vértices alcanzables desde el
+     * elemento recibido, siguiendo los arcos, en el orden determinado por
+     * BFS. Al terminar el método, todos los vértices tendrán color {@link
+     * Color#NINGUNO}.
+     * @param elemento el elemento sobre cuyo vértice queremos comenzar el
+     *        recorrido.
+     * @param accion la acción a realizar.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public void bfs(T elemento, AccionVerticeGrafica<T> accion) {
+	recorre(elemento, accion, new Cola<Vertice>());
+    }
+
+    /**
+     * Realiza la acción recibida en todos los vértices alcanzables desde el
+     * elemento recibido, siguiendo los arcos, en el orden determinado por
+     * DFS. Al terminar el método, todos los vértices tendrán color {@link
+     * Color#NINGUNO}.
+     * @param elemento el elemento sobre cuyo vértice queremos comenzar el
+     *        recorrido.
+     * @param accion la acción a realizar.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public void dfs(T elemento, AccionVerticeGrafica<T> accion) {
+	recorre(elemento, accion, new Pila<Vertice>());
+    }
+
+    /* Recorre los vértices alcanzables con la estructura recibida. */
+    private void recorre(T elemento, AccionVerticeGrafica<T> accion,
+			 MeteSaca<Vertice> m) {
+	Vertice v = getVertice(elemento);
+	v.color = Color.ROJO;
+	m.mete(v);
+	while(!m.esVacia()) {
+	    v = m.saca();
+	    accion.actua(vista(v));
+	    for(Arco arco : salientes(v)) {
+		if(arco.vecino.color == Color.ROJO)
+		    continue;
+		arco.vecino.color = Color.ROJO;
+		m.mete(arco.vecino);
+	    }
+	}
+	for(Vertice u : vertices)
+	    u.color = Color.NINGUNO;
+    }
+
+    /**
+     * Calcula las componentes fuertemente conexas de la gráfica con el
+     * algoritmo de Tarjan. Dos elementos están en la misma componente si
+     * cada uno es alcanzable desde el otro. El algoritmo es iterativo, así
+     * que no se desborda la pila aunque las trayectorias sean muy largas.
+     * @return una lista con las componentes fuertemente conexas; cada
+     *         componente aparece después de todas las componentes a las que
+     *         llegan sus arcos (en orden topológico inverso).
+     */
+    public Lista<Lista<T>> componentesFuertes() {
+	Numeracion numeracion = new Numeracion();
+	int n = numeracion.vertices.length;
+	int[] inicios = numeracion.inicios;
+	int[] destinos = numeracion.destinos;
+	int[] indices = new int[n];
+	int[] bajos = new int[n];
+	boolean[] enPila = new boolean[n];
+	int[] pila = new int[n];
+	int[] llamadas = new int[n];
+	int[] arcosPendientes = new int[n];
+	Lista<Lista<T>> componentes = new Lista<Lista<T>>();
+	int siguiente = 1;
+	int p = 0;
+	for(int s = 0; s < n; s++) {
+	    if(indices[s] != 0)
+		continue;
+	    int l = 0;
+	    llamadas[l++] = s;
+	    indices[s] = bajos[s] = siguiente++;
+	    arcosPendientes[s] = inicios[s];
+	    pila[p++] = s;
+	    enPila[s] = true;
+	    while(l > 0) {
+		int v = llamadas[l-1];
+		if(arcosPendientes[v] < inicios[v+1]) {
+		    int u = destinos[arcosPendientes[v]++];
+		    if(indices[u] == 0) {
+			indices[u] = bajos[u] = siguiente++;
+			arcosPendientes[u] = inicios[u];
+			pila[p++] = u;
+			enPila[u] = true;
+			llamadas[l++] = u;
+		    } else if(enPila[u] && indices[u] < bajos[v]) {
+			bajos[v] = indices[u];
+		    }
+		    continue;
+		}
+		l--;
+		if(l > 0 && bajos[v] < bajos[llamadas[l-1]])
+		    bajos[llamadas[l-1]] = bajos[v];
+		if(bajos[v] != indices[v])
+		    continue;
+		Lista<T> componente = new Lista<T>();
+		int u;
+		do {
+		    u = pila[--p];
+		    enPila[u] = false;
+		    componente.agrega(numeracion.vertices[u].elemento);
+		} while(u != v);
+		componentes.agrega(componente);
+	    }
+	}
+	return componentes;
+    }
+
+    /**
+     * Regresa los elementos de la gráfica en orden topológico, con el
+     * algoritmo de Kahn: cada elemento aparece antes que todos los destinos
+     * de sus arcos.
+     * @return una lista con los elementos en orden topológico.
+     * @throws IllegalStateException si la gráfica tiene ciclos.
+     */
+    public Lista<T> ordenTopologico() {
+	Numeracion numeracion = new Numeracion();
+	int[] orden = kahn(numeracion);
+	if(orden.length < numeracion.vertices.length)
+	    throw new IllegalStateException("La gráfica tiene ciclos");
+	Lista<T> lista = new Lista<T>();
+	for(int v : orden)
+	    lista.agrega(numeracion.vertices[v].elemento);
+	return lista;
+    }
+
+    /**
+     * Nos dice si la gráfica no tiene ciclos dirigidos.
+     * @return <code>true</code> si la gráfica no tiene ciclos,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esAciclica() {
+	Numeracion numeracion = new Numeracion();
+	return kahn(numeracion).length == numeracion.vertices.length;
+    }
+
+    /* Ordena los vértices sacando cada vez uno sin arcos entrantes
+     * pendientes; regresa sólo los que alcanzó a ordenar, que son todos si y
+     * sólo si la gráfica no tiene ciclos. */
+    private int[] kahn(Numeracion numeracion) {
+	int n = numeracion.vertices.length;
+	int[] inicios = numeracion.inicios;
+	int[] destinos = numeracion.destinos;
+	int[] entrantes = new int[n];
+	for(int a = 0; a < destinos.length; a++)
+	    entrantes[destinos[a]]++;
+	int[] orden = new int[n];
+	int c = 0;
+	for(int v = 0; v < n; v++)
+	    if(entrantes[v] == 0)
+		orden[c++] = v;
+	for(int i = 0; i < c; i++) {
+	    int v = orden[i];
+	    for(int a = inicios[v]; a < inicios[v+1]; a++)
+		if(--entrantes[destinos[a]] == 0)
+		    orden[c++] = destinos[a];
+	}
+	if(c == n)
+	    return orden;
+	int[] parcial = new int[c];
+	System.arraycopy(orden, 0, parcial, 0, c);
+	return parcial;
+    }
+
+    /**
+     * Regresa la gráfica invertida: una vista de esta gráfica con todos sus
+     * arcos en sentido contrario. La vista no copia nada; los cambios en una
+     * de las dos gráficas se ven en la otra. La gráfica invertida de la vista
+     * es la gráfica original.
+     * @return la gráfica invertida.
+     */
+    public GraficaDirigida<T> invertida() {
+	if(reflejo == null)
+	    reflejo = new GraficaDirigida<T>(this);
+	return reflejo;
+    }
+
+    /**
+     * Nos dice si la gráfica es vacía.
+     * @return <code>true</code> si la gráfica es vacía, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacia() {
+	return vertices.esVacia();
+    }
+
+    /**
+     * Limpia la gráfica de vértices y arcos.
+     */
+    @Override public void limpia() {
+	if(invertida) {
+	    reflejo.limpia();
+	    return;
+	}
+	vertices.limpia();
+	arcos = 0;
+    }
+
+    /**
+     * Regresa una representación en cadena de la gráfica.
+     * @return una representación en cadena de la gráfica.
+     */
+    @Override public String toString() {
+	String s = "";
+	for(Vertice v : vertices)
+	    for(Arco arco : salientes(v))
+		s += "(" + v.elemento + ", " + arco.vecino.elemento + "), ";
+	return s;
+    }
+
+    /**
+     * Nos dice si la gráfica es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <code>true</code> si la gráfica tiene los mismos elementos y
+     *         los mismos arcos que el objeto recibido; <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean equals(Object o) {
+	if(o == null || getClass() != o.getClass())
+	    return false;
+	@SuppressWarnings("unchecked") GraficaDirigida<T> grafica =
+	    (GraficaDirigida<T>)o;
+	if(grafica.getElementos() != getElementos() ||
+	    grafica.getArcos() != getArcos())
+	    return false;
+	for(Vertice v : vertices) {
+	    if(!grafica.contiene(v.elemento))
+		return false;
+	    for(Arco arco : salientes(v))
+		if(!grafica.sonVecinos(v.elemento, arco.vecino.elemento))
+		    return false;
+	}
+	return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar la gráfica. La gráfica se itera en el
+     * orden en que fueron agregados sus elementos.
+     * @return un iterador para iterar la gráfica.
+     */
+    @Override public Iterator<T> iterator() {
+	return new Iterador();
+    }
+
+    /* Regresa el vértice del elemento. */
+    private Vertice getVertice(T elemento) {
+	if(!contiene(elemento))
+	    throw new NoSuchElementException("El elemento no está");
+	return vertices.get(elemento);
+    }
+
+    /* Regresa los arcos que salen del vértice, en el sentido de esta
+     * gráfica. */
+    private Diccionario<T, Arco> salientes(Vertice v) {
+	return invertida ? v.entrantes : v.salientes;
+    }
+
+    /* Regresa los arcos que entran al vértice, en el sentido de esta
+     * gráfica. */
+    private Diccionario<T, Arco> entrantes(Vertice v) {
+	return invertida ? v.salientes : v.entrantes;
+    }
+
+    /* Regresa el vértice como se ve desde esta gráfica. */
+    private VerticeGrafica<T> vista(Vertice v) {
+	return invertida ? new Reflejo(v) : v;
+    }
+}
@@ -0,0 +1,392 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para gráficas guardadas en archivos binarios y mapeadas a memoria.
+ * Una gráfica mapeada es de sólo lectura: sus vértices se numeran de 0 a
+ * <i>n</i>-1 como en una {@link GraficaCompacta}, y sus elementos son las
+ * cadenas de los elementos de la gráfica que se guardó.</p>
+ *
+ * <p>Abrir una gráfica mapeada no lee el archivo: el sistema operativo trae
+ * las páginas a memoria conforme se consultan, y varios procesos que abran
+ * el mismo archivo comparten las mismas páginas. Cada sección se mapea en
+ * segmentos de a lo más 2<sup>30</sup> bytes, así que las secciones pueden
+ * pasar del tamaño máximo de un solo mapeo. El archivo tiene, en
+ * orden:</p>
+ *
+ * <ol>
+ * <li>un encabezado con un número mágico, la versión del formato, el número
+ * de vértices <i>n</i>, el número de arcos <i>m</i> (dos por arista) y el
+ * número de bytes de las etiquetas;</li>
+ * <li>los <i>m</i> pesos de los arcos (<code>double</code>);</li>
+ * <li>los <i>n</i>+1 inicios de las vecindades y los <i>m</i> destinos de
+ * los arcos (<code>int</code>, en formato CSR);</li>
+ * <li>los índices de los vértices ordenados por etiqueta, para buscar
+ * elementos (<code>int</code>);</li>
+ * <li>los <i>n</i>+1 inicios de las etiquetas (<code>int</code>) y las
+ * etiquetas en UTF-8.</li>
+ * </ol>
+ */
+public class GraficaMapeada {
+
+    /* Clase privada para una sección del archivo, mapeada en segmentos. */
+    private static class Seccion {
+
+	/* Los segmentos de la sección. */
+	private ByteBuffer[] segmentos;
+
+	/* Mapea la sección del canal con el inicio y el tamaño recibidos. */
+	public Seccion(FileChannel canal, long inicio, long tam)
+	    throws IOException {
+	    int k = (int)((tam + TAMANO_SEGMENTO - 1) / TAMANO_SEGMENTO);
+	    segmentos = new ByteBuffer[Math.max(1, k)];
+	    for(int i = 0; i < segmentos.length; i++) {
+		long desde = (long)i * TAMANO_SEGMENTO;
+		long t = Math.min(TAMANO_SEGMENTO, tam - desde);
+		segmentos[i] = canal.map(FileChannel.MapMode.READ_ONLY,
+					 inicio + desde, t);
+	    }
+	}
+
+	/* Regresa el i-ésimo byte de la sección. */
+	public byte get(long i) {
+	    return segmentos[(int)(i >>> CORRIMIENTO)].get(posicion(i));
+	}
+
+	/* Regresa el i-ésimo entero de la sección. */
+	public int getInt(long i) {
+	    long b = i << 2;
+	    return segmentos[(int)(b >>> CORRIMIENTO)].getInt(posicion(b));
+	}
+
+	/* Regresa el i-ésimo doble de la sección. */
+	public double getDouble(long i) {
+	    long b = i << 3;
+	    return segmentos[(int)(b >>> CORRIMIENTO)].getDouble(posicion(b));
+	}
+
+	/* Regresa la posición del byte dentro de su segmento. */
+	private static int posicion(long b) {
+	    return (int)(b & (TAMANO_SEGMENTO - 1));
+	}
+    }
+
+    /* El número mágico del formato: "EDDG". */
+    private static final int MAGICO = 0x45444447;
+    /* La versión del formato. */
+    private static final int VERSION = 1;
+    /* El tamaño del encabezado en bytes. */
+    private static final int ENCABEZADO = 24;
+    /* Los bits de desplazamiento dentro de un segmento mapeado. */
+    private static final int CORRIMIENTO = 30;
+    /* El tamaño máximo de un segmento mapeado; un solo mapeo no puede pasar
+     * de Integer.MAX_VALUE bytes. Es múltiplo de 8, así que ningún entero ni
+     * doble cruza de un segmento a otro. */
+    private static final long TAMANO_SEGMENTO = 1L << CORRIMIENTO;
+
+    /* El número de vértices. */
+    private int n;
+    /* El número de arcos. */
+    private int arcos;
+    /* Los pesos de los arcos. */
+    private Seccion pesos;
+    /* Dónde comienza en destinos la vecindad de cada vértice. */
+    private Seccion inicios;
+    /* Los destinos de los arcos. */
+    private Seccion destinos;
+    /* Los índices de los vértices, ordenados por etiqueta. */
+    private Seccion orden;
+    /* Dónde comienza en los bytes la etiqueta de cada vértice. */
+    private Seccion etiquetas;
+    /* Los bytes de las etiquetas. */
+    private Seccion bytes;
+
+    /* Construye la gráfica mapeada con las secciones del archivo. */
+    private GraficaMapeada(int n, int arcos, Seccion pesos, Seccion inicios,
+			   Seccion destinos, Seccion orden,
+			   Seccion etiquetas, Seccion bytes) {
+	this.n = n;
+	this.arcos = arcos;
+	this.pesos = pesos;
+	this.inicios = inicios;
+	this.destinos = destinos;
+	this.orden = orden;
+	this.etiquetas = etiquetas;
+	this.bytes = bytes;
+    }
+
+    /**
+     * Guarda una gráfica en un archivo. Cada elemento se guarda como su
+     * representación en cadena, así que las cadenas de los elementos deben
+     * ser distintas.
+     * @param grafica la gráfica a guardar.
+     * @param archivo la ruta del archivo.
+     * @throws IOException si no se puede escribir el archivo.
+     * @throws IllegalArgumentException si dos elementos tienen la misma
+     *         representación en cadena.
+     */
+    public static void guarda(Grafica<?> grafica, String archivo)
+	throws IOException {
+	GraficaCompacta<?> c = grafica.compacta();
+	int n = c.getElementos();
+	byte[][] etiquetas = new byte[n][];
+	String[] cadenas = new String[n];
+	Integer[] orden = new Integer[n];
+	long total = 0;
+	for(int i = 0; i < n; i++) {
+	    cadenas[i] = c.get(i).toString();
+	    etiquetas[i] = cadenas[i].getBytes(StandardCharsets.UTF_8);
+	    orden[i] = i;
+	    total += etiquetas[i].length;
+	}
+	if(total > Integer.MAX_VALUE)
+	    throw new IllegalArgumentException("Etiquetas demasiado largas");
+	Arreglos.quickSort(orden, (a, b) -> cadenas[a].compareTo(cadenas[b]));
+	for(int i = 1; i < n; i++)
+	    if(cadenas[orden[i-1]].equals(cadenas[orden[i]]))
+		throw new IllegalArgumentException("Elementos repetidos: " +
+						   cadenas[orden[i]]);
+	try(DataOutputStream out = new DataOutputStream(
+		 new BufferedOutputStream(new FileOutputStream(archivo),
+					  1 << 16))) {
+	    out.writeInt(MAGICO);
+	    out.writeInt(VERSION);
+	    out.writeInt(n);
+	    out.writeInt(c.destinos.length);
+	    out.writeLong(total);
+	    for(double peso : c.pesos)
+		out.writeDouble(peso);
+	    for(int inicio : c.inicios)
+		out.writeInt(inicio);
+	    for(int destino : c.destinos)
+		out.writeInt(destino);
+	    for(Integer i : orden)
+		out.writeInt(i);
+	    int inicio = 0;
+	    for(byte[] etiqueta : etiquetas) {
+		out.writeInt(inicio);
+		inicio += etiqueta.length;
+	    }
+	    out.writeInt(inicio);
+	    for(byte[] etiqueta : etiquetas)
+		out.write(etiqueta);
+	}
+    }
+
+    /**
+     * Abre una gráfica guardada con {@link #guarda}, mapeando el archivo a
+     * memoria. El archivo no debe modificarse mientras la gráfica se use.
+     * @param archivo la ruta del archivo.
+     * @return la gráfica mapeada.
+     * @throws IOException si no se puede leer el archivo, o si no es una
+     *         gráfica guardada con {@link #guarda}.
+     */
+    public static GraficaMapeada abre(String archivo) throws IOException {
+	try(RandomAccessFile raf = new RandomAccessFile(archivo, "r");
+	     FileChannel canal = raf.getChannel()) {
+	    long tam = canal.size();
+	    if(tam < ENCABEZADO)
+		throw new IOException("Archivo inválido");
+	    ByteBuffer encabezado = canal.map(FileChannel.MapMode.READ_ONLY,
+					      0, ENCABEZADO);
+	    if(encabezado.getInt() != MAGICO ||
+		encabezado.getInt() != VERSION)
+		throw new IOException("Archivo inválido");
+	    int n = encabezado.getInt();
+	    int m = encabezado.getInt();
+	    long b = encabezado.getLong();
+	    long p = ENCABEZADO;
+	    long[] secciones = { 8L * m, 4L * (n + 1), 4L * m, 4L * n,
+				 4L * (n + 1), b };
+	    long esperado = p;
+	    for(long s : secciones)
+		esperado += s;
+	    if(n < 0 || m < 0 || b < 0 || esperado != tam)
+		throw new IOException("Archivo inválido");
+	    /* Cada sección se mapea en segmentos, porque puede pasar del
+	     * máximo de un solo mapeo. */
+	    Seccion[] mapas = new Seccion[secciones.length];
+	    for(int i = 0; i < secciones.length; i++) {
+		mapas[i] = new Seccion(canal, p, secciones[i]);
+		p += secciones[i];
+	    }
+	    return new GraficaMapeada(n, m, mapas[0], mapas[1], mapas[2],
+				      mapas[3], mapas[4], mapas[5]);
+	}
+    }
+
+    /**
+     * Regresa el número de elementos de la gráfica.
+     * @return el número de elementos de la gráfica.
+     */
+    public int getElementos() {
+	return n;
+    }
+
+    /**
+     * Regresa el número de aristas de la gráfica.
+     * @return el número de aristas de la gráfica.
+     */
+    public int getAristas() {
+	return arcos / 2;
+    }
+
+    /**
+     * Regresa el índice del elemento en la gráfica, en tiempo logarítmico.
+     * @param elemento el elemento.
+     * @return el índice del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int indice(String elemento) {
+	int a = 0;
+	int b = n - 1;
+	while(a <= b) {
+	    int m = (a + b) >>> 1;
+	    int i = orden.getInt(m);
+	    int c = etiqueta(i).compareTo(elemento);
+	    if(c == 0)
+		return i;
+	    if(c < 0)
+		a = m + 1;
+	    else
+		b = m - 1;
+	}
+	throw new NoSuchElementException("El elemento no está");
+    }
+
+    /**
+     * Regresa el elemento con el índice recibido.
+     * @param i el índice del elemento.
+     * @return el elemento con el índice recibido.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public String get(int i) {
+	valida(i);
+	return etiqueta(i);
+    }
+
+    /**
+     * Regresa el grado del vértice con el índice recibido.
+     * @param i el índice del vértice.
+     * @return el grado del vértice.
+     * @throws NoSuchElementException si el índice es inválido.
+     */
+    public int getGrado(int i) {
+	valida(i);
+	return inicios.getInt(i+1) - inicios.getInt(i);
+    }
+
+    /**
+     * Regresa el índice del <i>k</i>-ésimo vecino de un vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado del vértice.
+     * @return el índice del <i>k</i>-ésimo vecino del vértice.
+     * @throws NoSuchElementException si alguno de los índices es inválido.
+     */
+    public int getVecino(int i, int k) {
+	return destinos.getInt(arista(i, k));
+    }
+
+    /**
+     * Regresa el peso de la arista hacia el <i>k</i>-ésimo vecino de un
+     * vértice.
+     * @param i el índice del vértice.
+     * @param k el número de vecino, entre 0 y el grado del vértice.
+     * @return el peso de la arista hacia el <i>k</i>-ésimo vecino.
+     * @throws NoSuchElementException si alguno de los índices es inválido.
+     */
+    public double getPeso(int i, int k) {
+	return pesos.getDouble(arista(i, k));
+    }
+
+    /**
+     * Construye una {@link Grafica} con los elementos y las aristas de la
+     * gráfica mapeada. A diferencia de la gráfica mapeada, la nueva gráfica
+     * vive por completo en memoria y puede modificarse.
+     * @return una gráfica con los elementos y las aristas de la gráfica
+     *         mapeada.
+     */
+    public Grafica<String> grafica() {
+	Grafica<String> grafica = new Grafica<String>(n);
+	String[] elementos = new String[n];
+	for(int i = 0; i < n; i++) {
+	    elementos[i] = etiqueta(i);
+	    grafica.agrega(elementos[i]);
+	}
+	for(int i = 0; i < n; i++)
+	    for(int a = inicios.getInt(i); a < inicios.getInt(i+1); a++)
+		if(i < destinos.getInt(a))
+		    grafica.agregaArista(elementos[i],
+					 elementos[destinos.getInt(a)],
+					 pesos.getDouble(a));
+	return grafica;
+    }
+
+    /**
+     * Regresa una representación comprimida de la estructura de la gráfica
+     * mapeada (sin los pesos). Las vecindades se leen una por una del
+     * archivo mapeado, así que la gráfica no tiene que caber en memoria; sólo
+     * la representación comprimida.
+     * @param orden el orden de los vértices.
+     * @param ventana cuántos vértices anteriores se consideran como
+     *        referencia para cada vecindad; con cero no se usan referencias.
+     * @return una representación comprimida de la gráfica.
+     * @throws IllegalArgumentException si la ventana es negativa.
+     * @see GraficaComprimida
+     */
+    public GraficaComprimida<String> comprimida(OrdenVertices orden,
+						int ventana) {
+	if(ventana < 0)
+	    throw new IllegalArgumentException("Ventana inválida");
+	Vecindades<String> vecindades = new Vecindades<String>() {
+	    @Override public int getElementos() {
+		return n;
+	    }
+	    @Override public String get(int v) {
+		return etiqueta(v);
+	    }
+	    @Override public int getGrado(int v) {
+		return inicios.getInt(v+1) - inicios.getInt(v);
+	    }
+	    @Override public void vecinos(int v, int[] vecinos) {
+		int inicio = inicios.getInt(v);
+		int fin = inicios.getInt(v+1);
+		for(int a = inicio; a < fin; a++)
+		    vecinos[a - inicio] = destinos.getInt(a);
+	    }
+	};
+	return new GraficaComprimida<String>(vecindades, orden, ventana);
+    }
+
+    /* Regresa la posición en destinos del k-ésimo vecino de i. */
+    private int arista(int i, int k) {
+	valida(i);
+	if(k < 0 || k >= inicios.getInt(i+1) - inicios.getInt(i))
+	    throw new NoSuchElementException("Vecino inválido");
+	return inicios.getInt(i) + k;
+    }
+
+    /* Verifica que el índice de vértice sea válido. */
+    private void valida(int i) {
+	if(i < 0 || i >= n)
+	    throw new NoSuchElementException("Índice inválido");
+    }
+
+    /* Decodifica la etiqueta del vértice. */
+    private String etiqueta(int i) {
+	int inicio = etiquetas.getInt(i);
+	byte[] b = new byte[etiquetas.getInt(i+1) - inicio];
+	for(int j = 0; j < b.length; j++)
+	    b[j] = bytes.get(inicio + j);
+	return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,225 @@
+package mx.unam.ciencias.edd;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase para calcular la centralidad de intermediación de los vértices de
+ * una {@link GraficaCompacta} con el algoritmo de Brandes. La intermediación
+ * de un vértice <i>v</i> es la suma, sobre todos los pares de vértices
+ * distintos de <i>v</i>, de la fracción de las trayectorias mínimas entre
+ * ellos que pasan por <i>v</i>.
+ *
+ * <p>Por cada fuente se hace una búsqueda (BFS si todas las aristas pesan
+ * lo mismo, Dijkstra si no) y luego se acumulan las dependencias en orden
+ * inverso. Las fuentes se reparten entre los hilos conforme se desocupan;
+ * cada hilo acumula en su propio arreglo y al final se suman.</p>
+ */
+class Intermediacion {
+
+    /* Clase privada para procesar fuentes en un hilo. */
+    private static class Trabajador extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La gráfica. */
+	private GraficaCompacta<?> grafica;
+	/* Las fuentes. */
+	private int[] fuentes;
+	/* La siguiente fuente por procesar. */
+	private AtomicInteger siguiente;
+	/* Si la búsqueda es BFS. */
+	private boolean bfs;
+	/* Las dependencias acumuladas por el trabajador. */
+	public double[] acumulado;
+
+	/* La distancia a cada vértice; -1 si no se ha alcanzado. */
+	private double[] distancias;
+	/* El número de trayectorias mínimas a cada vértice. */
+	private double[] trayectorias;
+	/* La dependencia de la fuente en cada vértice. */
+	private double[] dependencias;
+	/* Los vértices en el orden en que se asentaron. */
+	private int[] orden;
+	/* Los indexables de los vértices en el montículo. */
+	private Indexable<Integer>[] nodos;
+
+	/* Construye un trabajador. */
+	public Trabajador(GraficaCompacta<?> grafica, int[] fuentes,
+			  AtomicInteger siguiente, boolean bfs) {
+	    this.grafica = grafica;
+	    this.fuentes = fuentes;
+	    this.siguiente = siguiente;
+	    this.bfs = bfs;
+	}
+
+	/* Procesa fuentes hasta que no quede ninguna. */
+	@Override protected void compute() {
+	    int n = grafica.getElementos();
+	    acumulado = new double[n];
+	    distancias = new double[n];
+	    trayectorias = new double[n];
+	    dependencias = new double[n];
+	    orden = new int[n];
+	    if(!bfs)
+		nodos = nuevoArreglo(n);
+	    for(int i = 0; i < n; i++)
+		distancias[i] = -1;
+	    int f;
+	    while((f = siguiente.getAndIncrement()) < fuentes.length) {
+		int asentados = bfs ? bfs(fuentes[f]) : dijkstra(fuentes[f]);
+		acumula(fuentes[f], asentados);
+	    }
+	}
+
+	/* Hace una BFS desde la fuente, y regresa cuántos vértices
+	 * alcanzó. */
+	private int bfs(int s) {
+	    int[] inicios = grafica.inicios;
+	    int[] destinos = grafica.destinos;
+	    distancias[s] = 0;
+	    trayectorias[s] = 1;
+	    orden[0] = s;
+	    int cabeza = 0;
+	    int cola = 1;
+	    while(cabeza < cola) {
+		int v = orden[cabeza++];
+		for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		    int u = destinos[a];
+		    if(distancias[u] < 0) {
+			distancias[u] = distancias[v] + 1;
+			orden[cola++] = u;
+		    }
+		    if(distancias[u] == distancias[v] + 1)
+			trayectorias[u] += trayectorias[v];
+		}
+	    }
+	    return cola;
+	}
+
+	/* Hace una búsqueda de Dijkstra desde la fuente, y regresa cuántos
+	 * vértices asentó. */
+	private int dijkstra(int s) {
+	    int[] inicios = grafica.inicios;
+	    int[] destinos = grafica.destinos;
+	    double[] pesos = grafica.pesos;
+	    MonticuloMinimo<Indexable<Integer>> monticulo =
+		new MonticuloMinimo<Indexable<Integer>>();
+	    distancias[s] = 0;
+	    trayectorias[s] = 1;
+	    nodos[s] = new Indexable<Integer>(s, 0);
+	    monticulo.agrega(nodos[s]);
+	    int asentados = 0;
+	    while(!monticulo.esVacia()) {
+		int v = monticulo.elimina().getElemento();
+		orden[asentados++] = v;
+		for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		    int u = destinos[a];
+		    double d = distancias[v] + pesos[a];
+		    if(nodos[u] == null) {
+			distancias[u] = d;
+			trayectorias[u] = trayectorias[v];
+			nodos[u] = new Indexable<Integer>(u, d);
+			monticulo.agrega(nodos[u]);
+		    } else if(d < distancias[u]) {
+			distancias[u] = d;
+			trayectorias[u] = trayectorias[v];
+			nodos[u].setValor(d);
+			monticulo.reordena(nodos[u]);
+		    } else if(d == distancias[u]) {
+			trayectorias[u] += trayectorias[v];
+		    }
+		}
+	    }
+	    return asentados;
+	}
+
+	/* Acumula las dependencias de la fuente en orden inverso, y limpia
+	 * el estado de los vértices alcanzados. Los predecesores de un
+	 * vértice son los vecinos por los que llega una trayectoria
+	 * mínima; se comparan con la misma suma que en la búsqueda. */
+	private void acumula(int s, int asentados) {
+	    int[] inicios = grafica.inicios;
+	    int[] destinos = grafica.destinos;
+	    double[] pesos = grafica.pesos;
+	    for(int i = asentados - 1; i >= 0; i--) {
+		int w = orden[i];
+		double c = (1 + dependencias[w]) / trayectorias[w];
+		for(int a = inicios[w]; a < inicios[w+1]; a++) {
+		    int v = destinos[a];
+		    double peso = bfs ? 1 : pesos[a];
+		    if(distancias[v] >= 0 &&
+			distancias[v] + peso == distancias[w])
+			dependencias[v] += trayectorias[v] * c;
+		}
+		if(w != s)
+		    acumulado[w] += dependencias[w];
+	    }
+	    for(int i = 0; i < asentados; i++) {
+		int v = orden[i];
+		distancias[v] = -1;
+		trayectorias[v] = 0;
+		dependencias[v] = 0;
+		if(!bfs)
+		    nodos[v] = null;
+	    }
+	}
+
+	/* Truco para crear arreglos genéricos. */
+	@SuppressWarnings("unchecked") private Indexable<Integer>[]
+	nuevoArreglo(int n) {
+	    return (Indexable<Integer>[])new Indexable[n];
+	}
+    }
+
+    /* No se instancia. */
+    private Intermediacion() {}
+
+    /* Calcula la intermediación de todos los vértices, con todos los
+     * vértices como fuentes. */
+    public static double[] calcula(GraficaCompacta<?> grafica, int hilos) {
+	int n = grafica.getElementos();
+	int[] fuentes = new int[n];
+	for(int i = 0; i < n; i++)
+	    fuentes[i] = i;
+	return calcula(grafica, fuentes, hilos);
+    }
+
+    /* Calcula la intermediación usando sólo las fuentes recibidas, y escala
+     * el resultado como si se hubieran usado todos los vértices. Cada par
+     * se cuenta desde sus dos extremos, así que se divide entre dos. */
+    public static double[] calcula(GraficaCompacta<?> grafica, int[] fuentes,
+				   int hilos) {
+	int n = grafica.getElementos();
+	double[] intermediacion = new double[n];
+	if(fuentes.length == 0)
+	    return intermediacion;
+	boolean bfs = true;
+	double[] pesos = grafica.pesos;
+	for(int a = 1; a < pesos.length && bfs; a++)
+	    bfs = pesos[a] == pesos[0];
+	AtomicInteger siguiente = new AtomicInteger();
+	int t = Math.min(hilos, fuentes.length);
+	Trabajador[] trabajadores = new Trabajador[t];
+	for(int i = 0; i < t; i++)
+	    trabajadores[i] = new Trabajador(grafica, fuentes, siguiente, bfs);
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    for(Trabajador trabajador : trabajadores)
+		pool.execute(trabajador);
+	    for(Trabajador trabajador : trabajadores)
+		trabajador.join();
+	} finally {
+	    pool.shutdown();
+	}
+	double escala = (double)n / fuentes.length / 2;
+	for(Trabajador trabajador : trabajadores)
+	    for(int v = 0; v < n; v++)
+		intermediacion[v] += trabajador.acumulado[v];
+	for(int v = 0; v < n; v++)
+	    intermediacion[v] *= escala;
+	return intermediacion;
+    }
+}
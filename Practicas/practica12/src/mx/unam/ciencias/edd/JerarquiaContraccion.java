@@ -0,0 +1,524 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para jerarquías de contracción: un índice para responder muchas
+ * consultas de trayectorias mínimas sobre una gráfica que no cambia.</p>
+ *
+ * <p>El preprocesamiento contrae los vértices uno por uno, del menos al más
+ * importante. Al contraer un vértice se agrega un atajo entre cada par de
+ * sus vecinos, excepto cuando una búsqueda de testigos (un Dijkstra acotado
+ * que no pasa por el vértice) encuentra entre ellos un camino igual de
+ * corto. La importancia de un vértice es su diferencia de aristas (los
+ * atajos que necesitaría menos las aristas que quita) más el número de sus
+ * vecinos ya contraídos; se recalcula para los vecinos de cada vértice
+ * contraído, y de manera perezosa al sacar un vértice del montículo.</p>
+ *
+ * <p>Cada arista y cada atajo se guarda como un arco hacia arriba, del
+ * extremo contraído primero al otro. Una consulta es un Dijkstra
+ * bidireccional en el que las dos búsquedas sólo suben, y que termina en
+ * cuanto ninguna puede mejorar el mejor encuentro; en gráficas parecidas a
+ * redes de calles asienta unos cuantos cientos de vértices. Los atajos de la
+ * trayectoria se desempacan al final para regresar los vértices de la
+ * gráfica original.</p>
+ *
+ * <p>El índice describe a la gráfica como era al construirlo. Cada hilo
+ * tiene su propio estado de consulta, así que las consultas pueden hacerse
+ * desde varios hilos al mismo tiempo.</p>
+ */
+public class JerarquiaContraccion<T> {
+
+    /* Clase privada para el estado de las consultas de un hilo; se limpia
+     * después de cada consulta. */
+    private class Consulta {
+
+	/* La distancia de cada búsqueda a cada vértice. */
+	public double[][] distancias;
+	/* El arco por el que cada búsqueda llegó a cada vértice. */
+	public int[][] llegadas;
+	/* Los indexables de los vértices en los montículos. */
+	public Indexable<Integer>[][] nodos;
+	/* Los vértices alcanzados por alguna búsqueda. */
+	public int[] tocados;
+	/* El número de vértices alcanzados. */
+	public int alcanzados;
+	/* El número de vértices asentados. */
+	public int asentados;
+
+	/* Construye el estado de una consulta. */
+	public Consulta() {
+	    int n = inicios.length - 1;
+	    distancias = new double[2][n];
+	    llegadas = new int[2][n];
+	    @SuppressWarnings("unchecked") Indexable<Integer>[][] nodos =
+		(Indexable<Integer>[][])new Indexable[2][n];
+	    this.nodos = nodos;
+	    tocados = new int[n];
+	    Arrays.fill(distancias[0], Double.POSITIVE_INFINITY);
+	    Arrays.fill(distancias[1], Double.POSITIVE_INFINITY);
+	}
+    }
+
+    /* Vértices que puede asentar una búsqueda de testigos. */
+    private static final int TESTIGOS = 500;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* Dónde comienzan los arcos hacia arriba de cada vértice. */
+    private int[] inicios;
+    /* Los destinos de los arcos hacia arriba, ordenados en cada vértice. */
+    private int[] destinos;
+    /* Los pesos de los arcos hacia arriba. */
+    private double[] pesos;
+    /* El vértice que salta cada arco, o -1 si es una arista original. */
+    private int[] medios;
+    /* El número de atajos en el índice. */
+    private int atajos;
+    /* El estado de las consultas de cada hilo. */
+    private ThreadLocal<Consulta> consultas;
+
+    /* Las vecindades de los vértices durante la contracción. */
+    private int[][] vecinos;
+    /* Los pesos de las vecindades durante la contracción. */
+    private double[][] pesosVecinos;
+    /* Los medios de las vecindades durante la contracción. */
+    private int[][] mediosVecinos;
+    /* El tamaño de cada vecindad durante la contracción. */
+    private int[] grados;
+    /* Si cada vértice ya se contrajo. */
+    private boolean[] contraidos;
+    /* Las distancias de la búsqueda de testigos. */
+    private double[] testigos;
+    /* Los indexables de la búsqueda de testigos. */
+    private Indexable<Integer>[] nodosTestigos;
+    /* El montículo de la búsqueda de testigos. */
+    private MonticuloMinimo<Indexable<Integer>> monticuloTestigos;
+    /* Si cada vértice es uno de los que busca la búsqueda de testigos. */
+    private boolean[] buscados;
+    /* Los vértices que alcanzó la búsqueda de testigos. */
+    private int[] alcanzados;
+    /* El número de vértices que alcanzó la búsqueda de testigos. */
+    private int numeroAlcanzados;
+
+    /* Construye la jerarquía de contracción de la gráfica compacta. */
+    JerarquiaContraccion(GraficaCompacta<T> grafica) {
+	this.grafica = grafica;
+	int n = grafica.getElementos();
+	inicializa();
+	/* Los arcos hacia arriba de cada vértice, al contraerlo. */
+	int[][] arriba = new int[n][];
+	double[][] pesosArriba = new double[n][];
+	int[][] mediosArriba = new int[n][];
+	int[] vecinosContraidos = new int[n];
+	@SuppressWarnings("unchecked") Indexable<Integer>[] nodos =
+	    (Indexable<Integer>[])new Indexable[n];
+	MonticuloMinimo<Indexable<Integer>> monticulo =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	for(int v = 0; v < n; v++) {
+	    nodos[v] = new Indexable<Integer>(v, prioridad(v, 0));
+	    monticulo.agrega(nodos[v]);
+	}
+	while(!monticulo.esVacia()) {
+	    Indexable<Integer> nodo = monticulo.elimina();
+	    int v = nodo.getElemento();
+	    double p = prioridad(v, vecinosContraidos[v]);
+	    if(!monticulo.esVacia() && p > monticulo.get(0).getValor()) {
+		nodo.setValor(p);
+		monticulo.agrega(nodo);
+		continue;
+	    }
+	    contrae(v, false);
+	    int g = grados[v];
+	    arriba[v] = Arrays.copyOf(vecinos[v], g);
+	    pesosArriba[v] = Arrays.copyOf(pesosVecinos[v], g);
+	    mediosArriba[v] = Arrays.copyOf(mediosVecinos[v], g);
+	    contraidos[v] = true;
+	    vecinos[v] = mediosVecinos[v] = null;
+	    pesosVecinos[v] = null;
+	    for(int u : arriba[v]) {
+		nodos[u].setValor(prioridad(u, ++vecinosContraidos[u]));
+		monticulo.reordena(nodos[u]);
+	    }
+	}
+	vecinos = mediosVecinos = null;
+	pesosVecinos = null;
+	grados = alcanzados = null;
+	contraidos = null;
+	testigos = null;
+	nodosTestigos = null;
+	monticuloTestigos = null;
+	buscados = null;
+	construyeArcos(arriba, pesosArriba, mediosArriba);
+	consultas = ThreadLocal.withInitial(() -> new Consulta());
+    }
+
+    /**
+     * Regresa el número de atajos en el índice.
+     * @return el número de atajos en el índice.
+     */
+    public int getAtajos() {
+	return atajos;
+    }
+
+    /**
+     * Regresa el número de arcos del índice: cada arista original y cada
+     * atajo se guarda una sola vez, en el extremo contraído primero.
+     * @return el número de arcos del índice.
+     */
+    public int getArcos() {
+	return destinos.length;
+    }
+
+    /**
+     * Regresa el peso de una trayectoria mínima entre dos elementos.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @return el peso de una trayectoria mínima entre los elementos, o
+     *         {@link Double#POSITIVE_INFINITY} si están en componentes
+     *         conexas distintas.
+     * @throws NoSuchElementException si alguno de los dos elementos no está
+     *         en la gráfica.
+     */
+    public double distancia(T origen, T destino) {
+	Consulta c = consultas.get();
+	int m = busca(c, grafica.indice(origen), grafica.indice(destino));
+	double d = m == -1 ? Double.POSITIVE_INFINITY :
+	    c.distancias[0][m] + c.distancias[1][m];
+	limpia(c);
+	return d;
+    }
+
+    /**
+     * Regresa una trayectoria mínima entre dos elementos, con los vértices
+     * de la gráfica original.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si están
+     *         en componentes conexas distintas la trayectoria es vacía.
+     * @throws NoSuchElementException si alguno de los dos elementos no está
+     *         en la gráfica.
+     */
+    public Trayectoria<T> trayectoria(T origen, T destino) {
+	int s = grafica.indice(origen);
+	Consulta c = consultas.get();
+	int m = busca(c, s, grafica.indice(destino));
+	if(m == -1) {
+	    limpia(c);
+	    return Trayectoria.vacia(c.asentados);
+	}
+	double peso = c.distancias[0][m] + c.distancias[1][m];
+	/* La búsqueda desde el origen sube hasta m, y la del destino baja
+	 * desde m. */
+	Lista<Integer> arcos = new Lista<Integer>();
+	for(int v = m; c.llegadas[0][v] != -1; v = origen(c.llegadas[0][v]))
+	    arcos.agregaInicio(c.llegadas[0][v]);
+	Lista<Integer> vertices = new Lista<Integer>();
+	vertices.agregaFinal(s);
+	for(int a : arcos)
+	    desempaca(origen(a), destinos[a], medios[a], vertices);
+	for(int v = m; c.llegadas[1][v] != -1; ) {
+	    int a = c.llegadas[1][v];
+	    int u = origen(a);
+	    desempaca(v, u, medios[a], vertices);
+	    v = u;
+	}
+	limpia(c);
+	@SuppressWarnings("unchecked") T[] elementos =
+	    (T[])new Object[vertices.getLongitud()];
+	int i = 0;
+	for(int v : vertices)
+	    elementos[i++] = grafica.get(v);
+	return new Trayectoria<T>(elementos, peso, c.asentados);
+    }
+
+    /* Copia las vecindades de la gráfica compacta para contraerlas. */
+    private void inicializa() {
+	int n = grafica.getElementos();
+	int[] inicios = grafica.inicios;
+	vecinos = new int[n][];
+	pesosVecinos = new double[n][];
+	mediosVecinos = new int[n][];
+	grados = new int[n];
+	for(int v = 0; v < n; v++) {
+	    vecinos[v] = Arrays.copyOfRange(grafica.destinos, inicios[v],
+					    inicios[v+1]);
+	    pesosVecinos[v] = Arrays.copyOfRange(grafica.pesos, inicios[v],
+						 inicios[v+1]);
+	    mediosVecinos[v] = new int[vecinos[v].length];
+	    Arrays.fill(mediosVecinos[v], -1);
+	    grados[v] = vecinos[v].length;
+	}
+	contraidos = new boolean[n];
+	testigos = new double[n];
+	Arrays.fill(testigos, Double.POSITIVE_INFINITY);
+	@SuppressWarnings("unchecked") Indexable<Integer>[] nodos =
+	    (Indexable<Integer>[])new Indexable[n];
+	nodosTestigos = nodos;
+	monticuloTestigos = new MonticuloMinimo<Indexable<Integer>>();
+	buscados = new boolean[n];
+	alcanzados = new int[n];
+    }
+
+    /* Regresa la importancia del vértice: los atajos que necesitaría, menos
+     * las aristas que quitaría, más sus vecinos ya contraídos. */
+    private double prioridad(int v, int vecinosContraidos) {
+	return contrae(v, true) - grados[v] + vecinosContraidos;
+    }
+
+    /* Contrae el vértice, o sólo simula la contracción, y regresa el número
+     * de atajos que necesita. */
+    private int contrae(int v, boolean simula) {
+	depura(v);
+	int g = grados[v];
+	int[] ns = Arrays.copyOf(vecinos[v], g);
+	double[] ws = Arrays.copyOf(pesosVecinos[v], g);
+	int necesarios = 0;
+	for(int i = 0; i < g - 1; i++) {
+	    double maximo = 0;
+	    for(int j = i + 1; j < g; j++) {
+		maximo = Math.max(maximo, ws[j]);
+		buscados[ns[j]] = true;
+	    }
+	    buscaTestigos(ns[i], v, ws[i] + maximo, g - 1 - i);
+	    for(int j = i + 1; j < g; j++) {
+		buscados[ns[j]] = false;
+		double d = ws[i] + ws[j];
+		if(testigos[ns[j]] <= d)
+		    continue;
+		necesarios++;
+		if(!simula)
+		    agregaAtajo(ns[i], ns[j], d, v);
+	    }
+	    limpiaTestigos();
+	}
+	return necesarios;
+    }
+
+    /* Quita de la vecindad del vértice a los vecinos ya contraídos. */
+    private void depura(int v) {
+	int g = 0;
+	for(int i = 0; i < grados[v]; i++) {
+	    if(contraidos[vecinos[v][i]])
+		continue;
+	    vecinos[v][g] = vecinos[v][i];
+	    pesosVecinos[v][g] = pesosVecinos[v][i];
+	    mediosVecinos[v][g++] = mediosVecinos[v][i];
+	}
+	grados[v] = g;
+    }
+
+    /* Busca con un Dijkstra acotado caminos desde u que no pasen por v, sin
+     * pasar de la distancia máxima ni de TESTIGOS vértices asentados; la
+     * búsqueda termina al asentar a los vértices buscados. */
+    private void buscaTestigos(int u, int v, double maximo, int pendientes) {
+	MonticuloMinimo<Indexable<Integer>> monticulo = monticuloTestigos;
+	alcanzaTestigo(u, 0, monticulo);
+	int asentados = 0;
+	while(!monticulo.esVacia() && asentados++ < TESTIGOS) {
+	    int x = monticulo.elimina().getElemento();
+	    double d = testigos[x];
+	    if(d > maximo || (buscados[x] && --pendientes == 0))
+		break;
+	    depura(x);
+	    for(int i = 0; i < grados[x]; i++) {
+		int y = vecinos[x][i];
+		if(y != v)
+		    alcanzaTestigo(y, d + pesosVecinos[x][i], monticulo);
+	    }
+	}
+    }
+
+    /* Relaja la distancia de la búsqueda de testigos a un vértice. */
+    private void alcanzaTestigo(int v, double d,
+				MonticuloMinimo<Indexable<Integer>> monticulo) {
+	if(d >= testigos[v])
+	    return;
+	testigos[v] = d;
+	if(nodosTestigos[v] == null) {
+	    alcanzados[numeroAlcanzados++] = v;
+	    nodosTestigos[v] = new Indexable<Integer>(v, d);
+	    monticulo.agrega(nodosTestigos[v]);
+	} else {
+	    nodosTestigos[v].setValor(d);
+	    monticulo.reordena(nodosTestigos[v]);
+	}
+    }
+
+    /* Limpia el estado de la búsqueda de testigos. */
+    private void limpiaTestigos() {
+	for(int i = 0; i < numeroAlcanzados; i++) {
+	    testigos[alcanzados[i]] = Double.POSITIVE_INFINITY;
+	    nodosTestigos[alcanzados[i]] = null;
+	}
+	numeroAlcanzados = 0;
+	monticuloTestigos.limpia();
+    }
+
+    /* Agrega un atajo de peso d entre u y w que salta a v; si ya hay una
+     * arista más pesada entre ellos, la reemplaza. */
+    private void agregaAtajo(int u, int w, double d, int v) {
+	int i = posicion(u, w);
+	if(i == -1) {
+	    agregaVecino(u, w, d, v);
+	    agregaVecino(w, u, d, v);
+	    return;
+	}
+	if(pesosVecinos[u][i] <= d)
+	    return;
+	int j = posicion(w, u);
+	pesosVecinos[u][i] = pesosVecinos[w][j] = d;
+	mediosVecinos[u][i] = mediosVecinos[w][j] = v;
+    }
+
+    /* Regresa la posición de w en la vecindad de u, o -1 si no está. */
+    private int posicion(int u, int w) {
+	for(int i = 0; i < grados[u]; i++)
+	    if(vecinos[u][i] == w)
+		return i;
+	return -1;
+    }
+
+    /* Agrega a w a la vecindad de u, creciendo los arreglos si es
+     * necesario. */
+    private void agregaVecino(int u, int w, double d, int v) {
+	int g = grados[u];
+	if(g == vecinos[u].length) {
+	    int c = Math.max(4, 2 * g);
+	    vecinos[u] = Arrays.copyOf(vecinos[u], c);
+	    pesosVecinos[u] = Arrays.copyOf(pesosVecinos[u], c);
+	    mediosVecinos[u] = Arrays.copyOf(mediosVecinos[u], c);
+	}
+	vecinos[u][g] = w;
+	pesosVecinos[u][g] = d;
+	mediosVecinos[u][g] = v;
+	grados[u]++;
+    }
+
+    /* Construye los arreglos de arcos hacia arriba, ordenando los arcos de
+     * cada vértice por destino. */
+    private void construyeArcos(int[][] arriba, double[][] pesosArriba,
+				int[][] mediosArriba) {
+	int n = arriba.length;
+	inicios = new int[n + 1];
+	for(int v = 0; v < n; v++)
+	    inicios[v+1] = inicios[v] + arriba[v].length;
+	destinos = new int[inicios[n]];
+	pesos = new double[inicios[n]];
+	medios = new int[inicios[n]];
+	for(int v = 0; v < n; v++) {
+	    int g = arriba[v].length;
+	    long[] claves = new long[g];
+	    for(int i = 0; i < g; i++)
+		claves[i] = ((long)arriba[v][i] << 32) | i;
+	    Arrays.sort(claves);
+	    for(int k = 0; k < g; k++) {
+		int i = (int)claves[k];
+		int a = inicios[v] + k;
+		destinos[a] = arriba[v][i];
+		pesos[a] = pesosArriba[v][i];
+		medios[a] = mediosArriba[v][i];
+		if(medios[a] != -1)
+		    atajos++;
+	    }
+	}
+    }
+
+    /* Hace las dos búsquedas hacia arriba, y regresa el vértice donde se
+     * encuentran en una trayectoria mínima, o -1 si no se encuentran. */
+    private int busca(Consulta c, int s, int t) {
+	MonticuloMinimo<Indexable<Integer>> ida =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	MonticuloMinimo<Indexable<Integer>> regreso =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	c.asentados = 0;
+	alcanza(c, 0, s, 0, -1, ida);
+	alcanza(c, 1, t, 0, -1, regreso);
+	double mejor = Double.POSITIVE_INFINITY;
+	int encuentro = -1;
+	while(true) {
+	    double a = ida.esVacia() ? Double.POSITIVE_INFINITY :
+		ida.get(0).getValor();
+	    double b = regreso.esVacia() ? Double.POSITIVE_INFINITY :
+		regreso.get(0).getValor();
+	    if(Math.min(a, b) >= mejor)
+		break;
+	    int i = a <= b ? 0 : 1;
+	    MonticuloMinimo<Indexable<Integer>> monticulo =
+		i == 0 ? ida : regreso;
+	    int v = monticulo.elimina().getElemento();
+	    c.asentados++;
+	    double d = c.distancias[0][v] + c.distancias[1][v];
+	    if(d < mejor) {
+		mejor = d;
+		encuentro = v;
+	    }
+	    double dv = c.distancias[i][v];
+	    for(int e = inicios[v]; e < inicios[v+1]; e++)
+		alcanza(c, i, destinos[e], dv + pesos[e], e, monticulo);
+	}
+	return encuentro;
+    }
+
+    /* Relaja la distancia de una búsqueda a un vértice. */
+    private void alcanza(Consulta c, int i, int v, double d, int arco,
+			 MonticuloMinimo<Indexable<Integer>> monticulo) {
+	if(d >= c.distancias[i][v])
+	    return;
+	if(c.nodos[0][v] == null && c.nodos[1][v] == null)
+	    c.tocados[c.alcanzados++] = v;
+	c.distancias[i][v] = d;
+	c.llegadas[i][v] = arco;
+	if(c.nodos[i][v] == null) {
+	    c.nodos[i][v] = new Indexable<Integer>(v, d);
+	    monticulo.agrega(c.nodos[i][v]);
+	} else {
+	    c.nodos[i][v].setValor(d);
+	    monticulo.reordena(c.nodos[i][v]);
+	}
+    }
+
+    /* Limpia el estado de una consulta. */
+    private void limpia(Consulta c) {
+	for(int j = 0; j < c.alcanzados; j++) {
+	    int v = c.tocados[j];
+	    for(int i = 0; i < 2; i++) {
+		c.distancias[i][v] = Double.POSITIVE_INFINITY;
+		c.nodos[i][v] = null;
+	    }
+	}
+	c.alcanzados = 0;
+    }
+
+    /* Agrega a la lista los vértices que salta el arco de a a b, sin a y
+     * con b. Los dos arcos de un atajo salen del vértice que salta, que se
+     * contrajo antes que sus extremos. */
+    private void desempaca(int a, int b, int medio, Lista<Integer> vertices) {
+	if(medio == -1) {
+	    vertices.agregaFinal(b);
+	    return;
+	}
+	desempaca(a, medio, medios[arco(medio, a)], vertices);
+	desempaca(medio, b, medios[arco(medio, b)], vertices);
+    }
+
+    /* Regresa la posición del arco hacia arriba de u a w. */
+    private int arco(int u, int w) {
+	return Arrays.binarySearch(destinos, inicios[u], inicios[u+1], w);
+    }
+
+    /* Regresa el vértice del que sale el arco en la posición e. */
+    private int origen(int e) {
+	int a = 0;
+	int b = inicios.length - 2;
+	while(a < b) {
+	    int m = (a + b + 1) >>> 1;
+	    if(inicios[m] <= e)
+		a = m;
+	    else
+		b = m - 1;
+	}
+	return a;
+    }
+}
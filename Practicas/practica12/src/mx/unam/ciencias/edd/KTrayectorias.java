@@ -0,0 +1,285 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase para calcular las <i>k</i> trayectorias sin ciclos de menor peso
+ * entre dos vértices de una {@link GraficaCompacta}, con el algoritmo de Yen.
+ * Cada trayectoria nueva se busca desviándose de la anterior en cada uno de
+ * sus vértices: la desviación comparte con la anterior la raíz hasta ese
+ * vértice, y de ahí busca con Dijkstra el destino sin pasar por la raíz ni
+ * por los arcos que ya tomaron las trayectorias con la misma raíz. Los
+ * vértices y arcos se bloquean con una máscara propia de cada búsqueda, sin
+ * tocar la gráfica, así que las desviaciones se buscan en paralelo. Cada
+ * hilo reutiliza el estado de su búsqueda de una desviación a otra,
+ * limpiando sólo los vértices que tocó, así que una desviación cuesta lo
+ * que explora y no O(<i>n</i>).
+ */
+class KTrayectorias {
+
+    /* Clase privada para trayectorias como arreglos de índices. */
+    private static class Camino {
+
+	/* Los vértices del camino. */
+	public int[] vertices;
+	/* La distancia del origen a cada vértice a lo largo del camino. */
+	public double[] distancias;
+	/* Los vértices que asentó la búsqueda que lo encontró. */
+	public int asentados;
+
+	/* Construye un camino con los arreglos recibidos. */
+	public Camino(int[] vertices, double[] distancias, int asentados) {
+	    this.vertices = vertices;
+	    this.distancias = distancias;
+	    this.asentados = asentados;
+	}
+
+	/* Regresa el peso del camino. */
+	public double getPeso() {
+	    return distancias[distancias.length - 1];
+	}
+
+	/* Regresa cuántos vértices iniciales comparte el camino con el
+	 * otro. */
+	public int comunes(Camino otro) {
+	    int m = Math.min(vertices.length, otro.vertices.length);
+	    int i = 0;
+	    while(i < m && vertices[i] == otro.vertices[i])
+		i++;
+	    return i;
+	}
+
+	/* Dos caminos son iguales si tienen los mismos vértices. */
+	@Override public boolean equals(Object o) {
+	    if(o == null || getClass() != o.getClass())
+		return false;
+	    Camino c = (Camino)o;
+	    return Arrays.equals(vertices, c.vertices);
+	}
+
+	/* Regresa una dispersión de los vértices. */
+	@Override public int hashCode() {
+	    return Arrays.hashCode(vertices);
+	}
+    }
+
+    /* Clase privada para el estado de las búsquedas de un hilo; se limpia
+     * después de cada búsqueda. */
+    private static class Busqueda {
+
+	/* La gráfica. */
+	public GraficaCompacta<?> grafica;
+	/* La búsqueda de Dijkstra. */
+	public BusquedaDijkstra dijkstra;
+	/* Los vértices de la raíz de la desviación actual. */
+	public boolean[] vetados;
+	/* El camino cuya raíz está en vetados. */
+	public Camino camino;
+	/* Cuántos vértices del camino están en vetados. */
+	public int raiz;
+
+	/* Construye el estado de las búsquedas sobre la gráfica. */
+	public Busqueda(GraficaCompacta<?> grafica, int origen) {
+	    this.grafica = grafica;
+	    dijkstra = new BusquedaDijkstra(grafica, origen);
+	    vetados = new boolean[grafica.getElementos()];
+	}
+    }
+
+    /* Clase privada para buscar en un hilo desviaciones del último camino,
+     * hasta que no quede ninguna. */
+    private static class Desviaciones extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* El estado de las búsquedas del hilo. */
+	private Busqueda busqueda;
+	/* Los caminos encontrados. */
+	private Lista<Camino> caminos;
+	/* Cuántos vértices iniciales comparte cada camino con el último. */
+	private int[] comunes;
+	/* El último camino encontrado. */
+	private Camino ultimo;
+	/* El índice del destino. */
+	private int destino;
+	/* Las desviaciones encontradas, por vértice del último camino. */
+	private Camino[] desviaciones;
+	/* El siguiente vértice del último camino por desviar. */
+	private AtomicInteger siguiente;
+
+	/* Construye un buscador de desviaciones. */
+	public Desviaciones(Busqueda busqueda, Lista<Camino> caminos,
+			    int[] comunes, Camino ultimo, int destino,
+			    Camino[] desviaciones, AtomicInteger siguiente) {
+	    this.busqueda = busqueda;
+	    this.caminos = caminos;
+	    this.comunes = comunes;
+	    this.ultimo = ultimo;
+	    this.destino = destino;
+	    this.desviaciones = desviaciones;
+	    this.siguiente = siguiente;
+	}
+
+	/* Busca desviaciones hasta que no quede ninguna. */
+	@Override protected void compute() {
+	    int j;
+	    while((j = siguiente.getAndIncrement()) < desviaciones.length)
+		desviaciones[j] = desvia(busqueda, caminos, comunes, ultimo,
+					 j, destino);
+	}
+    }
+
+    /* No se instancia. */
+    private KTrayectorias() {}
+
+    /* Calcula las k trayectorias sin ciclos de menor peso del origen al
+     * destino, en orden de peso. */
+    public static <T> Lista<Trayectoria<T>> calcula(GraficaCompacta<T> grafica,
+						    int origen, int destino,
+						    int k, int hilos) {
+	Lista<Trayectoria<T>> trayectorias = new Lista<Trayectoria<T>>();
+	/* El estado de cada hilo se crea la primera vez que hace falta y se
+	 * reutiliza en todas las rondas. */
+	Busqueda[] busquedas = new Busqueda[hilos];
+	busquedas[0] = new Busqueda(grafica, origen);
+	Camino primero = busca(busquedas[0], origen, destino, null, 0);
+	if(primero == null)
+	    return trayectorias;
+	Lista<Camino> caminos = new Lista<Camino>();
+	caminos.agregaFinal(primero);
+	MonticuloMinimo<Indexable<Camino>> candidatos =
+	    new MonticuloMinimo<Indexable<Camino>>();
+	Conjunto<Camino> vistos = new Conjunto<Camino>();
+	vistos.agrega(primero);
+	Camino ultimo = primero;
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    while(caminos.getLongitud() < k) {
+		int n = ultimo.vertices.length - 1;
+		if(n > 0) {
+		    Camino[] desviaciones = new Camino[n];
+		    int[] comunes = new int[caminos.getLongitud()];
+		    int r = 0;
+		    for(Camino camino : caminos)
+			comunes[r++] = camino.comunes(ultimo);
+		    AtomicInteger siguiente = new AtomicInteger();
+		    int t = Math.min(hilos, n);
+		    Desviaciones[] tareas = new Desviaciones[t];
+		    for(int i = 0; i < t; i++) {
+			if(busquedas[i] == null)
+			    busquedas[i] = new Busqueda(grafica, origen);
+			tareas[i] = new Desviaciones(busquedas[i], caminos,
+						     comunes, ultimo, destino,
+						     desviaciones, siguiente);
+			pool.execute(tareas[i]);
+		    }
+		    for(Desviaciones tarea : tareas)
+			tarea.join();
+		    for(Camino c : desviaciones) {
+			if(c == null || vistos.contiene(c))
+			    continue;
+			vistos.agrega(c);
+			candidatos.agrega(new Indexable<Camino>(c, c.getPeso()));
+		    }
+		}
+		if(candidatos.esVacia())
+		    break;
+		ultimo = candidatos.elimina().getElemento();
+		caminos.agregaFinal(ultimo);
+	    }
+	} finally {
+	    pool.shutdown();
+	}
+	for(Camino c : caminos) {
+	    @SuppressWarnings("unchecked") T[] elementos =
+		(T[])new Object[c.vertices.length];
+	    for(int i = 0; i < elementos.length; i++)
+		elementos[i] = grafica.get(c.vertices[i]);
+	    trayectorias.agregaFinal(new Trayectoria<T>(elementos, c.getPeso(),
+							c.asentados));
+	}
+	return trayectorias;
+    }
+
+    /* Busca la desviación del último camino en su j-ésimo vértice: la raíz
+     * son sus primeros j+1 vértices, y desde ahí se busca el destino sin
+     * pasar por la raíz ni por los arcos que toman los caminos con la misma
+     * raíz. Regresa null si no hay desviación. */
+    private static Camino desvia(Busqueda busqueda, Lista<Camino> caminos,
+				 int[] comunes, Camino ultimo, int j,
+				 int destino) {
+	int desvio = ultimo.vertices[j];
+	boolean[] vetados = busqueda.vetados;
+	/* Las desviaciones de un hilo llegan en orden creciente, así que la raíz
+	 * en vetados sólo crece mientras el camino sea el mismo. */
+	if(busqueda.camino != ultimo) {
+	    while(busqueda.raiz > 0)
+		vetados[busqueda.camino.vertices[--busqueda.raiz]] = false;
+	    busqueda.camino = ultimo;
+	}
+	while(busqueda.raiz > j)
+	    vetados[ultimo.vertices[--busqueda.raiz]] = false;
+	while(busqueda.raiz < j)
+	    vetados[ultimo.vertices[busqueda.raiz++]] = true;
+	int[] siguientes = new int[comunes.length];
+	int s = 0;
+	int r = 0;
+	for(Camino c : caminos)
+	    if(comunes[r++] > j && c.vertices.length > j + 1)
+		siguientes[s++] = c.vertices[j+1];
+	int[] destinos = busqueda.grafica.destinos;
+	int bloqueados = s;
+	BusquedaDijkstra.Mascara mascara = (v, a) -> {
+	    int u = destinos[a];
+	    if(vetados[u])
+		return true;
+	    if(v != desvio)
+		return false;
+	    for(int i = 0; i < bloqueados; i++)
+		if(siguientes[i] == u)
+		    return true;
+	    return false;
+	};
+	Camino desviacion = busca(busqueda, desvio, destino, mascara,
+				  ultimo.distancias[j]);
+	if(desviacion == null)
+	    return null;
+	/* Pega la raíz con la desviación. */
+	int m = desviacion.vertices.length;
+	int[] vertices = new int[j + m];
+	double[] distancias = new double[j + m];
+	System.arraycopy(ultimo.vertices, 0, vertices, 0, j);
+	System.arraycopy(ultimo.distancias, 0, distancias, 0, j);
+	System.arraycopy(desviacion.vertices, 0, vertices, j, m);
+	System.arraycopy(desviacion.distancias, 0, distancias, j, m);
+	desviacion.vertices = vertices;
+	desviacion.distancias = distancias;
+	return desviacion;
+    }
+
+    /* Busca con Dijkstra un camino del origen al destino, sumando la
+     * distancia inicial a todas las distancias, con el estado de búsqueda
+     * recibido. Regresa null si el destino no es alcanzable. */
+    private static Camino busca(Busqueda estado, int origen, int destino,
+				BusquedaDijkstra.Mascara mascara,
+				double inicial) {
+	BusquedaDijkstra busqueda = estado.dijkstra;
+	busqueda.reinicia(origen, mascara);
+	if(!busqueda.buscaHasta(destino))
+	    return null;
+	int n = 0;
+	for(int v = destino; v != -1; v = busqueda.anteriores[v])
+	    n++;
+	int[] vertices = new int[n];
+	double[] distancias = new double[n];
+	for(int v = destino; v != -1; v = busqueda.anteriores[v]) {
+	    vertices[--n] = v;
+	    distancias[n] = inicial + busqueda.distancias[v];
+	}
+	return new Camino(vertices, distancias, busqueda.asentados);
+    }
+}
@@ -197,10 +197,8 @@ public class MonticuloMinimo<T extends ComparableIndexable<T>>
     @Override public void elimina(T elemento) {
 	if(elemento == null || esVacia())
 	    return;
-	if(!contiene(elemento))
-	    return;
 	int i = elemento.getIndice();
-	if(i < 0 || elementos <= i)
+	if(i < 0 || elementos <= i || arbol[i] != elemento)
 	    return;
 	intercambia(i, elementos - 1);
 	arbol[elementos - 1] = null;
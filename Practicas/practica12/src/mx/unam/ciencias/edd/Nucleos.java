@@ -0,0 +1,326 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>Clase para la descomposición en núcleos de una gráfica. El
+ * <i>k</i>-núcleo es la subgráfica más grande en la que todos los vértices
+ * tienen al menos <i>k</i> vecinos; el número de núcleo de un vértice es la
+ * <i>k</i> más grande tal que el vértice está en el <i>k</i>-núcleo, y la
+ * degeneración de la gráfica es el número de núcleo más grande. Los
+ * núcleos se calculan pelando: se quitan repetidamente los vértices de
+ * grado mínimo.</p>
+ *
+ * <p>Con un hilo se usa el algoritmo de Batagelj y Zaversnik, que ordena
+ * los vértices por grado en cubetas y pela en tiempo lineal. Con más hilos
+ * se pela por niveles: para cada <i>k</i>, los vértices que quedan con
+ * grado a lo más <i>k</i> se quitan en paralelo, y sus vecinos bajan de
+ * grado con operaciones atómicas; el hilo que deja a un vecino con grado
+ * exactamente <i>k</i> lo agrega a la siguiente ronda. Los números de
+ * núcleo son los mismos con cualquier número de hilos.</p>
+ *
+ * <p>El orden en que se quitan los vértices es un orden de degeneración:
+ * cada vértice tiene a lo más tantos vecinos después de él en el orden como
+ * su número de núcleo.</p>
+ *
+ * <p>Los núcleos no cambian una vez calculados; describen a la gráfica como
+ * era al calcularlos.</p>
+ */
+public class Nucleos<T> {
+
+    /* Clase privada para buscar en paralelo los vértices que quedan con
+     * grado a lo más k; regresa el menor grado mayor que k de los que
+     * quedan. */
+    private class Busqueda extends RecursiveTask<Integer> {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* El nivel. */
+	private int k;
+	/* El primer vértice del rango. */
+	private int a;
+	/* El vértice después del último del rango. */
+	private int b;
+
+	/* Construye una búsqueda para los vértices en [a, b). */
+	public Busqueda(int k, int a, int b) {
+	    this.k = k;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Busca en el rango, partiéndolo si es muy grande. */
+	@Override protected Integer compute() {
+	    if(b - a > BLOQUE) {
+		int m = (a + b) >>> 1;
+		Busqueda izquierda = new Busqueda(k, a, m);
+		izquierda.fork();
+		int derecha = new Busqueda(k, m, b).compute();
+		return Math.min(izquierda.join(), derecha);
+	    }
+	    int minimo = Integer.MAX_VALUE;
+	    for(int v = a; v < b; v++) {
+		if(nucleos[v] != -1)
+		    continue;
+		int g = grados.get(v);
+		if(g <= k) {
+		    nucleos[v] = k;
+		    orden[fin.getAndIncrement()] = v;
+		} else {
+		    minimo = Math.min(minimo, g);
+		}
+	    }
+	    return minimo;
+	}
+    }
+
+    /* Clase privada para quitar en paralelo los vértices de una ronda. */
+    private class Pelado extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* El nivel. */
+	private int k;
+	/* El primer índice del rango en el orden. */
+	private int a;
+	/* El índice después del último del rango. */
+	private int b;
+
+	/* Construye un pelado para los vértices en [a, b) del orden. */
+	public Pelado(int k, int a, int b) {
+	    this.k = k;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Quita los vértices, partiendo el rango si es muy grande. */
+	@Override protected void compute() {
+	    if(b - a > BLOQUE) {
+		int m = (a + b) >>> 1;
+		invokeAll(new Pelado(k, a, m), new Pelado(k, m, b));
+		return;
+	    }
+	    int[] inicios = grafica.inicios;
+	    int[] destinos = grafica.destinos;
+	    for(int i = a; i < b; i++) {
+		int v = orden[i];
+		for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		    int u = destinos[e];
+		    /* Sólo el hilo que lo deja en k lo agrega. */
+		    if(nucleos[u] == -1 && grados.decrementAndGet(u) == k) {
+			nucleos[u] = k;
+			orden[fin.getAndIncrement()] = u;
+		    }
+		}
+	    }
+	}
+    }
+
+    /* Vértices que procesa cada tarea. */
+    private static final int BLOQUE = 2048;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* El número de núcleo de cada vértice. */
+    private int[] nucleos;
+    /* Los vértices en el orden en que se quitaron. */
+    private int[] orden;
+    /* La degeneración. */
+    private int degeneracion;
+
+    /* Los grados de los vértices que quedan, para el pelado paralelo. */
+    private AtomicIntegerArray grados;
+    /* Cuántos vértices se han quitado, para el pelado paralelo. */
+    private AtomicInteger fin;
+
+    /* Calcula los núcleos de la gráfica con el número de hilos
+     * recibido. */
+    Nucleos(GraficaCompacta<T> grafica, int hilos) {
+	this.grafica = grafica;
+	int n = grafica.getElementos();
+	nucleos = new int[n];
+	orden = new int[n];
+	if(hilos == 1)
+	    batageljZaversnik();
+	else
+	    pelaEnParalelo(hilos);
+	for(int v = 0; v < n; v++)
+	    degeneracion = Math.max(degeneracion, nucleos[v]);
+    }
+
+    /* Calcula los núcleos con el algoritmo de Batagelj y Zaversnik: los
+     * vértices se ordenan por grado en cubetas, y al quitar un vértice cada
+     * vecino con grado mayor baja a la cubeta anterior intercambiándolo con
+     * el primero de su cubeta. */
+    private void batageljZaversnik() {
+	int n = nucleos.length;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	int maximo = 0;
+	for(int v = 0; v < n; v++) {
+	    nucleos[v] = inicios[v+1] - inicios[v];
+	    maximo = Math.max(maximo, nucleos[v]);
+	}
+	int[] cubetas = new int[maximo + 1];
+	for(int v = 0; v < n; v++)
+	    cubetas[nucleos[v]]++;
+	int inicio = 0;
+	for(int g = 0; g <= maximo; g++) {
+	    int t = cubetas[g];
+	    cubetas[g] = inicio;
+	    inicio += t;
+	}
+	int[] posiciones = new int[n];
+	for(int v = 0; v < n; v++) {
+	    posiciones[v] = cubetas[nucleos[v]]++;
+	    orden[posiciones[v]] = v;
+	}
+	for(int g = maximo; g > 0; g--)
+	    cubetas[g] = cubetas[g-1];
+	cubetas[0] = 0;
+	for(int i = 0; i < n; i++) {
+	    int v = orden[i];
+	    for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		int u = destinos[e];
+		if(nucleos[u] <= nucleos[v])
+		    continue;
+		int gu = nucleos[u];
+		int pu = posiciones[u];
+		int pw = cubetas[gu];
+		int w = orden[pw];
+		if(u != w) {
+		    posiciones[u] = pw;
+		    orden[pu] = w;
+		    posiciones[w] = pu;
+		    orden[pw] = u;
+		}
+		cubetas[gu]++;
+		nucleos[u]--;
+	    }
+	}
+    }
+
+    /* Calcula los núcleos pelando por niveles en paralelo. */
+    private void pelaEnParalelo(int hilos) {
+	int n = nucleos.length;
+	int[] inicios = grafica.inicios;
+	grados = new AtomicIntegerArray(n);
+	for(int v = 0; v < n; v++) {
+	    grados.set(v, inicios[v+1] - inicios[v]);
+	    nucleos[v] = -1;
+	}
+	fin = new AtomicInteger();
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    int k = 0;
+	    while(fin.get() < n) {
+		int a = fin.get();
+		int siguiente = pool.invoke(new Busqueda(k, 0, n));
+		int b = fin.get();
+		/* Si no se quitó nadie, ningún grado cambió y se puede saltar
+		 * al menor grado de los que quedan. */
+		if(a == b) {
+		    k = siguiente;
+		    continue;
+		}
+		/* Cada ronda quita a los vértices que agregó la anterior. */
+		while(a < b) {
+		    pool.invoke(new Pelado(k, a, b));
+		    a = b;
+		    b = fin.get();
+		}
+		k++;
+	    }
+	} finally {
+	    pool.shutdown();
+	}
+	grados = null;
+	fin = null;
+    }
+
+    /**
+     * Regresa el número de núcleo de un elemento.
+     * @param elemento el elemento.
+     * @return el número de núcleo del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public int getNucleo(T elemento) {
+	return nucleos[grafica.indice(elemento)];
+    }
+
+    /**
+     * Regresa los números de núcleo de todos los elementos.
+     * @return un diccionario con el número de núcleo de cada elemento.
+     */
+    public Diccionario<T, Integer> getNucleos() {
+	int n = nucleos.length;
+	Diccionario<T, Integer> d = new Diccionario<T, Integer>(n * 2);
+	for(int v = 0; v < n; v++)
+	    d.agrega(grafica.get(v), nucleos[v]);
+	return d;
+    }
+
+    /**
+     * Regresa la degeneración de la gráfica: el número de núcleo más
+     * grande.
+     * @return la degeneración de la gráfica, o cero si es vacía.
+     */
+    public int getDegeneracion() {
+	return degeneracion;
+    }
+
+    /**
+     * Regresa los elementos en un orden de degeneración: cada elemento
+     * tiene a lo más tantos vecinos después de él como su número de núcleo.
+     * @return una lista con los elementos en orden de degeneración.
+     */
+    public Lista<T> getOrdenDegeneracion() {
+	Lista<T> l = new Lista<T>();
+	for(int v : orden)
+	    l.agrega(grafica.get(v));
+	return l;
+    }
+
+    /**
+     * Regresa el <i>k</i>-núcleo como una gráfica nueva: los elementos con
+     * número de núcleo al menos <i>k</i>, con las aristas (y sus pesos)
+     * entre ellos.
+     * @param k el número de núcleo mínimo.
+     * @return el <i>k</i>-núcleo de la gráfica; es vacío si <i>k</i> es
+     *         mayor que la degeneración.
+     * @throws IllegalArgumentException si <i>k</i> es negativo.
+     */
+    public Grafica<T> nucleo(int k) {
+	if(k < 0)
+	    throw new IllegalArgumentException("Núcleo inválido");
+	int n = nucleos.length;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	int elementos = 0;
+	for(int v = 0; v < n; v++)
+	    if(nucleos[v] >= k)
+		elementos++;
+	Grafica<T> nucleo = new Grafica<T>(elementos);
+	for(int v = 0; v < n; v++)
+	    if(nucleos[v] >= k)
+		nucleo.agrega(grafica.get(v));
+	for(int v = 0; v < n; v++) {
+	    if(nucleos[v] < k)
+		continue;
+	    for(int e = inicios[v]; e < inicios[v+1]; e++) {
+		int u = destinos[e];
+		if(u > v && nucleos[u] >= k)
+		    nucleo.conecta(grafica.get(v), grafica.get(u), pesos[e]);
+	    }
+	}
+	return nucleo;
+    }
+}
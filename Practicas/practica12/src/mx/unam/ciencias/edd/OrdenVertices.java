@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las formas de numerar los vértices de una {@link
+ * GraficaCompacta}. Numerar juntos a vértices vecinos hace que los
+ * recorridos lean la memoria en orden.
+ */
+public enum OrdenVertices {
+    /** El orden en que se itera la gráfica. */
+    ITERACION,
+    /** Por grado, de mayor a menor. */
+    GRADO,
+    /** El orden en que los descubre una BFS, componente por componente. */
+    BFS,
+    /** Cuthill–McKee inverso, que reduce el ancho de banda. */
+    CUTHILL_MCKEE;
+}
@@ -0,0 +1,178 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+
+/**
+ * Clase para calcular las numeraciones de {@link OrdenVertices}. Los
+ * algoritmos leen las vecindades una por una con {@link Vecindades}, así que
+ * sirven igual para una {@link GraficaCompacta} que para una {@link Grafica}
+ * sin representación compacta; además de la permutación sólo usan arreglos
+ * de tamaño <i>n</i> y uno del tamaño del grado máximo.
+ */
+class OrdenesVertices {
+
+    /* Máximo de BFS para buscar un vértice pseudoperiférico. */
+    private static final int PERIFERICOS = 8;
+
+    /* No se instancia. */
+    private OrdenesVertices() {}
+
+    /* Regresa los vértices en el orden recibido: la posición i tiene al
+     * vértice que queda con el índice i. */
+    public static int[] permutacion(Vecindades<?> grafica,
+				    OrdenVertices orden) {
+	switch(orden) {
+	case GRADO:
+	    return ordenGrado(grafica, false);
+	case BFS:
+	    return ordenBfs(grafica);
+	case CUTHILL_MCKEE:
+	    return ordenCuthillMcKee(grafica);
+	default:
+	    int n = grafica.getElementos();
+	    int[] permutacion = new int[n];
+	    for(int i = 0; i < n; i++)
+		permutacion[i] = i;
+	    return permutacion;
+	}
+    }
+
+    /* Regresa los vértices ordenados por grado, de mayor a menor o de menor
+     * a mayor; los empates quedan en el orden de los índices. */
+    private static int[] ordenGrado(Vecindades<?> grafica,
+				    boolean ascendente) {
+	int n = grafica.getElementos();
+	int maximo = gradoMaximo(grafica);
+	int[] cubetas = new int[maximo + 2];
+	for(int v = 0; v < n; v++)
+	    cubetas[llave(grafica.getGrado(v), maximo, ascendente) + 1]++;
+	for(int g = 1; g < cubetas.length; g++)
+	    cubetas[g] += cubetas[g-1];
+	int[] orden = new int[n];
+	for(int v = 0; v < n; v++)
+	    orden[cubetas[llave(grafica.getGrado(v), maximo, ascendente)]++] = v;
+	return orden;
+    }
+
+    /* Regresa la cubeta de un grado para ordenar por grado. */
+    private static int llave(int g, int maximo, boolean ascendente) {
+	return ascendente ? g : maximo - g;
+    }
+
+    /* Regresa los vértices en el orden en que los descubre una BFS que
+     * empieza en el primer vértice sin descubrir de cada componente. */
+    private static int[] ordenBfs(Vecindades<?> grafica) {
+	int n = grafica.getElementos();
+	int[] orden = new int[n];
+	boolean[] vistos = new boolean[n];
+	int[] vecinos = new int[gradoMaximo(grafica)];
+	int fin = 0;
+	for(int s = 0; s < n; s++) {
+	    if(vistos[s])
+		continue;
+	    vistos[s] = true;
+	    orden[fin++] = s;
+	    for(int i = fin - 1; i < fin; i++) {
+		int v = orden[i];
+		int g = grafica.getGrado(v);
+		grafica.vecinos(v, vecinos);
+		for(int j = 0; j < g; j++)
+		    if(!vistos[vecinos[j]]) {
+			vistos[vecinos[j]] = true;
+			orden[fin++] = vecinos[j];
+		    }
+	    }
+	}
+	return orden;
+    }
+
+    /* Regresa los vértices en el orden de Cuthill–McKee inverso: cada
+     * componente se recorre con una BFS desde un vértice pseudoperiférico,
+     * metiendo a los vecinos de cada vértice de menor a mayor grado, y al
+     * final se invierte todo el orden. */
+    private static int[] ordenCuthillMcKee(Vecindades<?> grafica) {
+	int n = grafica.getElementos();
+	int[] orden = new int[n];
+	boolean[] vistos = new boolean[n];
+	int[] niveles = new int[n];
+	Arrays.fill(niveles, -1);
+	int[] cola = new int[n];
+	int maximo = gradoMaximo(grafica);
+	int[] vecinos = new int[maximo];
+	long[] porGrado = new long[maximo];
+	int fin = 0;
+	for(int s : ordenGrado(grafica, true)) {
+	    if(vistos[s])
+		continue;
+	    s = periferico(grafica, s, niveles, cola, vecinos);
+	    vistos[s] = true;
+	    orden[fin++] = s;
+	    for(int i = fin - 1; i < fin; i++) {
+		int v = orden[i];
+		int g = grafica.getGrado(v);
+		grafica.vecinos(v, vecinos);
+		int t = 0;
+		for(int j = 0; j < g; j++) {
+		    int u = vecinos[j];
+		    if(!vistos[u]) {
+			vistos[u] = true;
+			porGrado[t++] = ((long)grafica.getGrado(u) << 32) | u;
+		    }
+		}
+		Arrays.sort(porGrado, 0, t);
+		for(int j = 0; j < t; j++)
+		    orden[fin++] = (int)porGrado[j];
+	    }
+	}
+	for(int i = 0, j = n - 1; i < j; i++, j--) {
+	    int t = orden[i];
+	    orden[i] = orden[j];
+	    orden[j] = t;
+	}
+	return orden;
+    }
+
+    /* Regresa un vértice pseudoperiférico de la componente del vértice
+     * recibido (George y Liu): mientras el vértice de menor grado del
+     * último nivel de una BFS tenga excentricidad mayor, se empieza desde
+     * él. Los niveles quedan otra vez en -1. */
+    private static int periferico(Vecindades<?> grafica, int s, int[] niveles,
+				  int[] cola, int[] vecinos) {
+	int excentricidad = -1;
+	for(int intento = 0; intento < PERIFERICOS; intento++) {
+	    niveles[s] = 0;
+	    cola[0] = s;
+	    int fin = 1;
+	    for(int i = 0; i < fin; i++) {
+		int v = cola[i];
+		int g = grafica.getGrado(v);
+		grafica.vecinos(v, vecinos);
+		for(int j = 0; j < g; j++)
+		    if(niveles[vecinos[j]] == -1) {
+			niveles[vecinos[j]] = niveles[v] + 1;
+			cola[fin++] = vecinos[j];
+		    }
+	    }
+	    int ultimo = niveles[cola[fin-1]];
+	    int candidato = cola[fin-1];
+	    for(int i = fin - 1; i >= 0 && niveles[cola[i]] == ultimo; i--)
+		if(grafica.getGrado(cola[i]) < grafica.getGrado(candidato))
+		    candidato = cola[i];
+	    for(int i = 0; i < fin; i++)
+		niveles[cola[i]] = -1;
+	    if(ultimo <= excentricidad)
+		break;
+	    excentricidad = ultimo;
+	    s = candidato;
+	}
+	return s;
+    }
+
+    /* Regresa el grado máximo de la gráfica. */
+    private static int gradoMaximo(Vecindades<?> grafica) {
+	int maximo = 0;
+	for(int v = 0; v < grafica.getElementos(); v++)
+	    maximo = Math.max(maximo, grafica.getGrado(v));
+	return maximo;
+    }
+}
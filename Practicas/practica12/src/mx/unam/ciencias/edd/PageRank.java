@@ -0,0 +1,273 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>Clase para calcular el PageRank de los vértices de una gráfica. El
+ * PageRank de un vértice es la probabilidad de encontrarse en él después de
+ * caminar mucho tiempo al azar por la gráfica: en cada paso, con
+ * probabilidad igual al amortiguamiento se sigue una arista (escogida con
+ * probabilidad proporcional a su peso), y si no se salta a un vértice
+ * escogido con el vector de personalización (uniforme, si no se define
+ * otro). Los vértices sin vecinos saltan siempre.</p>
+ *
+ * <p>El cálculo es por iteración de potencias sobre la {@link
+ * GraficaCompacta} de la gráfica: cada vértice jala el rango de sus vecinos,
+ * así que los vértices se reparten entre los hilos sin que ninguno escriba
+ * donde escribe otro. Las iteraciones terminan cuando la suma de los cambios
+ * es menor que la tolerancia, o al llegar al máximo de iteraciones.</p>
+ */
+public class PageRank<T> {
+
+    /* Interfaz para sumar una función sobre un rango de vértices. */
+    @FunctionalInterface
+    private interface Sumando {
+	/* Regresa la suma de la función sobre los vértices en [a, b). */
+	public double suma(int a, int b);
+    }
+
+    /* Clase privada para sumar en paralelo sobre un rango de vértices. */
+    private static class Suma extends RecursiveTask<Double> {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La función a sumar. */
+	private Sumando sumando;
+	/* El primer vértice del rango. */
+	private int a;
+	/* El vértice después del último del rango. */
+	private int b;
+
+	/* Construye una suma para los vértices en [a, b). */
+	public Suma(Sumando sumando, int a, int b) {
+	    this.sumando = sumando;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Suma el rango, partiéndolo si es muy grande. */
+	@Override protected Double compute() {
+	    if(b - a <= BLOQUE)
+		return sumando.suma(a, b);
+	    int m = (a + b) >>> 1;
+	    Suma izquierda = new Suma(sumando, a, m);
+	    izquierda.fork();
+	    double derecha = new Suma(sumando, m, b).compute();
+	    return izquierda.join() + derecha;
+	}
+    }
+
+    /* Vértices que procesa cada tarea. */
+    private static final int BLOQUE = 4096;
+
+    /* La gráfica compacta. */
+    private GraficaCompacta<T> grafica;
+    /* El amortiguamiento. */
+    private double amortiguamiento;
+    /* La tolerancia. */
+    private double tolerancia;
+    /* El máximo de iteraciones. */
+    private int maximoIteraciones;
+    /* El número de hilos. */
+    private int hilos;
+    /* El vector de personalización, normalizado; null si es uniforme. */
+    private double[] personalizacion;
+    /* Las iteraciones del último cálculo. */
+    private int iteraciones;
+
+    /**
+     * Construye un cálculo de PageRank para la gráfica recibida, con
+     * amortiguamiento de 0.85, tolerancia de 10<sup>-9</sup>, a lo más 100
+     * iteraciones, tantos hilos como el <i>pool</i> común y personalización
+     * uniforme. El cálculo usa la gráfica como es al construirlo.
+     * @param grafica la gráfica.
+     */
+    public PageRank(Grafica<T> grafica) {
+	this(grafica.compacta());
+    }
+
+    /* Construye un cálculo de PageRank para la gráfica compacta recibida,
+     * con los parámetros por omisión. */
+    PageRank(GraficaCompacta<T> grafica) {
+	this.grafica = grafica;
+	amortiguamiento = 0.85;
+	tolerancia = 1e-9;
+	maximoIteraciones = 100;
+	hilos = ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    /**
+     * Define el amortiguamiento: la probabilidad de seguir una arista en
+     * lugar de saltar.
+     * @param amortiguamiento el amortiguamiento.
+     * @throws IllegalArgumentException si el amortiguamiento no está en
+     *         [0, 1).
+     */
+    public void setAmortiguamiento(double amortiguamiento) {
+	if(!(amortiguamiento >= 0 && amortiguamiento < 1))
+	    throw new IllegalArgumentException("Amortiguamiento inválido");
+	this.amortiguamiento = amortiguamiento;
+    }
+
+    /**
+     * Define la tolerancia: las iteraciones terminan cuando la suma de los
+     * valores absolutos de los cambios es menor.
+     * @param tolerancia la tolerancia.
+     * @throws IllegalArgumentException si la tolerancia es no positiva.
+     */
+    public void setTolerancia(double tolerancia) {
+	if(!(tolerancia > 0))
+	    throw new IllegalArgumentException("Tolerancia inválida");
+	this.tolerancia = tolerancia;
+    }
+
+    /**
+     * Define el máximo de iteraciones.
+     * @param maximoIteraciones el máximo de iteraciones.
+     * @throws IllegalArgumentException si el máximo es menor que uno.
+     */
+    public void setMaximoIteraciones(int maximoIteraciones) {
+	if(maximoIteraciones < 1)
+	    throw new IllegalArgumentException("Máximo inválido");
+	this.maximoIteraciones = maximoIteraciones;
+    }
+
+    /**
+     * Define el número de hilos.
+     * @param hilos el número de hilos.
+     * @throws IllegalArgumentException si el número de hilos es menor que
+     *         uno.
+     */
+    public void setHilos(int hilos) {
+	if(hilos < 1)
+	    throw new IllegalArgumentException("Número de hilos inválido");
+	this.hilos = hilos;
+    }
+
+    /**
+     * Define el vector de personalización: a qué vértices se salta, y con
+     * qué probabilidad relativa. Los elementos que no estén en el diccionario
+     * tienen peso cero; el PageRank personalizado a un solo elemento mide
+     * qué tan cerca está cada vértice de él.
+     * @param pesos los pesos de los elementos, o <code>null</code> para
+     *        saltar a todos los vértices con la misma probabilidad.
+     * @throws NoSuchElementException si algún elemento del diccionario no
+     *         está en la gráfica.
+     * @throws IllegalArgumentException si algún peso es negativo, o si todos
+     *         son cero.
+     */
+    public void setPersonalizacion(Diccionario<T, Double> pesos) {
+	if(pesos == null) {
+	    personalizacion = null;
+	    return;
+	}
+	double[] p = new double[grafica.getElementos()];
+	double total = 0;
+	Iterator<T> llaves = pesos.iteradorLlaves();
+	while(llaves.hasNext()) {
+	    T e = llaves.next();
+	    double w = pesos.get(e);
+	    if(!(w >= 0) || Double.isInfinite(w))
+		throw new IllegalArgumentException("Peso inválido");
+	    p[grafica.indice(e)] = w;
+	    total += w;
+	}
+	if(total == 0)
+	    throw new IllegalArgumentException("Personalización vacía");
+	for(int i = 0; i < p.length; i++)
+	    p[i] /= total;
+	personalizacion = p;
+    }
+
+    /**
+     * Calcula el PageRank de todos los vértices.
+     * @return un diccionario con el PageRank de cada elemento; los valores
+     *         suman uno.
+     */
+    public Diccionario<T, Double> calcula() {
+	double[] rangos = rangos();
+	Diccionario<T, Double> d =
+	    new Diccionario<T, Double>(rangos.length * 2);
+	for(int i = 0; i < rangos.length; i++)
+	    d.agrega(grafica.get(i), rangos[i]);
+	return d;
+    }
+
+    /**
+     * Regresa el número de iteraciones del último cálculo.
+     * @return el número de iteraciones del último cálculo.
+     */
+    public int getIteraciones() {
+	return iteraciones;
+    }
+
+    /* Calcula el PageRank de los vértices, por índice. */
+    double[] rangos() {
+	int n = grafica.getElementos();
+	iteraciones = 0;
+	if(n == 0)
+	    return new double[0];
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	double[] pesos = grafica.pesos;
+	double d = amortiguamiento;
+	double[] p = personalizacion;
+	double uniforme = 1.0 / n;
+	/* La suma de los pesos de las aristas de cada vértice. */
+	double[] totales = new double[n];
+	for(int v = 0; v < n; v++)
+	    for(int a = inicios[v]; a < inicios[v+1]; a++)
+		totales[v] += pesos[a];
+	double[] rango = new double[n];
+	for(int v = 0; v < n; v++)
+	    rango[v] = p == null ? uniforme : p[v];
+	double[] siguiente = new double[n];
+	double[] aportes = new double[n];
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    while(iteraciones < maximoIteraciones) {
+		iteraciones++;
+		double[] r = rango;
+		double[] s = siguiente;
+		/* Lo que cada vértice aporta por unidad de peso; el rango de
+		 * los vértices sin vecinos se reparte con los saltos. */
+		double colgados = pool.invoke(new Suma((a, b) -> {
+		    double c = 0;
+		    for(int v = a; v < b; v++) {
+			if(totales[v] == 0) {
+			    aportes[v] = 0;
+			    c += r[v];
+			} else {
+			    aportes[v] = r[v] / totales[v];
+			}
+		    }
+		    return c;
+		}, 0, n));
+		double salto = 1 - d + d * colgados;
+		double cambio = pool.invoke(new Suma((a, b) -> {
+		    double c = 0;
+		    for(int v = a; v < b; v++) {
+			double x = 0;
+			for(int e = inicios[v]; e < inicios[v+1]; e++)
+			    x += aportes[destinos[e]] * pesos[e];
+			x = d * x + salto * (p == null ? uniforme : p[v]);
+			c += Math.abs(x - r[v]);
+			s[v] = x;
+		    }
+		    return c;
+		}, 0, n));
+		siguiente = rango;
+		rango = s;
+		if(cambio < tolerancia)
+		    break;
+	    }
+	} finally {
+	    pool.shutdown();
+	}
+	return rango;
+    }
+}
@@ -0,0 +1,325 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Clase para búsquedas ALT: A* con cotas de puntos de referencia y la
+ * desigualdad del triángulo. Para unos cuantos vértices de referencia se
+ * calcula de antemano su distancia a todos los demás; como la gráfica no es
+ * dirigida, para cualquier punto de referencia <i>L</i> la distancia entre
+ * <i>v</i> y <i>t</i> es al menos |<i>d</i>(<i>L</i>,<i>t</i>) −
+ * <i>d</i>(<i>L</i>,<i>v</i>)|. El máximo de esas cotas es una heurística
+ * consistente para A*, que no depende de coordenadas y que con puntos en la
+ * orilla de la gráfica suele asentar muchos menos vértices que Dijkstra. Es
+ * una alternativa ligera a {@link JerarquiaContraccion}: el preprocesamiento
+ * es un Dijkstra por punto de referencia.</p>
+ *
+ * <p>Los puntos se escogen con la métrica de saltos, usando la BFS paralela
+ * de la {@link GraficaCompacta} (cada punto depende de los anteriores, así
+ * que se escogen uno por uno), y después se calculan las tablas de
+ * distancias en paralelo, un Dijkstra por punto. Cada consulta usa sólo los
+ * puntos que dan las mejores cotas entre su origen y su destino.</p>
+ *
+ * <p>Las tablas describen a la gráfica como era al construirlas. Las
+ * consultas pueden hacerse desde varios hilos al mismo tiempo.</p>
+ */
+public class PuntosReferencia<T> {
+
+    /* Clase privada para calcular en paralelo las tablas de un rango de
+     * puntos de referencia. */
+    private static class Tablas extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* La gráfica. */
+	private GraficaCompacta<?> grafica;
+	/* Los puntos de referencia. */
+	private int[] puntos;
+	/* Las tablas de distancias. */
+	private double[][] distancias;
+	/* El primer punto del rango. */
+	private int a;
+	/* El punto después del último del rango. */
+	private int b;
+
+	/* Construye el cálculo de las tablas de los puntos en [a, b). */
+	public Tablas(GraficaCompacta<?> grafica, int[] puntos,
+		      double[][] distancias, int a, int b) {
+	    this.grafica = grafica;
+	    this.puntos = puntos;
+	    this.distancias = distancias;
+	    this.a = a;
+	    this.b = b;
+	}
+
+	/* Calcula las tablas, partiendo el rango si tiene más de una. */
+	@Override protected void compute() {
+	    if(b - a > 1) {
+		int m = (a + b) >>> 1;
+		invokeAll(new Tablas(grafica, puntos, distancias, a, m),
+			  new Tablas(grafica, puntos, distancias, m, b));
+		return;
+	    }
+	    BusquedaDijkstra busqueda =
+		new BusquedaDijkstra(grafica, puntos[a]);
+	    busqueda.completa();
+	    distancias[a] = busqueda.distancias;
+	}
+    }
+
+    /* Máximo de puntos de referencia que usa cada consulta. */
+    private static final int ACTIVOS = 4;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* Los puntos de referencia. */
+    private int[] puntos;
+    /* La distancia de cada punto de referencia a cada vértice. */
+    private double[][] distancias;
+    /* La distancia en saltos de cada vértice al punto más cercano durante
+     * la selección; Integer.MAX_VALUE si ningún punto lo alcanza. */
+    private int[] cercania;
+
+    /* Escoge k puntos de referencia de la gráfica y calcula sus tablas con
+     * el número de hilos recibido. */
+    PuntosReferencia(GraficaCompacta<T> grafica, int k,
+		     SeleccionPuntosReferencia seleccion, Random random,
+		     int hilos) {
+	this.grafica = grafica;
+	int n = grafica.getElementos();
+	puntos = new int[Math.min(k, n)];
+	distancias = new double[puntos.length][];
+	if(puntos.length == 0)
+	    return;
+	cercania = new int[n];
+	Arrays.fill(cercania, Integer.MAX_VALUE);
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    if(seleccion == SeleccionPuntosReferencia.LEJANOS)
+		seleccionaLejanos(random, pool);
+	    else
+		seleccionaEvasion(random, pool);
+	    pool.invoke(new Tablas(grafica, puntos, distancias,
+				   0, puntos.length));
+	} finally {
+	    pool.shutdown();
+	}
+	cercania = null;
+    }
+
+    /**
+     * Regresa los puntos de referencia, en el orden en que se escogieron.
+     * @return una lista con los puntos de referencia.
+     */
+    public Lista<T> getPuntos() {
+	Lista<T> lista = new Lista<T>();
+	for(int p : puntos)
+	    lista.agregaFinal(grafica.get(p));
+	return lista;
+    }
+
+    /**
+     * Regresa la mejor cota inferior de la distancia entre dos elementos que
+     * dan los puntos de referencia.
+     * @param a el primer elemento.
+     * @param b el segundo elemento.
+     * @return una cota inferior de la distancia entre los elementos; es
+     *         {@link Double#POSITIVE_INFINITY} si algún punto de referencia
+     *         muestra que están en componentes conexas distintas.
+     * @throws NoSuchElementException si alguno de los dos elementos no está
+     *         en la gráfica.
+     */
+    public double cotaInferior(T a, T b) {
+	return cota(distancias, grafica.indice(a), grafica.indice(b));
+    }
+
+    /**
+     * Calcula una trayectoria de peso mínimo entre dos elementos con A*,
+     * usando como heurística las cotas de los puntos de referencia.
+     * @param origen el elemento de origen.
+     * @param destino el elemento de destino.
+     * @return una trayectoria de peso mínimo del origen al destino, que
+     *         reporta los vértices que asentó la búsqueda; si están en
+     *         componentes conexas distintas la trayectoria es vacía.
+     * @throws NoSuchElementException si alguno de los dos elementos no está
+     *         en la gráfica.
+     */
+    public Trayectoria<T> trayectoria(T origen, T destino) {
+	int s = grafica.indice(origen);
+	int t = grafica.indice(destino);
+	double[][] activas = activas(s, t);
+	if(activas == null)
+	    return Trayectoria.vacia(0);
+	BusquedaDijkstra busqueda =
+	    new BusquedaDijkstra(grafica, s, (v) -> cota(activas, v, t));
+	if(!busqueda.buscaHasta(t))
+	    return Trayectoria.vacia(busqueda.asentados);
+	return Trayectoria.reconstruye(grafica, busqueda.anteriores, t,
+				       busqueda.distancias[t],
+				       busqueda.asentados);
+    }
+
+    /* Regresa las tablas de los puntos con las mejores cotas entre s y t,
+     * o null si alguna tabla muestra que t no es alcanzable desde s. */
+    private double[][] activas(int s, int t) {
+	int k = puntos.length;
+	double[] cotas = new double[k];
+	Integer[] orden = new Integer[k];
+	for(int i = 0; i < k; i++) {
+	    double ds = distancias[i][s];
+	    double dt = distancias[i][t];
+	    if((ds == Double.POSITIVE_INFINITY) !=
+		(dt == Double.POSITIVE_INFINITY))
+		return null;
+	    cotas[i] = ds == Double.POSITIVE_INFINITY ? 0 : Math.abs(ds - dt);
+	    orden[i] = i;
+	}
+	if(k <= ACTIVOS)
+	    return distancias;
+	Arrays.sort(orden, (a, b) -> Double.compare(cotas[b], cotas[a]));
+	double[][] activas = new double[ACTIVOS][];
+	for(int i = 0; i < ACTIVOS; i++)
+	    activas[i] = distancias[orden[i]];
+	return activas;
+    }
+
+    /* Regresa la mejor cota de la distancia entre v y t que dan las
+     * tablas. */
+    private static double cota(double[][] tablas, int v, int t) {
+	double cota = 0;
+	for(double[] d : tablas) {
+	    double dv = d[v];
+	    double dt = d[t];
+	    if(dv == Double.POSITIVE_INFINITY &&
+		dt == Double.POSITIVE_INFINITY)
+		continue;
+	    cota = Math.max(cota, Math.abs(dt - dv));
+	}
+	return cota;
+    }
+
+    /* Escoge cada punto como el vértice más lejano (en saltos) de los
+     * anteriores; el primero es el más lejano de un vértice aleatorio. Los
+     * vértices que ningún punto alcanza son los más lejanos, así que cada
+     * componente conexa recibe un punto antes de que alguna reciba dos. */
+    private void seleccionaLejanos(Random random, ForkJoinPool pool) {
+	int[] saltos = grafica.bfsParalelo(random.nextInt(cercania.length),
+					   pool);
+	int primero = 0;
+	for(int v = 0; v < saltos.length; v++)
+	    if(saltos[v] > saltos[primero])
+		primero = v;
+	agrega(0, primero, pool);
+	for(int i = 1; i < puntos.length; i++)
+	    agrega(i, lejano(), pool);
+    }
+
+    /* Escoge los puntos con la heurística de evasión: desde una raíz
+     * aleatoria se construye un árbol de BFS, cada vértice pesa lo que la
+     * cota de los puntos anteriores subestima su distancia a la raíz, y se
+     * baja por los subárboles más pesados que no contengan puntos; la hoja
+     * a la que se llega es el nuevo punto. Si la raíz no tiene subárboles
+     * sin puntos, el nuevo punto es el vértice más lejano de los
+     * anteriores. */
+    private void seleccionaEvasion(Random random, ForkJoinPool pool) {
+	int[][] tablas = new int[puntos.length][];
+	for(int i = 0; i < puntos.length; i++) {
+	    int r = random.nextInt(cercania.length);
+	    int p = evade(r, grafica.bfsParalelo(r, pool), tablas, i);
+	    tablas[i] = agrega(i, p == -1 ? lejano() : p, pool);
+	}
+    }
+
+    /* Baja por el árbol de BFS desde r, con las tablas en saltos de los
+     * primeros m puntos, y regresa la hoja a la que llega, o -1 si la raíz
+     * no tiene subárboles sin puntos. */
+    private int evade(int r, int[] saltos, int[][] tablas, int m) {
+	int n = saltos.length;
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	/* Ordena los vértices alcanzables por nivel con un conteo. */
+	int niveles = 0;
+	for(int v = 0; v < n; v++)
+	    niveles = Math.max(niveles, saltos[v] + 1);
+	int[] cubetas = new int[niveles + 1];
+	for(int v = 0; v < n; v++)
+	    if(saltos[v] != -1)
+		cubetas[saltos[v] + 1]++;
+	for(int h = 1; h <= niveles; h++)
+	    cubetas[h] += cubetas[h-1];
+	int[] orden = new int[cubetas[niveles]];
+	for(int v = 0; v < n; v++)
+	    if(saltos[v] != -1)
+		orden[cubetas[saltos[v]]++] = v;
+	/* El padre de cada vértice es su primer vecino un nivel arriba. */
+	int[] padres = new int[n];
+	Arrays.fill(padres, -1);
+	for(int v : orden) {
+	    if(v == r)
+		continue;
+	    for(int a = inicios[v]; padres[v] == -1; a++)
+		if(saltos[destinos[a]] == saltos[v] - 1)
+		    padres[v] = destinos[a];
+	}
+	boolean[] cubiertos = new boolean[n];
+	for(int i = 0; i < m; i++)
+	    cubiertos[puntos[i]] = true;
+	double[] pesos = new double[n];
+	for(int j = orden.length - 1; j >= 0; j--) {
+	    int v = orden[j];
+	    int p = padres[v];
+	    if(cubiertos[v]) {
+		pesos[v] = 0;
+		if(p != -1)
+		    cubiertos[p] = true;
+		continue;
+	    }
+	    int cota = 0;
+	    for(int i = 0; i < m; i++)
+		if(tablas[i][r] != -1)
+		    cota = Math.max(cota, Math.abs(tablas[i][r] - tablas[i][v]));
+	    pesos[v] += saltos[v] - cota;
+	    if(p != -1)
+		pesos[p] += pesos[v];
+	}
+	int v = r;
+	while(true) {
+	    int siguiente = -1;
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int u = destinos[a];
+		if(padres[u] == v && pesos[u] > 0 &&
+		    (siguiente == -1 || pesos[u] > pesos[siguiente]))
+		    siguiente = u;
+	    }
+	    if(siguiente == -1)
+		break;
+	    v = siguiente;
+	}
+	return v == r ? -1 : v;
+    }
+
+    /* Agrega el i-ésimo punto de referencia, actualiza la cercanía de los
+     * vértices y regresa la tabla en saltos del punto. */
+    private int[] agrega(int i, int p, ForkJoinPool pool) {
+	puntos[i] = p;
+	int[] saltos = grafica.bfsParalelo(p, pool);
+	for(int v = 0; v < saltos.length; v++)
+	    if(saltos[v] != -1)
+		cercania[v] = Math.min(cercania[v], saltos[v]);
+	return saltos;
+    }
+
+    /* Regresa el vértice más lejano de los puntos de referencia. */
+    private int lejano() {
+	int lejano = 0;
+	for(int v = 1; v < cercania.length; v++)
+	    if(cercania[v] > cercania[lejano])
+		lejano = v;
+	return lejano;
+    }
+}
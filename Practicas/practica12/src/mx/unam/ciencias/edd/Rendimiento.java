@@ -0,0 +1,1229 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Mediciones de rendimiento de las gráficas. La medición se escoge con el
+ * primer argumento, y los siguientes argumentos (opcionales) definen el
+ * tamaño de la entrada:
+ *
+ * <pre>java -cp build mx.unam.ciencias.edd.Rendimiento bfs [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento dijkstra [lado] [consultas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento busquedas [lado] [consultas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento matriz [lado] [puntos]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento arbol [vértices]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento dag [vértices] [arcos]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento carga [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento mapeada [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento pagerank [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento intermediacion [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento flujo [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento triangulos [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento yen [lado] [k]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento jerarquia [lado] [consultas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento referencias [lado] [puntos]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento dinamicas [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento cache [lado] [consultas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento comunidades [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento ordenes [lado]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento comprimida [lado] [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento nucleos [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento apareamiento [vértices] [aristas]
+ * java -cp build mx.unam.ciencias.edd.Rendimiento recorridos [lado] [consultas]</pre>
+ */
+public class Rendimiento {
+
+    /* Semilla para que las gráficas generadas sean reproducibles. */
+    private static final long SEMILLA = 20161209L;
+    /* Veces que se repite cada medición; reportamos la mejor. */
+    private static final int REPETICIONES = 5;
+
+    /* Contador para que el JIT no descarte los recorridos. */
+    private static long sumidero;
+
+    public static void main(String[] args) {
+	if(args.length == 0) {
+	    uso();
+	    return;
+	}
+	switch(args[0]) {
+	case "bfs":
+	    bfs(entero(args, 1, 50000), entero(args, 2, 250000));
+	    break;
+	case "dijkstra":
+	    dijkstra(entero(args, 1, 200), entero(args, 2, 200));
+	    break;
+	case "busquedas":
+	    busquedas(entero(args, 1, 200), entero(args, 2, 200));
+	    break;
+	case "matriz":
+	    matriz(entero(args, 1, 200), entero(args, 2, 64));
+	    break;
+	case "arbol":
+	    arbol(entero(args, 1, 100000), 4);
+	    arbol(entero(args, 1, 100000) / 10, 100);
+	    break;
+	case "dag":
+	    dag(entero(args, 1, 100000), entero(args, 2, 1000000));
+	    break;
+	case "carga":
+	    carga(entero(args, 1, 200000), entero(args, 2, 2000000));
+	    break;
+	case "mapeada":
+	    mapeada(entero(args, 1, 200000), entero(args, 2, 1000000));
+	    break;
+	case "pagerank":
+	    pagerank(entero(args, 1, 300000), entero(args, 2, 2000000));
+	    break;
+	case "intermediacion":
+	    intermediacion(entero(args, 1, 5000), entero(args, 2, 25000), false);
+	    intermediacion(entero(args, 1, 5000), entero(args, 2, 25000), true);
+	    break;
+	case "flujo":
+	    flujo(entero(args, 1, 200000), entero(args, 2, 1000000));
+	    flujo(entero(args, 1, 200000) / 100, entero(args, 2, 1000000));
+	    flujo(cuadricula(entero(args, 1, 200000) / 1000));
+	    break;
+	case "triangulos":
+	    triangulos(entero(args, 1, 300000), entero(args, 2, 2000000));
+	    break;
+	case "yen":
+	    yen(entero(args, 1, 100), entero(args, 2, 10));
+	    break;
+	case "jerarquia":
+	    jerarquia(entero(args, 1, 200), entero(args, 2, 200));
+	    break;
+	case "referencias":
+	    referencias(entero(args, 1, 200), entero(args, 2, 16));
+	    break;
+	case "dinamicas":
+	    dinamicas(entero(args, 1, 200000), entero(args, 2, 1000000));
+	    break;
+	case "cache":
+	    cache(entero(args, 1, 100), entero(args, 2, 2000));
+	    break;
+	case "comunidades":
+	    comunidades(entero(args, 1, 1000000), entero(args, 2, 5000000));
+	    break;
+	case "ordenes":
+	    ordenes(entero(args, 1, 1000));
+	    break;
+	case "comprimida":
+	    comprimida(entero(args, 1, 1000), entero(args, 2, 1000000),
+		       entero(args, 3, 4000000));
+	    break;
+	case "nucleos":
+	    nucleos(entero(args, 1, 1000000), entero(args, 2, 5000000));
+	    break;
+	case "apareamiento":
+	    apareamiento(entero(args, 1, 1000000), entero(args, 2, 5000000));
+	    break;
+	case "recorridos":
+	    recorridos(entero(args, 1, 1000), entero(args, 2, 5));
+	    break;
+	default:
+	    uso();
+	}
+	if(sumidero == 42)
+	    System.out.println();
+    }
+
+    /* Imprime cómo se usa el programa. */
+    private static void uso() {
+	System.err.println("Uso: java -cp build mx.unam.ciencias.edd.Rendimiento " +
+			   "bfs [vértices] [aristas] | " +
+			   "dijkstra [lado] [consultas] | " +
+			   "busquedas [lado] [consultas] | " +
+			   "matriz [lado] [puntos] | " +
+			   "arbol [vértices] | " +
+			   "dag [vértices] [arcos] | " +
+			   "carga [vértices] [aristas] | " +
+			   "mapeada [vértices] [aristas] | " +
+			   "pagerank [vértices] [aristas] | " +
+			   "intermediacion [vértices] [aristas] | " +
+			   "flujo [vértices] [aristas] | " +
+			   "triangulos [vértices] [aristas] | " +
+			   "yen [lado] [k] | " +
+			   "jerarquia [lado] [consultas] | " +
+			   "referencias [lado] [puntos] | " +
+			   "dinamicas [vértices] [aristas] | " +
+			   "cache [lado] [consultas] | " +
+			   "comunidades [vértices] [aristas] | " +
+			   "ordenes [lado] | " +
+			   "comprimida [lado] [vértices] [aristas] | " +
+			   "nucleos [vértices] [aristas] | " +
+			   "apareamiento [vértices] [aristas] | " +
+			   "recorridos [lado] [consultas]");
+    }
+
+    /* Compara Grafica.bfs con la BFS paralela, de 1 a N hilos. */
+    private static void bfs(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, false);
+	GraficaCompacta<Integer> compacta = grafica.compacta();
+	encabezado("BFS", grafica);
+	double base = mide(() -> grafica.bfs(0, (v) -> sumidero++));
+	reporta("Grafica.bfs", base, base);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero += compacta.bfsParalelo(0, hilos)[n-1]);
+	    reporta(String.format("bfsParalelo, %d hilo(s)", h), t, base);
+	}
+    }
+
+    /* Mide consultas de Grafica.dijkstra entre pares aleatorios de una
+     * cuadrícula, y entre pares cercanos (a lo más 10 cuadras), donde la
+     * búsqueda termina pronto. */
+    private static void dijkstra(int lado, int consultas) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	encabezado("Dijkstra punto a punto", grafica);
+	Random random = new Random(SEMILLA);
+	int n = lado * lado;
+	int[] lejanos = new int[2 * consultas];
+	int[] cercanos = new int[2 * consultas];
+	for(int i = 0; i < 2 * consultas; i += 2) {
+	    lejanos[i] = random.nextInt(n);
+	    lejanos[i+1] = random.nextInt(n);
+	    int x = random.nextInt(lado - 10);
+	    int y = random.nextInt(lado - 10);
+	    cercanos[i] = y * lado + x;
+	    cercanos[i+1] = (y + random.nextInt(10)) * lado + x + random.nextInt(10);
+	}
+	double t = mide(() -> {
+		for(int i = 0; i < lejanos.length; i += 2)
+		    sumidero += grafica.dijkstra(lejanos[i], lejanos[i+1]).getLongitud();
+	    });
+	reporta("pares aleatorios, por consulta", t / consultas, t / consultas);
+	double c = mide(() -> {
+		for(int i = 0; i < cercanos.length; i += 2)
+		    sumidero += grafica.dijkstra(cercanos[i], cercanos[i+1]).getLongitud();
+	    });
+	reporta("pares cercanos, por consulta", c / consultas, t / consultas);
+    }
+
+    /* Compara Grafica.dijkstra con Dijkstra, Dijkstra bidireccional y A*
+     * sobre la gráfica compacta, en latencia y vértices asentados. */
+    private static void busquedas(int lado, int consultas) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado("Búsquedas punto a punto", grafica);
+	Random random = new Random(SEMILLA);
+	int[] pares = new int[2 * consultas];
+	for(int i = 0; i < pares.length; i++)
+	    pares[i] = c.indice(random.nextInt(lado * lado));
+	/* Cada paso en la cuadrícula pesa al menos 1. */
+	BiFunction<Integer, Integer, Double> manhattan = (a, b) ->
+	    (double)(Math.abs(a % lado - b % lado) + Math.abs(a / lado - b / lado));
+	double base = mide(() -> {
+		for(int i = 0; i < pares.length; i += 2)
+		    sumidero += grafica.dijkstra(c.get(pares[i]),
+						 c.get(pares[i+1])).getLongitud();
+	    });
+	System.out.printf("  %-36s %10.3f ms  %6.2fx%n", "Grafica.dijkstra",
+			  base / consultas, 1.0);
+	long[] asentados = new long[1];
+	String[] nombres = { "GraficaCompacta.dijkstra",
+			     "dijkstraBidireccional", "aEstrella (Manhattan)" };
+	for(int k = 0; k < nombres.length; k++) {
+	    int algoritmo = k;
+	    asentados[0] = 0;
+	    double t = mide(() -> {
+		    asentados[0] = 0;
+		    for(int i = 0; i < pares.length; i += 2) {
+			Trayectoria<Integer> r = algoritmo == 0 ?
+			    c.dijkstra(pares[i], pares[i+1]) : algoritmo == 1 ?
+			    c.dijkstraBidireccional(pares[i], pares[i+1]) :
+			    c.aEstrella(pares[i], pares[i+1], manhattan);
+			asentados[0] += r.getAsentados();
+		    }
+		});
+	    System.out.printf("  %-36s %10.3f ms  %6.2fx  %10d asentados%n",
+			      nombres[k], t / consultas, base / t,
+			      asentados[0] / consultas);
+	}
+    }
+
+    /* Compara una matriz de distancias entre puntos aleatorios de una
+     * cuadrícula, calculada con Grafica.dijkstra, contra matrizDistancias de
+     * 1 a N hilos. */
+    private static void matriz(int lado, int puntos) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	encabezado("Matriz de distancias", grafica);
+	Random random = new Random(SEMILLA);
+	Lista<Integer> origenes = new Lista<Integer>();
+	Lista<Integer> destinos = new Lista<Integer>();
+	for(int i = 0; i < puntos; i++) {
+	    origenes.agrega(random.nextInt(lado * lado));
+	    destinos.agrega(random.nextInt(lado * lado));
+	}
+	double base = mide(() -> {
+		for(Integer o : origenes)
+		    for(Integer d : destinos)
+			sumidero += grafica.dijkstra(o, d).getLongitud();
+	    });
+	reporta("Grafica.dijkstra por par", base, base);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero +=
+			    grafica.matrizDistancias(origenes, destinos,
+						     hilos)[0][0]);
+	    reporta(String.format("matrizDistancias, %d hilo(s)", h), t, base);
+	}
+    }
+
+    /* Compara los algoritmos de árbol generador de peso mínimo en una
+     * gráfica aleatoria con n vértices y grado promedio 2 * grado. */
+    private static void arbol(int n, int grado) {
+	Grafica<Integer> grafica = graficaAleatoria(n, n * grado, true);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado("Árbol generador mínimo", grafica);
+	double base = mide(() -> sumidero += ArbolesGeneradores.prim(c).length);
+	reporta("Prim", base, base);
+	double t = mide(() -> sumidero += ArbolesGeneradores.kruskal(c).length);
+	reporta("Kruskal", t, base);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    t = mide(() -> sumidero += ArbolesGeneradores.boruvka(c, hilos).length);
+	    reporta(String.format("Borůvka, %d hilo(s)", h), t, base);
+	}
+    }
+
+    /* Mide la construcción de una gráfica dirigida acíclica aleatoria, su
+     * orden topológico y sus componentes fuertemente conexas. Los arcos van
+     * de menor a mayor en una permutación aleatoria de los vértices. */
+    private static void dag(int n, int m) {
+	Random random = new Random(SEMILLA);
+	int[] permutacion = new int[n];
+	for(int i = 0; i < n; i++) {
+	    int j = random.nextInt(i + 1);
+	    permutacion[i] = permutacion[j];
+	    permutacion[j] = i;
+	}
+	GraficaDirigida<Integer> grafica = new GraficaDirigida<Integer>();
+	long inicio = System.nanoTime();
+	for(int i = 0; i < n; i++)
+	    grafica.agrega(i);
+	for(int k = 0; k < m; k++) {
+	    int a = random.nextInt(n);
+	    int b = random.nextInt(n);
+	    if(a > b) {
+		int t = a;
+		a = b;
+		b = t;
+	    }
+	    if(a != b && !grafica.sonVecinos(permutacion[a], permutacion[b]))
+		grafica.conecta(permutacion[a], permutacion[b]);
+	}
+	double construccion = (System.nanoTime() - inicio) / 1e6;
+	System.out.printf("DAG: %d vértices, %d arcos, %d procesadores%n",
+			  grafica.getElementos(), grafica.getArcos(),
+			  Runtime.getRuntime().availableProcessors());
+	System.out.printf("  %-36s %10.3f ms  %10.0f arcos/s%n", "construcción",
+			  construccion, grafica.getArcos() / construccion * 1e3);
+	double base = mide(() -> sumidero += grafica.ordenTopologico()
+			   .getLongitud());
+	reporta("ordenTopologico", base, base);
+	double t = mide(() -> sumidero += grafica.invertida().ordenTopologico()
+			.getLongitud());
+	reporta("invertida().ordenTopologico", t, base);
+	t = mide(() -> sumidero += grafica.componentesFuertes().getLongitud());
+	reporta("componentesFuertes", t, base);
+    }
+
+    /* Escribe una lista de aristas aleatorias a un archivo temporal y
+     * compara leerla línea por línea con agrega y conecta contra
+     * CargadorGrafica, de 1 a N hilos. */
+    private static void carga(int n, int m) {
+	File archivo = null;
+	try {
+	    archivo = File.createTempFile("aristas", ".txt");
+	    Random random = new Random(SEMILLA);
+	    try(Writer w = new BufferedWriter(new FileWriter(archivo))) {
+		for(int k = 0; k < m; k++) {
+		    int a = random.nextInt(n);
+		    int b = random.nextInt(n);
+		    if(a != b)
+			w.write(a + " " + b + " " + (1 + random.nextInt(100)) +
+				"\n");
+		}
+	    }
+	    String ruta = archivo.getPath();
+	    System.out.printf("Carga: %d vértices, %d líneas, %d MB, " +
+			      "%d procesadores%n", n, m,
+			      archivo.length() >> 20,
+			      Runtime.getRuntime().availableProcessors());
+	    double base = mide(() -> sumidero += cargaLineas(ruta));
+	    reporta("agrega/conecta por línea", base, base);
+	    CargadorGrafica<Integer> cargador =
+		new CargadorGrafica<Integer>((e) -> Integer.valueOf(e));
+	    int procesadores = Runtime.getRuntime().availableProcessors();
+	    for(int h = 1; h <= procesadores; h++) {
+		int hilos = h;
+		double t = mide(() -> {
+			try {
+			    sumidero += cargador.carga(ruta, hilos).getAristas();
+			} catch(IOException ioe) {
+			    throw new RuntimeException(ioe);
+			}
+		    });
+		reporta(String.format("CargadorGrafica, %d hilo(s)", h),
+			t, base);
+		System.out.printf("  %-36s %10.0f aristas/s%n", "",
+				  cargador.getAristasPorSegundo());
+	    }
+	} catch(IOException ioe) {
+	    System.err.println("No se pudo escribir el archivo: " + ioe);
+	} finally {
+	    if(archivo != null)
+		archivo.delete();
+	}
+    }
+
+    /* Compara el arranque desde una lista de aristas en texto, con
+     * CargadorGrafica, contra abrir la misma gráfica guardada con
+     * GraficaMapeada. */
+    private static void mapeada(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, true);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado("Gráfica mapeada", grafica);
+	File texto = null;
+	File binario = null;
+	try {
+	    texto = File.createTempFile("aristas", ".txt");
+	    binario = File.createTempFile("grafica", ".edd");
+	    try(Writer w = new BufferedWriter(new FileWriter(texto))) {
+		for(int v = 0; v < c.getElementos(); v++)
+		    for(int k = 0; k < c.getGrado(v); k++)
+			if(v < c.getVecino(v, k))
+			    w.write(c.get(v) + " " + c.get(c.getVecino(v, k)) +
+				    " " + c.getPeso(v, k) + "\n");
+	    }
+	    String rt = texto.getPath();
+	    String rb = binario.getPath();
+	    double t = mide(() -> {
+		    try {
+			GraficaMapeada.guarda(grafica, rb);
+		    } catch(IOException ioe) {
+			throw new RuntimeException(ioe);
+		    }
+		});
+	    System.out.printf("  %-36s %10.3f ms  %6d MB%n", "guarda",
+			      t, binario.length() >> 20);
+	    CargadorGrafica<String> cargador =
+		new CargadorGrafica<String>((e) -> e);
+	    double base = mide(() -> {
+		    try {
+			sumidero += cargador.carga(rt).getAristas();
+		    } catch(IOException ioe) {
+			throw new RuntimeException(ioe);
+		    }
+		});
+	    reporta("CargadorGrafica (texto)", base, base);
+	    t = mide(() -> {
+		    try {
+			sumidero += GraficaMapeada.abre(rb).getAristas();
+		    } catch(IOException ioe) {
+			throw new RuntimeException(ioe);
+		    }
+		});
+	    reporta("GraficaMapeada.abre", t, base);
+	    GraficaMapeada mapeada = GraficaMapeada.abre(rb);
+	    t = mide(() -> {
+		    for(int v = 0; v < mapeada.getElementos(); v++)
+			for(int k = 0; k < mapeada.getGrado(v); k++)
+			    sumidero += mapeada.getVecino(v, k);
+		});
+	    reporta("recorrer todas las aristas mapeadas", t, base);
+	    t = mide(() -> sumidero += mapeada.grafica().getAristas());
+	    reporta("GraficaMapeada.grafica", t, base);
+	} catch(IOException ioe) {
+	    System.err.println("No se pudo escribir el archivo: " + ioe);
+	} finally {
+	    if(texto != null)
+		texto.delete();
+	    if(binario != null)
+		binario.delete();
+	}
+    }
+
+    /* Mide iteraciones por segundo de PageRank, de 1 a N hilos, con un
+     * número fijo de iteraciones. */
+    private static void pagerank(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, true);
+	encabezado("PageRank", grafica);
+	int iteraciones = 20;
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    PageRank<Integer> pr = new PageRank<Integer>(grafica);
+	    pr.setHilos(h);
+	    pr.setTolerancia(Double.MIN_VALUE);
+	    pr.setMaximoIteraciones(iteraciones);
+	    double t = mide(() -> sumidero += pr.rangos().length);
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("%d hilo(s), %.1f iteraciones/s", h,
+				  iteraciones * 1000 / t), t, base);
+	}
+    }
+
+    /* Mide la intermediación exacta de 1 a N hilos, y la aproximada con la
+     * décima parte de las fuentes; sin pesos usa BFS, con pesos Dijkstra. */
+    private static void intermediacion(int n, int m, boolean pesos) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, pesos);
+	encabezado(pesos ? "Intermediación (Dijkstra)" :
+		   "Intermediación (BFS)", grafica);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero += grafica.intermediacion(hilos)
+			    .getElementos());
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("exacta, %d hilo(s)", h), t, base);
+	}
+	Random random = new Random(SEMILLA);
+	double t = mide(() -> sumidero += grafica
+			.intermediacionAproximada(n / 10, random).getElementos());
+	reporta(String.format("aproximada, %d fuentes", n / 10), t, base);
+    }
+
+    /* Compara Dinic con empuje y reetiquetado en una gráfica aleatoria. */
+    private static void flujo(int n, int m) {
+	flujo(graficaAleatoria(n, m, true));
+    }
+
+    /* Compara Dinic con empuje y reetiquetado entre diez pares de vértices
+     * de la gráfica. */
+    private static void flujo(Grafica<Integer> grafica) {
+	encabezado("Flujo máximo", grafica);
+	int n = grafica.getElementos();
+	Random random = new Random(SEMILLA);
+	int[] pares = new int[20];
+	for(int i = 0; i < pares.length; i += 2) {
+	    pares[i] = random.nextInt(n);
+	    do {
+		pares[i+1] = random.nextInt(n);
+	    } while(pares[i+1] == pares[i]);
+	}
+	double[][] valores = new double[2][pares.length / 2];
+	double base = 0;
+	for(AlgoritmoFlujo algoritmo : AlgoritmoFlujo.values()) {
+	    double[] v = valores[algoritmo.ordinal()];
+	    double t = mide(() -> {
+		    for(int i = 0; i < pares.length; i += 2)
+			v[i/2] = grafica.flujoMaximo(pares[i], pares[i+1],
+						     algoritmo).getValor();
+		});
+	    if(algoritmo == AlgoritmoFlujo.DINIC)
+		base = t;
+	    reporta(algoritmo + ", por par", t / 10, base / 10);
+	}
+	for(int i = 0; i < valores[0].length; i++)
+	    if(Math.abs(valores[0][i] - valores[1][i]) >
+		1e-9 * Math.max(1, valores[0][i]))
+		System.out.printf("  ¡Valores distintos! %f %f%n",
+				  valores[0][i], valores[1][i]);
+    }
+
+    /* Mide el conteo de triángulos de 1 a N hilos, en aristas por
+     * segundo. */
+    private static void triangulos(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, false);
+	/* Cierra triángulos: conecta a cada vértice con un vecino de un
+	 * vecino. */
+	Random random = new Random(SEMILLA);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	for(int v = 0; v < n; v++) {
+	    int u = c.getVecino(v, random.nextInt(c.getGrado(v)));
+	    int w = c.getVecino(u, random.nextInt(c.getGrado(u)));
+	    if(w != v && !grafica.sonVecinos(v, w))
+		grafica.conecta(v, w);
+	}
+	encabezado("Triángulos", grafica);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	long total = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero += grafica.triangulos(hilos)
+			    .getTotal());
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("%d hilo(s), %.1f M aristas/s", h,
+				  grafica.getAristas() / t / 1000), t, base);
+	}
+	Triangulos<Integer> triangulos = grafica.triangulos();
+	System.out.printf("  %d triángulos, transitividad %.5f%n",
+			  triangulos.getTotal(), triangulos.getTransitividad());
+    }
+
+    /* Mide las k trayectorias mínimas entre pares aleatorios de una
+     * cuadrícula, de 1 a N hilos. */
+    private static void yen(int lado, int k) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado(String.format("Yen, k = %d", k), grafica);
+	Random random = new Random(SEMILLA);
+	int[] pares = new int[20];
+	for(int i = 0; i < pares.length; i++)
+	    pares[i] = random.nextInt(lado * lado);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> {
+		    for(int i = 0; i < pares.length; i += 2)
+			sumidero += c.kTrayectoriasMinimas(pares[i], pares[i+1],
+							   k, hilos).getLongitud();
+		});
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("%d hilo(s), por consulta", h), t / 10,
+		    base / 10);
+	}
+    }
+
+    /* Mide el preprocesamiento y el tamaño de la jerarquía de contracción
+     * de una cuadrícula, y compara sus consultas con Grafica.dijkstra y con
+     * Dijkstra sobre la gráfica compacta. */
+    private static void jerarquia(int lado, int consultas) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado("Jerarquía de contracción", grafica);
+	long inicio = System.nanoTime();
+	JerarquiaContraccion<Integer> jerarquia = grafica.jerarquiaContraccion();
+	double preprocesamiento = (System.nanoTime() - inicio) / 1e6;
+	int n = lado * lado;
+	int arcos = jerarquia.getArcos();
+	System.out.printf("  %-36s %10.3f ms%n", "preprocesamiento",
+			  preprocesamiento);
+	System.out.printf("  %-36s %10d arcos, %d atajos, %.1f MB%n", "índice",
+			  arcos, jerarquia.getAtajos(),
+			  (4.0 * (n + 1) + 16.0 * arcos) / (1 << 20));
+	Random random = new Random(SEMILLA);
+	int[] pares = new int[2 * consultas];
+	for(int i = 0; i < pares.length; i++)
+	    pares[i] = random.nextInt(n);
+	double base = mide(() -> {
+		for(int i = 0; i < pares.length; i += 2)
+		    sumidero += grafica.dijkstra(pares[i], pares[i+1]).getLongitud();
+	    });
+	System.out.printf("  %-36s %10.1f µs  %6.2fx%n", "Grafica.dijkstra",
+			  base * 1000 / consultas, 1.0);
+	String[] nombres = { "GraficaCompacta.dijkstra", "trayectoria",
+			     "distancia" };
+	long[] asentados = new long[1];
+	for(int k = 0; k < nombres.length; k++) {
+	    int consulta = k;
+	    double t = mide(() -> {
+		    asentados[0] = 0;
+		    for(int i = 0; i < pares.length; i += 2) {
+			if(consulta == 2) {
+			    sumidero += (long)jerarquia.distancia(pares[i],
+								  pares[i+1]);
+			    continue;
+			}
+			Trayectoria<Integer> r = consulta == 0 ?
+			    c.dijkstra(c.indice(pares[i]), c.indice(pares[i+1])) :
+			    jerarquia.trayectoria(pares[i], pares[i+1]);
+			asentados[0] += r.getAsentados();
+		    }
+		});
+	    System.out.printf("  %-36s %10.1f µs  %6.2fx", nombres[k],
+			      t * 1000 / consultas, base / t);
+	    if(consulta < 2)
+		System.out.printf("  %10d asentados", asentados[0] / consultas);
+	    System.out.println();
+	}
+    }
+
+    /* Mide el preprocesamiento de los puntos de referencia de una
+     * cuadrícula, de 1 a N hilos, y compara las consultas ALT con Dijkstra y
+     * con A* con la distancia Manhattan, en latencia y vértices asentados. */
+    private static void referencias(int lado, int k) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado(String.format("ALT, %d puntos de referencia", k), grafica);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> {
+		    sumidero += grafica.puntosReferencia(k,
+			SeleccionPuntosReferencia.LEJANOS, new Random(SEMILLA),
+			hilos).getPuntos().getLongitud();
+		});
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("preprocesamiento, %d hilo(s)", h), t, base);
+	}
+	int consultas = 200;
+	Random random = new Random(SEMILLA);
+	int[] pares = new int[2 * consultas];
+	for(int i = 0; i < pares.length; i++)
+	    pares[i] = random.nextInt(lado * lado);
+	BiFunction<Integer, Integer, Double> manhattan = (a, b) ->
+	    (double)(Math.abs(a % lado - b % lado) + Math.abs(a / lado - b / lado));
+	PuntosReferencia<Integer> lejanos =
+	    grafica.puntosReferencia(k, SeleccionPuntosReferencia.LEJANOS,
+				     new Random(SEMILLA), procesadores);
+	PuntosReferencia<Integer> evasion =
+	    grafica.puntosReferencia(k, SeleccionPuntosReferencia.EVASION,
+				     new Random(SEMILLA), procesadores);
+	String[] nombres = { "GraficaCompacta.dijkstra",
+			     "aEstrella (Manhattan)", "ALT (lejanos)",
+			     "ALT (evasión)" };
+	long[] asentados = new long[1];
+	double dijkstra = 0;
+	for(int a = 0; a < nombres.length; a++) {
+	    int algoritmo = a;
+	    double t = mide(() -> {
+		    asentados[0] = 0;
+		    for(int i = 0; i < pares.length; i += 2) {
+			int o = pares[i];
+			int d = pares[i+1];
+			Trayectoria<Integer> r = algoritmo == 0 ?
+			    c.dijkstra(c.indice(o), c.indice(d)) :
+			    algoritmo == 1 ?
+			    c.aEstrella(c.indice(o), c.indice(d), manhattan) :
+			    algoritmo == 2 ? lejanos.trayectoria(o, d) :
+			    evasion.trayectoria(o, d);
+			asentados[0] += r.getAsentados();
+		    }
+		});
+	    if(a == 0)
+		dijkstra = t;
+	    System.out.printf("  %-36s %10.1f µs  %6.2fx  %10d asentados%n",
+			      nombres[a], t * 1000 / consultas, dijkstra / t,
+			      asentados[0] / consultas);
+	}
+    }
+
+    /* Compara el costo de un cambio a la gráfica cuando unas trayectorias
+     * dinámicas lo reparan, contra repetir Dijkstra desde el origen después
+     * del cambio. */
+    private static void dinamicas(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, true);
+	GraficaCompacta<Integer> c = grafica.compacta();
+	encabezado("Trayectorias dinámicas", grafica);
+	Random random = new Random(SEMILLA);
+	int cambios = 1000;
+	int[] as = new int[cambios];
+	int[] bs = new int[cambios];
+	double[] pesos = new double[cambios];
+	for(int i = 0; i < cambios; i++) {
+	    int e = random.nextInt(c.destinos.length);
+	    as[i] = c.get(c.origen(e));
+	    bs[i] = c.get(c.destinos[e]);
+	    pesos[i] = c.pesos[e];
+	}
+	int recalculos = 5;
+	double base = mide(() -> {
+		for(int i = 0; i < recalculos; i++) {
+		    grafica.setPeso(as[i], bs[i], 1 + random.nextDouble() * 99);
+		    sumidero += grafica.dijkstraDesde(0).getOrigen();
+		}
+	    }) / recalculos;
+	reporta("setPeso + dijkstraDesde, por cambio", base, base);
+	TrayectoriasDinamicas<Integer> dinamicas =
+	    grafica.trayectoriasDinamicas(0);
+	String[] nombres = { "setPeso aleatorio", "desconecta + conecta" };
+	long[] reparados = new long[1];
+	for(int k = 0; k < nombres.length; k++) {
+	    int tipo = k;
+	    double t = mide(() -> {
+		    reparados[0] = 0;
+		    for(int i = 0; i < cambios; i++) {
+			if(tipo == 0) {
+			    grafica.setPeso(as[i], bs[i],
+					    1 + random.nextDouble() * 99);
+			    reparados[0] += dinamicas.reparados;
+			    continue;
+			}
+			grafica.desconecta(as[i], bs[i]);
+			reparados[0] += dinamicas.reparados;
+			grafica.conecta(as[i], bs[i], pesos[i]);
+			reparados[0] += dinamicas.reparados;
+		    }
+		}) / cambios;
+	    System.out.printf("  %-36s %10.3f ms  %6.2fx  %10d reparados%n",
+			      nombres[k] + ", por cambio", t, base / t,
+			      reparados[0] / cambios);
+	}
+	dinamicas.libera();
+    }
+
+    /* Compara consultas repetidas de Dijkstra en una cuadrícula sin caché,
+     * con caché, y con caché y un cambio de peso cada cien consultas; para
+     * las dos con caché reporta la tasa de aciertos y las latencias. */
+    private static void cache(int lado, int consultas) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	encabezado("Caché de trayectorias", grafica);
+	int n = grafica.getElementos();
+	int distintas = Math.max(1, consultas / 20);
+	Random random = new Random(SEMILLA);
+	int[] origenes = new int[distintas];
+	int[] destinos = new int[distintas];
+	for(int i = 0; i < distintas; i++) {
+	    origenes[i] = random.nextInt(n);
+	    destinos[i] = random.nextInt(n);
+	}
+	int[] orden = new int[consultas];
+	for(int i = 0; i < consultas; i++)
+	    orden[i] = random.nextInt(distintas);
+	double base = mide(() -> {
+		for(int i = 0; i < consultas; i++)
+		    sumidero += grafica.dijkstra(origenes[orden[i]],
+						 destinos[orden[i]]).getLongitud();
+	    });
+	reporta("dijkstra sin caché", base, base);
+	String[] nombres = { "dijkstra con caché",
+			     "con caché, un cambio cada 100" };
+	for(int k = 0; k < nombres.length; k++) {
+	    int cada = k == 0 ? Integer.MAX_VALUE : 100;
+	    double t = mide(() -> {
+		    grafica.activaCache(distintas);
+		    for(int i = 0; i < consultas; i++) {
+			if(i % cada == cada - 1)
+			    grafica.setPeso(lado * (lado / 2), lado * (lado / 2) + 1,
+					    1 + random.nextDouble() * 9);
+			sumidero += grafica.dijkstra(origenes[orden[i]],
+						     destinos[orden[i]]).getLongitud();
+		    }
+		});
+	    reporta(nombres[k], t, base);
+	    CacheTrayectorias<Integer> cache = grafica.getCache();
+	    System.out.printf("    %5.1f%% aciertos, %d invalidaciones, " +
+			      "%.1f µs por acierto, %.1f µs por fallo%n",
+			      cache.getTasaAciertos() * 100,
+			      cache.getInvalidaciones(),
+			      cache.getLatenciaAciertos() / 1000,
+			      cache.getLatenciaFallos() / 1000);
+	}
+	grafica.desactivaCache();
+    }
+
+    /* Mide el método de Louvain con distintos números de hilos sobre una
+     * gráfica con comunidades plantadas: grupos de cien vértices, con nueve
+     * de cada diez aristas dentro de un grupo. Con los conteos por omisión
+     * (un millón de vértices) hace falta ejecutarlo con -Xmx4g. */
+    private static void comunidades(int n, int m) {
+	Random random = new Random(SEMILLA);
+	Grafica<Integer> grafica = new Grafica<Integer>(n);
+	int grupo = 100;
+	for(int i = 0; i < n; i++)
+	    grafica.agrega(i);
+	for(int k = 0; k < m; k++) {
+	    int a = random.nextInt(n);
+	    int b = random.nextInt(n);
+	    if(random.nextInt(10) != 0)
+		b = Math.min(n - 1, a / grupo * grupo + random.nextInt(grupo));
+	    if(a != b && !grafica.sonVecinos(a, b))
+		grafica.conecta(a, b);
+	}
+	grafica.compacta();
+	encabezado("Comunidades", grafica);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= procesadores; h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero += grafica.comunidades(1, hilos)
+			    .getNumeroComunidades());
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("%d hilo(s), %.1f M aristas/s", h,
+				  grafica.getAristas() / t / 1000), t, base);
+	}
+	Comunidades<Integer> comunidades = grafica.comunidades();
+	System.out.printf("  %d comunidades (%d plantadas), modularidad %.4f, " +
+			  "%d niveles%n", comunidades.getNumeroComunidades(),
+			  (n + grupo - 1) / grupo, comunidades.getModularidad(),
+			  comunidades.getNiveles());
+    }
+
+    /* Mide BFS, Dijkstra y PageRank (con un hilo) sobre la representación
+     * compacta de una cuadrícula revuelta con cada orden de vértices; la
+     * brecha es el promedio de la diferencia de índices entre los extremos
+     * de cada arco. */
+    private static void ordenes(int lado) {
+	Grafica<Integer> grafica = cuadriculaRevuelta(lado);
+	encabezado("Órdenes de vértices", grafica);
+	int origen = grafica.compacta().get(0);
+	double[] bases = new double[3];
+	for(OrdenVertices orden : OrdenVertices.values()) {
+	    long t0 = System.nanoTime();
+	    GraficaCompacta<Integer> c = grafica.compacta(orden);
+	    double construccion = (System.nanoTime() - t0) / 1e6;
+	    double brecha = 0;
+	    for(int v = 0; v < c.getElementos(); v++)
+		for(int e = c.inicios[v]; e < c.inicios[v+1]; e++)
+		    brecha += Math.abs(c.destinos[e] - v);
+	    brecha /= c.destinos.length;
+	    int s = c.indice(origen);
+	    PageRank<Integer> pageRank = new PageRank<Integer>(c);
+	    pageRank.setHilos(1);
+	    double[] t = {
+		mide(() -> sumidero += c.bfsParalelo(s, 1)[0]),
+		mide(() -> sumidero += c.dijkstraDesde(s).getOrigen()),
+		mide(() -> sumidero += (int)pageRank.rangos()[0])
+	    };
+	    if(orden == OrdenVertices.ITERACION)
+		bases = t;
+	    System.out.printf("  %s: construcción %.1f ms, brecha %.1f%n",
+			      orden, construccion, brecha);
+	    String[] nombres = { "bfsParalelo", "dijkstraDesde", "pageRank" };
+	    for(int i = 0; i < t.length; i++)
+		reporta("  " + nombres[i], t[i], bases[i]);
+	}
+    }
+
+    /* Mide el tamaño de la representación comprimida de una cuadrícula
+     * revuelta y de una gráfica aleatoria con distintos órdenes y ventanas,
+     * contra la representación compacta sin pesos; compara la BFS sobre la
+     * comprimida con una BFS secuencial sobre la compacta con el mismo
+     * orden. */
+    private static void comprimida(int lado, int n, int m) {
+	comprime("Compresión, cuadrícula revuelta", cuadriculaRevuelta(lado));
+	comprime("Compresión, gráfica aleatoria",
+		 graficaAleatoria(n, m, false));
+    }
+
+    /* Comprime la gráfica con distintos órdenes y ventanas y reporta. */
+    private static void comprime(String nombre, Grafica<Integer> grafica) {
+	encabezado(nombre, grafica);
+	OrdenVertices[] ordenes = { OrdenVertices.ITERACION, OrdenVertices.BFS,
+				    OrdenVertices.BFS,
+				    OrdenVertices.CUTHILL_MCKEE };
+	int[] ventanas = { 0, 0, 7, 7 };
+	int origen = grafica.compacta().get(0);
+	long bytesCsr = 4L * (grafica.getElementos() + 1) +
+	    8L * grafica.getAristas();
+	System.out.printf("  compacta sin pesos: %.1f MB%n", bytesCsr / 1e6);
+	for(int i = 0; i < ordenes.length; i++) {
+	    GraficaCompacta<Integer> compacta = grafica.compacta(ordenes[i]);
+	    long t0 = System.nanoTime();
+	    GraficaComprimida<Integer> c = grafica.comprimida(ordenes[i],
+							   ventanas[i]);
+	    double construccion = (System.nanoTime() - t0) / 1e6;
+	    long total = c.getBytes() + 4L * c.getElementos();
+	    System.out.printf("  %s, ventana %d: %.2f bits/arco, %.1f MB " +
+			      "(%.2fx), construcción %.0f ms%n", ordenes[i],
+			      ventanas[i], c.getBitsPorArco(), total / 1e6,
+			      (double)bytesCsr / total, construccion);
+	    int s = compacta.indice(origen);
+	    double base = mide(() -> sumidero += bfsCompacta(compacta, s)[0]);
+	    int sc = c.indice(origen);
+	    reporta("  bfs compacta", base, base);
+	    reporta("  bfs comprimida", mide(() -> sumidero += c.bfs(sc)[0]),
+		    base);
+	}
+    }
+
+    /* Una BFS secuencial sobre la representación compacta. */
+    private static int[] bfsCompacta(GraficaCompacta<Integer> c, int origen) {
+	int n = c.getElementos();
+	int[] niveles = new int[n];
+	Arrays.fill(niveles, -1);
+	int[] cola = new int[n];
+	niveles[origen] = 0;
+	cola[0] = origen;
+	int fin = 1;
+	for(int i = 0; i < fin; i++) {
+	    int v = cola[i];
+	    for(int e = c.inicios[v]; e < c.inicios[v+1]; e++)
+		if(niveles[c.destinos[e]] == -1) {
+		    niveles[c.destinos[e]] = niveles[v] + 1;
+		    cola[fin++] = c.destinos[e];
+		}
+	}
+	return niveles;
+    }
+
+    /* Mide la descomposición en núcleos de una gráfica aleatoria con
+     * distintos números de hilos; con un hilo se usa el algoritmo de
+     * Batagelj y Zaversnik, que es la base. */
+    private static void nucleos(int n, int m) {
+	Grafica<Integer> grafica = graficaAleatoria(n, m, false);
+	grafica.compacta();
+	encabezado("Núcleos", grafica);
+	int procesadores = Runtime.getRuntime().availableProcessors();
+	double base = 0;
+	for(int h = 1; h <= Math.max(2, procesadores); h++) {
+	    int hilos = h;
+	    double t = mide(() -> sumidero += grafica.nucleos(hilos)
+			    .getDegeneracion());
+	    if(h == 1)
+		base = t;
+	    reporta(String.format("%d hilo(s), %.1f M aristas/s", h,
+				  grafica.getAristas() / t / 1000), t, base);
+	}
+	Nucleos<Integer> nucleos = grafica.nucleos();
+	int degeneracion = nucleos.getDegeneracion();
+	int[] conteos = new int[degeneracion + 1];
+	for(int c : nucleos.getNucleos())
+	    conteos[c]++;
+	for(int k = degeneracion - 1; k >= 0; k--)
+	    conteos[k] += conteos[k+1];
+	System.out.printf("  degeneración %d%n", degeneracion);
+	for(int k = 1; k <= degeneracion; k++)
+	    System.out.printf("  %d-núcleo: %d vértices%n", k, conteos[k]);
+	Grafica<Integer> nucleo = nucleos.nucleo(degeneracion);
+	System.out.printf("  el %d-núcleo tiene %d aristas%n", degeneracion,
+			  nucleo.getAristas());
+    }
+
+    /* Mide el algoritmo de Hopcroft y Karp sobre una gráfica bipartita
+     * aleatoria (pares contra impares), con los lados dados y obtenidos
+     * coloreando, y sobre una trayectoria con tantos vértices donde el
+     * apareamiento voraz deja una sola trayectoria aumentante que la recorre
+     * completa. */
+    private static void apareamiento(int n, int m) {
+	Random random = new Random(SEMILLA);
+	Grafica<Integer> grafica = new Grafica<Integer>(n);
+	Lista<Integer> pares = new Lista<Integer>();
+	for(int i = 0; i < n; i++) {
+	    grafica.agrega(i);
+	    if(i % 2 == 0)
+		pares.agrega(i);
+	}
+	for(int k = 0; k < m; k++) {
+	    int a = random.nextInt((n + 1) / 2) * 2;
+	    int b = random.nextInt(n / 2) * 2 + 1;
+	    if(!grafica.sonVecinos(a, b))
+		grafica.conecta(a, b);
+	}
+	grafica.compacta();
+	encabezado("Apareamiento", grafica);
+	double base = mide(() -> sumidero += grafica.apareamiento(pares)
+			   .getCardinalidad());
+	reporta(String.format("lados dados, %.1f M aristas/s",
+			      grafica.getAristas() / base / 1000), base, base);
+	double t = mide(() -> sumidero += grafica.apareamiento()
+			.getCardinalidad());
+	reporta("coloreando", t, base);
+	Apareamiento<Integer> apareamiento = grafica.apareamiento(pares);
+	System.out.printf("  %d parejas, %d fases%n",
+			  apareamiento.getCardinalidad(), apareamiento.getFases());
+	Grafica<Integer> trayectoria = new Grafica<Integer>(n);
+	Lista<Integer> impares = new Lista<Integer>();
+	for(int i = 0; i < n; i++) {
+	    trayectoria.agrega(i);
+	    if(i % 2 == 1)
+		impares.agrega(i);
+	}
+	for(int i = n - 2; i >= 0; i--)
+	    trayectoria.conecta(i, i+1);
+	trayectoria.compacta();
+	encabezado("Apareamiento, trayectoria", trayectoria);
+	t = mide(() -> sumidero += trayectoria.apareamiento(impares)
+		 .getCardinalidad());
+	reporta("lados dados", t, t);
+	apareamiento = trayectoria.apareamiento(impares);
+	System.out.printf("  %d parejas, %d fases%n",
+			  apareamiento.getCardinalidad(), apareamiento.getFases());
+    }
+
+    /* Busca en una cuadrícula un destino a cinco pasos de cada origen: con
+     * bfs (que recorre toda la gráfica aunque lo encuentre pronto) y con
+     * recorridoAnchura, deteniéndose al encontrarlo; mide también las
+     * vecindades de tres saltos y los primeros mil vértices por DFS. */
+    private static void recorridos(int lado, int consultas) {
+	Grafica<Integer> grafica = cuadricula(lado);
+	encabezado("Recorridos", grafica);
+	Random random = new Random(SEMILLA);
+	int[] origenes = new int[consultas];
+	int[] destinos = new int[consultas];
+	for(int i = 0; i < consultas; i++) {
+	    int x = random.nextInt(lado - 5);
+	    int y = random.nextInt(lado - 5);
+	    origenes[i] = y * lado + x;
+	    destinos[i] = (y + 2) * lado + x + 3;
+	}
+	double base = mide(() -> {
+		for(int i = 0; i < consultas; i++) {
+		    int destino = destinos[i];
+		    grafica.bfs(origenes[i], (v) -> {
+			    if(v.get() == destino)
+				sumidero++;
+			});
+		}
+	    });
+	reporta("bfs", base, base);
+	long[] visitados = new long[1];
+	double t = mide(() -> {
+		visitados[0] = 0;
+		for(int i = 0; i < consultas; i++) {
+		    Iterator<VerticeGrafica<Integer>> iterador =
+			grafica.recorridoAnchura(origenes[i]);
+		    while(iterador.hasNext()) {
+			visitados[0]++;
+			if(iterador.next().get() == destinos[i]) {
+			    sumidero++;
+			    break;
+			}
+		    }
+		}
+	    });
+	reporta(String.format("recorridoAnchura (%d vértices)",
+			      visitados[0] / consultas), t, base);
+	t = mide(() -> {
+		visitados[0] = 0;
+		for(int i = 0; i < consultas; i++) {
+		    Iterator<VerticeGrafica<Integer>> iterador =
+			grafica.recorridoAnchura(origenes[i], 3);
+		    while(iterador.hasNext()) {
+			iterador.next();
+			visitados[0]++;
+		    }
+		}
+	    });
+	reporta(String.format("vecindad de 3 saltos (%d vértices)",
+			      visitados[0] / consultas), t, base);
+	t = mide(() -> {
+		for(int i = 0; i < consultas; i++) {
+		    Iterator<VerticeGrafica<Integer>> iterador =
+			grafica.recorridoProfundidad(origenes[i]);
+		    for(int k = 0; k < 1000 && iterador.hasNext(); k++)
+			sumidero += iterador.next().get();
+		}
+	    });
+	reporta("recorridoProfundidad, 1000 vértices", t, base);
+    }
+
+    /* Carga el archivo con un BufferedReader, agrega y conecta, y regresa
+     * el número de aristas. */
+    private static int cargaLineas(String ruta) {
+	Grafica<Integer> grafica = new Grafica<Integer>();
+	try(BufferedReader r = new BufferedReader(new FileReader(ruta))) {
+	    String linea;
+	    while((linea = r.readLine()) != null) {
+		String[] campos = linea.split(" ");
+		Integer a = Integer.valueOf(campos[0]);
+		Integer b = Integer.valueOf(campos[1]);
+		if(!grafica.contiene(a))
+		    grafica.agrega(a);
+		if(!grafica.contiene(b))
+		    grafica.agrega(b);
+		if(!grafica.sonVecinos(a, b))
+		    grafica.conecta(a, b, Double.parseDouble(campos[2]));
+	    }
+	} catch(IOException ioe) {
+	    throw new RuntimeException(ioe);
+	}
+	return grafica.getAristas();
+    }
+
+    /* Genera una cuadrícula de lado x lado, parecida a una red de calles:
+     * cada vértice se conecta con sus vecinos horizontales y verticales, con
+     * pesos reales entre 1 y 10. */
+    private static Grafica<Integer> cuadricula(int lado) {
+	Random random = new Random(SEMILLA);
+	Grafica<Integer> grafica = new Grafica<Integer>();
+	for(int i = 0; i < lado * lado; i++)
+	    grafica.agrega(i);
+	for(int y = 0; y < lado; y++) {
+	    for(int x = 0; x < lado; x++) {
+		int v = y * lado + x;
+		if(x + 1 < lado)
+		    grafica.conecta(v, v + 1, 1 + random.nextDouble() * 9);
+		if(y + 1 < lado)
+		    grafica.conecta(v, v + lado, 1 + random.nextDouble() * 9);
+	    }
+	}
+	return grafica;
+    }
+
+    /* Genera una cuadrícula de lado x lado como la de cuadricula, pero con
+     * los elementos revueltos, para que el orden de iteración no tenga nada
+     * que ver con la geometría. */
+    private static Grafica<Integer> cuadriculaRevuelta(int lado) {
+	Random random = new Random(SEMILLA);
+	int n = lado * lado;
+	int[] etiquetas = new int[n];
+	for(int i = 0; i < n; i++) {
+	    int j = random.nextInt(i + 1);
+	    etiquetas[i] = etiquetas[j];
+	    etiquetas[j] = i;
+	}
+	Grafica<Integer> grafica = new Grafica<Integer>(n);
+	for(int i = 0; i < n; i++)
+	    grafica.agrega(i);
+	for(int v = 0; v < n; v++) {
+	    if(v % lado + 1 < lado)
+		grafica.conecta(etiquetas[v], etiquetas[v + 1],
+				1 + random.nextDouble() * 9);
+	    if(v + lado < n)
+		grafica.conecta(etiquetas[v], etiquetas[v + lado],
+				1 + random.nextDouble() * 9);
+	}
+	return grafica;
+    }
+
+    /* Genera una gráfica conexa con n vértices y (aproximadamente) m aristas;
+     * los pesos son aleatorios si se pide, o 1 en otro caso. */
+    private static Grafica<Integer> graficaAleatoria(int n, int m,
+						     boolean pesos) {
+	Random random = new Random(SEMILLA);
+	Grafica<Integer> grafica = new Grafica<Integer>();
+	for(int i = 0; i < n; i++)
+	    grafica.agrega(i);
+	for(int i = 1; i < n; i++)
+	    grafica.conecta(random.nextInt(i), i, peso(random, pesos));
+	for(int k = n - 1; k < m; k++) {
+	    int a = random.nextInt(n);
+	    int b = random.nextInt(n);
+	    if(a != b && !grafica.sonVecinos(a, b))
+		grafica.conecta(a, b, peso(random, pesos));
+	}
+	return grafica;
+    }
+
+    /* Regresa un peso aleatorio entre 1 y 100, o 1. */
+    private static double peso(Random random, boolean pesos) {
+	return pesos ? 1 + random.nextDouble() * 99 : 1;
+    }
+
+    /* Regresa la mejor de varias mediciones, en milisegundos. */
+    private static double mide(Runnable medicion) {
+	medicion.run();
+	long mejor = Long.MAX_VALUE;
+	for(int i = 0; i < REPETICIONES; i++) {
+	    long t = System.nanoTime();
+	    medicion.run();
+	    mejor = Math.min(mejor, System.nanoTime() - t);
+	}
+	return mejor / 1e6;
+    }
+
+    /* Imprime el encabezado de una medición. */
+    private static void encabezado(String nombre, Grafica<?> grafica) {
+	System.out.printf("%s: %d vértices, %d aristas, %d procesadores%n",
+			  nombre, grafica.getElementos(),
+			  grafica.getAristas(),
+			  Runtime.getRuntime().availableProcessors());
+    }
+
+    /* Imprime una medición y su aceleración respecto a la base. */
+    private static void reporta(String nombre, double ms, double base) {
+	System.out.printf("  %-36s %10.3f ms  %6.2fx%n", nombre, ms, base / ms);
+    }
+
+    /* Regresa el i-ésimo argumento como entero, o el valor por omisión. */
+    private static int entero(String[] args, int i, int omision) {
+	return args.length > i ? Integer.parseInt(args[i]) : omision;
+    }
+}
@@ -0,0 +1,13 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las distintas maneras de escoger los puntos de
+ * referencia de {@link PuntosReferencia}.
+ */
+public enum SeleccionPuntosReferencia {
+    /** Cada punto es el vértice más lejano de los puntos anteriores. */
+    LEJANOS,
+    /** Cada punto es la hoja de la rama peor cubierta de un árbol de
+     *  trayectorias desde una raíz aleatoria. */
+    EVASION;
+}
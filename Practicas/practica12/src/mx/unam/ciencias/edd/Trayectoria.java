@@ -0,0 +1,179 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Clase para trayectorias en gráficas. Una trayectoria es una sucesión de
+ * elementos, cada uno vecino del siguiente, junto con su peso total. Las
+ * trayectorias vacías (entre elementos que no se conectan) tienen peso
+ * {@link Double#POSITIVE_INFINITY}. Las trayectorias no cambian una vez
+ * construidas.
+ */
+public class Trayectoria<T> implements Iterable<T> {
+
+    /* Clase privada para iteradores de trayectorias. */
+    private class Iterador implements Iterator<T> {
+
+	/* El índice del siguiente elemento. */
+	private int indice;
+
+	/* Nos dice si hay un siguiente elemento. */
+	@Override public boolean hasNext() {
+	    return indice < elementos.length;
+	}
+
+	/* Regresa el siguiente elemento. */
+	@Override public T next() {
+	    if(!hasNext())
+		throw new NoSuchElementException("No hay siguiente");
+	    return elementos[indice++];
+	}
+    }
+
+    /* Los elementos de la trayectoria. */
+    private T[] elementos;
+    /* El peso de la trayectoria. */
+    private double peso;
+    /* Cuántos vértices asentó la búsqueda que encontró la trayectoria. */
+    private int asentados;
+
+    /* Construye una trayectoria con los elementos, el peso y los vértices
+     * asentados recibidos; el arreglo no se copia. */
+    Trayectoria(T[] elementos, double peso, int asentados) {
+	this.elementos = elementos;
+	this.peso = peso;
+	this.asentados = asentados;
+    }
+
+    /* Construye una trayectoria vacía. */
+    static <T> Trayectoria<T> vacia(int asentados) {
+	@SuppressWarnings("unchecked") T[] elementos = (T[])new Object[0];
+	return new Trayectoria<T>(elementos, Double.POSITIVE_INFINITY, asentados);
+    }
+
+    /* Construye la trayectoria que termina en el destino, siguiendo los
+     * vértices anteriores de una búsqueda sobre la gráfica compacta. */
+    static <T> Trayectoria<T> reconstruye(GraficaCompacta<T> grafica,
+					  int[] anteriores, int destino,
+					  double peso, int asentados) {
+	int n = 0;
+	for(int v = destino; v != -1; v = anteriores[v])
+	    n++;
+	@SuppressWarnings("unchecked") T[] elementos = (T[])new Object[n];
+	for(int v = destino; v != -1; v = anteriores[v])
+	    elementos[--n] = grafica.get(v);
+	return new Trayectoria<T>(elementos, peso, asentados);
+    }
+
+    /**
+     * Regresa el número de elementos en la trayectoria.
+     * @return el número de elementos en la trayectoria.
+     */
+    public int getLongitud() {
+	return elementos.length;
+    }
+
+    /**
+     * Nos dice si la trayectoria es vacía; las trayectorias entre elementos
+     * en componentes conexas distintas son vacías.
+     * @return <code>true</code> si la trayectoria es vacía,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esVacia() {
+	return elementos.length == 0;
+    }
+
+    /**
+     * Regresa el <i>i</i>-ésimo elemento de la trayectoria.
+     * @param i el índice del elemento.
+     * @return el <i>i</i>-ésimo elemento de la trayectoria.
+     * @throws ExcepcionIndiceInvalido si el índice es inválido.
+     */
+    public T get(int i) {
+	if(i < 0 || i >= elementos.length)
+	    throw new ExcepcionIndiceInvalido("Índice inválido");
+	return elementos[i];
+    }
+
+    /**
+     * Regresa el peso de la trayectoria: la suma de los pesos de sus
+     * aristas.
+     * @return el peso de la trayectoria.
+     */
+    public double getPeso() {
+	return peso;
+    }
+
+    /**
+     * Regresa cuántos vértices asentó (sacó de su montículo) la búsqueda que
+     * encontró la trayectoria; es una medida del trabajo que costó
+     * encontrarla. Las trayectorias que no salen de una búsqueda, como las
+     * de {@link TrayectoriasMinimas}, tienen cero vértices asentados.
+     * @return cuántos vértices asentó la búsqueda.
+     */
+    public int getAsentados() {
+	return asentados;
+    }
+
+    /**
+     * Regresa una lista con los elementos de la trayectoria.
+     * @return una lista con los elementos de la trayectoria.
+     */
+    public Lista<T> lista() {
+	Lista<T> lista = new Lista<T>();
+	for(T e : elementos)
+	    lista.agrega(e);
+	return lista;
+    }
+
+    /**
+     * Regresa una representación en cadena de la trayectoria.
+     * @return una representación en cadena de la trayectoria.
+     */
+    @Override public String toString() {
+	String s = "[";
+	for(int i = 0; i < elementos.length; i++)
+	    s += (i == 0 ? "" : ", ") + elementos[i];
+	return s + "]: " + peso;
+    }
+
+    /**
+     * Nos dice si la trayectoria es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <code>true</code> si el objeto es una trayectoria con los
+     *         mismos elementos en el mismo orden y el mismo peso;
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+	if(o == null || getClass() != o.getClass())
+	    return false;
+	@SuppressWarnings("unchecked") Trayectoria<T> t = (Trayectoria<T>)o;
+	if(t.elementos.length != elementos.length || t.peso != peso)
+	    return false;
+	for(int i = 0; i < elementos.length; i++)
+	    if(!elementos[i].equals(t.elementos[i]))
+		return false;
+	return true;
+    }
+
+    /**
+     * Regresa una dispersión de la trayectoria, consistente con {@link
+     * #equals}.
+     * @return una dispersión de los elementos y el peso de la trayectoria.
+     */
+    @Override public int hashCode() {
+	/* Cero y menos cero son iguales para equals. */
+	double p = peso == 0 ? 0 : peso;
+	return Arrays.hashCode(elementos) * 31 + Double.hashCode(p);
+    }
+
+    /**
+     * Regresa un iterador para recorrer la trayectoria del origen al destino.
+     * @return un iterador para recorrer la trayectoria.
+     */
+    @Override public Iterator<T> iterator() {
+	return new Iterador();
+    }
+}
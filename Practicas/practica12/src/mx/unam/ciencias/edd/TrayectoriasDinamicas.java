@@ -0,0 +1,426 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para trayectorias mínimas desde un origen que se mantienen al
+ * día mientras la gráfica cambia. A diferencia de {@link
+ * TrayectoriasMinimas}, que describe a la gráfica como era al calcularlas,
+ * la estructura queda registrada en su {@link Grafica}, y cada llamada a
+ * {@link Grafica#conecta}, {@link Grafica#desconecta}, {@link
+ * Grafica#setPeso}, {@link Grafica#agrega} o {@link Grafica#elimina} repara
+ * el árbol de trayectorias mínimas en lugar de repetir Dijkstra.</p>
+ *
+ * <p>Las reparaciones siguen a Ramalingam y Reps. Si una arista se agrega o
+ * se aligera y acorta la distancia a uno de sus extremos, una búsqueda de
+ * Dijkstra que empieza en ese extremo propaga la mejora, y sólo avanza por
+ * los vértices que mejoran. Si una arista del árbol se quita o se hace más
+ * pesada, los únicos vértices afectados son los del subárbol que colgaba de
+ * ella: cada uno recibe como distancia tentativa la mejor que le ofrecen sus
+ * vecinos fuera del subárbol, y un Dijkstra restringido al subárbol termina
+ * de repararlo. Los cambios en aristas fuera del árbol que no acortan nada
+ * no cuestan más que actualizar la vecindad.</p>
+ *
+ * <p>La estructura guarda su propia copia de las vecindades, numeradas con
+ * índices, así que cada actualización cuesta lo que cuestan los vértices
+ * afectados. Mientras esté registrada, la gráfica la actualiza en cada
+ * cambio; {@link #libera} la desregistra.</p>
+ */
+public class TrayectoriasDinamicas<T> {
+
+    /* La gráfica. */
+    private Grafica<T> grafica;
+    /* El índice del origen. */
+    private int origen;
+    /* El índice de cada elemento. */
+    private Diccionario<T, Integer> indices;
+    /* El elemento de cada índice; null si se eliminó de la gráfica. */
+    private T[] elementos;
+    /* El número de índices usados. */
+    private int n;
+    /* Los índices de los elementos eliminados, para reutilizarlos. */
+    private Pila<Integer> libres;
+    /* Los vecinos de cada vértice. */
+    private int[][] vecinos;
+    /* Los pesos de las aristas a los vecinos de cada vértice. */
+    private double[][] pesos;
+    /* El número de vecinos de cada vértice. */
+    private int[] grados;
+    /* La distancia del origen a cada vértice. */
+    private double[] distancias;
+    /* El vértice anterior a cada vértice en el árbol; -1 si no tiene. */
+    private int[] anteriores;
+    /* Si cada vértice está en el subárbol que se está reparando. */
+    private boolean[] afectados;
+    /* Los indexables de los vértices en el montículo de la reparación. */
+    private Indexable<Integer>[] nodos;
+    /* El número de vértices que tocó la última reparación. */
+    int reparados;
+
+    /* Construye las trayectorias mínimas desde el origen sobre la gráfica
+     * compacta, y las mantiene al día con los cambios de la gráfica. */
+    TrayectoriasDinamicas(Grafica<T> grafica, GraficaCompacta<T> compacta,
+			  int origen) {
+	this.grafica = grafica;
+	this.origen = origen;
+	n = compacta.getElementos();
+	indices = new Diccionario<T, Integer>(n * 2);
+	libres = new Pila<Integer>();
+	elementos = nuevoArreglo(n);
+	vecinos = new int[n][];
+	pesos = new double[n][];
+	grados = new int[n];
+	int[] inicios = compacta.inicios;
+	for(int v = 0; v < n; v++) {
+	    elementos[v] = compacta.get(v);
+	    indices.agrega(elementos[v], v);
+	    vecinos[v] = Arrays.copyOfRange(compacta.destinos, inicios[v],
+					    inicios[v+1]);
+	    pesos[v] = Arrays.copyOfRange(compacta.pesos, inicios[v],
+					  inicios[v+1]);
+	    grados[v] = vecinos[v].length;
+	}
+	BusquedaDijkstra busqueda = new BusquedaDijkstra(compacta, origen);
+	busqueda.completa();
+	distancias = busqueda.distancias;
+	anteriores = busqueda.anteriores;
+	afectados = new boolean[n];
+	nodos = nuevoIndexables(n);
+    }
+
+    /* Truco para crear arreglos genéricos. */
+    @SuppressWarnings("unchecked") private T[] nuevoArreglo(int n) {
+	return (T[])new Object[n];
+    }
+
+    /* Truco para crear arreglos genéricos de indexables. */
+    @SuppressWarnings("unchecked") private Indexable<Integer>[]
+    nuevoIndexables(int n) {
+	return (Indexable<Integer>[])new Indexable[n];
+    }
+
+    /**
+     * Regresa el elemento de origen.
+     * @return el elemento de origen.
+     * @throws IllegalStateException si el origen se eliminó de la gráfica.
+     */
+    public T getOrigen() {
+	revisaOrigen();
+	return elementos[origen];
+    }
+
+    /**
+     * Regresa la distancia del origen al destino en la gráfica actual.
+     * @param destino el elemento de destino.
+     * @return la distancia del origen al destino, o {@link
+     *         Double#POSITIVE_INFINITY} si el destino no es alcanzable.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     * @throws IllegalStateException si el origen se eliminó de la gráfica.
+     */
+    public double getDistancia(T destino) {
+	revisaOrigen();
+	return distancias[indice(destino)];
+    }
+
+    /**
+     * Nos dice si el destino es alcanzable desde el origen en la gráfica
+     * actual.
+     * @param destino el elemento de destino.
+     * @return <code>true</code> si el destino está en la misma componente
+     *         conexa que el origen, <code>false</code> en otro caso.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     * @throws IllegalStateException si el origen se eliminó de la gráfica.
+     */
+    public boolean esAlcanzable(T destino) {
+	return getDistancia(destino) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Regresa una trayectoria de peso mínimo del origen al destino en la
+     * gráfica actual.
+     * @param destino el elemento de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si el
+     *         destino no es alcanzable la trayectoria es vacía.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     * @throws IllegalStateException si el origen se eliminó de la gráfica.
+     */
+    public Trayectoria<T> trayectoria(T destino) {
+	revisaOrigen();
+	int d = indice(destino);
+	if(distancias[d] == Double.POSITIVE_INFINITY)
+	    return Trayectoria.vacia(0);
+	int k = 0;
+	for(int v = d; v != -1; v = anteriores[v])
+	    k++;
+	T[] camino = nuevoArreglo(k);
+	for(int v = d; v != -1; v = anteriores[v])
+	    camino[--k] = elementos[v];
+	return new Trayectoria<T>(camino, distancias[d], 0);
+    }
+
+    /**
+     * Deja de mantener las trayectorias al día: la gráfica ya no avisa de
+     * sus cambios, y las consultas describen a la gráfica como era al
+     * liberarlas.
+     */
+    public void libera() {
+	grafica.desregistra(this);
+    }
+
+    /* Avisa que se agregó un elemento a la gráfica; usa el índice de algún
+     * elemento eliminado si lo hay, para que los arreglos no crezcan sin
+     * límite cuando se agregan y eliminan elementos. */
+    void agregado(T elemento) {
+	int x = libres.esVacia() ? n++ : libres.saca();
+	if(x == elementos.length) {
+	    int c = Math.max(4, 2 * x);
+	    elementos = Arrays.copyOf(elementos, c);
+	    vecinos = Arrays.copyOf(vecinos, c);
+	    pesos = Arrays.copyOf(pesos, c);
+	    grados = Arrays.copyOf(grados, c);
+	    distancias = Arrays.copyOf(distancias, c);
+	    anteriores = Arrays.copyOf(anteriores, c);
+	    afectados = Arrays.copyOf(afectados, c);
+	    nodos = Arrays.copyOf(nodos, c);
+	}
+	elementos[x] = elemento;
+	vecinos[x] = new int[4];
+	pesos[x] = new double[4];
+	grados[x] = 0;
+	distancias[x] = Double.POSITIVE_INFINITY;
+	anteriores[x] = -1;
+	indices.agrega(elemento, x);
+    }
+
+    /* Avisa que se conectaron dos elementos de la gráfica. */
+    void conectados(T a, T b, double peso) {
+	int u = indices.get(a);
+	int v = indices.get(b);
+	agregaVecino(u, v, peso);
+	agregaVecino(v, u, peso);
+	acorta(u, v, peso);
+    }
+
+    /* Avisa que se desconectaron dos elementos de la gráfica. */
+    void desconectados(T a, T b) {
+	int u = indices.get(a);
+	int v = indices.get(b);
+	quitaVecino(u, v);
+	quitaVecino(v, u);
+	if(anteriores[v] == u)
+	    alarga(new int[] { v }, 1);
+	else if(anteriores[u] == v)
+	    alarga(new int[] { u }, 1);
+	else
+	    reparados = 0;
+    }
+
+    /* Avisa que cambió el peso de la arista entre dos elementos. */
+    void pesoCambiado(T a, T b, double peso) {
+	int u = indices.get(a);
+	int v = indices.get(b);
+	int i = posicion(u, v);
+	double anterior = pesos[u][i];
+	pesos[u][i] = peso;
+	pesos[v][posicion(v, u)] = peso;
+	reparados = 0;
+	if(peso < anterior)
+	    acorta(u, v, peso);
+	else if(peso > anterior && anteriores[v] == u)
+	    alarga(new int[] { v }, 1);
+	else if(peso > anterior && anteriores[u] == v)
+	    alarga(new int[] { u }, 1);
+    }
+
+    /* Avisa que se eliminó un elemento de la gráfica, con todas sus
+     * aristas. */
+    void eliminado(T elemento) {
+	int x = indices.get(elemento);
+	indices.elimina(elemento);
+	elementos[x] = null;
+	int[] hijos = new int[grados[x]];
+	int h = 0;
+	for(int i = 0; i < grados[x]; i++) {
+	    int y = vecinos[x][i];
+	    quitaVecino(y, x);
+	    if(anteriores[y] == x)
+		hijos[h++] = y;
+	}
+	grados[x] = 0;
+	vecinos[x] = null;
+	pesos[x] = null;
+	distancias[x] = Double.POSITIVE_INFINITY;
+	anteriores[x] = -1;
+	if(x == origen) {
+	    /* Sin origen no hay nada que mantener. */
+	    libera();
+	    Arrays.fill(distancias, 0, n, Double.POSITIVE_INFINITY);
+	    Arrays.fill(anteriores, 0, n, -1);
+	    return;
+	}
+	/* Nadie tiene a x como anterior después de reparar, así que su índice
+	 * se puede reutilizar. */
+	alarga(hijos, h);
+	libres.mete(x);
+    }
+
+    /* Avisa que la gráfica se limpió, con todo y el origen. */
+    void limpiada() {
+	Arrays.fill(elementos, 0, n, null);
+	Arrays.fill(distancias, 0, n, Double.POSITIVE_INFINITY);
+	Arrays.fill(anteriores, 0, n, -1);
+	indices.limpia();
+    }
+
+    /* Propaga con Dijkstra la mejora que la arista entre u y v da a alguno
+     * de sus extremos. */
+    private void acorta(int u, int v, double peso) {
+	reparados = 0;
+	if(distancias[v] > distancias[u] + peso)
+	    propaga(v, distancias[u] + peso, u);
+	else if(distancias[u] > distancias[v] + peso)
+	    propaga(u, distancias[v] + peso, v);
+    }
+
+    /* Baja la distancia de v a la recibida y la propaga. */
+    private void propaga(int v, double d, int anterior) {
+	MonticuloMinimo<Indexable<Integer>> monticulo =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	Lista<Integer> tocados = new Lista<Integer>();
+	relaja(v, d, anterior, monticulo, tocados);
+	while(!monticulo.esVacia()) {
+	    int x = monticulo.elimina().getElemento();
+	    reparados++;
+	    for(int i = 0; i < grados[x]; i++)
+		relaja(vecinos[x][i], distancias[x] + pesos[x][i], x,
+		       monticulo, tocados);
+	}
+	for(int x : tocados)
+	    nodos[x] = null;
+    }
+
+    /* Repara los subárboles de las primeras h raíces, cuyas distancias
+     * pueden haber crecido. */
+    private void alarga(int[] raices, int h) {
+	/* Los subárboles: los hijos de cada vértice son los vecinos que lo
+	 * tienen como anterior. */
+	Lista<Integer> subarbol = new Lista<Integer>();
+	Cola<Integer> cola = new Cola<Integer>();
+	for(int i = 0; i < h; i++) {
+	    afectados[raices[i]] = true;
+	    cola.mete(raices[i]);
+	}
+	while(!cola.esVacia()) {
+	    int x = cola.saca();
+	    subarbol.agregaFinal(x);
+	    for(int i = 0; i < grados[x]; i++) {
+		int y = vecinos[x][i];
+		if(anteriores[y] == x && !afectados[y]) {
+		    afectados[y] = true;
+		    cola.mete(y);
+		}
+	    }
+	}
+	reparados = subarbol.getLongitud();
+	/* Cada vértice afectado empieza con la mejor oferta de sus vecinos
+	 * no afectados. */
+	MonticuloMinimo<Indexable<Integer>> monticulo =
+	    new MonticuloMinimo<Indexable<Integer>>();
+	for(int x : subarbol) {
+	    distancias[x] = Double.POSITIVE_INFINITY;
+	    anteriores[x] = -1;
+	}
+	Lista<Integer> tocados = new Lista<Integer>();
+	for(int x : subarbol) {
+	    double mejor = Double.POSITIVE_INFINITY;
+	    int anterior = -1;
+	    for(int i = 0; i < grados[x]; i++) {
+		int y = vecinos[x][i];
+		if(!afectados[y] && distancias[y] + pesos[x][i] < mejor) {
+		    mejor = distancias[y] + pesos[x][i];
+		    anterior = y;
+		}
+	    }
+	    if(anterior != -1)
+		relaja(x, mejor, anterior, monticulo, tocados);
+	}
+	while(!monticulo.esVacia()) {
+	    int x = monticulo.elimina().getElemento();
+	    for(int i = 0; i < grados[x]; i++) {
+		int y = vecinos[x][i];
+		if(afectados[y])
+		    relaja(y, distancias[x] + pesos[x][i], x, monticulo,
+			   tocados);
+	    }
+	}
+	for(int x : tocados)
+	    nodos[x] = null;
+	for(int x : subarbol)
+	    afectados[x] = false;
+    }
+
+    /* Baja la distancia de v si la recibida es menor. */
+    private void relaja(int v, double d, int anterior,
+			MonticuloMinimo<Indexable<Integer>> monticulo,
+			Lista<Integer> tocados) {
+	if(d >= distancias[v])
+	    return;
+	distancias[v] = d;
+	anteriores[v] = anterior;
+	if(nodos[v] == null) {
+	    nodos[v] = new Indexable<Integer>(v, d);
+	    monticulo.agrega(nodos[v]);
+	    tocados.agregaFinal(v);
+	} else if(nodos[v].getIndice() == -1) {
+	    nodos[v].setValor(d);
+	    monticulo.agrega(nodos[v]);
+	} else {
+	    nodos[v].setValor(d);
+	    monticulo.reordena(nodos[v]);
+	}
+    }
+
+    /* Agrega a v a la vecindad de u. */
+    private void agregaVecino(int u, int v, double peso) {
+	int g = grados[u];
+	if(g == vecinos[u].length) {
+	    vecinos[u] = Arrays.copyOf(vecinos[u], Math.max(4, 2 * g));
+	    pesos[u] = Arrays.copyOf(pesos[u], Math.max(4, 2 * g));
+	}
+	vecinos[u][g] = v;
+	pesos[u][g] = peso;
+	grados[u]++;
+    }
+
+    /* Quita a v de la vecindad de u, moviendo al último vecino a su
+     * lugar. */
+    private void quitaVecino(int u, int v) {
+	int i = posicion(u, v);
+	int g = --grados[u];
+	vecinos[u][i] = vecinos[u][g];
+	pesos[u][i] = pesos[u][g];
+    }
+
+    /* Regresa la posición de v en la vecindad de u. */
+    private int posicion(int u, int v) {
+	int i = 0;
+	while(vecinos[u][i] != v)
+	    i++;
+	return i;
+    }
+
+    /* Regresa el índice del elemento. */
+    private int indice(T elemento) {
+	if(!indices.contiene(elemento))
+	    throw new NoSuchElementException("El elemento no está");
+	return indices.get(elemento);
+    }
+
+    /* Verifica que el origen siga en la gráfica. */
+    private void revisaOrigen() {
+	if(elementos[origen] == null)
+	    throw new IllegalStateException("El origen ya no está en la " +
+					    "gráfica");
+    }
+}
@@ -0,0 +1,82 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para árboles de trayectorias de peso mínimo. Un árbol de
+ * trayectorias guarda, para un origen fijo, la distancia a cada vértice de la
+ * gráfica y el vértice anterior en una trayectoria de peso mínimo; con ellos
+ * responde la trayectoria a cualquier destino sin volver a buscar.</p>
+ *
+ * <p>Los árboles de trayectorias no cambian una vez construidos y se calculan
+ * sobre una {@link GraficaCompacta}, así que pueden consultarse desde varios
+ * hilos, incluso mientras la gráfica original se lee (o se modifica; en ese
+ * caso el árbol describe a la gráfica como era al calcularlo).</p>
+ */
+public class TrayectoriasMinimas<T> {
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* El índice del origen. */
+    private int origen;
+    /* La distancia del origen a cada vértice. */
+    private double[] distancias;
+    /* El vértice anterior a cada vértice; -1 para el origen y los vértices
+     * inalcanzables. */
+    private int[] anteriores;
+
+    /* Construye el árbol de trayectorias con los arreglos recibidos; los
+     * arreglos no se copian. */
+    TrayectoriasMinimas(GraficaCompacta<T> grafica, int origen,
+			double[] distancias, int[] anteriores) {
+	this.grafica = grafica;
+	this.origen = origen;
+	this.distancias = distancias;
+	this.anteriores = anteriores;
+    }
+
+    /**
+     * Regresa el elemento de origen.
+     * @return el elemento de origen.
+     */
+    public T getOrigen() {
+	return grafica.get(origen);
+    }
+
+    /**
+     * Regresa el peso de una trayectoria mínima del origen al destino.
+     * @param destino el elemento de destino.
+     * @return el peso de una trayectoria mínima del origen al destino, o
+     *         {@link Double#POSITIVE_INFINITY} si el destino no es alcanzable.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     */
+    public double getDistancia(T destino) {
+	return distancias[grafica.indice(destino)];
+    }
+
+    /**
+     * Nos dice si el destino es alcanzable desde el origen.
+     * @param destino el elemento de destino.
+     * @return <code>true</code> si el destino está en la misma componente
+     *         conexa que el origen, <code>false</code> en otro caso.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     */
+    public boolean esAlcanzable(T destino) {
+	return getDistancia(destino) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Regresa una trayectoria de peso mínimo del origen al destino, en tiempo
+     * proporcional a su longitud.
+     * @param destino el elemento de destino.
+     * @return una trayectoria de peso mínimo del origen al destino; si el
+     *         destino no es alcanzable la trayectoria es vacía.
+     * @throws NoSuchElementException si el destino no está en la gráfica.
+     */
+    public Trayectoria<T> trayectoria(T destino) {
+	int d = grafica.indice(destino);
+	if(distancias[d] == Double.POSITIVE_INFINITY)
+	    return Trayectoria.vacia(0);
+	return Trayectoria.reconstruye(grafica, anteriores, d, distancias[d], 0);
+    }
+}
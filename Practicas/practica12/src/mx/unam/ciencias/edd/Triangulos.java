@@ -0,0 +1,247 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Clase para los triángulos de una gráfica: cuántos triángulos tiene cada
+ * vértice, y los coeficientes de agrupamiento que se derivan de ellos. El
+ * coeficiente de agrupamiento de un vértice es la fracción de los pares de
+ * sus vecinos que son vecinos entre sí; la transitividad de la gráfica es
+ * la fracción de las trayectorias de longitud dos que cierran un
+ * triángulo.</p>
+ *
+ * <p>Los triángulos se cuentan sobre la {@link GraficaCompacta} de la
+ * gráfica, ordenando los vértices por grado: cada arista se orienta del
+ * vértice de menor grado al de mayor, y cada triángulo se encuentra una
+ * sola vez intersectando las listas (ordenadas) de arcos hacia adelante de
+ * los extremos de una arista. Ningún vértice tiene más de O(√<i>m</i>)
+ * arcos hacia adelante. Los vértices se reparten en bloques entre los
+ * hilos; cada hilo cuenta en su propio arreglo y al final se suman.</p>
+ *
+ * <p>Los triángulos no cambian una vez calculados; describen a la gráfica
+ * como era al calcularlos.</p>
+ */
+public class Triangulos<T> {
+
+    /* Clase privada para contar triángulos en un hilo. */
+    private static class Trabajador extends RecursiveAction {
+
+	/* Número de versión de la clase. */
+	private static final long serialVersionUID = 1L;
+
+	/* Dónde comienzan los arcos hacia adelante de cada vértice. */
+	private int[] inicios;
+	/* Los destinos de los arcos hacia adelante. */
+	private int[] destinos;
+	/* El siguiente bloque por procesar. */
+	private AtomicInteger siguiente;
+	/* Los triángulos de cada vértice contados por el trabajador. */
+	public long[] triangulos;
+
+	/* Construye un trabajador. */
+	public Trabajador(int[] inicios, int[] destinos,
+			  AtomicInteger siguiente) {
+	    this.inicios = inicios;
+	    this.destinos = destinos;
+	    this.siguiente = siguiente;
+	}
+
+	/* Procesa bloques hasta que no quede ninguno. */
+	@Override protected void compute() {
+	    int n = inicios.length - 1;
+	    triangulos = new long[n];
+	    int b;
+	    while((b = siguiente.getAndIncrement()) * BLOQUE < n) {
+		int fin = Math.min(n, (b + 1) * BLOQUE);
+		for(int u = b * BLOQUE; u < fin; u++)
+		    cuenta(u);
+	    }
+	}
+
+	/* Cuenta los triángulos cuyo vértice menor es u. */
+	private void cuenta(int u) {
+	    int fu = inicios[u+1];
+	    for(int a = inicios[u]; a < fu; a++) {
+		int v = destinos[a];
+		/* Los terceros vértices son mayores que v. */
+		int i = a + 1;
+		int j = inicios[v];
+		int fv = inicios[v+1];
+		while(i < fu && j < fv) {
+		    int x = destinos[i];
+		    int y = destinos[j];
+		    if(x < y) {
+			i++;
+		    } else if(y < x) {
+			j++;
+		    } else {
+			triangulos[u]++;
+			triangulos[v]++;
+			triangulos[x]++;
+			i++;
+			j++;
+		    }
+		}
+	    }
+	}
+    }
+
+    /* Vértices de cada bloque. */
+    private static final int BLOQUE = 1024;
+
+    /* La gráfica. */
+    private GraficaCompacta<T> grafica;
+    /* Los triángulos de cada vértice. */
+    private long[] triangulos;
+    /* El número total de triángulos. */
+    private long total;
+
+    /* Cuenta los triángulos de la gráfica con el número de hilos
+     * recibido. */
+    Triangulos(GraficaCompacta<T> grafica, int hilos) {
+	this.grafica = grafica;
+	int n = grafica.getElementos();
+	int[] inicios = grafica.inicios;
+	int[] destinos = grafica.destinos;
+	/* Ordena los vértices por grado con un conteo. */
+	int maximo = 0;
+	for(int v = 0; v < n; v++)
+	    maximo = Math.max(maximo, inicios[v+1] - inicios[v]);
+	int[] cubetas = new int[maximo + 2];
+	for(int v = 0; v < n; v++)
+	    cubetas[inicios[v+1] - inicios[v] + 1]++;
+	for(int g = 1; g < cubetas.length; g++)
+	    cubetas[g] += cubetas[g-1];
+	int[] orden = new int[n];
+	int[] rangos = new int[n];
+	for(int v = 0; v < n; v++) {
+	    int r = cubetas[inicios[v+1] - inicios[v]]++;
+	    orden[r] = v;
+	    rangos[v] = r;
+	}
+	/* Los arcos hacia adelante, numerando a los vértices por rango.
+	 * Recorrer los orígenes en orden deja cada lista ordenada. */
+	int[] adelante = new int[n + 1];
+	for(int v = 0; v < n; v++)
+	    for(int a = inicios[v]; a < inicios[v+1]; a++)
+		if(rangos[destinos[a]] > rangos[v])
+		    adelante[rangos[v] + 1]++;
+	for(int r = 0; r < n; r++)
+	    adelante[r+1] += adelante[r];
+	int[] arcos = new int[adelante[n]];
+	int[] cursores = new int[n];
+	System.arraycopy(adelante, 0, cursores, 0, n);
+	for(int x = 0; x < n; x++) {
+	    int v = orden[x];
+	    for(int a = inicios[v]; a < inicios[v+1]; a++) {
+		int r = rangos[destinos[a]];
+		if(r < x)
+		    arcos[cursores[r]++] = x;
+	    }
+	}
+	AtomicInteger siguiente = new AtomicInteger();
+	int t = Math.max(1, Math.min(hilos, (n + BLOQUE - 1) / BLOQUE));
+	Trabajador[] trabajadores = new Trabajador[t];
+	for(int i = 0; i < t; i++)
+	    trabajadores[i] = new Trabajador(adelante, arcos, siguiente);
+	ForkJoinPool pool = new ForkJoinPool(hilos);
+	try {
+	    for(Trabajador trabajador : trabajadores)
+		pool.execute(trabajador);
+	    for(Trabajador trabajador : trabajadores)
+		trabajador.join();
+	} finally {
+	    pool.shutdown();
+	}
+	triangulos = new long[n];
+	for(Trabajador trabajador : trabajadores)
+	    for(int r = 0; r < n; r++)
+		triangulos[orden[r]] += trabajador.triangulos[r];
+	for(int v = 0; v < n; v++)
+	    total += triangulos[v];
+	total /= 3;
+    }
+
+    /**
+     * Regresa el número total de triángulos de la gráfica.
+     * @return el número total de triángulos de la gráfica.
+     */
+    public long getTotal() {
+	return total;
+    }
+
+    /**
+     * Regresa el número de triángulos de los que forma parte un elemento.
+     * @param elemento el elemento.
+     * @return el número de triángulos del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public long getTriangulos(T elemento) {
+	return triangulos[grafica.indice(elemento)];
+    }
+
+    /**
+     * Regresa el coeficiente de agrupamiento de un elemento: la fracción de
+     * los pares de sus vecinos que son vecinos entre sí. Los elementos con
+     * menos de dos vecinos tienen coeficiente cero.
+     * @param elemento el elemento.
+     * @return el coeficiente de agrupamiento del elemento.
+     * @throws NoSuchElementException si el elemento no está en la gráfica.
+     */
+    public double getCoeficienteAgrupamiento(T elemento) {
+	return coeficiente(grafica.indice(elemento));
+    }
+
+    /**
+     * Regresa los coeficientes de agrupamiento de todos los elementos.
+     * @return un diccionario con el coeficiente de agrupamiento de cada
+     *         elemento.
+     */
+    public Diccionario<T, Double> getCoeficientesAgrupamiento() {
+	int n = triangulos.length;
+	Diccionario<T, Double> d = new Diccionario<T, Double>(n * 2);
+	for(int v = 0; v < n; v++)
+	    d.agrega(grafica.get(v), coeficiente(v));
+	return d;
+    }
+
+    /**
+     * Regresa el promedio de los coeficientes de agrupamiento de los
+     * elementos.
+     * @return el coeficiente de agrupamiento promedio, o cero si la gráfica
+     *         es vacía.
+     */
+    public double getCoeficientePromedio() {
+	int n = triangulos.length;
+	if(n == 0)
+	    return 0;
+	double suma = 0;
+	for(int v = 0; v < n; v++)
+	    suma += coeficiente(v);
+	return suma / n;
+    }
+
+    /**
+     * Regresa la transitividad de la gráfica: tres veces el número de
+     * triángulos entre el número de trayectorias de longitud dos.
+     * @return la transitividad de la gráfica, o cero si no tiene
+     *         trayectorias de longitud dos.
+     */
+    public double getTransitividad() {
+	long trayectorias = 0;
+	for(int v = 0; v < triangulos.length; v++) {
+	    long d = grafica.getGrado(v);
+	    trayectorias += d * (d - 1) / 2;
+	}
+	return trayectorias == 0 ? 0 : 3.0 * total / trayectorias;
+    }
+
+    /* Regresa el coeficiente de agrupamiento del vértice. */
+    private double coeficiente(int v) {
+	long d = grafica.getGrado(v);
+	return d < 2 ? 0 : 2.0 * triangulos[v] / (d * (d - 1));
+    }
+}
@@ -0,0 +1,39 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para leer una por una las vecindades de una gráfica con los
+ * vértices numerados de 0 a <i>n</i>-1. Permite recorrer una {@link
+ * Grafica} o una {@link GraficaMapeada} sin construir antes su
+ * representación CSR.
+ */
+interface Vecindades<T> {
+
+    /**
+     * Regresa el número de vértices.
+     * @return el número de vértices.
+     */
+    public int getElementos();
+
+    /**
+     * Regresa el elemento del vértice con el índice recibido.
+     * @param v el índice del vértice.
+     * @return el elemento del vértice.
+     */
+    public T get(int v);
+
+    /**
+     * Regresa el grado del vértice con el índice recibido.
+     * @param v el índice del vértice.
+     * @return el grado del vértice.
+     */
+    public int getGrado(int v);
+
+    /**
+     * Copia los índices de los vecinos de un vértice al principio del
+     * arreglo recibido, que tiene espacio al menos para el grado del
+     * vértice; los vecinos no tienen que estar ordenados.
+     * @param v el índice del vértice.
+     * @param vecinos el arreglo donde se copian los vecinos.
+     */
+    public void vecinos(int v, int[] vecinos);
+}
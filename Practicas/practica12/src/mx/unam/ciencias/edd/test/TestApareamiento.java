@@ -0,0 +1,192 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Apareamiento;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Apareamiento}.
+ */
+public class TestApareamiento {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica; los pares están de un lado y los impares del otro. */
+    private Grafica<Integer> grafica;
+    /* Los elementos pares. */
+    private Lista<Integer> pares;
+
+    /**
+     * Crea una gráfica bipartita aleatoria para cada prueba.
+     */
+    public TestApareamiento() {
+        random = new Random();
+        total = 1 + random.nextInt(300);
+        grafica = new Grafica<Integer>();
+        pares = new Lista<Integer>();
+        double densidad = random.nextDouble() * 6 / total;
+        for (int i = 0; i < total; i++) {
+            grafica.agrega(i);
+            if (i % 2 == 0)
+                pares.agrega(i);
+        }
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j += 2)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#apareamiento(Coleccion)}: el
+     * apareamiento es válido y tiene tantas aristas como el que se obtiene
+     * con trayectorias aumentantes una por una.
+     */
+    @Test public void testApareamiento() {
+        Apareamiento<Integer> apareamiento = grafica.apareamiento(pares);
+        revisa(apareamiento);
+        Assert.assertTrue(apareamiento.getCardinalidad() == maximo());
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(apareamiento.estaALaIzquierda(i) ==
+                              (i % 2 == 0));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#apareamiento()}: los lados se
+     * obtienen coloreando la gráfica.
+     */
+    @Test public void testColoreo() {
+        Apareamiento<Integer> apareamiento = grafica.apareamiento();
+        revisa(apareamiento);
+        Assert.assertTrue(apareamiento.getCardinalidad() == maximo());
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++)
+                if (grafica.sonVecinos(i, j))
+                    Assert.assertTrue(apareamiento.estaALaIzquierda(i) !=
+                                      apareamiento.estaALaIzquierda(j));
+    }
+
+    /**
+     * Prueba unitaria para {@link Apareamiento} en una trayectoria larga
+     * donde el apareamiento voraz deja una sola trayectoria aumentante que
+     * la recorre completa.
+     */
+    @Test public void testTrayectoriaLarga() {
+        int n = 2 * (50000 + random.nextInt(50000));
+        Grafica<Integer> trayectoria = new Grafica<Integer>();
+        Lista<Integer> impares = new Lista<Integer>();
+        for (int i = 0; i < n; i++) {
+            trayectoria.agrega(i);
+            if (i % 2 == 1)
+                impares.agrega(i);
+        }
+        /* Cada vértice tiene primero al vecino siguiente, así que cada
+         * impar se aparea con él y el último se queda libre. */
+        for (int i = n - 2; i >= 0; i--)
+            trayectoria.conecta(i, i+1);
+        Apareamiento<Integer> apareamiento =
+            trayectoria.apareamiento(impares);
+        Assert.assertTrue(apareamiento.getCardinalidad() == n / 2);
+        Assert.assertTrue(apareamiento.getFases() == 1);
+        for (int i = 0; i < n; i += 2)
+            Assert.assertTrue(apareamiento.getPareja(i) == i + 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link Apareamiento} con gráficas que no son
+     * bipartitas y argumentos inválidos.
+     */
+    @Test public void testInvalidos() {
+        Grafica<Integer> ciclo = new Grafica<Integer>();
+        int n = 3 + 2 * random.nextInt(10);
+        for (int i = 0; i < n; i++)
+            ciclo.agrega(i);
+        for (int i = 0; i < n; i++)
+            ciclo.conecta(i, (i + 1) % n);
+        try {
+            ciclo.apareamiento();
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Lista<Integer> todos = new Lista<Integer>();
+        for (int i = 0; i < n; i++)
+            todos.agrega(i);
+        try {
+            ciclo.apareamiento(todos);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Lista<Integer> ajenos = new Lista<Integer>();
+        ajenos.agrega(total);
+        try {
+            grafica.apareamiento(ajenos);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.apareamiento().getPareja(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /* Revisa que el apareamiento sea válido. */
+    private void revisa(Apareamiento<Integer> apareamiento) {
+        int apareados = 0;
+        for (int i = 0; i < total; i++) {
+            Integer p = apareamiento.getPareja(i);
+            Assert.assertTrue((p != null) == apareamiento.estaApareado(i));
+            if (p == null)
+                continue;
+            apareados++;
+            Assert.assertTrue(grafica.sonVecinos(i, p));
+            Assert.assertTrue(apareamiento.getPareja(p) == i);
+            Assert.assertTrue(apareamiento.estaALaIzquierda(i) !=
+                              apareamiento.estaALaIzquierda(p));
+        }
+        Assert.assertTrue(apareados == 2 * apareamiento.getCardinalidad());
+        Diccionario<Integer, Integer> parejas = apareamiento.getParejas();
+        Assert.assertTrue(parejas.getElementos() ==
+                          apareamiento.getCardinalidad());
+        for (int i = 0; i < total; i++)
+            if (parejas.contiene(i)) {
+                Assert.assertTrue(apareamiento.estaALaIzquierda(i));
+                Assert.assertTrue(parejas.get(i).equals(
+                                      apareamiento.getPareja(i)));
+            }
+    }
+
+    /* Calcula el tamaño de un apareamiento máximo buscando una trayectoria
+     * aumentante desde cada par. */
+    private int maximo() {
+        int[] parejas = new int[total];
+        for (int i = 0; i < total; i++)
+            parejas[i] = -1;
+        int cardinalidad = 0;
+        for (int i = 0; i < total; i += 2)
+            if (aumenta(i, parejas, new boolean[total]))
+                cardinalidad++;
+        return cardinalidad;
+    }
+
+    /* Busca una trayectoria aumentante desde un par. */
+    private boolean aumenta(int v, int[] parejas, boolean[] vistos) {
+        for (int u = 1; u < total; u += 2) {
+            if (vistos[u] || !grafica.sonVecinos(v, u))
+                continue;
+            vistos[u] = true;
+            if (parejas[u] == -1 || aumenta(parejas[u], parejas, vistos)) {
+                parejas[u] = v;
+                return true;
+            }
+        }
+        return false;
+    }
+}
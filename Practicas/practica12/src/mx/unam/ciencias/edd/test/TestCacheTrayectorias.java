@@ -0,0 +1,177 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.CacheTrayectorias;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.VerticeGrafica;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link CacheTrayectorias}.
+ */
+public class TestCacheTrayectorias {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestCacheTrayectorias() {
+        random = new Random();
+        total = 2 + random.nextInt(60);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 5 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, 1 + random.nextInt(10));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#activaCache}: con cambios
+     * aleatorios a la gráfica, los resultados con caché son iguales a los
+     * resultados sin caché.
+     */
+    @Test public void testResultados() {
+        Grafica<Integer> sinCache = new Grafica<Integer>();
+        for (Integer v : grafica)
+            sinCache.agrega(v);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (grafica.sonVecinos(i, j))
+                    sinCache.conecta(i, j, grafica.getPeso(i, j));
+        grafica.activaCache(1 + random.nextInt(20));
+        for (int k = 0; k < 300; k++) {
+            int a = random.nextInt(total);
+            int b = random.nextInt(total);
+            int operacion = random.nextInt(10);
+            if (operacion == 0 && a != b) {
+                if (grafica.sonVecinos(a, b)) {
+                    grafica.desconecta(a, b);
+                    sinCache.desconecta(a, b);
+                } else {
+                    grafica.conecta(a, b, 1 + random.nextInt(10));
+                    sinCache.conecta(a, b, grafica.getPeso(a, b));
+                }
+            } else if (operacion < 5) {
+                Assert.assertEquals(peso(sinCache.dijkstra(a, b)),
+                                    peso(grafica.dijkstra(a, b)), 1e-9);
+            } else {
+                Lista<VerticeGrafica<Integer>> t =
+                    grafica.trayectoriaMinima(a, b);
+                Assert.assertEquals(sinCache.trayectoriaMinima(a, b)
+                                    .getLongitud(), t.getLongitud());
+            }
+        }
+        CacheTrayectorias<Integer> cache = grafica.getCache();
+        Assert.assertTrue(cache.getElementos() <= cache.getCapacidad());
+    }
+
+    /**
+     * Prueba unitaria para las estadísticas de {@link CacheTrayectorias} y
+     * para la invalidación con cada cambio a la gráfica.
+     */
+    @Test public void testEstadisticas() {
+        Assert.assertTrue(grafica.getCache() == null);
+        grafica.activaCache(2);
+        CacheTrayectorias<Integer> cache = grafica.getCache();
+        Assert.assertTrue(cache.getCapacidad() == 2);
+        Assert.assertTrue(cache.getTasaAciertos() == 0);
+        grafica.dijkstra(0, 1);
+        grafica.dijkstra(0, 1);
+        grafica.trayectoriaMinima(0, 1);
+        Assert.assertTrue(cache.getAciertos() == 1);
+        Assert.assertTrue(cache.getFallos() == 2);
+        Assert.assertTrue(cache.getElementos() == 2);
+        Assert.assertEquals(1.0 / 3.0, cache.getTasaAciertos(), 1e-9);
+        Assert.assertTrue(cache.getLatenciaAciertos() > 0);
+        Assert.assertTrue(cache.getLatenciaFallos() > 0);
+        /* La consulta usada hace más tiempo es dijkstra(0, 1). */
+        grafica.trayectoriaMinima(1, 0);
+        Assert.assertTrue(cache.getElementos() == 2);
+        grafica.trayectoriaMinima(0, 1);
+        Assert.assertTrue(cache.getAciertos() == 2);
+        grafica.dijkstra(0, 1);
+        Assert.assertTrue(cache.getFallos() == 4);
+
+        grafica.agrega(total);
+        grafica.dijkstra(0, 1);
+        Assert.assertTrue(cache.getInvalidaciones() == 1);
+        Assert.assertTrue(cache.getElementos() == 1);
+        grafica.conecta(0, total, 1);
+        Assert.assertTrue(grafica.dijkstra(0, total).getLongitud() == 2);
+        grafica.setPeso(0, total, 2);
+        grafica.dijkstra(0, total);
+        grafica.desconecta(0, total);
+        Assert.assertTrue(grafica.dijkstra(0, total).esVacia());
+        grafica.elimina(total);
+        grafica.dijkstra(0, 1);
+        Assert.assertTrue(cache.getInvalidaciones() == 5);
+        Assert.assertTrue(cache.getAciertos() == 2);
+
+        cache.limpiaEstadisticas();
+        Assert.assertTrue(cache.getAciertos() == 0);
+        Assert.assertTrue(cache.getFallos() == 0);
+        Assert.assertTrue(cache.getElementos() == 1);
+        grafica.desactivaCache();
+        Assert.assertTrue(grafica.getCache() == null);
+        try {
+            grafica.activaCache(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        grafica.activaCache(1);
+        try {
+            grafica.dijkstra(0, total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.trayectoriaMinima(-1, 0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link CacheTrayectorias}: modificar la lista
+     * regresada no cambia el resultado guardado.
+     */
+    @Test public void testCopias() {
+        grafica.activaCache(4);
+        Lista<VerticeGrafica<Integer>> l = grafica.dijkstra(0, 0);
+        l.limpia();
+        Assert.assertTrue(grafica.dijkstra(0, 0).getLongitud() == 1);
+        Assert.assertTrue(grafica.getCache().getAciertos() == 1);
+    }
+
+    /* Regresa el peso de una trayectoria, o -1 si es vacía; revisa que
+     * vértices consecutivos sean vecinos en la gráfica. */
+    private double peso(Lista<VerticeGrafica<Integer>> trayectoria) {
+        if (trayectoria.esVacia())
+            return -1;
+        double peso = 0;
+        Iterator<VerticeGrafica<Integer>> i = trayectoria.iterator();
+        Integer a = i.next().get();
+        while (i.hasNext()) {
+            Integer b = i.next().get();
+            Assert.assertTrue(grafica.sonVecinos(a, b));
+            peso += grafica.getPeso(a, b);
+            a = b;
+        }
+        return peso;
+    }
+}
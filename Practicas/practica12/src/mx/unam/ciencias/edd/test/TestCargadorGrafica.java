@@ -0,0 +1,139 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import mx.unam.ciencias.edd.CargadorGrafica;
+import mx.unam.ciencias.edd.Grafica;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link CargadorGrafica}.
+ */
+public class TestCargadorGrafica {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El archivo temporal. */
+    private File archivo;
+    /* El cargador. */
+    private CargadorGrafica<Integer> cargador;
+
+    /**
+     * Crea un archivo temporal y un cargador para cada prueba.
+     * @throws IOException si no se puede crear el archivo temporal.
+     */
+    public TestCargadorGrafica() throws IOException {
+        random = new Random();
+        total = 10 + random.nextInt(1000);
+        archivo = File.createTempFile("grafica", ".txt");
+        cargador = new CargadorGrafica<Integer>((s) -> Integer.parseInt(s));
+    }
+
+    /**
+     * Borra el archivo temporal.
+     */
+    @After public void borra() {
+        archivo.delete();
+    }
+
+    /**
+     * Prueba unitaria para {@link CargadorGrafica#carga(String,int)}.
+     * @throws IOException si no se puede escribir o leer el archivo.
+     */
+    @Test public void testCarga() throws IOException {
+        Grafica<Integer> esperada = new Grafica<Integer>();
+        StringBuilder sb = new StringBuilder("# Lista de aristas\n\n");
+        for (int k = 0; k < 10 * total; k++) {
+            int a = random.nextInt(total);
+            int b = random.nextInt(total);
+            if (a == b)
+                continue;
+            for (int e : new int[] { a, b })
+                if (!esperada.contiene(e))
+                    esperada.agrega(e);
+            int peso = 1 + random.nextInt(100);
+            boolean repetida = esperada.sonVecinos(a, b);
+            if (!repetida)
+                esperada.conecta(a, b, random.nextBoolean() ? peso : 1);
+            else
+                peso = 1 + random.nextInt(100);
+            /* Las repetidas conservan el primer peso. */
+            double p = esperada.getPeso(a, b);
+            String sep = random.nextBoolean() ? " " : "\t ";
+            if (p == 1 && !repetida && random.nextBoolean())
+                sb.append(a + sep + b);
+            else
+                sb.append(a + sep + b + sep + (repetida ? peso : (int)p));
+            sb.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+        }
+        escribe(sb.toString());
+        for (int hilos = 1; hilos <= 4; hilos++) {
+            Grafica<Integer> g = cargador.carga(archivo.getPath(), hilos);
+            Assert.assertTrue(g.equals(esperada));
+            Assert.assertTrue(cargador.getAristas() == esperada.getAristas());
+            Assert.assertTrue(cargador.getAristasPorSegundo() > 0);
+            for (Integer a : esperada)
+                for (Integer b : esperada)
+                    if (esperada.sonVecinos(a, b))
+                        Assert.assertTrue(g.getPeso(a, b) ==
+                                          esperada.getPeso(a, b));
+            Assert.assertTrue(g.numeroComponentes() ==
+                              esperada.numeroComponentes());
+        }
+        escribe("1 2 3");
+        Assert.assertTrue(cargador.carga(archivo.getPath()).getAristas() == 1);
+        escribe("");
+        Assert.assertTrue(cargador.carga(archivo.getPath()).esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link CargadorGrafica#carga(String,int)} con
+     * archivos inválidos.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    @Test public void testCargaInvalida() throws IOException {
+        String[] invalidas = { "1", "1 2 3 4", "1 1", "1 01", "1 2 0",
+                               "1 2 -3", "1 2 x", "1 2 Infinity" };
+        for (String linea : invalidas) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < total; i++)
+                sb.append(i + " " + (i + 1) + "\n");
+            sb.append(linea + "\n");
+            escribe(sb.toString());
+            try {
+                cargador.carga(archivo.getPath(), 2);
+                Assert.fail();
+            } catch (IOException ioe) {}
+        }
+        try {
+            cargador.carga(archivo.getPath() + ".no", 1);
+            Assert.fail();
+        } catch (IOException ioe) {}
+        try {
+            cargador.carga(archivo.getPath(), 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /* Escribe la cadena en el archivo temporal. */
+    private void escribe(String s) throws IOException {
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(archivo),
+                                               StandardCharsets.UTF_8)) {
+            w.write(s);
+        }
+    }
+}
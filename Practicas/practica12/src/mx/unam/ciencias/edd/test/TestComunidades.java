@@ -0,0 +1,152 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Comunidades;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Comunidades}.
+ */
+public class TestComunidades {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestComunidades() {
+        random = new Random();
+        total = 1 + random.nextInt(300);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 8 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, 0.5 + random.nextDouble() * 5);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#comunidades} en un anillo de
+     * cliques: cada clique es una comunidad.
+     */
+    @Test public void testAnilloCliques() {
+        int cliques = 3 + random.nextInt(5);
+        int lado = 5 + random.nextInt(4);
+        Grafica<Integer> anillo = new Grafica<Integer>();
+        for (int i = 0; i < cliques * lado; i++)
+            anillo.agrega(i);
+        for (int c = 0; c < cliques; c++) {
+            for (int i = 0; i < lado; i++)
+                for (int j = i+1; j < lado; j++)
+                    anillo.conecta(c * lado + i, c * lado + j);
+            anillo.conecta(c * lado, ((c + 1) % cliques) * lado + 1);
+        }
+        Comunidades<Integer> comunidades = anillo.comunidades();
+        Assert.assertTrue(comunidades.getNumeroComunidades() == cliques);
+        Assert.assertTrue(comunidades.getNiveles() >= 1);
+        for (int c = 0; c < cliques; c++) {
+            int comunidad = comunidades.getComunidad(c * lado);
+            Lista<Integer> miembros = comunidades.getMiembros(comunidad);
+            Assert.assertTrue(miembros.getLongitud() == lado);
+            for (Integer v : miembros)
+                Assert.assertTrue(v / lado == c);
+        }
+        Assert.assertTrue(comunidades.getModularidad() > 0.5);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#comunidades(double,int)}: la
+     * modularidad reportada es la de la partición, y el resultado no
+     * depende del número de hilos.
+     */
+    @Test public void testModularidad() {
+        double resolucion = 0.5 + random.nextDouble() * 1.5;
+        Comunidades<Integer> comunidades = grafica.comunidades(resolucion, 1);
+        Comunidades<Integer> paralelas =
+            grafica.comunidades(resolucion, 2 + random.nextInt(3));
+        Diccionario<Integer, Integer> d = comunidades.getComunidades();
+        int k = comunidades.getNumeroComunidades();
+        Assert.assertTrue(d.getElementos() == total);
+        Assert.assertTrue(paralelas.getNumeroComunidades() == k);
+        boolean[] usadas = new boolean[k];
+        for (Integer v : grafica) {
+            int c = d.get(v);
+            Assert.assertTrue(c >= 0 && c < k);
+            Assert.assertTrue(comunidades.getComunidad(v) == c);
+            Assert.assertTrue(paralelas.getComunidad(v) == c);
+            usadas[c] = true;
+        }
+        for (int c = 0; c < k; c++)
+            Assert.assertTrue(usadas[c]);
+        double[] totales = new double[k];
+        double interno = 0;
+        double m2 = 0;
+        for (Integer u : grafica)
+            for (Integer v : grafica)
+                if (grafica.sonVecinos(u, v)) {
+                    double p = grafica.getPeso(u, v);
+                    m2 += p;
+                    totales[d.get(u)] += p;
+                    if (d.get(u).equals(d.get(v)))
+                        interno += p;
+                }
+        double modularidad = 0;
+        if (m2 > 0) {
+            modularidad = interno / m2;
+            for (int c = 0; c < k; c++)
+                modularidad -= resolucion * (totales[c] / m2) *
+                    (totales[c] / m2);
+        }
+        Assert.assertEquals(modularidad, comunidades.getModularidad(), 1e-9);
+        Assert.assertEquals(modularidad, paralelas.getModularidad(), 1e-9);
+        if (m2 > 0 && resolucion <= 1)
+            Assert.assertTrue(comunidades.getModularidad() >= 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link Comunidades} en una gráfica sin aristas,
+     * y con argumentos inválidos.
+     */
+    @Test public void testSinAristasEInvalidos() {
+        Grafica<Integer> vacia = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            vacia.agrega(i);
+        Comunidades<Integer> comunidades = vacia.comunidades();
+        Assert.assertTrue(comunidades.getNumeroComunidades() == total);
+        Assert.assertTrue(comunidades.getNiveles() == 0);
+        Assert.assertTrue(comunidades.getModularidad() == 0);
+        try {
+            comunidades.getComunidad(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            comunidades.getMiembros(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.comunidades(0, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.comunidades(1, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
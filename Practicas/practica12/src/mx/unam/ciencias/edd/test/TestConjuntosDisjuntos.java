@@ -0,0 +1,104 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.ConjuntosDisjuntos;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntosDisjuntos}.
+ */
+public class TestConjuntosDisjuntos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* Los conjuntos. */
+    private ConjuntosDisjuntos conjuntos;
+
+    /**
+     * Crea unos conjuntos disjuntos para cada prueba.
+     */
+    public TestConjuntosDisjuntos() {
+        random = new Random();
+        total = 10 + random.nextInt(90);
+        conjuntos = new ConjuntosDisjuntos(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * ConjuntosDisjuntos#ConjuntosDisjuntos(int)}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(conjuntos.getElementos() == total);
+        Assert.assertTrue(conjuntos.getConjuntos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(conjuntos.encuentra(i) == i);
+        Assert.assertTrue(new ConjuntosDisjuntos().getElementos() == 0);
+        try {
+            new ConjuntosDisjuntos(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntosDisjuntos#agrega}.
+     */
+    @Test public void testAgrega() {
+        ConjuntosDisjuntos c = new ConjuntosDisjuntos();
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(c.agrega() == i);
+            Assert.assertTrue(c.getElementos() == i + 1);
+            Assert.assertTrue(c.getConjuntos() == (i == 0 ? 1 : 2));
+            Assert.assertTrue(c.encuentra(i) == i);
+            if (i > 0)
+                c.une(i, random.nextInt(i));
+            Assert.assertTrue(c.getConjuntos() == 1);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntosDisjuntos#une} y {@link
+     * ConjuntosDisjuntos#encuentra}.
+     */
+    @Test public void testUne() {
+        /* Comparamos contra etiquetas que se reasignan a mano. */
+        int[] etiquetas = new int[total];
+        for (int i = 0; i < total; i++)
+            etiquetas[i] = i;
+        int n = total;
+        for (int k = 0; k < total; k++) {
+            int a = random.nextInt(total);
+            int b = random.nextInt(total);
+            int ea = etiquetas[a];
+            int eb = etiquetas[b];
+            Assert.assertTrue(conjuntos.une(a, b) == (ea != eb));
+            if (ea != eb) {
+                n--;
+                for (int i = 0; i < total; i++)
+                    if (etiquetas[i] == eb)
+                        etiquetas[i] = ea;
+            }
+            Assert.assertTrue(conjuntos.getConjuntos() == n);
+            for (int i = 0; i < total; i++)
+                for (int j = 0; j < total; j++)
+                    Assert.assertTrue(conjuntos.mismoConjunto(i, j) ==
+                                      (etiquetas[i] == etiquetas[j]));
+        }
+        try {
+            conjuntos.encuentra(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            conjuntos.une(-1, 0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+}
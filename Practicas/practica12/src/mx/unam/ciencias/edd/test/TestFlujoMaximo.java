@@ -0,0 +1,198 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoFlujo;
+import mx.unam.ciencias.edd.FlujoMaximo;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FlujoMaximo}.
+ */
+public class TestFlujoMaximo {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestFlujoMaximo() {
+        random = new Random();
+        total = 2 + random.nextInt(100);
+        grafica = aleatoria(total, 0.1 + random.nextDouble() * 0.4);
+    }
+
+    /* Regresa una gráfica aleatoria con la densidad recibida; la mitad de
+     * las veces los pesos son enteros. */
+    private Grafica<Integer> aleatoria(int n, double densidad) {
+        Grafica<Integer> g = new Grafica<Integer>();
+        boolean enteros = random.nextBoolean();
+        for (int i = 0; i < n; i++)
+            g.agrega(i);
+        for (int i = 0; i < n; i++)
+            for (int j = i+1; j < n; j++)
+                if (random.nextDouble() < densidad)
+                    g.conecta(i, j, enteros ? 1 + random.nextInt(5) :
+                              0.1 + random.nextDouble() * 10);
+        return g;
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#flujoMaximo(Object,Object,
+     * AlgoritmoFlujo)}.
+     */
+    @Test public void testFlujoMaximo() {
+        int s = random.nextInt(total);
+        int t = (s + 1 + random.nextInt(total - 1)) % total;
+        double valor = -1;
+        for (AlgoritmoFlujo algoritmo : AlgoritmoFlujo.values()) {
+            FlujoMaximo<Integer> flujo = grafica.flujoMaximo(s, t, algoritmo);
+            revisaFlujo(grafica, flujo, s, t);
+            if (valor >= 0)
+                Assert.assertEquals(valor, flujo.getValor(),
+                                    1e-9 * Math.max(1, valor));
+            valor = flujo.getValor();
+        }
+        Assert.assertEquals(valor, grafica.flujoMaximo(s, t).getValor(),
+                            1e-9 * Math.max(1, valor));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#flujoMaximo(Object,Object,
+     * AlgoritmoFlujo)} contra todos los cortes de una gráfica pequeña.
+     */
+    @Test public void testFlujoMaximoCortes() {
+        int n = 2 + random.nextInt(10);
+        Grafica<Integer> g = aleatoria(n, 0.5);
+        double minimo = Double.POSITIVE_INFINITY;
+        /* El vértice 0 es la fuente y el n-1 el sumidero. */
+        for (int m = 0; m < (1 << (n - 2)); m++) {
+            double corte = 0;
+            for (int i = 0; i < n; i++)
+                for (int j = i+1; j < n; j++)
+                    if (g.sonVecinos(i, j) && lado(m, i, n) != lado(m, j, n))
+                        corte += g.getPeso(i, j);
+            minimo = Math.min(minimo, corte);
+        }
+        for (AlgoritmoFlujo algoritmo : AlgoritmoFlujo.values()) {
+            FlujoMaximo<Integer> flujo = g.flujoMaximo(0, n-1, algoritmo);
+            revisaFlujo(g, flujo, 0, n-1);
+            Assert.assertEquals(minimo, flujo.getValor(), 1e-9);
+        }
+    }
+
+    /* Nos dice si el vértice i está del lado de la fuente en el corte
+     * descrito por la máscara. */
+    private boolean lado(int mascara, int i, int n) {
+        if (i == 0 || i == n-1)
+            return i == 0;
+        return (mascara & (1 << (i-1))) != 0;
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#flujoMaximo(Object,Object)} en una
+     * red conocida y en una gráfica no conexa.
+     */
+    @Test public void testFlujoMaximoConocido() {
+        Grafica<String> g = new Grafica<String>();
+        for (String e : new String[] { "s", "a", "b", "c", "d", "t" })
+            g.agrega(e);
+        g.conecta("s", "a", 10);
+        g.conecta("s", "c", 10);
+        g.conecta("a", "b", 4);
+        g.conecta("a", "c", 2);
+        g.conecta("a", "d", 8);
+        g.conecta("c", "d", 9);
+        g.conecta("b", "t", 10);
+        g.conecta("d", "b", 6);
+        g.conecta("d", "t", 10);
+        for (AlgoritmoFlujo algoritmo : AlgoritmoFlujo.values()) {
+            FlujoMaximo<String> flujo = g.flujoMaximo("s", "t", algoritmo);
+            Assert.assertEquals(20, flujo.getValor(), 1e-12);
+            Assert.assertEquals("s", flujo.getFuente());
+            Assert.assertEquals("t", flujo.getSumidero());
+            Assert.assertTrue(flujo.estaDelLadoFuente("s"));
+            Assert.assertFalse(flujo.estaDelLadoFuente("t"));
+        }
+        g.agrega("x");
+        g.agrega("y");
+        g.conecta("x", "y", 3);
+        for (AlgoritmoFlujo algoritmo : AlgoritmoFlujo.values()) {
+            FlujoMaximo<String> flujo = g.flujoMaximo("s", "x", algoritmo);
+            Assert.assertTrue(flujo.getValor() == 0);
+            Assert.assertTrue(flujo.getLadoFuente().getLongitud() +
+                              flujo.getLadoSumidero().getLongitud() == 8);
+        }
+        try {
+            g.flujoMaximo("s", "s");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            g.flujoMaximo("s", "z");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        FlujoMaximo<String> flujo = g.flujoMaximo("s", "t");
+        try {
+            flujo.getFlujo("s", "t");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            flujo.estaDelLadoFuente("z");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /* Revisa que el flujo respete capacidades y conservación, que su valor
+     * sea lo que sale de la fuente, y que el corte tenga la misma
+     * capacidad. */
+    private void revisaFlujo(Grafica<Integer> g, FlujoMaximo<Integer> flujo,
+                             int s, int t) {
+        int n = g.getElementos();
+        double tolerancia = 1e-9 * Math.max(1, flujo.getValor());
+        Assert.assertTrue(flujo.estaDelLadoFuente(s));
+        Assert.assertFalse(flujo.estaDelLadoFuente(t));
+        double corte = 0;
+        for (int i = 0; i < n; i++) {
+            double neto = 0;
+            for (int j = 0; j < n; j++) {
+                if (!g.sonVecinos(i, j))
+                    continue;
+                double f = flujo.getFlujo(i, j);
+                Assert.assertEquals(-f, flujo.getFlujo(j, i), tolerancia);
+                Assert.assertTrue(Math.abs(f) <= g.getPeso(i, j) + tolerancia);
+                neto += f;
+                if (flujo.estaDelLadoFuente(i) && !flujo.estaDelLadoFuente(j)) {
+                    corte += g.getPeso(i, j);
+                    Assert.assertEquals(g.getPeso(i, j), f, tolerancia);
+                }
+            }
+            if (i == s)
+                Assert.assertEquals(flujo.getValor(), neto, tolerancia);
+            else if (i == t)
+                Assert.assertEquals(-flujo.getValor(), neto, tolerancia);
+            else
+                Assert.assertEquals(0, neto, tolerancia);
+        }
+        Assert.assertEquals(flujo.getValor(), corte, tolerancia);
+        Lista<Integer> fuente = flujo.getLadoFuente();
+        Lista<Integer> sumidero = flujo.getLadoSumidero();
+        Assert.assertTrue(fuente.getLongitud() + sumidero.getLongitud() == n);
+        for (Integer e : fuente)
+            Assert.assertTrue(flujo.estaDelLadoFuente(e));
+        for (Integer e : sumidero)
+            Assert.assertFalse(flujo.estaDelLadoFuente(e));
+    }
+}
@@ -1,11 +1,18 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import mx.unam.ciencias.edd.AccionVerticeGrafica;
+import mx.unam.ciencias.edd.AlgoritmoArbolGenerador;
+import mx.unam.ciencias.edd.Cola;
 import mx.unam.ciencias.edd.Color;
+import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.Grafica;
 import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.Trayectoria;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
 import mx.unam.ciencias.edd.VerticeGrafica;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -402,6 +409,64 @@ public class TestGrafica {
         }
     }
 
+    /**
+     * Prueba unitaria para {@link Grafica#numeroComponentes} y {@link
+     * Grafica#mismaComponente}.
+     */
+    @Test public void testComponentes() {
+        Assert.assertTrue(grafica.numeroComponentes() == 0);
+        for (int i = 0; i < total; i++) {
+            grafica.agrega(i);
+            Assert.assertTrue(grafica.numeroComponentes() == i + 1);
+        }
+        /* Mezclamos inserciones con desconexiones y eliminaciones. */
+        for (int k = 0; k < 4 * total; k++) {
+            int a = random.nextInt(total);
+            int b = random.nextInt(total);
+            if (!grafica.contiene(a)) {
+                grafica.agrega(a);
+            } else if (a != b && grafica.contiene(b)) {
+                if (!grafica.sonVecinos(a, b))
+                    grafica.conecta(a, b);
+                else if (random.nextInt(4) == 0)
+                    grafica.desconecta(a, b);
+            } else if (random.nextInt(8) == 0) {
+                grafica.elimina(a);
+            }
+            revisaComponentes();
+        }
+        grafica.limpia();
+        Assert.assertTrue(grafica.numeroComponentes() == 0);
+        grafica.agrega(0);
+        grafica.agrega(1);
+        Assert.assertFalse(grafica.mismaComponente(0, 1));
+        grafica.conecta(0, 1);
+        Assert.assertTrue(grafica.mismaComponente(0, 1));
+        try {
+            grafica.mismaComponente(0, total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /* Compara las componentes de la gráfica con las de una BFS. */
+    private void revisaComponentes() {
+        int[] etiquetas = new int[total];
+        int c = 0;
+        for (int i = 0; i < total; i++) {
+            if (!grafica.contiene(i) || etiquetas[i] != 0)
+                continue;
+            int etiqueta = ++c;
+            grafica.bfs(i, (v) -> etiquetas[v.get()] = etiqueta);
+        }
+        Assert.assertTrue(grafica.numeroComponentes() == c);
+        Assert.assertTrue(grafica.esConexa() == (c <= 1));
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++)
+                if (grafica.contiene(i) && grafica.contiene(j))
+                    Assert.assertTrue(grafica.mismaComponente(i, j) ==
+                                      (etiquetas[i] == etiquetas[j]));
+    }
+
    /**
      * Prueba unitaria para {@link Grafica#paraCadaVertice}.
      */
@@ -487,6 +552,118 @@ public class TestGrafica {
                                                          Color.NINGUNO));
     }
 
+    /**
+     * Prueba unitaria para {@link Grafica#recorridoAnchura(Object)}: el
+     * orden es el de {@link Grafica#bfs}, y los colores no cambian.
+     */
+    @Test public void testRecorridoAnchura() {
+        llenaAleatoria();
+        int origen = random.nextInt(total);
+        Lista<Integer> lista = new Lista<Integer>();
+        grafica.bfs(origen, (v) -> lista.agrega(v.get()));
+        Iterator<VerticeGrafica<Integer>> iterador =
+            grafica.recorridoAnchura(origen);
+        for (Integer e : lista) {
+            Assert.assertTrue(iterador.hasNext());
+            VerticeGrafica<Integer> v = iterador.next();
+            Assert.assertTrue(v.get().equals(e));
+            Assert.assertTrue(v.getColor() == Color.NINGUNO);
+        }
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.recorridoAnchura(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#recorridoAnchura(Object,int)}: se
+     * recorren exactamente los vértices a distancia a lo más la
+     * profundidad, en orden de distancia.
+     */
+    @Test public void testRecorridoAnchuraAcotado() {
+        llenaAleatoria();
+        int origen = random.nextInt(total);
+        int profundidad = random.nextInt(4);
+        int[] distancias = new int[total];
+        Arrays.fill(distancias, -1);
+        Cola<Integer> cola = new Cola<Integer>();
+        distancias[origen] = 0;
+        cola.mete(origen);
+        while (!cola.esVacia()) {
+            int v = cola.saca();
+            for (int u = 0; u < total; u++)
+                if (distancias[u] == -1 && grafica.sonVecinos(v, u)) {
+                    distancias[u] = distancias[v] + 1;
+                    cola.mete(u);
+                }
+        }
+        boolean[] vistos = new boolean[total];
+        int anterior = 0;
+        Iterator<VerticeGrafica<Integer>> iterador =
+            grafica.recorridoAnchura(origen, profundidad);
+        while (iterador.hasNext()) {
+            int v = iterador.next().get();
+            Assert.assertFalse(vistos[v]);
+            vistos[v] = true;
+            Assert.assertTrue(distancias[v] >= anterior);
+            anterior = distancias[v];
+        }
+        for (int v = 0; v < total; v++)
+            Assert.assertTrue(vistos[v] == (distancias[v] != -1 &&
+                                             distancias[v] <= profundidad));
+        try {
+            grafica.recorridoAnchura(origen, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#recorridoProfundidad}: el orden es
+     * un recorrido DFS válido de la componente del origen.
+     */
+    @Test public void testRecorridoProfundidad() {
+        llenaAleatoria();
+        int origen = random.nextInt(total);
+        boolean[] vistos = new boolean[total];
+        int[] rama = new int[total];
+        int profundidad = 0;
+        int recorridos = 0;
+        Iterator<VerticeGrafica<Integer>> iterador =
+            grafica.recorridoProfundidad(origen);
+        while (iterador.hasNext()) {
+            VerticeGrafica<Integer> vertice = iterador.next();
+            Assert.assertTrue(vertice.getColor() == Color.NINGUNO);
+            int v = vertice.get();
+            Assert.assertFalse(vistos[v]);
+            /* Se regresa por la rama mientras el vértice más profundo no
+             * tenga vecinos sin visitar; entonces debe ser vecino de v. */
+            while (profundidad > 0 && !tieneNuevos(rama[profundidad-1],
+                                                   vistos))
+                profundidad--;
+            if (recorridos > 0)
+                Assert.assertTrue(grafica.sonVecinos(rama[profundidad-1], v));
+            vistos[v] = true;
+            rama[profundidad++] = v;
+            recorridos++;
+        }
+        int[] cuenta = { 0 };
+        grafica.bfs(origen, (v) -> cuenta[0]++);
+        Assert.assertTrue(recorridos == cuenta[0]);
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.recorridoProfundidad(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
     /**
      * Prueba unitaria para {@link Grafica#esVacia}.
      */
@@ -700,4 +877,426 @@ public class TestGrafica {
             Assert.assertTrue(lista.equals(dijkstra));
         }
     }
+
+    /**
+     * Prueba unitaria para {@link Grafica#dijkstra} con pesos no enteros.
+     */
+    @Test public void testDijkstraPesosReales() {
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(3) == 0)
+                    grafica.conecta(i, j, 0.1 + random.nextDouble() * 10);
+        /* Bellman-Ford desde el origen. */
+        int origen = random.nextInt(total);
+        double[] d = new double[total];
+        for (int i = 0; i < total; i++)
+            d[i] = Double.POSITIVE_INFINITY;
+        d[origen] = 0;
+        for (int k = 0; k < total; k++)
+            for (int i = 0; i < total; i++)
+                for (VerticeGrafica<Integer> v : grafica.vertice(i).vecinos())
+                    d[v.get()] = Math.min(d[v.get()],
+                                          d[i] + grafica.getPeso(i, v.get()));
+        for (int destino = 0; destino < total; destino++) {
+            Lista<VerticeGrafica<Integer>> t =
+                grafica.dijkstra(origen, destino);
+            if (d[destino] == Double.POSITIVE_INFINITY) {
+                Assert.assertTrue(t.esVacia());
+                continue;
+            }
+            Assert.assertTrue(t.getPrimero().get() == origen);
+            Assert.assertTrue(t.getUltimo().get() == destino);
+            double peso = 0;
+            VerticeGrafica<Integer> anterior = null;
+            for (VerticeGrafica<Integer> v : t) {
+                if (anterior != null)
+                    peso += grafica.getPeso(anterior.get(), v.get());
+                anterior = v;
+            }
+            Assert.assertEquals(d[destino], peso, 1e-9);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#dijkstraBidireccional}.
+     */
+    @Test public void testDijkstraBidireccional() {
+        conectaAleatoriamente();
+        int origen = random.nextInt(total);
+        for (int destino = 0; destino < total; destino++) {
+            TrayectoriasMinimas<Integer> tm = grafica.dijkstraDesde(destino);
+            revisaTrayectoria(grafica.dijkstraBidireccional(origen, destino),
+                              origen, destino, tm.getDistancia(origen));
+        }
+        try {
+            grafica.dijkstraBidireccional(origen, total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#aEstrella}.
+     */
+    @Test public void testAEstrella() {
+        conectaAleatoriamente();
+        int origen = random.nextInt(total);
+        for (int destino = 0; destino < total; destino++) {
+            TrayectoriasMinimas<Integer> tm = grafica.dijkstraDesde(destino);
+            double d = tm.getDistancia(origen);
+            revisaTrayectoria(grafica.aEstrella(origen, destino,
+                                                (a, b) -> 0.0),
+                              origen, destino, d);
+            /* Una heurística admisible pero no consistente. */
+            revisaTrayectoria(grafica.aEstrella(origen, destino, (a, b) ->
+                tm.esAlcanzable(a) ? random.nextDouble() *
+                                     tm.getDistancia(a) : 0.0),
+                              origen, destino, d);
+        }
+        /* En una cuadrícula, la distancia Manhattan es admisible. */
+        grafica = new Grafica<Integer>();
+        int lado = 10 + random.nextInt(20);
+        for (int i = 0; i < lado * lado; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < lado * lado; i++) {
+            if (i % lado + 1 < lado)
+                grafica.conecta(i, i + 1, 1 + random.nextDouble());
+            if (i + lado < lado * lado)
+                grafica.conecta(i, i + lado, 1 + random.nextDouble());
+        }
+        int destino = lado * lado - 1;
+        Trayectoria<Integer> t = grafica.aEstrella(0, destino, (a, b) ->
+            (double)(Math.abs(a % lado - b % lado) +
+                     Math.abs(a / lado - b / lado)));
+        revisaTrayectoria(t, 0, destino,
+                          grafica.dijkstraDesde(0).getDistancia(destino));
+        Assert.assertTrue(t.getAsentados() <= lado * lado);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#matrizDistancias}.
+     */
+    @Test public void testMatrizDistancias() {
+        conectaAleatoriamente();
+        Lista<Integer> origenes = new Lista<Integer>();
+        Lista<Integer> destinos = new Lista<Integer>();
+        for (int i = 0; i < total; i++) {
+            if (random.nextBoolean())
+                origenes.agrega(random.nextInt(total));
+            if (random.nextBoolean())
+                destinos.agrega(random.nextInt(total));
+        }
+        for (int hilos = 1; hilos <= 3; hilos++) {
+            double[][] m = grafica.matrizDistancias(origenes, destinos, hilos);
+            Assert.assertTrue(m.length == origenes.getElementos());
+            int i = 0;
+            for (Integer origen : origenes) {
+                TrayectoriasMinimas<Integer> tm = grafica.dijkstraDesde(origen);
+                Assert.assertTrue(m[i].length == destinos.getElementos());
+                int j = 0;
+                for (Integer destino : destinos)
+                    Assert.assertTrue(m[i][j++] == tm.getDistancia(destino));
+                i++;
+            }
+        }
+        Lista<Integer> invalidos = new Lista<Integer>();
+        invalidos.agrega(total);
+        try {
+            grafica.matrizDistancias(origenes, invalidos);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.matrizDistancias(origenes, destinos, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * Grafica#arbolGeneradorMinimo(AlgoritmoArbolGenerador)}.
+     */
+    @Test public void testArbolGeneradorMinimo() {
+        conectaAleatoriamente();
+        revisaArbolesGeneradores();
+        /* Con pesos enteros hay muchos empates. */
+        grafica = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(3) == 0)
+                    grafica.conecta(i, j, 1 + random.nextInt(3));
+        revisaArbolesGeneradores();
+        Assert.assertTrue(grafica.arbolGeneradorMinimo().getAristas() ==
+                          total - componentes(grafica));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#kTrayectoriasMinimas}.
+     */
+    @Test public void testKTrayectoriasMinimas() {
+        total = 2 + random.nextInt(8);
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(5) < 2)
+                    grafica.conecta(i, j, 1 + random.nextInt(4));
+        int origen = random.nextInt(total);
+        int destino = random.nextInt(total);
+        /* Todas las trayectorias sin ciclos, por fuerza bruta. */
+        Lista<Double> pesos = new Lista<Double>();
+        boolean[] enCamino = new boolean[total];
+        enCamino[origen] = true;
+        enumera(origen, destino, 0, enCamino, pesos);
+        double[] esperados = new double[pesos.getLongitud()];
+        int n = 0;
+        for (Double p : pesos)
+            esperados[n++] = p;
+        Arrays.sort(esperados);
+        int k = 1 + random.nextInt(esperados.length + 3);
+        Lista<Trayectoria<Integer>> trayectorias =
+            grafica.kTrayectoriasMinimas(origen, destino, k);
+        Assert.assertTrue(trayectorias.getLongitud() ==
+                          Math.min(k, esperados.length));
+        int i = 0;
+        Lista<Lista<Integer>> vistas = new Lista<Lista<Integer>>();
+        for (Trayectoria<Integer> t : trayectorias) {
+            Assert.assertEquals(esperados[i++], t.getPeso(), 1e-9);
+            revisaTrayectoria(t, origen, destino, t.getPeso());
+            boolean[] visto = new boolean[total];
+            for (Integer v : t) {
+                Assert.assertFalse(visto[v]);
+                visto[v] = true;
+            }
+            Assert.assertFalse(vistas.contiene(t.lista()));
+            vistas.agregaFinal(t.lista());
+        }
+        try {
+            grafica.kTrayectoriasMinimas(origen, destino, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.kTrayectoriasMinimas(origen, total, 1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /* Agrega a la lista los pesos de todas las trayectorias sin ciclos del
+     * vértice al destino. */
+    private void enumera(int v, int destino, double peso, boolean[] enCamino,
+                         Lista<Double> pesos) {
+        if (v == destino) {
+            pesos.agregaFinal(peso);
+            return;
+        }
+        for (int u = 0; u < total; u++) {
+            if (enCamino[u] || !grafica.sonVecinos(v, u))
+                continue;
+            enCamino[u] = true;
+            enumera(u, destino, peso + grafica.getPeso(v, u), enCamino, pesos);
+            enCamino[u] = false;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#intermediacion(int)}.
+     */
+    @Test public void testIntermediacion() {
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(4) == 0)
+                    grafica.conecta(i, j);
+        revisaIntermediacion();
+        /* Con pesos enteros hay muchas trayectorias mínimas empatadas. */
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (grafica.sonVecinos(i, j))
+                    grafica.setPeso(i, j, 1 + random.nextInt(3));
+        revisaIntermediacion();
+        try {
+            grafica.intermediacion(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#intermediacionAproximada}.
+     */
+    @Test public void testIntermediacionAproximada() {
+        conectaAleatoriamente();
+        Diccionario<Integer, Double> exacta = grafica.intermediacion();
+        Diccionario<Integer, Double> aproximada =
+            grafica.intermediacionAproximada(total, random);
+        for (int i = 0; i < total; i++)
+            Assert.assertEquals(exacta.get(i), aproximada.get(i),
+                                1e-9 * Math.max(1, exacta.get(i)));
+        int muestras = 1 + random.nextInt(total);
+        aproximada = grafica.intermediacionAproximada(muestras, random);
+        Assert.assertTrue(aproximada.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(aproximada.get(i) >= 0);
+        try {
+            grafica.intermediacionAproximada(0, random);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /* Compara la intermediación de la gráfica con 1 a 4 hilos con la
+     * calculada directamente a partir de las distancias entre todos los
+     * pares. */
+    private void revisaIntermediacion() {
+        double[][] d = new double[total][total];
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++)
+                d[i][j] = i == j ? 0 : grafica.sonVecinos(i, j) ?
+                    grafica.getPeso(i, j) : Double.POSITIVE_INFINITY;
+        for (int k = 0; k < total; k++)
+            for (int i = 0; i < total; i++)
+                for (int j = 0; j < total; j++)
+                    d[i][j] = Math.min(d[i][j], d[i][k] + d[k][j]);
+        /* El número de trayectorias mínimas entre cada par. */
+        double[][] t = new double[total][total];
+        for (int s = 0; s < total; s++) {
+            double[] ds = d[s];
+            Integer[] orden = new Integer[total];
+            for (int i = 0; i < total; i++)
+                orden[i] = i;
+            Arrays.sort(orden, (a, b) -> Double.compare(ds[a], ds[b]));
+            t[s][s] = 1;
+            for (int v : orden)
+                for (int u = 0; u < total; u++)
+                    if (grafica.sonVecinos(u, v) &&
+                        ds[u] + grafica.getPeso(u, v) == ds[v])
+                        t[s][v] += t[s][u];
+        }
+        double[] esperada = new double[total];
+        for (int s = 0; s < total; s++)
+            for (int u = s+1; u < total; u++)
+                for (int v = 0; v < total; v++)
+                    if (v != s && v != u && d[s][u] < Double.POSITIVE_INFINITY &&
+                        d[s][v] + d[v][u] == d[s][u])
+                        esperada[v] += t[s][v] * t[v][u] / t[s][u];
+        for (int hilos = 1; hilos <= 4; hilos++) {
+            Diccionario<Integer, Double> intermediacion =
+                grafica.intermediacion(hilos);
+            Assert.assertTrue(intermediacion.getElementos() == total);
+            for (int v = 0; v < total; v++)
+                Assert.assertEquals(esperada[v], intermediacion.get(v),
+                                    1e-9 * Math.max(1, esperada[v]));
+        }
+    }
+
+    /* Revisa que los tres algoritmos regresen bosques generadores de peso
+     * mínimo. */
+    private void revisaArbolesGeneradores() {
+        int componentes = componentes(grafica);
+        double peso = -1;
+        for (AlgoritmoArbolGenerador algoritmo :
+                 AlgoritmoArbolGenerador.values()) {
+            Grafica<Integer> arbol = grafica.arbolGeneradorMinimo(algoritmo);
+            Assert.assertTrue(arbol.getElementos() == total);
+            Assert.assertTrue(arbol.getAristas() == total - componentes);
+            Assert.assertTrue(componentes(arbol) == componentes);
+            double p = 0;
+            for (int i = 0; i < total; i++) {
+                /* El cuello de botella del camino en el árbol de i a cada
+                 * vértice. */
+                double[] maximos = new double[total];
+                for (int j = 0; j < total; j++)
+                    maximos[j] = -1;
+                maximos[i] = 0;
+                Cola<Integer> cola = new Cola<Integer>();
+                cola.mete(i);
+                while (!cola.esVacia()) {
+                    int v = cola.saca();
+                    for (VerticeGrafica<Integer> u : arbol.vertice(v).vecinos()) {
+                        if (maximos[u.get()] != -1)
+                            continue;
+                        double w = arbol.getPeso(v, u.get());
+                        maximos[u.get()] = Math.max(maximos[v], w);
+                        cola.mete(u.get());
+                    }
+                }
+                for (int j = i+1; j < total; j++) {
+                    if (arbol.sonVecinos(i, j)) {
+                        Assert.assertTrue(grafica.getPeso(i, j) ==
+                                          arbol.getPeso(i, j));
+                        p += arbol.getPeso(i, j);
+                    }
+                    /* Ninguna arista fuera del árbol es más ligera que el
+                     * camino que cierra. */
+                    if (grafica.sonVecinos(i, j))
+                        Assert.assertTrue(maximos[j] <= grafica.getPeso(i, j));
+                }
+            }
+            if (peso >= 0)
+                Assert.assertEquals(peso, p, 1e-9);
+            peso = p;
+        }
+    }
+
+    /* Regresa el número de componentes conexas de una gráfica. */
+    private int componentes(Grafica<Integer> g) {
+        boolean[] vistos = new boolean[total];
+        int c = 0;
+        for (int i = 0; i < total; i++) {
+            if (vistos[i])
+                continue;
+            c++;
+            g.bfs(i, (v) -> vistos[v.get()] = true);
+        }
+        return c;
+    }
+
+    /* Conecta aleatoriamente los elementos de la gráfica con pesos reales. */
+    private void conectaAleatoriamente() {
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(5) == 0)
+                    grafica.conecta(i, j, 0.1 + random.nextDouble() * 10);
+    }
+
+    /* Conecta aleatoriamente los elementos de la gráfica con pocas aristas,
+     * para que tenga trayectorias largas. */
+    private void llenaAleatoria() {
+        double densidad = random.nextDouble() * 3 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j);
+    }
+
+    /* Nos dice si un vértice tiene vecinos sin visitar. */
+    private boolean tieneNuevos(int v, boolean[] vistos) {
+        for (int u = 0; u < total; u++)
+            if (!vistos[u] && grafica.sonVecinos(v, u))
+                return true;
+        return false;
+    }
+
+    /* Revisa que una trayectoria vaya del origen al destino con el peso
+     * esperado. */
+    private void revisaTrayectoria(Trayectoria<Integer> t, int origen,
+                                   int destino, double peso) {
+        if (peso == Double.POSITIVE_INFINITY) {
+            Assert.assertTrue(t.esVacia());
+            return;
+        }
+        Assert.assertTrue(t.get(0) == origen);
+        Assert.assertTrue(t.get(t.getLongitud() - 1) == destino);
+        Assert.assertEquals(peso, t.getPeso(), 1e-9);
+        double suma = 0;
+        for (int i = 1; i < t.getLongitud(); i++)
+            suma += grafica.getPeso(t.get(i-1), t.get(i));
+        Assert.assertEquals(peso, suma, 1e-9);
+        Assert.assertTrue(t.getAsentados() > 0);
+    }
 }
@@ -0,0 +1,201 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Cola;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.GraficaCompacta;
+import mx.unam.ciencias.edd.OrdenVertices;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
+import mx.unam.ciencias.edd.VerticeGrafica;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link GraficaCompacta}.
+ */
+public class TestGraficaCompacta {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestGraficaCompacta() {
+        random = new Random();
+        total = 2 + random.nextInt(100);
+        grafica = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(4) == 0)
+                    grafica.conecta(i, j, 1 + random.nextInt(10));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#compacta}.
+     */
+    @Test public void testCompacta() {
+        GraficaCompacta<Integer> compacta = grafica.compacta();
+        Assert.assertTrue(compacta.getElementos() == grafica.getElementos());
+        Assert.assertTrue(compacta.getAristas() == grafica.getAristas());
+        Assert.assertTrue(compacta == grafica.compacta());
+        for (int i = 0; i < compacta.getElementos(); i++) {
+            Integer e = compacta.get(i);
+            Assert.assertTrue(compacta.indice(e) == i);
+            Assert.assertTrue(compacta.getGrado(i) ==
+                              grafica.vertice(e).getGrado());
+            for (int k = 0; k < compacta.getGrado(i); k++) {
+                Integer v = compacta.get(compacta.getVecino(i, k));
+                Assert.assertTrue(grafica.sonVecinos(e, v));
+                Assert.assertTrue(compacta.getPeso(i, k) ==
+                                  grafica.getPeso(e, v));
+            }
+        }
+        grafica.agrega(total);
+        Assert.assertFalse(compacta == grafica.compacta());
+        Assert.assertTrue(grafica.compacta().getElementos() == total + 1);
+        try {
+            compacta.indice(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            compacta.get(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            compacta.getVecino(0, compacta.getGrado(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaCompacta#bfsParalelo(int,int)}.
+     */
+    @Test public void testBfsParalelo() {
+        revisaBfs(grafica);
+        Grafica<Integer> camino = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            camino.agrega(i);
+        for (int i = 1; i < total; i++)
+            camino.conecta(i-1, i);
+        int[] d = camino.compacta().bfsParalelo(camino.compacta().indice(0));
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d[camino.compacta().indice(i)] == i);
+        /* Una gráfica densa y grande hace que la BFS cambie de dirección. */
+        int n = 5000 + random.nextInt(5000);
+        Grafica<Integer> densa = new Grafica<Integer>();
+        for (int i = 0; i < n; i++)
+            densa.agrega(i);
+        for (int i = 0; i < n * 8; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b && !densa.sonVecinos(a, b))
+                densa.conecta(a, b);
+        }
+        revisaBfs(densa);
+        try {
+            grafica.compacta().bfsParalelo(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.compacta().bfsParalelo(0, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaCompacta#reordena} y {@link
+     * Grafica#compacta(OrdenVertices)}.
+     */
+    @Test public void testReordena() {
+        GraficaCompacta<Integer> compacta = grafica.compacta();
+        Assert.assertTrue(grafica.compacta(OrdenVertices.ITERACION) ==
+                          compacta);
+        for (OrdenVertices orden : OrdenVertices.values()) {
+            GraficaCompacta<Integer> r = grafica.compacta(orden);
+            Assert.assertTrue(r.getElementos() == compacta.getElementos());
+            Assert.assertTrue(r.getAristas() == compacta.getAristas());
+            for (int i = 0; i < r.getElementos(); i++) {
+                Integer e = r.get(i);
+                Assert.assertTrue(r.indice(e) == i);
+                Assert.assertTrue(r.getGrado(i) ==
+                                  compacta.getGrado(compacta.indice(e)));
+                if (orden == OrdenVertices.GRADO && i > 0)
+                    Assert.assertTrue(r.getGrado(i-1) >= r.getGrado(i));
+                for (int k = 0; k < r.getGrado(i); k++) {
+                    Integer v = r.get(r.getVecino(i, k));
+                    Assert.assertTrue(grafica.sonVecinos(e, v));
+                    Assert.assertTrue(r.getPeso(i, k) ==
+                                      grafica.getPeso(e, v));
+                    if (k > 0)
+                        Assert.assertTrue(r.getVecino(i, k-1) <
+                                          r.getVecino(i, k));
+                }
+            }
+            TrayectoriasMinimas<Integer> a = compacta.dijkstraDesde(0);
+            TrayectoriasMinimas<Integer> b =
+                r.dijkstraDesde(r.indice(compacta.get(0)));
+            for (Integer e : grafica)
+                Assert.assertEquals(a.getDistancia(e), b.getDistancia(e),
+                                    1e-9);
+        }
+        /* Un camino con los elementos revueltos queda con ancho de banda
+         * uno con Cuthill–McKee. */
+        Grafica<Integer> camino = new Grafica<Integer>();
+        int[] revueltos = new int[total];
+        for (int i = 0; i < total; i++) {
+            int j = random.nextInt(i + 1);
+            revueltos[i] = revueltos[j];
+            revueltos[j] = i;
+        }
+        for (int i = 0; i < total; i++)
+            camino.agrega(revueltos[i]);
+        for (int i = 1; i < total; i++)
+            camino.conecta(i-1, i);
+        GraficaCompacta<Integer> r =
+            camino.compacta(OrdenVertices.CUTHILL_MCKEE);
+        for (int i = 0; i < total; i++)
+            for (int k = 0; k < r.getGrado(i); k++)
+                Assert.assertTrue(Math.abs(r.getVecino(i, k) - i) == 1);
+    }
+
+    /* Compara la BFS paralela con una BFS secuencial. */
+    private void revisaBfs(Grafica<Integer> g) {
+        GraficaCompacta<Integer> compacta = g.compacta();
+        int origen = random.nextInt(compacta.getElementos());
+        int[] esperadas = new int[compacta.getElementos()];
+        for (int i = 0; i < esperadas.length; i++)
+            esperadas[i] = -1;
+        esperadas[origen] = 0;
+        Cola<Integer> cola = new Cola<Integer>();
+        cola.mete(origen);
+        while (!cola.esVacia()) {
+            int v = cola.saca();
+            VerticeGrafica<Integer> vertice = g.vertice(compacta.get(v));
+            for (VerticeGrafica<Integer> vecino : vertice.vecinos()) {
+                int u = compacta.indice(vecino.get());
+                if (esperadas[u] == -1) {
+                    esperadas[u] = esperadas[v] + 1;
+                    cola.mete(u);
+                }
+            }
+        }
+        for (int hilos = 1; hilos <= 4; hilos++) {
+            int[] d = compacta.bfsParalelo(origen, hilos);
+            for (int i = 0; i < d.length; i++)
+                Assert.assertTrue(d[i] == esperadas[i]);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.GraficaComprimida;
+import mx.unam.ciencias.edd.OrdenVertices;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link GraficaComprimida}.
+ */
+public class TestGraficaComprimida {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestGraficaComprimida() {
+        random = new Random();
+        total = 1 + random.nextInt(200);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 10 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j);
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaComprimida#sucesores} con todos los
+     * órdenes y distintas ventanas.
+     */
+    @Test public void testSucesores() {
+        for (OrdenVertices orden : OrdenVertices.values()) {
+            GraficaComprimida<Integer> c =
+                grafica.comprimida(orden, random.nextInt(10));
+            Assert.assertTrue(c.getElementos() == total);
+            Assert.assertTrue(c.getAristas() == grafica.getAristas());
+            revisa(c, grafica);
+        }
+        revisa(grafica.comprimida(), grafica);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#comprimida(OrdenVertices,int)}:
+     * comprimir leyendo los vértices o la representación compacta da el
+     * mismo resultado.
+     */
+    @Test public void testCompacta() {
+        OrdenVertices[] ordenes = OrdenVertices.values();
+        int[] ventanas = new int[ordenes.length];
+        @SuppressWarnings("unchecked") GraficaComprimida<Integer>[] sin =
+            (GraficaComprimida<Integer>[])new GraficaComprimida[ordenes.length];
+        for (int i = 0; i < ordenes.length; i++) {
+            ventanas[i] = random.nextInt(10);
+            sin[i] = grafica.comprimida(ordenes[i], ventanas[i]);
+        }
+        grafica.compacta();
+        for (int i = 0; i < ordenes.length; i++)
+            iguales(sin[i], grafica.comprimida(ordenes[i], ventanas[i]));
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaComprimida}: con vecindades
+     * repetidas, las referencias reducen el tamaño.
+     */
+    @Test public void testReferencias() {
+        int grupos = 2 + random.nextInt(5);
+        int lado = 10 + random.nextInt(20);
+        Grafica<Integer> bipartita = new Grafica<Integer>();
+        for (int i = 0; i < grupos * 2 * lado; i++)
+            bipartita.agrega(i);
+        /* Cada grupo es una gráfica bipartita completa: los vértices de un
+         * lado tienen todos la misma vecindad. */
+        for (int g = 0; g < grupos; g++)
+            for (int i = 0; i < lado; i++)
+                for (int j = 0; j < lado; j++)
+                    if (random.nextInt(10) != 0)
+                        bipartita.conecta(g * 2 * lado + i,
+                                          g * 2 * lado + lado + j);
+        GraficaComprimida<Integer> sin =
+            bipartita.comprimida(OrdenVertices.ITERACION, 0);
+        GraficaComprimida<Integer> con =
+            bipartita.comprimida(OrdenVertices.ITERACION, 8);
+        revisa(sin, bipartita);
+        revisa(con, bipartita);
+        Assert.assertTrue(con.getBytes() < sin.getBytes());
+        Assert.assertTrue(con.getBitsPorArco() < sin.getBitsPorArco());
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaComprimida#bfs}.
+     */
+    @Test public void testBfs() {
+        GraficaComprimida<Integer> c = grafica.comprimida();
+        int s = random.nextInt(total);
+        int[] niveles = c.bfs(c.indice(s));
+        int[] esperados = grafica.compacta().bfsParalelo(
+            grafica.compacta().indice(s), 1);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(niveles[c.indice(i)] ==
+                              esperados[grafica.compacta().indice(i)]);
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaComprimida} con argumentos
+     * inválidos.
+     */
+    @Test public void testInvalidos() {
+        GraficaComprimida<Integer> c = grafica.comprimida();
+        try {
+            c.sucesores(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            c.bfs(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            c.indice(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        PrimitiveIterator.OfInt i = c.sucesores(0);
+        while (i.hasNext())
+            i.nextInt();
+        try {
+            i.nextInt();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.comprimida(OrdenVertices.BFS, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /* Revisa que las dos gráficas comprimidas sean iguales. */
+    private void iguales(GraficaComprimida<Integer> a,
+                         GraficaComprimida<Integer> b) {
+        Assert.assertTrue(a.getElementos() == b.getElementos());
+        Assert.assertTrue(a.getAristas() == b.getAristas());
+        Assert.assertTrue(a.getBytes() == b.getBytes());
+        for (int v = 0; v < a.getElementos(); v++) {
+            Assert.assertTrue(a.get(v).equals(b.get(v)));
+            PrimitiveIterator.OfInt i = a.sucesores(v);
+            PrimitiveIterator.OfInt j = b.sucesores(v);
+            while (i.hasNext())
+                Assert.assertTrue(i.nextInt() == j.nextInt());
+            Assert.assertFalse(j.hasNext());
+        }
+    }
+
+    /* Revisa que los sucesores de cada vértice sean sus vecinos en la
+     * gráfica, en orden creciente. */
+    private void revisa(GraficaComprimida<Integer> c, Grafica<Integer> g) {
+        for (int v = 0; v < c.getElementos(); v++) {
+            Integer e = c.get(v);
+            Assert.assertTrue(c.indice(e) == v);
+            Assert.assertTrue(c.getGrado(v) == g.vertice(e).getGrado());
+            PrimitiveIterator.OfInt i = c.sucesores(v);
+            int grado = 0;
+            int anterior = -1;
+            while (i.hasNext()) {
+                int u = i.nextInt();
+                Assert.assertTrue(u > anterior);
+                Assert.assertTrue(g.sonVecinos(e, c.get(u)));
+                anterior = u;
+                grado++;
+            }
+            Assert.assertTrue(grado == c.getGrado(v));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Color;
+import mx.unam.ciencias.edd.GraficaDirigida;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.VerticeGrafica;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link GraficaDirigida}.
+ */
+public class TestGraficaDirigida {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private GraficaDirigida<Integer> grafica;
+
+    /**
+     * Crea una gráfica dirigida con elementos pero sin arcos para cada
+     * prueba.
+     */
+    public TestGraficaDirigida() {
+        random = new Random();
+        total = 2 + random.nextInt(100);
+        grafica = new GraficaDirigida<Integer>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#conecta(Object,Object,double)}.
+     */
+    @Test public void testConecta() {
+        Assert.assertTrue(grafica.getArcos() == 0);
+        grafica.conecta(0, 1, 2.5);
+        Assert.assertTrue(grafica.sonVecinos(0, 1));
+        Assert.assertFalse(grafica.sonVecinos(1, 0));
+        Assert.assertTrue(grafica.getPeso(0, 1) == 2.5);
+        Assert.assertTrue(grafica.getGradoSalida(0) == 1);
+        Assert.assertTrue(grafica.getGradoEntrada(0) == 0);
+        Assert.assertTrue(grafica.getGradoEntrada(1) == 1);
+        grafica.conecta(1, 0);
+        Assert.assertTrue(grafica.getArcos() == 2);
+        Assert.assertTrue(grafica.getPeso(1, 0) == 1.0);
+        try {
+            grafica.conecta(0, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.conecta(0, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.conecta(0, total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#desconecta} y {@link
+     * GraficaDirigida#elimina}.
+     */
+    @Test public void testDesconectaElimina() {
+        conectaAleatoriamente(4);
+        int arcos = grafica.getArcos();
+        int a = random.nextInt(total);
+        int eliminados = grafica.getGradoEntrada(a) + grafica.getGradoSalida(a);
+        grafica.elimina(a);
+        Assert.assertFalse(grafica.contiene(a));
+        Assert.assertTrue(grafica.getArcos() == arcos - eliminados);
+        for (Integer e : grafica)
+            for (VerticeGrafica<Integer> v : grafica.vertice(e).vecinos())
+                Assert.assertFalse(v.get() == a);
+        grafica.agrega(a);
+        grafica.conecta(a, (a + 1) % total, 3);
+        grafica.desconecta(a, (a + 1) % total);
+        Assert.assertFalse(grafica.sonVecinos(a, (a + 1) % total));
+        Assert.assertTrue(grafica.getArcos() == arcos - eliminados);
+        try {
+            grafica.desconecta(a, (a + 1) % total);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#bfs} y {@link
+     * GraficaDirigida#dfs}.
+     */
+    @Test public void testRecorridos() {
+        for (int i = 1; i < total; i++)
+            grafica.conecta(i-1, i);
+        Lista<Integer> lista = new Lista<Integer>();
+        grafica.bfs(0, (v) -> lista.agrega(v.get()));
+        Assert.assertTrue(lista.getLongitud() == total);
+        lista.limpia();
+        grafica.dfs(total - 1, (v) -> lista.agrega(v.get()));
+        Assert.assertTrue(lista.getLongitud() == 1);
+        lista.limpia();
+        grafica.invertida().dfs(total - 1, (v) -> lista.agrega(v.get()));
+        Assert.assertTrue(lista.getLongitud() == total);
+        grafica.paraCadaVertice((v) -> Assert.assertTrue(v.getColor() ==
+                                                         Color.NINGUNO));
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#invertida}.
+     */
+    @Test public void testInvertida() {
+        conectaAleatoriamente(4);
+        GraficaDirigida<Integer> invertida = grafica.invertida();
+        Assert.assertTrue(invertida.invertida() == grafica);
+        Assert.assertTrue(invertida.getArcos() == grafica.getArcos());
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(invertida.getGradoSalida(i) ==
+                              grafica.getGradoEntrada(i));
+            Assert.assertTrue(invertida.vertice(i).getGrado() ==
+                              grafica.getGradoEntrada(i));
+            for (VerticeGrafica<Integer> v : invertida.vertice(i).vecinos())
+                Assert.assertTrue(grafica.sonVecinos(v.get(), i));
+            for (int j = 0; j < total; j++)
+                Assert.assertTrue(invertida.sonVecinos(i, j) ==
+                                  grafica.sonVecinos(j, i));
+        }
+        int a = random.nextInt(total);
+        int b = (a + 1) % total;
+        if (invertida.sonVecinos(a, b))
+            invertida.desconecta(a, b);
+        invertida.conecta(a, b, 7);
+        Assert.assertTrue(grafica.getPeso(b, a) == 7);
+        Assert.assertTrue(invertida.getArcos() == grafica.getArcos());
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#componentesFuertes}.
+     */
+    @Test public void testComponentesFuertes() {
+        conectaAleatoriamente(total);
+        boolean[][] alcanza = new boolean[total][total];
+        for (int i = 0; i < total; i++) {
+            int k = i;
+            grafica.bfs(i, (v) -> alcanza[k][v.get()] = true);
+        }
+        Lista<Lista<Integer>> componentes = grafica.componentesFuertes();
+        int[] componente = new int[total];
+        int c = 0;
+        int elementos = 0;
+        for (Lista<Integer> l : componentes) {
+            c++;
+            for (Integer e : l) {
+                componente[e] = c;
+                elementos++;
+            }
+        }
+        Assert.assertTrue(elementos == total);
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++) {
+                Assert.assertTrue((componente[i] == componente[j]) ==
+                                  (alcanza[i][j] && alcanza[j][i]));
+                /* Orden topológico inverso de las componentes. */
+                if (alcanza[i][j])
+                    Assert.assertTrue(componente[i] >= componente[j]);
+            }
+        /* Un camino largo no desborda la pila. */
+        GraficaDirigida<Integer> camino = new GraficaDirigida<Integer>();
+        int n = 100000;
+        for (int i = 0; i < n; i++)
+            camino.agrega(i);
+        for (int i = 1; i < n; i++)
+            camino.conecta(i-1, i);
+        Assert.assertTrue(camino.componentesFuertes().getLongitud() == n);
+        camino.conecta(n-1, 0);
+        Assert.assertTrue(camino.componentesFuertes().getLongitud() == 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaDirigida#ordenTopologico}.
+     */
+    @Test public void testOrdenTopologico() {
+        /* Los arcos van de menor a mayor en una permutación aleatoria. */
+        int[] permutacion = new int[total];
+        for (int i = 0; i < total; i++) {
+            int j = random.nextInt(i + 1);
+            permutacion[i] = permutacion[j];
+            permutacion[j] = i;
+        }
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(4) == 0)
+                    grafica.conecta(permutacion[i], permutacion[j]);
+        Assert.assertTrue(grafica.esAciclica());
+        Lista<Integer> orden = grafica.ordenTopologico();
+        Assert.assertTrue(orden.getLongitud() == total);
+        int[] posiciones = new int[total];
+        int p = 0;
+        for (Integer e : orden)
+            posiciones[e] = p++;
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++)
+                if (grafica.sonVecinos(i, j))
+                    Assert.assertTrue(posiciones[i] < posiciones[j]);
+        Lista<Integer> inverso = grafica.invertida().ordenTopologico();
+        Assert.assertTrue(inverso.getLongitud() == total);
+        int a = permutacion[0];
+        int b = permutacion[total - 1];
+        if (!grafica.sonVecinos(a, b))
+            grafica.conecta(a, b);
+        grafica.conecta(b, a);
+        Assert.assertFalse(grafica.esAciclica());
+        try {
+            grafica.ordenTopologico();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+
+    /* Agrega a lo más m arcos aleatorios. */
+    private void conectaAleatoriamente(int m) {
+        for (int k = 0; k < m * total; k++) {
+            int a = random.nextInt(total);
+            int b = random.nextInt(total);
+            if (a != b && !grafica.sonVecinos(a, b))
+                grafica.conecta(a, b, 1 + random.nextInt(10));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.GraficaComprimida;
+import mx.unam.ciencias.edd.GraficaMapeada;
+import mx.unam.ciencias.edd.OrdenVertices;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link GraficaMapeada}.
+ */
+public class TestGraficaMapeada {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<String> grafica;
+    /* El archivo temporal. */
+    private File archivo;
+
+    /**
+     * Crea una gráfica aleatoria, con etiquetas no ASCII, y un archivo
+     * temporal para cada prueba.
+     * @throws IOException si no se puede crear el archivo temporal.
+     */
+    public TestGraficaMapeada() throws IOException {
+        random = new Random();
+        total = 1 + random.nextInt(100);
+        grafica = new Grafica<String>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega("vértice-" + i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(5) == 0)
+                    grafica.conecta("vértice-" + i, "vértice-" + j,
+                                    0.1 + random.nextDouble() * 10);
+        archivo = File.createTempFile("grafica", ".edd");
+    }
+
+    /**
+     * Borra el archivo temporal.
+     */
+    @After public void borra() {
+        archivo.delete();
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaMapeada#comprimida}: comprimir
+     * desde el archivo da lo mismo que comprimir la gráfica original.
+     * @throws IOException si no se puede escribir o leer el archivo.
+     */
+    @Test public void testComprimida() throws IOException {
+        GraficaMapeada.guarda(grafica, archivo.getPath());
+        GraficaMapeada mapeada = GraficaMapeada.abre(archivo.getPath());
+        for (OrdenVertices orden : OrdenVertices.values()) {
+            int ventana = random.nextInt(10);
+            GraficaComprimida<String> c = mapeada.comprimida(orden, ventana);
+            GraficaComprimida<String> esperada =
+                grafica.comprimida(orden, ventana);
+            Assert.assertTrue(c.getElementos() == total);
+            Assert.assertTrue(c.getAristas() == grafica.getAristas());
+            Assert.assertTrue(c.getBytes() == esperada.getBytes());
+            for (int v = 0; v < total; v++) {
+                Assert.assertTrue(c.get(v).equals(esperada.get(v)));
+                PrimitiveIterator.OfInt i = c.sucesores(v);
+                PrimitiveIterator.OfInt j = esperada.sucesores(v);
+                while (i.hasNext())
+                    Assert.assertTrue(i.nextInt() == j.nextInt());
+                Assert.assertFalse(j.hasNext());
+            }
+        }
+        try {
+            mapeada.comprimida(OrdenVertices.BFS, -1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaMapeada#guarda} y {@link
+     * GraficaMapeada#abre}.
+     * @throws IOException si no se puede escribir o leer el archivo.
+     */
+    @Test public void testGuardaAbre() throws IOException {
+        GraficaMapeada.guarda(grafica, archivo.getPath());
+        GraficaMapeada mapeada = GraficaMapeada.abre(archivo.getPath());
+        Assert.assertTrue(mapeada.getElementos() == total);
+        Assert.assertTrue(mapeada.getAristas() == grafica.getAristas());
+        for (int i = 0; i < total; i++) {
+            String e = mapeada.get(i);
+            Assert.assertTrue(grafica.contiene(e));
+            Assert.assertTrue(mapeada.indice(e) == i);
+            Assert.assertTrue(mapeada.getGrado(i) ==
+                              grafica.vertice(e).getGrado());
+            for (int k = 0; k < mapeada.getGrado(i); k++) {
+                String v = mapeada.get(mapeada.getVecino(i, k));
+                Assert.assertTrue(grafica.sonVecinos(e, v));
+                Assert.assertTrue(mapeada.getPeso(i, k) ==
+                                  grafica.getPeso(e, v));
+            }
+        }
+        Assert.assertTrue(mapeada.grafica().equals(grafica));
+        try {
+            mapeada.indice("vértice-" + total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            mapeada.get(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            mapeada.getVecino(0, mapeada.getGrado(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link GraficaMapeada#abre} con archivos
+     * inválidos.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    @Test public void testAbreInvalido() throws IOException {
+        GraficaMapeada.guarda(grafica, archivo.getPath());
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        try {
+            GraficaMapeada.abre(archivo.getPath());
+            Assert.fail();
+        } catch (IOException ioe) {}
+        try (RandomAccessFile raf = new RandomAccessFile(archivo, "rw")) {
+            raf.writeInt(0);
+        }
+        try {
+            GraficaMapeada.abre(archivo.getPath());
+            Assert.fail();
+        } catch (IOException ioe) {}
+        Grafica<Object> repetidos = new Grafica<Object>();
+        repetidos.agrega(1);
+        repetidos.agrega("1");
+        try {
+            GraficaMapeada.guarda(repetidos, archivo.getPath());
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
@@ -0,0 +1,113 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.JerarquiaContraccion;
+import mx.unam.ciencias.edd.Trayectoria;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link JerarquiaContraccion}.
+ */
+public class TestJerarquiaContraccion {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestJerarquiaContraccion() {
+        random = new Random();
+    }
+
+    /**
+     * Prueba unitaria para {@link JerarquiaContraccion#trayectoria} y {@link
+     * JerarquiaContraccion#distancia} en gráficas aleatorias, que pueden no
+     * ser conexas.
+     */
+    @Test public void testAleatoria() {
+        int n = 1 + random.nextInt(150);
+        double densidad = random.nextDouble() * 8 / n;
+        boolean enteros = random.nextBoolean();
+        Grafica<Integer> grafica = new Grafica<Integer>();
+        for (int i = 0; i < n; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < n; i++)
+            for (int j = i+1; j < n; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, enteros ? 1 + random.nextInt(3) :
+                                    0.1 + random.nextDouble() * 10);
+        revisa(grafica, grafica.jerarquiaContraccion(), n);
+    }
+
+    /**
+     * Prueba unitaria para {@link JerarquiaContraccion#trayectoria} en una
+     * cuadrícula con pesos iguales, donde hay muchas trayectorias mínimas.
+     */
+    @Test public void testCuadricula() {
+        int lado = 2 + random.nextInt(20);
+        Grafica<Integer> grafica = new Grafica<Integer>();
+        for (int i = 0; i < lado * lado; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < lado; i++)
+            for (int j = 0; j < lado; j++) {
+                if (j + 1 < lado)
+                    grafica.conecta(i * lado + j, i * lado + j + 1);
+                if (i + 1 < lado)
+                    grafica.conecta(i * lado + j, (i + 1) * lado + j);
+            }
+        JerarquiaContraccion<Integer> jerarquia =
+            grafica.jerarquiaContraccion();
+        Assert.assertTrue(jerarquia.getArcos() ==
+                          grafica.getAristas() + jerarquia.getAtajos());
+        revisa(grafica, jerarquia, lado * lado);
+        try {
+            jerarquia.trayectoria(0, lado * lado);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            jerarquia.distancia(-1, 0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /* Compara las consultas de la jerarquía con Dijkstra desde algunos
+     * orígenes. */
+    private void revisa(Grafica<Integer> grafica,
+                        JerarquiaContraccion<Integer> jerarquia, int n) {
+        for (int k = 0; k < 5; k++) {
+            int s = random.nextInt(n);
+            TrayectoriasMinimas<Integer> minimas = grafica.dijkstraDesde(s);
+            for (int t = 0; t < n; t++) {
+                double d = minimas.getDistancia(t);
+                Trayectoria<Integer> trayectoria = jerarquia.trayectoria(s, t);
+                Assert.assertEquals(d, jerarquia.distancia(s, t), 1e-9);
+                if (!minimas.esAlcanzable(t)) {
+                    Assert.assertTrue(trayectoria.esVacia());
+                    continue;
+                }
+                Assert.assertEquals(d, trayectoria.getPeso(), 1e-9);
+                Assert.assertTrue(trayectoria.get(0) == s);
+                Assert.assertTrue(trayectoria.get(trayectoria.getLongitud() - 1)
+                                  == t);
+                double peso = 0;
+                for (int i = 0; i + 1 < trayectoria.getLongitud(); i++) {
+                    int a = trayectoria.get(i);
+                    int b = trayectoria.get(i + 1);
+                    Assert.assertTrue(grafica.sonVecinos(a, b));
+                    peso += grafica.getPeso(a, b);
+                }
+                Assert.assertEquals(d, peso, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.Nucleos;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Nucleos}.
+ */
+public class TestNucleos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestNucleos() {
+        random = new Random();
+        total = 1 + random.nextInt(300);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 20 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, 1 + random.nextInt(10));
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#nucleos}: los números de núcleo
+     * son los de pelar ingenuamente, con cualquier número de hilos.
+     */
+    @Test public void testNucleos() {
+        int[] esperados = pelaIngenuamente();
+        int degeneracion = 0;
+        for (int v = 0; v < total; v++)
+            degeneracion = Math.max(degeneracion, esperados[v]);
+        Nucleos<Integer> secuenciales = grafica.nucleos(1);
+        Nucleos<Integer> paralelos = grafica.nucleos(2 + random.nextInt(3));
+        Assert.assertTrue(secuenciales.getDegeneracion() == degeneracion);
+        Assert.assertTrue(paralelos.getDegeneracion() == degeneracion);
+        Diccionario<Integer, Integer> d = paralelos.getNucleos();
+        Assert.assertTrue(d.getElementos() == total);
+        for (int v = 0; v < total; v++) {
+            Assert.assertTrue(secuenciales.getNucleo(v) == esperados[v]);
+            Assert.assertTrue(paralelos.getNucleo(v) == esperados[v]);
+            Assert.assertTrue(d.get(v) == esperados[v]);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Nucleos#getOrdenDegeneracion}: cada
+     * elemento tiene a lo más tantos vecinos después de él como su número
+     * de núcleo.
+     */
+    @Test public void testOrdenDegeneracion() {
+        revisaOrden(grafica.nucleos(1));
+        revisaOrden(grafica.nucleos(2 + random.nextInt(3)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Nucleos#nucleo}.
+     */
+    @Test public void testNucleo() {
+        Nucleos<Integer> nucleos = grafica.nucleos();
+        int k = random.nextInt(nucleos.getDegeneracion() + 2);
+        Grafica<Integer> nucleo = nucleos.nucleo(k);
+        for (int v = 0; v < total; v++)
+            Assert.assertTrue(nucleo.contiene(v) ==
+                              (nucleos.getNucleo(v) >= k));
+        for (Integer u : nucleo) {
+            Assert.assertTrue(nucleo.vertice(u).getGrado() >= k);
+            for (Integer v : nucleo)
+                Assert.assertTrue(nucleo.sonVecinos(u, v) ==
+                                  grafica.sonVecinos(u, v));
+        }
+        for (Integer u : nucleo)
+            for (Integer v : nucleo)
+                if (nucleo.sonVecinos(u, v))
+                    Assert.assertTrue(nucleo.getPeso(u, v) ==
+                                      grafica.getPeso(u, v));
+        if (k > nucleos.getDegeneracion())
+            Assert.assertTrue(nucleo.getElementos() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link Nucleos} en una clique, y con argumentos
+     * inválidos.
+     */
+    @Test public void testCliqueEInvalidos() {
+        int lado = 1 + random.nextInt(20);
+        Grafica<Integer> clique = new Grafica<Integer>();
+        for (int i = 0; i < lado; i++)
+            clique.agrega(i);
+        for (int i = 0; i < lado; i++)
+            for (int j = i+1; j < lado; j++)
+                clique.conecta(i, j);
+        Nucleos<Integer> nucleos = clique.nucleos();
+        Assert.assertTrue(nucleos.getDegeneracion() == lado - 1);
+        Assert.assertTrue(nucleos.nucleo(lado - 1).getElementos() == lado);
+        try {
+            nucleos.getNucleo(lado);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            nucleos.nucleo(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.nucleos(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /* Calcula los números de núcleo quitando uno por uno a un vértice de
+     * grado mínimo. */
+    private int[] pelaIngenuamente() {
+        int[] grados = new int[total];
+        boolean[] quitados = new boolean[total];
+        int[] nucleos = new int[total];
+        for (int v = 0; v < total; v++)
+            grados[v] = grafica.vertice(v).getGrado();
+        int k = 0;
+        for (int i = 0; i < total; i++) {
+            int minimo = -1;
+            for (int v = 0; v < total; v++)
+                if (!quitados[v] &&
+                    (minimo == -1 || grados[v] < grados[minimo]))
+                    minimo = v;
+            k = Math.max(k, grados[minimo]);
+            nucleos[minimo] = k;
+            quitados[minimo] = true;
+            for (int u = 0; u < total; u++)
+                if (!quitados[u] && grafica.sonVecinos(minimo, u))
+                    grados[u]--;
+        }
+        return nucleos;
+    }
+
+    /* Revisa que el orden de degeneración tenga a todos los elementos y
+     * cumpla la cota de vecinos posteriores. */
+    private void revisaOrden(Nucleos<Integer> nucleos) {
+        Lista<Integer> orden = nucleos.getOrdenDegeneracion();
+        Assert.assertTrue(orden.getLongitud() == total);
+        boolean[] vistos = new boolean[total];
+        for (Integer v : orden) {
+            Assert.assertFalse(vistos[v]);
+            vistos[v] = true;
+            int posteriores = 0;
+            for (int u = 0; u < total; u++)
+                if (!vistos[u] && grafica.sonVecinos(v, u))
+                    posteriores++;
+            Assert.assertTrue(posteriores <= nucleos.getNucleo(v));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.PageRank;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link PageRank}.
+ */
+public class TestPageRank {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria, con algunos vértices aislados, para cada
+     * prueba.
+     */
+    public TestPageRank() {
+        random = new Random();
+        total = 2 + random.nextInt(60);
+        grafica = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(6) == 0 && i % 7 != 6 && j % 7 != 6)
+                    grafica.conecta(i, j, 0.5 + random.nextDouble() * 5);
+    }
+
+    /* Calcula el PageRank de manera directa, sin paralelismo. */
+    private double[] referencia(double d, double[] p) {
+        double[] totales = new double[total];
+        for (int i = 0; i < total; i++)
+            for (int j = 0; j < total; j++)
+                if (grafica.sonVecinos(i, j))
+                    totales[i] += grafica.getPeso(i, j);
+        double[] r = new double[total];
+        for (int i = 0; i < total; i++)
+            r[i] = 1.0 / total;
+        for (int k = 0; k < 1000; k++) {
+            double colgados = 0;
+            for (int i = 0; i < total; i++)
+                if (totales[i] == 0)
+                    colgados += r[i];
+            double[] s = new double[total];
+            for (int i = 0; i < total; i++) {
+                double salto = p == null ? 1.0 / total : p[i];
+                s[i] = (1 - d + d * colgados) * salto;
+                for (int j = 0; j < total; j++)
+                    if (grafica.sonVecinos(i, j))
+                        s[i] += d * r[j] * grafica.getPeso(i, j) / totales[j];
+            }
+            r = s;
+        }
+        return r;
+    }
+
+    /* Compara un resultado con la referencia. */
+    private void compara(Diccionario<Integer, Double> rangos, double[] r) {
+        Assert.assertEquals(total, rangos.getElementos());
+        double suma = 0;
+        for (int i = 0; i < total; i++) {
+            Assert.assertEquals(r[i], rangos.get(i), 1e-6);
+            suma += rangos.get(i);
+        }
+        Assert.assertEquals(1.0, suma, 1e-9);
+    }
+
+    /**
+     * Prueba unitaria para {@link PageRank#calcula}.
+     */
+    @Test public void testCalcula() {
+        double[] r = referencia(0.85, null);
+        for (int hilos = 1; hilos <= 4; hilos++) {
+            PageRank<Integer> pr = new PageRank<Integer>(grafica);
+            pr.setHilos(hilos);
+            compara(pr.calcula(), r);
+            Assert.assertTrue(pr.getIteraciones() <= 100);
+        }
+        compara(grafica.pageRank(), r);
+        double d = random.nextDouble() * 0.8;
+        PageRank<Integer> pr = new PageRank<Integer>(grafica);
+        pr.setAmortiguamiento(d);
+        compara(pr.calcula(), referencia(d, null));
+    }
+
+    /**
+     * Prueba unitaria para {@link PageRank#calcula} en gráficas simétricas.
+     */
+    @Test public void testCalculaSimetrica() {
+        Grafica<Integer> ciclo = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            ciclo.agrega(i);
+        for (int i = 0; i < total; i++)
+            if (!ciclo.sonVecinos(i, (i+1) % total))
+                ciclo.conecta(i, (i+1) % total);
+        Diccionario<Integer, Double> rangos = ciclo.pageRank();
+        for (int i = 0; i < total; i++)
+            Assert.assertEquals(1.0 / total, rangos.get(i), 1e-12);
+        Grafica<Integer> estrella = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            estrella.agrega(i);
+        for (int i = 1; i < total; i++)
+            estrella.conecta(0, i);
+        rangos = estrella.pageRank();
+        for (int i = 1; i < total; i++)
+            Assert.assertTrue(rangos.get(0) >= rangos.get(i));
+        Assert.assertTrue(new Grafica<Integer>().pageRank().esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link PageRank#setPersonalizacion}.
+     */
+    @Test public void testSetPersonalizacion() {
+        Diccionario<Integer, Double> pesos = new Diccionario<Integer, Double>();
+        double[] p = new double[total];
+        double suma = 0;
+        for (int i = 0; i < total; i++) {
+            if (random.nextInt(3) == 0 || i == 0) {
+                p[i] = random.nextDouble() + 0.1;
+                pesos.agrega(i, p[i]);
+                suma += p[i];
+            }
+        }
+        for (int i = 0; i < total; i++)
+            p[i] /= suma;
+        PageRank<Integer> pr = new PageRank<Integer>(grafica);
+        pr.setPersonalizacion(pesos);
+        compara(pr.calcula(), referencia(0.85, p));
+        pr.setPersonalizacion(null);
+        compara(pr.calcula(), referencia(0.85, null));
+        Diccionario<Integer, Double> fuera = new Diccionario<Integer, Double>();
+        fuera.agrega(total, 1.0);
+        try {
+            pr.setPersonalizacion(fuera);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Diccionario<Integer, Double> ceros = new Diccionario<Integer, Double>();
+        ceros.agrega(0, 0.0);
+        try {
+            pr.setPersonalizacion(ceros);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        ceros.agrega(1, -1.0);
+        try {
+            pr.setPersonalizacion(ceros);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para los parámetros de {@link PageRank}.
+     */
+    @Test public void testParametros() {
+        PageRank<Integer> pr = new PageRank<Integer>(grafica);
+        try {
+            pr.setAmortiguamiento(1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            pr.setAmortiguamiento(-0.1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            pr.setTolerancia(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            pr.setMaximoIteraciones(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            pr.setHilos(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        pr.setMaximoIteraciones(3);
+        pr.calcula();
+        Assert.assertTrue(pr.getIteraciones() <= 3);
+        pr.setAmortiguamiento(0);
+        Diccionario<Integer, Double> rangos = pr.calcula();
+        Assert.assertEquals(1, pr.getIteraciones());
+        for (int i = 0; i < total; i++)
+            Assert.assertEquals(1.0 / total, rangos.get(i), 1e-12);
+    }
+}
@@ -0,0 +1,116 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.PuntosReferencia;
+import mx.unam.ciencias.edd.SeleccionPuntosReferencia;
+import mx.unam.ciencias.edd.Trayectoria;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link PuntosReferencia}.
+ */
+public class TestPuntosReferencia {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria, que puede no ser conexa, para cada prueba.
+     */
+    public TestPuntosReferencia() {
+        random = new Random();
+        total = 1 + random.nextInt(150);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 6 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, 0.1 + random.nextDouble() * 10);
+    }
+
+    /**
+     * Prueba unitaria para {@link PuntosReferencia#trayectoria} y {@link
+     * PuntosReferencia#cotaInferior} con las dos selecciones.
+     */
+    @Test public void testTrayectoria() {
+        for (SeleccionPuntosReferencia seleccion :
+                 SeleccionPuntosReferencia.values()) {
+            int k = 1 + random.nextInt(10);
+            PuntosReferencia<Integer> puntos =
+                grafica.puntosReferencia(k, seleccion, random,
+                                         1 + random.nextInt(3));
+            Lista<Integer> lista = puntos.getPuntos();
+            Assert.assertTrue(lista.getLongitud() == Math.min(k, total));
+            boolean[] vistos = new boolean[total];
+            for (Integer p : lista) {
+                Assert.assertFalse(vistos[p]);
+                vistos[p] = true;
+            }
+            for (int c = 0; c < 5; c++) {
+                int s = random.nextInt(total);
+                TrayectoriasMinimas<Integer> minimas = grafica.dijkstraDesde(s);
+                for (int t = 0; t < total; t++) {
+                    double d = minimas.getDistancia(t);
+                    Assert.assertTrue(puntos.cotaInferior(s, t) <= d + 1e-9);
+                    Trayectoria<Integer> trayectoria = puntos.trayectoria(s, t);
+                    if (!minimas.esAlcanzable(t)) {
+                        Assert.assertTrue(trayectoria.esVacia());
+                        continue;
+                    }
+                    Assert.assertEquals(d, trayectoria.getPeso(), 1e-9);
+                    Assert.assertTrue(trayectoria.getAsentados() > 0);
+                    Assert.assertTrue(trayectoria.get(0) == s);
+                    double peso = 0;
+                    for (int i = 0; i + 1 < trayectoria.getLongitud(); i++) {
+                        int a = trayectoria.get(i);
+                        int b = trayectoria.get(i + 1);
+                        Assert.assertTrue(grafica.sonVecinos(a, b));
+                        peso += grafica.getPeso(a, b);
+                    }
+                    Assert.assertEquals(d, peso, 1e-9);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#puntosReferencia(int)} con
+     * argumentos inválidos.
+     */
+    @Test public void testPuntosReferenciaInvalidos() {
+        try {
+            grafica.puntosReferencia(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.puntosReferencia(1, SeleccionPuntosReferencia.EVASION,
+                                     random, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        PuntosReferencia<Integer> puntos = grafica.puntosReferencia(2);
+        try {
+            puntos.trayectoria(0, total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            puntos.cotaInferior(-1, 0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+}
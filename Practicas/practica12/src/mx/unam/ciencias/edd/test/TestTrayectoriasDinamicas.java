@@ -0,0 +1,159 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Trayectoria;
+import mx.unam.ciencias.edd.TrayectoriasDinamicas;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link TrayectoriasDinamicas}.
+ */
+public class TestTrayectoriasDinamicas {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestTrayectoriasDinamicas() {
+        random = new Random();
+        total = 2 + random.nextInt(60);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble() * 5 / total;
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j, peso());
+    }
+
+    /* Regresa un peso aleatorio; la mitad de las veces entero, para que
+     * haya empates. */
+    private double peso() {
+        return random.nextBoolean() ? 1 + random.nextInt(3) :
+            0.1 + random.nextDouble() * 10;
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#trayectoriasDinamicas} con una
+     * sucesión aleatoria de cambios a la gráfica.
+     */
+    @Test public void testCambios() {
+        TrayectoriasDinamicas<Integer> dinamicas =
+            grafica.trayectoriasDinamicas(0);
+        Assert.assertTrue(dinamicas.getOrigen() == 0);
+        revisa(dinamicas);
+        int siguiente = total;
+        for (int k = 0; k < 200; k++) {
+            int a = 1 + random.nextInt(siguiente - 1);
+            int b = random.nextInt(siguiente);
+            if (!grafica.contiene(a))
+                continue;
+            int operacion = random.nextInt(10);
+            if (operacion == 0) {
+                grafica.elimina(a);
+            } else if (operacion == 1) {
+                grafica.agrega(siguiente++);
+            } else if (a != b && grafica.contiene(b)) {
+                if (!grafica.sonVecinos(a, b))
+                    grafica.conecta(a, b, peso());
+                else if (operacion < 6)
+                    grafica.desconecta(a, b);
+                else
+                    grafica.setPeso(a, b, peso());
+            }
+            revisa(dinamicas);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link TrayectoriasDinamicas} cuando se eliminan
+     * y agregan elementos muchas veces: los índices de los eliminados se
+     * reutilizan sin dejar rastro de los elementos anteriores.
+     */
+    @Test public void testAgregaYElimina() {
+        TrayectoriasDinamicas<Integer> dinamicas =
+            grafica.trayectoriasDinamicas(0);
+        int siguiente = total;
+        for (int k = 0; k < 100; k++) {
+            int a = 1 + random.nextInt(siguiente - 1);
+            if (!grafica.contiene(a))
+                continue;
+            grafica.elimina(a);
+            revisa(dinamicas);
+            int nuevo = siguiente++;
+            grafica.agrega(nuevo);
+            for (Integer v : grafica)
+                if (!v.equals(nuevo) && random.nextInt(total) < 3)
+                    grafica.conecta(nuevo, v, peso());
+            revisa(dinamicas);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link TrayectoriasDinamicas#libera} y para la
+     * eliminación del origen.
+     */
+    @Test public void testLiberaYEliminaOrigen() {
+        grafica.agrega(-1);
+        grafica.agrega(-2);
+        grafica.conecta(-1, 0, 1);
+        TrayectoriasDinamicas<Integer> dinamicas =
+            grafica.trayectoriasDinamicas(-1);
+        TrayectoriasDinamicas<Integer> liberadas =
+            grafica.trayectoriasDinamicas(-1);
+        liberadas.libera();
+        Assert.assertFalse(dinamicas.esAlcanzable(-2));
+        grafica.conecta(-1, -2, 2);
+        Assert.assertEquals(2, dinamicas.getDistancia(-2), 0);
+        Assert.assertFalse(liberadas.esAlcanzable(-2));
+        try {
+            dinamicas.getDistancia(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        grafica.elimina(-1);
+        try {
+            dinamicas.getDistancia(0);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        grafica.conecta(-2, 0);
+    }
+
+    /* Compara las trayectorias dinámicas con Dijkstra sobre la gráfica
+     * actual. */
+    private void revisa(TrayectoriasDinamicas<Integer> dinamicas) {
+        TrayectoriasMinimas<Integer> minimas = grafica.dijkstraDesde(0);
+        for (Integer v : grafica) {
+            double d = minimas.getDistancia(v);
+            Assert.assertEquals(d, dinamicas.getDistancia(v), 1e-9);
+            Trayectoria<Integer> t = dinamicas.trayectoria(v);
+            if (!minimas.esAlcanzable(v)) {
+                Assert.assertTrue(t.esVacia());
+                continue;
+            }
+            Assert.assertTrue(t.get(0) == 0);
+            Assert.assertTrue(t.get(t.getLongitud() - 1).equals(v));
+            double peso = 0;
+            for (int i = 0; i + 1 < t.getLongitud(); i++) {
+                Assert.assertTrue(grafica.sonVecinos(t.get(i), t.get(i + 1)));
+                peso += grafica.getPeso(t.get(i), t.get(i + 1));
+            }
+            Assert.assertEquals(d, peso, 1e-9);
+        }
+    }
+}
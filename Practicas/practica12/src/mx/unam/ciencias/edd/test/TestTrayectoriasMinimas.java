@@ -0,0 +1,117 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.Trayectoria;
+import mx.unam.ciencias.edd.TrayectoriasMinimas;
+import mx.unam.ciencias.edd.VerticeGrafica;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link TrayectoriasMinimas}.
+ */
+public class TestTrayectoriasMinimas {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria, con pesos reales, para cada prueba.
+     */
+    public TestTrayectoriasMinimas() {
+        random = new Random();
+        total = 2 + random.nextInt(100);
+        grafica = new Grafica<Integer>();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextInt(5) == 0)
+                    grafica.conecta(i, j, 0.1 + random.nextDouble() * 10);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#dijkstraDesde}.
+     */
+    @Test public void testDijkstraDesde() {
+        int origen = random.nextInt(total);
+        TrayectoriasMinimas<Integer> tm = grafica.dijkstraDesde(origen);
+        Assert.assertTrue(tm.getOrigen() == origen);
+        Assert.assertTrue(tm.getDistancia(origen) == 0);
+        for (int destino = 0; destino < total; destino++) {
+            Lista<VerticeGrafica<Integer>> d =
+                grafica.dijkstra(origen, destino);
+            Assert.assertTrue(tm.esAlcanzable(destino) == !d.esVacia());
+            if (d.esVacia()) {
+                Assert.assertTrue(tm.getDistancia(destino) ==
+                                  Double.POSITIVE_INFINITY);
+                Assert.assertTrue(tm.trayectoria(destino).esVacia());
+                continue;
+            }
+            Assert.assertEquals(peso(d), tm.getDistancia(destino), 1e-9);
+        }
+        try {
+            tm.getDistancia(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            grafica.dijkstraDesde(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link TrayectoriasMinimas#trayectoria}.
+     */
+    @Test public void testTrayectoria() {
+        int origen = random.nextInt(total);
+        TrayectoriasMinimas<Integer> tm = grafica.dijkstraDesde(origen);
+        /* El árbol sigue describiendo la gráfica original. */
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (!grafica.sonVecinos(i, j))
+                    grafica.conecta(i, j, 0.01);
+        for (int destino = 0; destino < total; destino++) {
+            Trayectoria<Integer> t = tm.trayectoria(destino);
+            if (!tm.esAlcanzable(destino))
+                continue;
+            Assert.assertTrue(t.get(0) == origen);
+            Assert.assertTrue(t.get(t.getLongitud() - 1) == destino);
+            Assert.assertTrue(t.getPeso() == tm.getDistancia(destino));
+            Assert.assertTrue(t.lista().getLongitud() == t.getLongitud());
+            Assert.assertTrue(t.equals(tm.trayectoria(destino)));
+            Assert.assertTrue(t.hashCode() ==
+                              tm.trayectoria(destino).hashCode());
+            Integer anterior = null;
+            for (Integer e : t) {
+                if (anterior != null)
+                    Assert.assertTrue(grafica.sonVecinos(anterior, e));
+                anterior = e;
+            }
+        }
+    }
+
+    /* Regresa el peso de una trayectoria de vértices. */
+    private double peso(Lista<VerticeGrafica<Integer>> trayectoria) {
+        double peso = 0;
+        VerticeGrafica<Integer> anterior = null;
+        for (VerticeGrafica<Integer> v : trayectoria) {
+            if (anterior != null)
+                peso += grafica.getPeso(anterior.get(), v.get());
+            anterior = v;
+        }
+        return peso;
+    }
+}
@@ -0,0 +1,132 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.Grafica;
+import mx.unam.ciencias.edd.Triangulos;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Triangulos}.
+ */
+public class TestTriangulos {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* La gráfica. */
+    private Grafica<Integer> grafica;
+
+    /**
+     * Crea una gráfica aleatoria para cada prueba.
+     */
+    public TestTriangulos() {
+        random = new Random();
+        total = 1 + random.nextInt(100);
+        grafica = new Grafica<Integer>();
+        double densidad = random.nextDouble();
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                if (random.nextDouble() < densidad)
+                    grafica.conecta(i, j);
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#triangulos(int)}.
+     */
+    @Test public void testTriangulos() {
+        long[] esperados = new long[total];
+        long suma = 0;
+        for (int i = 0; i < total; i++)
+            for (int j = i+1; j < total; j++)
+                for (int k = j+1; k < total; k++)
+                    if (grafica.sonVecinos(i, j) && grafica.sonVecinos(j, k) &&
+                        grafica.sonVecinos(i, k)) {
+                        esperados[i]++;
+                        esperados[j]++;
+                        esperados[k]++;
+                        suma++;
+                    }
+        long trayectorias = 0;
+        for (int i = 0; i < total; i++) {
+            long d = grafica.vertice(i).getGrado();
+            trayectorias += d * (d - 1) / 2;
+        }
+        for (int hilos = 1; hilos <= 4; hilos++) {
+            Triangulos<Integer> triangulos = grafica.triangulos(hilos);
+            Assert.assertTrue(triangulos.getTotal() == suma);
+            Diccionario<Integer, Double> coeficientes =
+                triangulos.getCoeficientesAgrupamiento();
+            double promedio = 0;
+            for (int i = 0; i < total; i++) {
+                Assert.assertTrue(triangulos.getTriangulos(i) == esperados[i]);
+                long d = grafica.vertice(i).getGrado();
+                double c = d < 2 ? 0 : 2.0 * esperados[i] / (d * (d - 1));
+                Assert.assertEquals(c, triangulos.getCoeficienteAgrupamiento(i),
+                                    1e-12);
+                Assert.assertEquals(c, coeficientes.get(i), 1e-12);
+                promedio += c;
+            }
+            Assert.assertEquals(promedio / total,
+                                triangulos.getCoeficientePromedio(), 1e-12);
+            Assert.assertEquals(trayectorias == 0 ? 0 :
+                                3.0 * suma / trayectorias,
+                                triangulos.getTransitividad(), 1e-12);
+        }
+        try {
+            grafica.triangulos(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            grafica.triangulos().getTriangulos(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Grafica#triangulos()} en gráficas
+     * completas, estrellas y la gráfica vacía.
+     */
+    @Test public void testTriangulosConocidos() {
+        Grafica<Integer> completa = new Grafica<Integer>();
+        Grafica<Integer> estrella = new Grafica<Integer>();
+        for (int i = 0; i < total; i++) {
+            completa.agrega(i);
+            estrella.agrega(i);
+        }
+        for (int i = 0; i < total; i++) {
+            for (int j = i+1; j < total; j++)
+                completa.conecta(i, j);
+            if (i > 0)
+                estrella.conecta(0, i);
+        }
+        long n = total;
+        Triangulos<Integer> triangulos = completa.triangulos();
+        Assert.assertTrue(triangulos.getTotal() == n * (n-1) * (n-2) / 6);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(triangulos.getTriangulos(i) ==
+                              (n-1) * (n-2) / 2);
+        if (total >= 3) {
+            Assert.assertEquals(1, triangulos.getTransitividad(), 1e-12);
+            Assert.assertEquals(1, triangulos.getCoeficientePromedio(), 1e-12);
+        }
+        triangulos = estrella.triangulos();
+        Assert.assertTrue(triangulos.getTotal() == 0);
+        Assert.assertTrue(triangulos.getTransitividad() == 0);
+        Assert.assertTrue(triangulos.getCoeficientePromedio() == 0);
+        triangulos = new Grafica<Integer>().triangulos();
+        Assert.assertTrue(triangulos.getTotal() == 0);
+        Assert.assertTrue(triangulos.getCoeficientesAgrupamiento().esVacia());
+        Assert.assertTrue(triangulos.getCoeficientePromedio() == 0);
+    }
+}